@@ -0,0 +1,6 @@
+-- start_ignore
+-- end_ignore
+-- @description query01 test S3 Select access to CSV with no headers and no compression, read by scan ranges
+--
+
+SELECT l_orderkey, l_partkey, l_commitdate FROM s3select_csv_noheaders_scan_ranges WHERE l_orderkey = 194 OR l_orderkey = 82756 ORDER BY l_orderkey, l_partkey;
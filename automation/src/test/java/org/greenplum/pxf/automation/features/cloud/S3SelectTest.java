@@ -105,6 +105,14 @@ public class S3SelectTest extends BaseFeature {
                 "|", userParameters);
     }
 
+    @Test(groups = {"gpdb", "s3"})
+    public void testPlainCsvWithNoHeadersInScanRanges() throws Exception {
+        String[] userParameters = {"FILE_HEADER=NONE", "S3_SELECT=ON", "SCAN_RANGE_MIN_SIZE=1k"};
+        runTestScenario("csv_noheaders_scan_ranges", "s3", "csv", s3Path,
+                localDataResourcesFolder + "/s3select/", sampleCsvNoHeaderFile,
+                "|", userParameters);
+    }
+
     @Test(groups = {"gpdb", "s3"})
     public void testGzipCsvWithHeadersUsingHeaderInfo() throws Exception {
         String[] userParameters = {"FILE_HEADER=USE", "S3_SELECT=ON", "COMPRESSION_CODEC=gzip"};
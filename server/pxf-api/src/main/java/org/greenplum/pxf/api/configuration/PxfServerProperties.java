@@ -6,6 +6,10 @@ import org.springframework.boot.autoconfigure.task.TaskExecutionProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Configuration properties for PXF.
@@ -41,6 +45,20 @@ public class PxfServerProperties {
     @Setter
     private TaskExecutionProperties task = new TaskExecutionProperties();
 
+    /**
+     * Customizable settings for reading fragments on behalf of a read request
+     */
+    @Getter
+    @Setter
+    private Read read = new Read();
+
+    /**
+     * Customizable settings for caching fragments across queries
+     */
+    @Getter
+    @Setter
+    private FragmentCache fragmentCache = new FragmentCache();
+
     @Getter
     @Setter
     public static class Tomcat {
@@ -62,6 +80,90 @@ public class PxfServerProperties {
 
     }
 
+    @Getter
+    @Setter
+    public static class Read {
+
+        /**
+         * Default number of fragments that are opened ahead of the fragment
+         * currently being streamed, 0 disables fragment prefetching. Can be
+         * overridden for a given table with the PREFETCH_DEPTH option.
+         */
+        private int prefetchDepth = 0;
+
+        /**
+         * Default number of fragments that a read request reads concurrently,
+         * 1 reads the fragments serially. Can be overridden for a given table
+         * with the PARALLELISM option.
+         */
+        private int parallelism = 1;
+
+        /**
+         * Maximum number of fragments that a single read request can read
+         * concurrently, so that one query can not use up the read task pool.
+         */
+        private int maxParallelism = 4;
+
+        /**
+         * Size in bytes of the buffer that collects the serialized records
+         * before they are written to the response, so that the response is
+         * written in large chunks. 0 (the default) writes every record to the
+         * response as soon as it is serialized.
+         */
+        private int outputBufferSize = 0;
+
+        /**
+         * Default strategy used to assign the fragments of a read request to
+         * the segments, either round-robin or locality. Can be overridden for
+         * a given server with the pxf.fragment.assignment property and for a
+         * given table with the FRAGMENT_ASSIGNMENT option.
+         */
+        private String fragmentAssignment = "round-robin";
+
+        /**
+         * Hosts of the primary segments of the Greenplum cluster, ordered by
+         * segment content id. Required by the locality fragment assignment,
+         * as Greenplum does not send the hosts of the other segments.
+         */
+        private List<String> segmentHosts = new ArrayList<>();
+
+        /**
+         * Configurable task execution properties for tasks that open and read
+         * fragments on behalf of a read request
+         */
+        private TaskExecutionProperties task = new TaskExecutionProperties();
+
+    }
+
+    @Getter
+    @Setter
+    public static class FragmentCache {
+
+        /**
+         * Whether the fragments of a data source are cached across queries,
+         * for the fragmenters that can tell when their data source changed.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Time after which the cached fragments of a data source expire,
+         * even if the data source did not change.
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+
+        /**
+         * Time after which the cached fragments expire for given profiles,
+         * overriding the ttl. A time of 0 disables the cache for a profile.
+         */
+        private Map<String, Duration> profileTtl = new HashMap<>();
+
+        /**
+         * Maximum number of fragments, of all the data sources, in the cache.
+         */
+        private long maxFragments = 1000000;
+
+    }
+
     public void setBase(String base) {
         this.base = base;
         System.setProperty(PXF_BASE_PROPERTY, base);
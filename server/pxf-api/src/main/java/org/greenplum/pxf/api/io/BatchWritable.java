@@ -0,0 +1,426 @@
+package org.greenplum.pxf.api.io;
+
+import org.greenplum.pxf.api.model.GreenplumCSV;
+import org.greenplum.pxf.api.model.OutputFormat;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A {@link Writable} that holds a batch of records already serialized in the
+ * wire format expected by Greenplum, either as GPDBWritable records or as
+ * TEXT/CSV lines. Resolvers that read columnar data use it to serialize a
+ * batch of rows directly from their column vectors, without creating
+ * intermediate {@link org.greenplum.pxf.api.OneField} objects for every value.
+ * <p>
+ * Values of a record are written column by column, in the order of the
+ * Greenplum table schema, between calls to {@link #beginRecord()} and
+ * {@link #endRecord()}. The underlying buffer is reused between batches
+ * after a call to {@link #reset()}, so the contents must be written out
+ * before the next batch is serialized.
+ * <p>
+ * The serialized form of the values follows the one produced by
+ * {@link GPDBWritable#write(DataOutput)} and by the CSV serialization of
+ * the bridge output builder.
+ */
+public class BatchWritable implements Writable {
+
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+    private static final int GPDB_WRITABLE_VERSION = 2;
+    private static final int HEADER_LENGTH = 4 + 2 + 1 + 2;
+
+    /*
+     * GPDBWritable.DBType ordinals, the wire type of a column is determined
+     * by the Greenplum type of the column
+     */
+    private static final byte DB_TYPE_BIGINT = 0;
+    private static final byte DB_TYPE_BOOLEAN = 1;
+    private static final byte DB_TYPE_FLOAT8 = 2;
+    private static final byte DB_TYPE_INTEGER = 3;
+    private static final byte DB_TYPE_REAL = 4;
+    private static final byte DB_TYPE_SMALLINT = 5;
+    private static final byte DB_TYPE_BYTEA = 6;
+    private static final byte DB_TYPE_TEXT = 7;
+
+    private final boolean binary;
+    private final int numColumns;
+    private final byte[] columnDbTypes;
+    private final Charset encoding;
+    private final boolean encodingIsUtf8;
+    private final int alignmentOfEightBytes;
+    private final boolean asciiSpecialChars;
+
+    private final ByteEncoder encoder;
+    private int recordStart;
+    private int column;
+    private int recordCount;
+
+    /**
+     * Creates a new batch for the given output format.
+     *
+     * @param outputFormat     the output format of the request
+     * @param columnTypes      the Greenplum type OIDs of the table columns
+     * @param greenplumCSV     the CSV settings of the table, used for the TEXT output format
+     * @param tableFormat      the format of the Greenplum table (i.e. text or csv)
+     * @param databaseEncoding the encoding of the Greenplum database, used for the GPDBWritable output format
+     */
+    public BatchWritable(OutputFormat outputFormat,
+                         int[] columnTypes,
+                         GreenplumCSV greenplumCSV,
+                         String tableFormat,
+                         Charset databaseEncoding) {
+        this.binary = outputFormat == OutputFormat.GPDBWritable;
+        this.numColumns = columnTypes.length;
+        // GPDBWritable text values are encoded with the database encoding, TEXT/CSV lines are always UTF-8
+        this.encoding = binary && databaseEncoding != null ? databaseEncoding : StandardCharsets.UTF_8;
+        this.encodingIsUtf8 = StandardCharsets.UTF_8.equals(this.encoding);
+        this.alignmentOfEightBytes = Integer.parseInt(System.getProperty("greenplum.alignment", "8"));
+
+        this.columnDbTypes = new byte[numColumns];
+        for (int i = 0; i < numColumns; i++) {
+            columnDbTypes[i] = getDbType(columnTypes[i]);
+        }
+
+        this.encoder = new ByteEncoder(INITIAL_CAPACITY, greenplumCSV, tableFormat);
+        Character delimiterChar = greenplumCSV.getDelimiter();
+        // special characters can be searched for in the encoded bytes when they are single-byte ASCII characters
+        this.asciiSpecialChars = encodingIsUtf8
+                && greenplumCSV.getQuote() < 0x80
+                && (greenplumCSV.getEscape() == null || greenplumCSV.getEscape() < 0x80)
+                && (delimiterChar == null || delimiterChar < 0x80)
+                && greenplumCSV.getNewline().chars().allMatch(c -> c < 0x80);
+    }
+
+    /**
+     * Discards the records in the batch, keeping the allocated buffer.
+     */
+    public void reset() {
+        encoder.reset();
+        recordCount = 0;
+    }
+
+    /**
+     * @return the number of records in the batch
+     */
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @return the number of bytes of the serialized records in the batch
+     */
+    public int getLength() {
+        return encoder.getLength();
+    }
+
+    /**
+     * Starts a new record in the batch.
+     */
+    public void beginRecord() {
+        recordStart = encoder.getLength();
+        column = 0;
+        if (binary) {
+            // the total length is known once all the values are written
+            encoder.writeInt(0);
+            encoder.writeShort(GPDB_WRITABLE_VERSION);
+            encoder.writeByte(0); // error flag
+            encoder.writeShort(numColumns);
+            encoder.writeRaw(columnDbTypes, 0, numColumns);
+            encoder.writeZeros(getNullByteArraySize(numColumns));
+        }
+    }
+
+    /**
+     * Completes the current record.
+     *
+     * @throws IllegalStateException when the number of values written does not match the number of columns
+     */
+    public void endRecord() {
+        if (column != numColumns) {
+            throw new IllegalStateException(String.format("Record has %d fields but the schema size is %d", column, numColumns));
+        }
+        if (binary) {
+            padTo(alignmentOfEightBytes);
+            encoder.writeIntAt(recordStart, encoder.getLength() - recordStart);
+        } else {
+            encoder.writeNewline();
+        }
+        recordCount++;
+    }
+
+    /**
+     * Writes a null value for the next column.
+     */
+    public void writeNull() {
+        if (binary) {
+            encoder.setBitsAt(recordStart + HEADER_LENGTH + numColumns + (column >>> 3), 1 << (7 - (column & 7)));
+        } else {
+            beginTextValue();
+            encoder.writeValueOfNull();
+        }
+        column++;
+    }
+
+    /**
+     * Writes a boolean value for the next column.
+     *
+     * @param value the value
+     */
+    public void writeBoolean(boolean value) {
+        if (binary) {
+            checkDbType(DB_TYPE_BOOLEAN);
+            encoder.writeByte(value ? 1 : 0);
+        } else {
+            beginTextValue();
+            encoder.writeAscii(Boolean.toString(value));
+        }
+        column++;
+    }
+
+    /**
+     * Writes a smallint value for the next column.
+     *
+     * @param value the value
+     */
+    public void writeShort(short value) {
+        if (binary) {
+            checkDbType(DB_TYPE_SMALLINT);
+            padTo(2);
+            encoder.writeShort(value);
+        } else {
+            beginTextValue();
+            encoder.writeDecimalDigits(value);
+        }
+        column++;
+    }
+
+    /**
+     * Writes an integer value for the next column.
+     *
+     * @param value the value
+     */
+    public void writeInt(int value) {
+        if (binary) {
+            checkDbType(DB_TYPE_INTEGER);
+            padTo(4);
+            encoder.writeInt(value);
+        } else {
+            beginTextValue();
+            encoder.writeDecimalDigits(value);
+        }
+        column++;
+    }
+
+    /**
+     * Writes a bigint value for the next column.
+     *
+     * @param value the value
+     */
+    public void writeLong(long value) {
+        if (binary) {
+            checkDbType(DB_TYPE_BIGINT);
+            padTo(alignmentOfEightBytes);
+            encoder.writeLong(value);
+        } else {
+            beginTextValue();
+            encoder.writeDecimalDigits(value);
+        }
+        column++;
+    }
+
+    /**
+     * Writes a real value for the next column.
+     *
+     * @param value the value
+     */
+    public void writeFloat(float value) {
+        if (binary) {
+            checkDbType(DB_TYPE_REAL);
+            padTo(4);
+            encoder.writeInt(Float.floatToIntBits(value));
+        } else {
+            beginTextValue();
+            encoder.writeAscii(Float.toString(value));
+        }
+        column++;
+    }
+
+    /**
+     * Writes a double precision value for the next column.
+     *
+     * @param value the value
+     */
+    public void writeDouble(double value) {
+        if (binary) {
+            checkDbType(DB_TYPE_FLOAT8);
+            padTo(alignmentOfEightBytes);
+            encoder.writeLong(Double.doubleToLongBits(value));
+        } else {
+            beginTextValue();
+            encoder.writeAscii(Double.toString(value));
+        }
+        column++;
+    }
+
+    /**
+     * Writes a bytea value for the next column.
+     *
+     * @param bytes  the array containing the value
+     * @param start  the start of the value in the array
+     * @param len    the length of the value
+     */
+    public void writeBytes(byte[] bytes, int start, int len) {
+        if (binary) {
+            checkDbType(DB_TYPE_BYTEA);
+            padTo(4);
+            encoder.writeInt(len);
+            encoder.writeRaw(bytes, start, len);
+        } else {
+            beginTextValue();
+            encoder.writeHex(bytes, start, len);
+        }
+        column++;
+    }
+
+    /**
+     * Writes a value in text form that does not require quoting in the
+     * TEXT/CSV output, such as numeric, date or timestamp values.
+     *
+     * @param value the value
+     */
+    public void writeUnquotedString(String value) {
+        if (binary) {
+            writeTextValue(value.getBytes(encoding));
+        } else {
+            beginTextValue();
+            encoder.writeUtf8(value, 0, value.length());
+        }
+        column++;
+    }
+
+    /**
+     * Writes a value in text form for the next column, quoting it in the
+     * TEXT/CSV output when required.
+     *
+     * @param value the value
+     */
+    public void writeString(String value) {
+        if (binary) {
+            writeTextValue(value.getBytes(encoding));
+        } else {
+            beginTextValue();
+            encoder.writeCsvField(value);
+        }
+        column++;
+    }
+
+    /**
+     * Writes a UTF-8 encoded value in text form for the next column, quoting
+     * it in the TEXT/CSV output when required. When the database encoding is
+     * UTF-8, the bytes are copied without decoding the value.
+     *
+     * @param utf8  the array containing the UTF-8 encoded value
+     * @param start the start of the value in the array
+     * @param len   the length of the value
+     */
+    public void writeString(byte[] utf8, int start, int len) {
+        if (!encodingIsUtf8 || (!binary && !asciiSpecialChars)) {
+            writeString(new String(utf8, start, len, StandardCharsets.UTF_8));
+            return;
+        }
+        if (binary) {
+            checkDbType(DB_TYPE_TEXT);
+            padTo(4);
+            // the length includes the null terminator
+            encoder.writeInt(len + 1);
+            encoder.writeRaw(utf8, start, len);
+            encoder.writeByte(0);
+        } else {
+            beginTextValue();
+            encoder.writeCsvField(utf8, start, len);
+        }
+        column++;
+    }
+
+    /**
+     * Serializes the records of the batch to <code>out</code>.
+     *
+     * @param out <code>DataOutput</code> to serialize this object into.
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.write(encoder.getBuffer(), 0, encoder.getLength());
+    }
+
+    /**
+     * Deserializes the fields of this object from <code>in</code>.
+     *
+     * @param in <code>DataInput</code> to deserialize this object from
+     * @throws UnsupportedOperationException this function is not supported
+     */
+    @Override
+    public void readFields(DataInput in) {
+        throw new UnsupportedOperationException("BatchWritable.readFields() is not implemented");
+    }
+
+    /**
+     * Writes a text column value of a GPDBWritable record, which is null terminated
+     */
+    private void writeTextValue(byte[] bytes) {
+        checkDbType(DB_TYPE_TEXT);
+        padTo(4);
+        encoder.writeInt(bytes.length + 1);
+        encoder.writeRaw(bytes, 0, bytes.length);
+        encoder.writeByte(0);
+    }
+
+    private void beginTextValue() {
+        if (column > 0) {
+            encoder.writeDelimiter();
+        }
+    }
+
+    private void checkDbType(byte dbType) {
+        if (columnDbTypes[column] != dbType) {
+            throw new IllegalStateException(String.format("Column %d has type %d but a value of type %d was written",
+                    column, columnDbTypes[column], dbType));
+        }
+    }
+
+    /**
+     * Pads the current record with zeroes to the given alignment, relative to the start of the record
+     */
+    private void padTo(int alignment) {
+        int offset = encoder.getLength() - recordStart;
+        encoder.writeZeros(((offset + alignment - 1) & ~(alignment - 1)) - offset);
+    }
+
+    private static int getNullByteArraySize(int colCnt) {
+        return (colCnt / 8) + (colCnt % 8 != 0 ? 1 : 0);
+    }
+
+    private static byte getDbType(int oid) {
+        switch (DataType.get(oid)) {
+            case BIGINT:
+                return DB_TYPE_BIGINT;
+            case BOOLEAN:
+                return DB_TYPE_BOOLEAN;
+            case FLOAT8:
+                return DB_TYPE_FLOAT8;
+            case INTEGER:
+                return DB_TYPE_INTEGER;
+            case REAL:
+                return DB_TYPE_REAL;
+            case SMALLINT:
+                return DB_TYPE_SMALLINT;
+            case BYTEA:
+                return DB_TYPE_BYTEA;
+            default:
+                return DB_TYPE_TEXT;
+        }
+    }
+}
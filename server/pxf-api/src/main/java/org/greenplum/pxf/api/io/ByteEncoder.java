@@ -0,0 +1,314 @@
+package org.greenplum.pxf.api.io;
+
+import org.greenplum.pxf.api.model.GreenplumCSV;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A growable byte buffer that encodes values in the wire formats expected by
+ * Greenplum, shared by the writables that serialize records directly into
+ * bytes, {@link TextRecordWritable} and {@link BatchWritable}. Values in text
+ * form are encoded in UTF-8 and quoted with the {@link GreenplumCSV} settings
+ * of the table, values of GPDBWritable records are encoded big-endian.
+ * <p>
+ * The buffer is reused after a call to {@link #reset()}, so the contents must
+ * be written out before they are discarded.
+ */
+final class ByteEncoder {
+
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final char quote;
+    private final Character escape;
+    private final Character delimiter;
+    private final String newline;
+    private final byte[] quoteBytes;
+    private final byte[] escapeBytes;
+    private final byte[] delimiterBytes;
+    private final byte[] newlineBytes;
+    private final byte[] valueOfNullBytes;
+    private final byte[] hexPrefix;
+
+    private byte[] buf;
+    private int length;
+
+    /**
+     * Creates a new encoder for the given CSV settings.
+     *
+     * @param initialCapacity the initial size of the buffer
+     * @param greenplumCSV    the CSV settings of the table
+     * @param tableFormat     the format of the Greenplum table (i.e. text or csv)
+     */
+    ByteEncoder(int initialCapacity, GreenplumCSV greenplumCSV, String tableFormat) {
+        this.buf = new byte[initialCapacity];
+        this.quote = greenplumCSV.getQuote();
+        this.escape = greenplumCSV.getEscape();
+        this.delimiter = greenplumCSV.getDelimiter();
+        this.newline = greenplumCSV.getNewline();
+        this.quoteBytes = String.valueOf(quote).getBytes(StandardCharsets.UTF_8);
+        this.escapeBytes = escape != null ? String.valueOf(escape).getBytes(StandardCharsets.UTF_8) : new byte[0];
+        this.delimiterBytes = delimiter != null ? String.valueOf(delimiter).getBytes(StandardCharsets.UTF_8) : new byte[0];
+        this.newlineBytes = newline.getBytes(StandardCharsets.UTF_8);
+        this.valueOfNullBytes = greenplumCSV.getValueOfNull().getBytes(StandardCharsets.UTF_8);
+        // for the CSV format, escape using a single \, for Text or Custom formats use \\
+        this.hexPrefix = ("csv".equalsIgnoreCase(tableFormat) ? "\\x" : "\\\\x").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Discards the contents of the buffer, keeping the allocated buffer.
+     */
+    void reset() {
+        length = 0;
+    }
+
+    /**
+     * @return the buffer, valid up to {@link #getLength()}
+     */
+    byte[] getBuffer() {
+        return buf;
+    }
+
+    /**
+     * @return the number of bytes in the buffer
+     */
+    int getLength() {
+        return length;
+    }
+
+    void writeDelimiter() {
+        writeRaw(delimiterBytes, 0, delimiterBytes.length);
+    }
+
+    void writeNewline() {
+        writeRaw(newlineBytes, 0, newlineBytes.length);
+    }
+
+    void writeValueOfNull() {
+        writeRaw(valueOfNullBytes, 0, valueOfNullBytes.length);
+    }
+
+    /**
+     * Writes the bytes of a bytea value in the hex format, with the prefix
+     * of the table format.
+     */
+    void writeHex(byte[] bytes, int start, int len) {
+        ensureCapacity(hexPrefix.length + 2 * len);
+        System.arraycopy(hexPrefix, 0, buf, length, hexPrefix.length);
+        length += hexPrefix.length;
+        for (int i = start; i < start + len; i++) {
+            buf[length++] = HEX_DIGITS[(bytes[i] >>> 4) & 0x0F];
+            buf[length++] = HEX_DIGITS[bytes[i] & 0x0F];
+        }
+    }
+
+    void writeDecimalDigits(long value) {
+        // Long.toString allocates a String, write the digits directly instead
+        ensureCapacity(20);
+        if (value == Long.MIN_VALUE) {
+            writeAscii(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            buf[length++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        int pos = length + digits;
+        do {
+            buf[--pos] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value > 0);
+        length += digits;
+    }
+
+    void writeAscii(String value) {
+        int len = value.length();
+        ensureCapacity(len);
+        for (int i = 0; i < len; i++) {
+            buf[length++] = (byte) value.charAt(i);
+        }
+    }
+
+    /**
+     * Encodes the characters in UTF-8, unpaired surrogates are replaced
+     * with '?' like {@link String#getBytes(java.nio.charset.Charset)} does.
+     */
+    void writeUtf8(CharSequence s, int start, int end) {
+        ensureCapacity(3 * (end - start));
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                buf[length++] = (byte) c;
+            } else if (c < 0x800) {
+                buf[length++] = (byte) (0xC0 | (c >> 6));
+                buf[length++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, s.charAt(++i));
+                    buf[length++] = (byte) (0xF0 | (codePoint >> 18));
+                    buf[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    buf[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    buf[length++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else {
+                    buf[length++] = '?';
+                }
+            } else {
+                buf[length++] = (byte) (0xE0 | (c >> 12));
+                buf[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[length++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * Writes the value as a CSV field, following the rules of
+     * {@link GreenplumCSV#toCsvField(String, boolean, boolean, boolean)}
+     * with quoting only when needed.
+     */
+    void writeCsvField(String s) {
+        final int len = s.length();
+        int i, j, quotes = 0, specialChars = 0;
+        final int newlineLength = newline.length();
+
+        for (i = 0; i < len; i++) {
+            char curr = s.charAt(i);
+            if (escape != null && curr == quote) quotes++;
+            if (delimiter != null && curr == delimiter)
+                specialChars++;
+            if (newlineLength > 0) {
+                j = 0;
+                while (i < len && j < newlineLength
+                        && newline.charAt(j) == s.charAt(i)) {
+                    j++;
+                    if (j < newlineLength) i++;
+                }
+                if (j == newlineLength) specialChars++;
+            }
+        }
+
+        if (quotes == 0 && specialChars == 0) {
+            writeUtf8(s, 0, len);
+            return;
+        }
+
+        writeRaw(quoteBytes, 0, quoteBytes.length);
+        int from = 0;
+        if (quotes > 0) {
+            for (i = 0; i < len; i++) {
+                if (s.charAt(i) == quote) {
+                    // the quote itself is written with the next segment
+                    writeUtf8(s, from, i);
+                    writeRaw(escapeBytes, 0, escapeBytes.length);
+                    from = i;
+                }
+            }
+        }
+        writeUtf8(s, from, len);
+        writeRaw(quoteBytes, 0, quoteBytes.length);
+    }
+
+    /**
+     * Writes the UTF-8 encoded value as a CSV field, same as
+     * {@link #writeCsvField(String)}. The quote, escape, delimiter and
+     * newline must be single-byte ASCII characters.
+     */
+    void writeCsvField(byte[] bytes, int start, int len) {
+        byte quoteByte = quoteBytes[0];
+        int end = start + len;
+        int quotes = 0, specialChars = 0, i, j;
+
+        for (i = start; i < end; i++) {
+            byte curr = bytes[i];
+            if (escape != null && curr == quoteByte) quotes++;
+            if (delimiterBytes.length > 0 && curr == delimiterBytes[0])
+                specialChars++;
+            if (newlineBytes.length > 0) {
+                j = 0;
+                while (i < end && j < newlineBytes.length && newlineBytes[j] == bytes[i]) {
+                    j++;
+                    if (j < newlineBytes.length) i++;
+                }
+                if (j == newlineBytes.length) specialChars++;
+            }
+        }
+
+        if (quotes == 0 && specialChars == 0) {
+            writeRaw(bytes, start, len);
+            return;
+        }
+
+        ensureCapacity(len + quotes + 2);
+        buf[length++] = quoteByte;
+        for (i = start; i < end; i++) {
+            if (quotes > 0 && bytes[i] == quoteByte)
+                buf[length++] = escapeBytes[0];
+            buf[length++] = bytes[i];
+        }
+        buf[length++] = quoteByte;
+    }
+
+    void writeByte(int value) {
+        ensureCapacity(1);
+        buf[length++] = (byte) value;
+    }
+
+    void writeShort(int value) {
+        ensureCapacity(2);
+        buf[length++] = (byte) (value >>> 8);
+        buf[length++] = (byte) value;
+    }
+
+    void writeInt(int value) {
+        ensureCapacity(4);
+        writeIntAt(length, value);
+        length += 4;
+    }
+
+    void writeLong(long value) {
+        ensureCapacity(8);
+        writeIntAt(length, (int) (value >>> 32));
+        writeIntAt(length + 4, (int) value);
+        length += 8;
+    }
+
+    void writeZeros(int count) {
+        ensureCapacity(count);
+        Arrays.fill(buf, length, length + count, (byte) 0);
+        length += count;
+    }
+
+    void writeRaw(byte[] bytes, int start, int len) {
+        ensureCapacity(len);
+        System.arraycopy(bytes, start, buf, length, len);
+        length += len;
+    }
+
+    /**
+     * Overwrites the 4 bytes at the given position, which must be within
+     * the bytes already written.
+     */
+    void writeIntAt(int pos, int value) {
+        buf[pos] = (byte) (value >>> 24);
+        buf[pos + 1] = (byte) (value >>> 16);
+        buf[pos + 2] = (byte) (value >>> 8);
+        buf[pos + 3] = (byte) value;
+    }
+
+    /**
+     * Sets the given bits of the byte at the given position, which must be
+     * within the bytes already written.
+     */
+    void setBitsAt(int pos, int bits) {
+        buf[pos] |= (byte) bits;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (length + additional > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, length + additional));
+        }
+    }
+}
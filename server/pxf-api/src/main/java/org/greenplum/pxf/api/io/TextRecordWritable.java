@@ -0,0 +1,151 @@
+package org.greenplum.pxf.api.io;
+
+import org.greenplum.pxf.api.GreenplumDateTime;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.model.GreenplumCSV;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * A {@link Writable} that holds a single record serialized as a TEXT/CSV line.
+ * The fields of the record are encoded directly into a byte buffer, quoting
+ * and escaping the values byte-wise with the {@link GreenplumCSV} settings of
+ * the table, instead of building intermediate Strings for the fields and the
+ * line. The buffer is reused by the next call to {@link #set(List)}, so the
+ * contents must be written out before the next record is serialized.
+ * <p>
+ * Lines are always encoded in UTF-8, like {@link Text}.
+ */
+public class TextRecordWritable implements Writable {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+
+    private final ByteEncoder encoder;
+    private final StringBuilder timestampBuilder = new StringBuilder(32);
+
+    /**
+     * Creates a new record for the given CSV settings.
+     *
+     * @param greenplumCSV the CSV settings of the table
+     * @param tableFormat  the format of the Greenplum table (i.e. text or csv)
+     */
+    public TextRecordWritable(GreenplumCSV greenplumCSV, String tableFormat) {
+        this.encoder = new ByteEncoder(INITIAL_CAPACITY, greenplumCSV, tableFormat);
+    }
+
+    /**
+     * Serializes the fields as a delimited line terminated by the newline,
+     * replacing the previous contents of the record.
+     *
+     * @param fields the fields of the record
+     */
+    public void set(List<OneField> fields) {
+        encoder.reset();
+        int size = fields.size();
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                encoder.writeDelimiter();
+            }
+            writeField(fields.get(i));
+        }
+        encoder.writeNewline();
+    }
+
+    /**
+     * Serializes a line that is already delimited, terminating it with the
+     * newline and replacing the previous contents of the record.
+     *
+     * @param line the line
+     */
+    public void setLine(String line) {
+        encoder.reset();
+        encoder.writeUtf8(line, 0, line.length());
+        encoder.writeNewline();
+    }
+
+    /**
+     * @return the buffer holding the serialized record, valid up to {@link #getLength()}
+     */
+    public byte[] getBytes() {
+        return encoder.getBuffer();
+    }
+
+    /**
+     * @return the number of bytes of the serialized record
+     */
+    public int getLength() {
+        return encoder.getLength();
+    }
+
+    /**
+     * Serializes the record to <code>out</code>.
+     *
+     * @param out <code>DataOutput</code> to serialize this object into.
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.write(encoder.getBuffer(), 0, encoder.getLength());
+    }
+
+    /**
+     * Deserializes the fields of this object from <code>in</code>.
+     *
+     * @param in <code>DataInput</code> to deserialize this object from
+     * @throws UnsupportedOperationException this function is not supported
+     */
+    @Override
+    public void readFields(DataInput in) {
+        throw new UnsupportedOperationException("TextRecordWritable.readFields() is not implemented");
+    }
+
+    /**
+     * Writes a single field. Numeric values, non-text types, dates and
+     * timestamps are written as they are, other values in text form are
+     * quoted when they contain the quote, delimiter or newline.
+     */
+    private void writeField(OneField field) {
+        Object val = field.val;
+        int type = field.type;
+        if (val == null) {
+            encoder.writeValueOfNull();
+        } else if (type == DataType.BYTEA.getOID()) {
+            byte[] bytes = (byte[]) val;
+            encoder.writeHex(bytes, 0, bytes.length);
+        } else if (type == DataType.NUMERIC.getOID() || !DataType.isTextForm(type)) {
+            writeUnquoted(val);
+        } else if (type == DataType.TIMESTAMP.getOID()) {
+            if (val instanceof String) {
+                encoder.writeUtf8((String) val, 0, ((String) val).length());
+            } else {
+                timestampBuilder.setLength(0);
+                GreenplumDateTime.DATETIME_FORMATTER.formatTo(((Timestamp) val).toLocalDateTime(), timestampBuilder);
+                encoder.writeUtf8(timestampBuilder, 0, timestampBuilder.length());
+            }
+        } else if (type == DataType.DATE.getOID()) {
+            String s = val.toString();
+            encoder.writeUtf8(s, 0, s.length());
+        } else {
+            encoder.writeCsvField(val.toString());
+        }
+    }
+
+    private void writeUnquoted(Object val) {
+        if (val instanceof Integer || val instanceof Long || val instanceof Short) {
+            encoder.writeDecimalDigits(((Number) val).longValue());
+        } else if (val instanceof Boolean) {
+            byte[] bytes = (Boolean) val ? TRUE : FALSE;
+            encoder.writeRaw(bytes, 0, bytes.length);
+        } else {
+            String s = val.toString();
+            encoder.writeUtf8(s, 0, s.length());
+        }
+    }
+}
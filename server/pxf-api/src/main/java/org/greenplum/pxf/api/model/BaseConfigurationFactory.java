@@ -1,5 +1,7 @@
 package org.greenplum.pxf.api.model;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.conf.Configuration;
@@ -8,32 +10,73 @@ import org.greenplum.pxf.api.configuration.PxfServerProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 import static org.apache.hadoop.fs.CommonConfigurationKeysPublic.HADOOP_SECURITY_AUTH_TO_LOCAL;
 
+/**
+ * Creates the Hadoop {@link Configuration} of a request from the files of the
+ * server directory.
+ * <p>
+ * Building a configuration lists the server directory and parses all of its
+ * site files, which is expensive for short queries. The configuration of a
+ * server and user is therefore built and parsed once, cached, and copied for
+ * every request. A cached configuration is rebuilt when the site files or the
+ * user file of the server change, which is detected by comparing their names,
+ * sizes and modification times on every request.
+ */
 @Component
 public class BaseConfigurationFactory implements ConfigurationFactory {
 
     protected final Logger LOG = LoggerFactory.getLogger(this.getClass());
 
     private final File serversConfigDirectory;
+    private final Cache<String, ServerConfiguration> configurationCache;
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder cacheReloads = new LongAdder();
 
     @Autowired
-    public BaseConfigurationFactory(PxfServerProperties pxfServerProperties) {
-        this(new File(String.format("%s%sservers", pxfServerProperties.getBase(), File.separator)));
+    public BaseConfigurationFactory(PxfServerProperties pxfServerProperties,
+                                    @Value("${pxf.configuration-cache.max-size:1000}") long cacheMaxSize,
+                                    @Value("${pxf.configuration-cache.expiration:1h}") Duration cacheExpiration) {
+        this(new File(String.format("%s%sservers", pxfServerProperties.getBase(), File.separator)), cacheMaxSize, cacheExpiration);
     }
 
     BaseConfigurationFactory(File serversConfigDirectory) {
+        this(serversConfigDirectory, 1000, Duration.ofHours(1));
+    }
+
+    BaseConfigurationFactory(File serversConfigDirectory, long cacheMaxSize, Duration cacheExpiration) {
         this.serversConfigDirectory = serversConfigDirectory;
+        if (cacheMaxSize > 0) {
+            LOG.info("Creating Configuration Cache with a maximum of {} entries and entry expiration of {} ms",
+                    cacheMaxSize, cacheExpiration.toMillis());
+            this.configurationCache = CacheBuilder.newBuilder()
+                    .maximumSize(cacheMaxSize)
+                    .expireAfterAccess(cacheExpiration.toMillis(), TimeUnit.MILLISECONDS)
+                    .build();
+        } else {
+            LOG.info("Configuration Cache is disabled");
+            this.configurationCache = null;
+        }
     }
 
     /**
@@ -41,26 +84,75 @@ public class BaseConfigurationFactory implements ConfigurationFactory {
      */
     @Override
     public Configuration initConfiguration(String configDirectory, String serverName, String userName, Map<String, String> additionalProperties) {
-        // start with built-in Hadoop configuration that loads core-site.xml
         LOG.debug("Initializing configuration for server {}", serverName);
-        Configuration configuration = new Configuration();
-        // while implementing multiple kerberized support we noticed that non-kerberized hadoop
-        // access was trying to use SASL-client authentication. Setting the fallback to simple auth
-        // allows us to still access non-kerberized hadoop clusters when there exists at least one
-        // kerberized hadoop cluster. The root cause is that UGI has static fields and many hadoop
-        // libraries depend on the state of the UGI
-        // allow using SIMPLE auth for non-Kerberized HCFS access by SASL-enabled IPC client
-        // that is created due to the fact that it uses UGI.isSecurityEnabled
-        // and will try to use SASL if there is at least one Kerberized Hadoop cluster
-        configuration.set(CommonConfigurationKeys.IPC_CLIENT_FALLBACK_TO_SIMPLE_AUTH_ALLOWED_KEY, "true");
+        File serverDirectory = getServerDirectory(configDirectory, serverName);
 
-        // set synthetic property pxf.session.user so that is can be used in config files for interpolation in other properties
-        // for example in JDBC when setting session authorization from a proxy user to the end-user
-        configuration.set(PXF_SESSION_USER_PROPERTY, userName);
+        ServerConfiguration serverConfiguration = getServerConfiguration(serverDirectory, serverName, userName);
+        // copy the parsed server configuration, so that the request does not parse the site files again
+        Configuration configuration = new Configuration(serverConfiguration.configuration);
 
-        // add the server name itself as a configuration property
-        configuration.set(PXF_SERVER_NAME_PROPERTY, serverName);
+        // add additional properties, if provided
+        if (additionalProperties != null) {
+            LOG.debug("Adding {} additional properties to configuration for server {}", additionalProperties.size(), serverName);
+            additionalProperties.forEach(configuration::set);
+        }
+
+        // add user configuration, which takes precedence over the additional properties
+        serverConfiguration.userProperties.forEach(configuration::set);
+
+        try {
+            // We need to set the restrict system properties to false so
+            // variables in the configuration get replaced by system property
+            // values
+            configuration.setRestrictSystemProps(false);
+        } catch (NoSuchMethodError e) {
+            // Expected exception for MapR
+        }
+
+        // Starting with Hadoop 2.10.0, the "DEFAULT" rule will throw an
+        // exception when no rules are applied while getting the principal
+        // name translation into operating system user name. See
+        // org.apache.hadoop.security.authentication.util.KerberosName#getShortName
+        // We add a default rule that will return the service name as the
+        // short name, i.e. gpadmin/_HOST@REALM will map to gpadmin
+        configuration.set(HADOOP_SECURITY_AUTH_TO_LOCAL, "RULE:[1:$1] RULE:[2:$1] DEFAULT");
+
+        return configuration;
+    }
+
+    /**
+     * @return the number of requests that used a cached server configuration
+     */
+    public long getCacheHitCount() {
+        return cacheHits.sum();
+    }
 
+    /**
+     * @return the number of requests that built a server configuration that was not cached
+     */
+    public long getCacheMissCount() {
+        return cacheMisses.sum();
+    }
+
+    /**
+     * @return the number of requests that rebuilt a cached server configuration after its files changed
+     */
+    public long getCacheReloadCount() {
+        return cacheReloads.sum();
+    }
+
+    /**
+     * @return the number of cached server configurations
+     */
+    public long getCacheSize() {
+        return configurationCache != null ? configurationCache.size() : 0;
+    }
+
+    /**
+     * Returns the directory of the server, or null if the directory does not
+     * exist or cannot be read.
+     */
+    private File getServerDirectory(String configDirectory, String serverName) {
         File[] serverDirectories = null;
         Path p = Paths.get(configDirectory);
 
@@ -80,45 +172,86 @@ public class BaseConfigurationFactory implements ConfigurationFactory {
         if (ArrayUtils.isEmpty(serverDirectories)) {
             LOG.debug("Directory {}{}{} does not exist or cannot be read by PXF, no configuration resources are added for server {}",
                     serversConfigDirectory, File.separator, configDirectory, serverName);
+            return null;
         } else if (serverDirectories.length > 1) {
             throw new IllegalStateException(String.format(
                     "Multiple directories found for server %s. Server directories are expected to be case-insensitive.", serverName
             ));
-        } else {
-            // add all site files as URL resources to the configuration, no resources will be added from the classpath
-            LOG.debug("Using directory {} for server {} configuration", serverDirectories[0], serverName);
-            processServerResources(configuration, serverName, serverDirectories[0]);
         }
+        return serverDirectories[0];
+    }
 
-        // add additional properties, if provided
-        if (additionalProperties != null) {
-            LOG.debug("Adding {} additional properties to configuration for server {}", additionalProperties.size(), serverName);
-            additionalProperties.forEach(configuration::set);
+    /**
+     * Returns the configuration of the server for the user from the cache,
+     * building it when it is not cached or when the files of the server have
+     * changed since it was cached.
+     */
+    private ServerConfiguration getServerConfiguration(File serverDirectory, String serverName, String userName) {
+        if (configurationCache == null) {
+            return buildServerConfiguration(serverDirectory, serverName, userName, null);
+        }
+
+        String key = String.format("%s:%s:%s",
+                serverDirectory != null ? serverDirectory.getAbsolutePath() : "", serverName, userName);
+        String fingerprint = getFingerprint(serverDirectory, userName);
+        ServerConfiguration serverConfiguration = configurationCache.getIfPresent(key);
+        if (serverConfiguration != null && serverConfiguration.fingerprint.equals(fingerprint)) {
+            cacheHits.increment();
+            return serverConfiguration;
         }
 
-        // add user configuration
-        if (!ArrayUtils.isEmpty(serverDirectories)) {
-            processUserResource(configuration, serverName, userName, serverDirectories[0]);
+        if (serverConfiguration == null) {
+            cacheMisses.increment();
+        } else {
+            cacheReloads.increment();
+            LOG.info("Configuration files for server {} have changed, reloading configuration from {}", serverName, serverDirectory);
+        }
+        serverConfiguration = buildServerConfiguration(serverDirectory, serverName, userName, fingerprint);
+        configurationCache.put(key, serverConfiguration);
+        return serverConfiguration;
+    }
+
+    /**
+     * Builds the configuration of the server for the user, and parses its
+     * resources so that the copies made for every request do not need to.
+     */
+    private ServerConfiguration buildServerConfiguration(File serverDirectory, String serverName, String userName, String fingerprint) {
+        // start with built-in Hadoop configuration that loads core-site.xml
+        Configuration configuration = new Configuration();
+        // while implementing multiple kerberized support we noticed that non-kerberized hadoop
+        // access was trying to use SASL-client authentication. Setting the fallback to simple auth
+        // allows us to still access non-kerberized hadoop clusters when there exists at least one
+        // kerberized hadoop cluster. The root cause is that UGI has static fields and many hadoop
+        // libraries depend on the state of the UGI
+        // allow using SIMPLE auth for non-Kerberized HCFS access by SASL-enabled IPC client
+        // that is created due to the fact that it uses UGI.isSecurityEnabled
+        // and will try to use SASL if there is at least one Kerberized Hadoop cluster
+        configuration.set(CommonConfigurationKeys.IPC_CLIENT_FALLBACK_TO_SIMPLE_AUTH_ALLOWED_KEY, "true");
+
+        // set synthetic property pxf.session.user so that is can be used in config files for interpolation in other properties
+        // for example in JDBC when setting session authorization from a proxy user to the end-user
+        configuration.set(PXF_SESSION_USER_PROPERTY, userName);
+
+        // add the server name itself as a configuration property
+        configuration.set(PXF_SERVER_NAME_PROPERTY, serverName);
+
+        Map<String, String> userProperties = Collections.emptyMap();
+        if (serverDirectory != null) {
+            // add all site files as URL resources to the configuration, no resources will be added from the classpath
+            LOG.debug("Using directory {} for server {} configuration", serverDirectory, serverName);
+            processServerResources(configuration, serverName, serverDirectory);
+            userProperties = processUserResource(serverName, userName, serverDirectory);
         }
 
         try {
-            // We need to set the restrict system properties to false so
-            // variables in the configuration get replaced by system property
-            // values
             configuration.setRestrictSystemProps(false);
         } catch (NoSuchMethodError e) {
             // Expected exception for MapR
         }
 
-        // Starting with Hadoop 2.10.0, the "DEFAULT" rule will throw an
-        // exception when no rules are applied while getting the principal
-        // name translation into operating system user name. See
-        // org.apache.hadoop.security.authentication.util.KerberosName#getShortName
-        // We add a default rule that will return the service name as the
-        // short name, i.e. gpadmin/_HOST@REALM will map to gpadmin
-        configuration.set(HADOOP_SECURITY_AUTH_TO_LOCAL, "RULE:[1:$1] RULE:[2:$1] DEFAULT");
-
-        return configuration;
+        // parse the resources now, copies of a configuration share the parsed properties
+        configuration.size();
+        return new ServerConfiguration(configuration, userProperties, fingerprint);
     }
 
     private void processServerResources(Configuration configuration, String serverName, File directory) {
@@ -140,21 +273,69 @@ public class BaseConfigurationFactory implements ConfigurationFactory {
         }
     }
 
-    private void processUserResource(Configuration configuration, String serverName, String userName, File directory) {
+    /**
+     * Reads the properties of the user config file, which are applied on top
+     * of the additional properties of every request.
+     */
+    private Map<String, String> processUserResource(String serverName, String userName, File directory) {
         // add user config file as configuration resource
         try {
             Path path = Paths.get(String.format("%s/%s-user.xml", directory.toPath(), userName));
-            if (Files.exists(path)) {
-                Configuration userConfiguration = new Configuration(false);
-                URL resourceURL = path.toUri().toURL();
-                userConfiguration.addResource(resourceURL);
-                LOG.debug("Adding user properties for server {} from {}", serverName, resourceURL);
-                userConfiguration.forEach(entry -> configuration.set(entry.getKey(), entry.getValue()));
-                configuration.set(String.format("%s.%s", PXF_CONFIG_RESOURCE_PATH_PROPERTY, path.getFileName().toString()), resourceURL.toString());
+            if (!Files.exists(path)) {
+                return Collections.emptyMap();
             }
+            Map<String, String> userProperties = new HashMap<>();
+            Configuration userConfiguration = new Configuration(false);
+            URL resourceURL = path.toUri().toURL();
+            userConfiguration.addResource(resourceURL);
+            LOG.debug("Adding user properties for server {} from {}", serverName, resourceURL);
+            userConfiguration.forEach(entry -> userProperties.put(entry.getKey(), entry.getValue()));
+            userProperties.put(String.format("%s.%s", PXF_CONFIG_RESOURCE_PATH_PROPERTY, path.getFileName().toString()), resourceURL.toString());
+            return userProperties;
         } catch (Exception e) {
             throw new RuntimeException(String.format("Unable to read user configuration for user %s using server %s from %s",
                     userName, serverName, directory.getAbsolutePath()), e);
         }
     }
+
+    /**
+     * Returns a value that changes whenever a site file or the user file of
+     * the server is added, removed or modified.
+     */
+    private String getFingerprint(File serverDirectory, String userName) {
+        if (serverDirectory == null) {
+            return "";
+        }
+        String userFileName = String.format("%s-user.xml", userName);
+        List<String> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(serverDirectory.toPath(),
+                path -> path.getFileName().toString().endsWith("-site.xml") || path.getFileName().toString().equals(userFileName))) {
+            for (Path path : stream) {
+                File file = path.toFile();
+                files.add(String.format("%s:%d:%d", file.getName(), file.lastModified(), file.length()));
+            }
+        } catch (IOException e) {
+            // the configuration will be rebuilt, and fail, when the directory can not be read
+            LOG.debug("Unable to list configuration files for server directory {}", serverDirectory, e);
+            return String.valueOf(System.nanoTime());
+        }
+        Collections.sort(files);
+        return String.join(";", files);
+    }
+
+    /**
+     * The parsed configuration of a server for a user
+     */
+    private static class ServerConfiguration {
+
+        private final Configuration configuration;
+        private final Map<String, String> userProperties;
+        private final String fingerprint;
+
+        ServerConfiguration(Configuration configuration, Map<String, String> userProperties, String fingerprint) {
+            this.configuration = configuration;
+            this.userProperties = userProperties;
+            this.fingerprint = fingerprint;
+        }
+    }
 }
@@ -27,4 +27,23 @@ public interface Fragmenter extends Plugin {
      * @throws RuntimeException if statistics cannot be gathered
      */
     FragmentStats getFragmentStats() throws Exception;
+
+    /**
+     * Returns the version of the data source, a value that changes whenever
+     * {@link #getFragments()} would return different fragments, for example
+     * when files are added to a directory. The fragments of a data source are
+     * only cached across queries while its version does not change, so the
+     * version must be much cheaper to obtain than the fragments. The version
+     * does not need to change with the hosts of the fragments, as the cached
+     * fragments are not assigned to the segments by locality.
+     * <p>
+     * The default implementation returns null, the fragments of the data
+     * source can not be cached across queries.
+     *
+     * @return the version of the data source, or null if it is unknown
+     * @throws Exception if the version cannot be obtained
+     */
+    default String getFragmentsVersion() throws Exception {
+        return null;
+    }
 }
@@ -21,6 +21,7 @@ package org.greenplum.pxf.api.model;
 
 import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.BatchWritable;
 
 import java.util.List;
 
@@ -39,4 +40,20 @@ public interface ReadVectorizedResolver {
      */
     List<List<OneField>> getFieldsForBatch(OneRow batch);
 
+    /**
+     * Serializes the batch directly into the given output, without resolving
+     * the values of the batch into {@link OneField} objects. Resolvers that
+     * cannot serialize the batch directly, for example because it contains
+     * types that are not supported by the direct serialization, return false
+     * without writing any records, and the batch is resolved using
+     * {@link #getFieldsForBatch(OneRow)} instead.
+     *
+     * @param batch  unresolved batch
+     * @param output the output to serialize the records of the batch into
+     * @return true if the batch was serialized, false otherwise
+     */
+    default boolean writeBatch(OneRow batch, BatchWritable output) {
+        return false;
+    }
+
 }
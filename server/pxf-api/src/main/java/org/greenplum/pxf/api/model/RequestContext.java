@@ -471,6 +471,63 @@ public class RequestContext {
         return (T) fragmentMetadata;
     }
 
+    /**
+     * Returns a shallow copy of this request context. The copy has its own
+     * set of options and can be updated independently (i.e. with a different
+     * data source, fragment index or fragment metadata), while the rest of
+     * the properties, such as the configuration and the tuple description,
+     * are shared with this context.
+     *
+     * @return a copy of this request context
+     */
+    public RequestContext copy() {
+        RequestContext copy = new RequestContext();
+        copy.requestType = requestType;
+        copy.accessor = accessor;
+        copy.aggType = aggType;
+        copy.config = config;
+        copy.configuration = configuration;
+        copy.dataSource = dataSource;
+        copy.fragmenter = fragmenter;
+        copy.fragmentIndex = fragmentIndex;
+        copy.fragmentMetadata = fragmentMetadata;
+        copy.filterString = filterString;
+        copy.metadata = metadata;
+        copy.outputFormat = outputFormat;
+        copy.gpCommandCount = gpCommandCount;
+        copy.gpSessionId = gpSessionId;
+        copy.host = host;
+        copy.token = token;
+        copy.statsMaxFragments = statsMaxFragments;
+        copy.statsSampleRatio = statsSampleRatio;
+        copy.numAttrsProjected = numAttrsProjected;
+        copy.pluginConf = pluginConf;
+        copy.port = port;
+        copy.profile = profile;
+        copy.profileScheme = profileScheme;
+        copy.protocol = protocol;
+        copy.resolver = resolver;
+        copy.format = format;
+        copy.greenplumCSV = greenplumCSV;
+        copy.recordkeyColumn = recordkeyColumn;
+        copy.remoteLogin = remoteLogin;
+        copy.remoteSecret = remoteSecret;
+        copy.segmentId = segmentId;
+        copy.schemaName = schemaName;
+        copy.tableName = tableName;
+        copy.transactionId = transactionId;
+        copy.serverName = serverName;
+        copy.totalSegments = totalSegments;
+        copy.tupleDescription = tupleDescription;
+        copy.user = user;
+        copy.dataEncoding = dataEncoding;
+        copy.databaseEncoding = databaseEncoding;
+        copy.clientApiVersion = clientApiVersion;
+        copy.additionalConfigProps = additionalConfigProps;
+        copy.options.putAll(options);
+        return copy;
+    }
+
     /**
      * Returns true if there is a filter string to parse.
      *
@@ -0,0 +1,21 @@
+package org.greenplum.pxf.api.model;
+
+/**
+ * Interface for plugins that can be reused across requests. Once a request is
+ * done with a resettable plugin, the plugin is returned to the plugin factory,
+ * which hands it out to a later request for the same plugin class instead of
+ * creating and initializing a new instance.
+ */
+public interface ResettablePlugin extends Plugin {
+
+    /**
+     * Binds a plugin that was used by a previous request to the context of a
+     * new request. Implementations must discard any state of the previous
+     * request, and can keep the setup done by {@link #afterPropertiesSet()}
+     * when it is still valid for the new request.
+     *
+     * @param context the context for the new request
+     * @return true if the plugin is ready to process the request, false if a new instance must be created instead
+     */
+    boolean reset(RequestContext context);
+}
@@ -24,4 +24,23 @@ package org.greenplum.pxf.api.utilities;
  * own metadata object
  */
 public interface FragmentMetadata {
+
+    /**
+     * Returns the hosts where the data of the fragment is stored, used to
+     * assign the fragment to a segment running on one of those hosts.
+     *
+     * @return the hosts of the fragment, empty when the location is unknown
+     */
+    default String[] getHosts() {
+        return new String[0];
+    }
+
+    /**
+     * Returns the size in bytes of the data of the fragment.
+     *
+     * @return the size of the fragment, 0 when the size is unknown
+     */
+    default long getLength() {
+        return 0;
+    }
 }
@@ -97,6 +97,20 @@ class PxfServerPropertiesTest {
         assertThat(properties.getTask().getShutdown().isAwaitTermination()).isEqualTo(true);
     }
 
+    @Test
+    public void testReadFragmentAssignmentBinding() {
+        assertThat(properties.getRead().getFragmentAssignment()).isEqualTo("round-robin");
+        bind("pxf.read.fragment-assignment", "locality");
+        assertThat(properties.getRead().getFragmentAssignment()).isEqualTo("locality");
+    }
+
+    @Test
+    public void testReadSegmentHostsBinding() {
+        assertThat(properties.getRead().getSegmentHosts()).isEmpty();
+        bind("pxf.read.segment-hosts", "sdw1,sdw1,sdw2");
+        assertThat(properties.getRead().getSegmentHosts()).containsExactly("sdw1", "sdw1", "sdw2");
+    }
+
     private void bind(String name, String value) {
         bind(Collections.singletonMap(name, value));
     }
@@ -0,0 +1,153 @@
+package org.greenplum.pxf.api.io;
+
+import org.greenplum.pxf.api.model.GreenplumCSV;
+import org.greenplum.pxf.api.model.OutputFormat;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BatchWritableTest {
+
+    private static final int[] SCHEMA = {
+            DataType.INTEGER.getOID(),
+            DataType.TEXT.getOID(),
+            DataType.BIGINT.getOID(),
+            DataType.BOOLEAN.getOID(),
+            DataType.SMALLINT.getOID(),
+            DataType.FLOAT8.getOID(),
+            DataType.BYTEA.getOID(),
+            DataType.REAL.getOID(),
+            DataType.NUMERIC.getOID()
+    };
+
+    @Test
+    public void testGPDBWritableRecordsMatchGPDBWritable() throws Exception {
+        BatchWritable batch = new BatchWritable(OutputFormat.GPDBWritable, SCHEMA, new GreenplumCSV(), "custom", StandardCharsets.UTF_8);
+        byte[] text = "xxhéllo".getBytes(StandardCharsets.UTF_8);
+
+        batch.beginRecord();
+        batch.writeInt(-42);
+        batch.writeString(text, 2, text.length - 2);
+        batch.writeLong(Long.MAX_VALUE);
+        batch.writeBoolean(true);
+        batch.writeShort((short) 7);
+        batch.writeDouble(3.5);
+        batch.writeBytes(new byte[]{1, 2, 3, 4}, 1, 2);
+        batch.writeFloat(1.25f);
+        batch.writeUnquotedString("12.345");
+        batch.endRecord();
+
+        batch.beginRecord();
+        batch.writeNull();
+        batch.writeNull();
+        batch.writeLong(1L);
+        batch.writeNull();
+        batch.writeNull();
+        batch.writeNull();
+        batch.writeNull();
+        batch.writeNull();
+        batch.writeNull();
+        batch.endRecord();
+
+        GPDBWritable expected1 = new GPDBWritable(SCHEMA, StandardCharsets.UTF_8);
+        expected1.setInt(0, -42);
+        expected1.setString(1, "héllo");
+        expected1.setLong(2, Long.MAX_VALUE);
+        expected1.setBoolean(3, true);
+        expected1.setShort(4, (short) 7);
+        expected1.setDouble(5, 3.5);
+        expected1.setBytes(6, new byte[]{2, 3});
+        expected1.setFloat(7, 1.25f);
+        expected1.setString(8, "12.345");
+
+        GPDBWritable expected2 = new GPDBWritable(SCHEMA, StandardCharsets.UTF_8);
+        expected2.setLong(2, 1L);
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(expected);
+        expected1.write(dos);
+        expected2.write(dos);
+
+        assertEquals(2, batch.getRecordCount());
+        assertArrayEquals(expected.toByteArray(), serialize(batch));
+    }
+
+    @Test
+    public void testTextRecords() throws Exception {
+        BatchWritable batch = new BatchWritable(OutputFormat.TEXT, SCHEMA, new GreenplumCSV(), "csv", StandardCharsets.UTF_8);
+        byte[] text = "say \"hi\", bye".getBytes(StandardCharsets.UTF_8);
+
+        batch.beginRecord();
+        batch.writeInt(-42);
+        batch.writeString(text, 0, text.length);
+        batch.writeLong(Long.MIN_VALUE);
+        batch.writeBoolean(false);
+        batch.writeShort((short) 0);
+        batch.writeDouble(3.5);
+        batch.writeBytes(new byte[]{(byte) 0xde, (byte) 0xad}, 0, 2);
+        batch.writeFloat(1.25f);
+        batch.writeUnquotedString("12.345");
+        batch.endRecord();
+
+        batch.beginRecord();
+        batch.writeInt(1);
+        batch.writeString("plain");
+        for (int i = 2; i < SCHEMA.length; i++) {
+            batch.writeNull();
+        }
+        batch.endRecord();
+
+        assertEquals(2, batch.getRecordCount());
+        assertEquals("-42,\"say \"\"hi\"\", bye\",-9223372036854775808,false,0,3.5,\\xdead,1.25,12.345\n" +
+                        "1,plain,,,,,,,\n",
+                new String(serialize(batch), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testResetReusesBuffer() throws Exception {
+        int[] schema = {DataType.INTEGER.getOID()};
+        BatchWritable batch = new BatchWritable(OutputFormat.TEXT, schema, new GreenplumCSV(), "text", StandardCharsets.UTF_8);
+
+        batch.beginRecord();
+        batch.writeInt(1);
+        batch.endRecord();
+        batch.reset();
+        batch.beginRecord();
+        batch.writeInt(2);
+        batch.endRecord();
+
+        assertEquals(1, batch.getRecordCount());
+        assertEquals("2\n", new String(serialize(batch), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testRecordWithMissingValuesFails() {
+        BatchWritable batch = new BatchWritable(OutputFormat.TEXT, SCHEMA, new GreenplumCSV(), "text", StandardCharsets.UTF_8);
+
+        batch.beginRecord();
+        batch.writeInt(1);
+        Exception e = assertThrows(IllegalStateException.class, batch::endRecord);
+        assertEquals("Record has 1 fields but the schema size is 9", e.getMessage());
+    }
+
+    @Test
+    public void testGPDBWritableValueOfWrongTypeFails() {
+        BatchWritable batch = new BatchWritable(OutputFormat.GPDBWritable, SCHEMA, new GreenplumCSV(), "custom", StandardCharsets.UTF_8);
+
+        batch.beginRecord();
+        assertThrows(IllegalStateException.class, () -> batch.writeLong(1L));
+    }
+
+    private byte[] serialize(BatchWritable batch) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        batch.write(new DataOutputStream(out));
+        return out.toByteArray();
+    }
+}
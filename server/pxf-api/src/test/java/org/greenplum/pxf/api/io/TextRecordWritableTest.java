@@ -0,0 +1,110 @@
+package org.greenplum.pxf.api.io;
+
+import org.greenplum.pxf.api.GreenplumDateTime;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.model.GreenplumCSV;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TextRecordWritableTest {
+
+    @Test
+    public void testSetSerializesFieldsAsCsvLine() throws Exception {
+        TextRecordWritable record = new TextRecordWritable(new GreenplumCSV(), "csv");
+        Timestamp timestamp = Timestamp.valueOf("2022-06-10 11:44:33.123456");
+
+        record.set(Arrays.asList(
+                new OneField(DataType.INTEGER.getOID(), -42),
+                new OneField(DataType.BIGINT.getOID(), Long.MAX_VALUE),
+                new OneField(DataType.SMALLINT.getOID(), (short) 7),
+                new OneField(DataType.BOOLEAN.getOID(), false),
+                new OneField(DataType.FLOAT8.getOID(), 3.5d),
+                new OneField(DataType.REAL.getOID(), 1.25f),
+                new OneField(DataType.NUMERIC.getOID(), new BigDecimal("12.345")),
+                new OneField(DataType.BYTEA.getOID(), new byte[]{0, (byte) 0xAB}),
+                new OneField(DataType.TIMESTAMP.getOID(), timestamp),
+                new OneField(DataType.TIMESTAMP.getOID(), "2022-06-10 11:44:33"),
+                new OneField(DataType.DATE.getOID(), Date.valueOf("1994-08-03")),
+                new OneField(DataType.TEXT.getOID(), null),
+                new OneField(DataType.TEXT.getOID(), "plain"),
+                new OneField(DataType.VARCHAR.getOID(), "with \"quotes\""),
+                new OneField(DataType.BPCHAR.getOID(), "with,delimiter"),
+                new OneField(DataType.TEXT.getOID(), "with\nnewline")));
+
+        String expected = "-42,9223372036854775807,7,false,3.5,1.25,12.345,\\x00ab," +
+                timestamp.toLocalDateTime().format(GreenplumDateTime.DATETIME_FORMATTER) +
+                ",2022-06-10 11:44:33,1994-08-03,,plain,\"with \"\"quotes\"\"\",\"with,delimiter\",\"with\nnewline\"\n";
+        assertEquals(expected, toString(record));
+    }
+
+    @Test
+    public void testSetMatchesToCsvFieldWithCustomSettings() throws Exception {
+        GreenplumCSV greenplumCSV = new GreenplumCSV()
+                .withDelimiter('|')
+                .withNewline("\r\n")
+                .withQuoteChar('\'')
+                .withEscapeChar('\\')
+                .withValueOfNull("NULL");
+        TextRecordWritable record = new TextRecordWritable(greenplumCSV, "text");
+
+        List<String> values = Arrays.asList("a|b", "it's", "line\r\nbreak", "line\nonly", "é中😀'", "\uD83D");
+        StringBuilder expected = new StringBuilder();
+        OneField[] fields = new OneField[values.size() + 1];
+        for (int i = 0; i < values.size(); i++) {
+            fields[i] = new OneField(DataType.TEXT.getOID(), values.get(i));
+            expected.append(greenplumCSV.toCsvField(values.get(i), true, true, true)).append('|');
+        }
+        fields[values.size()] = new OneField(DataType.TEXT.getOID(), null);
+        expected.append("NULL\r\n");
+
+        record.set(Arrays.asList(fields));
+        assertEquals(new String(expected.toString().getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8), toString(record));
+    }
+
+    @Test
+    public void testSetReplacesPreviousRecord() throws Exception {
+        TextRecordWritable record = new TextRecordWritable(new GreenplumCSV(), "csv");
+        record.set(Collections.singletonList(new OneField(DataType.TEXT.getOID(), "a rather long first value")));
+        record.set(Arrays.asList(new OneField(DataType.INTEGER.getOID(), 1), new OneField(DataType.INTEGER.getOID(), 2)));
+        assertEquals(4, record.getLength());
+        assertEquals("1,2\n", toString(record));
+
+        record.setLine("already,delimited");
+        assertEquals("already,delimited\n", toString(record));
+    }
+
+    @Test
+    public void testBufferGrowsForLargeRecords() throws Exception {
+        TextRecordWritable record = new TextRecordWritable(new GreenplumCSV(), "csv");
+        char[] chars = new char[5000];
+        Arrays.fill(chars, 'x');
+        String value = new String(chars);
+        record.set(Arrays.asList(new OneField(DataType.TEXT.getOID(), value), new OneField(DataType.TEXT.getOID(), value)));
+        assertEquals(value + "," + value + "\n", toString(record));
+    }
+
+    @Test
+    public void testReadFieldsIsNotSupported() {
+        TextRecordWritable record = new TextRecordWritable(new GreenplumCSV(), "csv");
+        assertThrows(UnsupportedOperationException.class, () -> record.readFields(null));
+    }
+
+    private String toString(TextRecordWritable record) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        record.write(new DataOutputStream(bos));
+        return new String(bos.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
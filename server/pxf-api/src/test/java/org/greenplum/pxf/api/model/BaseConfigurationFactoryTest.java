@@ -3,12 +3,17 @@ package org.greenplum.pxf.api.model;
 import org.apache.hadoop.conf.Configuration;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -16,6 +21,7 @@ import static org.greenplum.pxf.api.model.ConfigurationFactory.PXF_CONFIG_RESOUR
 import static org.greenplum.pxf.api.model.ConfigurationFactory.PXF_CONFIG_SERVER_DIRECTORY_PROPERTY;
 import static org.greenplum.pxf.api.model.ConfigurationFactory.PXF_SESSION_USER_PROPERTY;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
@@ -198,4 +204,73 @@ public class BaseConfigurationFactoryTest {
         assertEquals("dummy", configuration.get(PXF_SESSION_USER_PROPERTY));
     }
 
+    @Test
+    public void testConfigurationIsCachedPerServerAndUser() {
+        Configuration configuration1 = factory.initConfiguration("default", "default", "dummy", null);
+        Configuration configuration2 = factory.initConfiguration("default", "default", "dummy", null);
+        Configuration configuration3 = factory.initConfiguration("default", "default", "other", null);
+
+        assertEquals(1, factory.getCacheHitCount());
+        assertEquals(2, factory.getCacheMissCount());
+        assertEquals(0, factory.getCacheReloadCount());
+        assertEquals(2, factory.getCacheSize());
+
+        assertNotSame(configuration1, configuration2);
+        assertEquals("uservalue", configuration2.get("test.user.key"));
+        assertEquals("dummy-blue", configuration2.get("test.blue.interpolated.key"));
+        assertNull(configuration3.get("test.user.key"));
+        assertEquals("other-blue", configuration3.get("test.blue.interpolated.key"));
+    }
+
+    @Test
+    public void testCachedConfigurationIsNotModifiedByRequests() {
+        additionalProperties.put("test.red", "purple");
+        Configuration configuration1 = factory.initConfiguration("default", "default", "dummy", additionalProperties);
+        configuration1.set("test.blue", "changed");
+        Configuration configuration2 = factory.initConfiguration("default", "default", "dummy", null);
+
+        assertEquals(1, factory.getCacheHitCount());
+        assertEquals("purple", configuration1.get("test.red"));
+        assertEquals("red", configuration2.get("test.red"));
+        assertEquals("blue", configuration2.get("test.blue"));
+    }
+
+    @Test
+    public void testCachedConfigurationIsReloadedWhenFilesChange(@TempDir Path tempDir) throws IOException {
+        Path serverDirectory = Files.createDirectory(tempDir.resolve("default"));
+        Path siteFile = serverDirectory.resolve("test-site.xml");
+        writeProperty(siteFile, "test.color", "blue");
+        factory = new BaseConfigurationFactory(tempDir.toFile());
+
+        assertEquals("blue", factory.initConfiguration("default", "default", "dummy", null).get("test.color"));
+        assertEquals("blue", factory.initConfiguration("default", "default", "dummy", null).get("test.color"));
+
+        writeProperty(siteFile, "test.color", "yellow");
+        siteFile.toFile().setLastModified(siteFile.toFile().lastModified() + 10000);
+        assertEquals("yellow", factory.initConfiguration("default", "default", "dummy", null).get("test.color"));
+
+        writeProperty(serverDirectory.resolve("dummy-user.xml"), "test.color", "green");
+        assertEquals("green", factory.initConfiguration("default", "default", "dummy", null).get("test.color"));
+
+        assertEquals(1, factory.getCacheMissCount());
+        assertEquals(1, factory.getCacheHitCount());
+        assertEquals(2, factory.getCacheReloadCount());
+    }
+
+    @Test
+    public void testConfigurationCacheDisabled() {
+        factory = new BaseConfigurationFactory(serversDirectory, 0, Duration.ofHours(1));
+        factory.initConfiguration("default", "default", "dummy", null);
+        Configuration configuration = factory.initConfiguration("default", "default", "dummy", null);
+
+        assertEquals("uservalue", configuration.get("test.user.key"));
+        assertEquals(0, factory.getCacheHitCount());
+        assertEquals(0, factory.getCacheMissCount());
+        assertEquals(0, factory.getCacheSize());
+    }
+
+    private void writeProperty(Path path, String name, String value) throws IOException {
+        String xml = String.format("<configuration><property><name>%s</name><value>%s</value></property></configuration>", name, value);
+        Files.write(path, xml.getBytes(StandardCharsets.UTF_8));
+    }
 }
@@ -232,4 +232,25 @@ public class RequestContextTest {
         context.setConfig("foo/bar");
         assertEquals("foo/bar", context.getConfig());
     }
+
+    @Test
+    public void testCopyIsIndependentOfOriginal() {
+        context.setDataSource("/foo/bar");
+        context.setFragmentIndex(3);
+        context.setServerName("s1");
+        context.addOption("foo", "bar");
+
+        RequestContext copy = context.copy();
+        assertEquals("/foo/bar", copy.getDataSource());
+        assertEquals(3, copy.getFragmentIndex());
+        assertEquals("s1", copy.getServerName());
+        assertEquals("bar", copy.getOption("FOO"));
+
+        copy.setDataSource("/foo/baz");
+        copy.setFragmentIndex(4);
+        copy.addOption("foo", "baz");
+        assertEquals("/foo/bar", context.getDataSource());
+        assertEquals(3, context.getFragmentIndex());
+        assertEquals("bar", context.getOption("foo"));
+    }
 }
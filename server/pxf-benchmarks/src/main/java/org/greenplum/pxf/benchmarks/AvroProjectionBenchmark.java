@@ -0,0 +1,90 @@
+package org.greenplum.pxf.benchmarks;
+
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.model.Accessor;
+import org.greenplum.pxf.api.model.OutputFormat;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.model.Resolver;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading a generated local Avro file of a wide table with the Avro
+ * accessor and resolver, when only some of the columns are projected and
+ * with or without reusing the decoded records. Scores are per file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AvroProjectionBenchmark {
+
+    /**
+     * The number of copies of the columns of the benchmark table in the wide
+     * table.
+     */
+    private static final int COPIES = 8;
+
+    @Param({"48", "12", "3"})
+    public int projectedColumns;
+
+    @Param({"false", "true"})
+    public boolean reuseRecords;
+
+    @Param({"100000"})
+    public int rows;
+
+    private File file;
+
+    @Setup
+    public void setup() throws Exception {
+        file = BenchmarkEnvironment.generateFile(BenchmarkFormat.AVRO,
+                BenchmarkData.wideColumns(COPIES), BenchmarkData.wideRecords(rows, COPIES));
+    }
+
+    @Benchmark
+    public long resolve(Blackhole blackhole) throws Exception {
+        List<ColumnDescriptor> columns = BenchmarkData.wideColumns(COPIES);
+        for (ColumnDescriptor column : columns) {
+            column.setProjected(column.columnIndex() < projectedColumns);
+        }
+        RequestContext context = BenchmarkEnvironment.newContext(RequestContext.RequestType.READ_BRIDGE,
+                OutputFormat.GPDBWritable, BenchmarkFormat.AVRO, file.getAbsolutePath(), columns);
+        context.setNumAttrsProjected(Math.min(projectedColumns, columns.size()));
+        context.addOption("REUSE_RECORDS", String.valueOf(reuseRecords));
+        Accessor accessor = BenchmarkEnvironment.getPlugin(context, context.getAccessor());
+        Resolver resolver = BenchmarkEnvironment.getPlugin(context, context.getResolver());
+
+        long count = 0;
+        if (!accessor.openForRead()) {
+            throw new IllegalStateException("Unable to open " + file + " for read");
+        }
+        try {
+            OneRow row;
+            while ((row = accessor.readNextObject()) != null) {
+                blackhole.consume(resolver.getFields(row));
+                count++;
+            }
+        } finally {
+            accessor.closeForRead();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,170 @@
+package org.greenplum.pxf.benchmarks;
+
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.io.Writable;
+import org.greenplum.pxf.api.model.OutputFormat;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.service.BridgeOutputBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates the records processed by the benchmarks. The records are
+ * generated from a fixed seed, so that every run of a benchmark processes
+ * exactly the same data and the results of different runs can be compared.
+ * The seed can be changed with the <code>pxf.benchmarks.seed</code> system
+ * property.
+ */
+public final class BenchmarkData {
+
+    public static final long SEED = Long.getLong("pxf.benchmarks.seed", 1_234_567_890L);
+
+    private static final String[] WORDS = {
+            "greenplum", "external", "table", "fragment", "segment", "parquet", "orc", "avro", "json",
+            "hadoop", "bridge", "accessor", "resolver", "record", "column", "predicate", "pushdown",
+            "année", "größe", "数据", "quoted \"word\"", "comma,separated"
+    };
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Returns the columns of the benchmark table, the types are supported by
+     * all the benchmarked formats.
+     *
+     * @return the columns of the benchmark table
+     */
+    public static List<ColumnDescriptor> columns() {
+        return new ArrayList<>(Arrays.asList(
+                new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null),
+                new ColumnDescriptor("quantity", DataType.BIGINT.getOID(), 1, "int8", null),
+                new ColumnDescriptor("price", DataType.FLOAT8.getOID(), 2, "float8", null),
+                new ColumnDescriptor("active", DataType.BOOLEAN.getOID(), 3, "bool", null),
+                new ColumnDescriptor("name", DataType.TEXT.getOID(), 4, "text", null),
+                new ColumnDescriptor("description", DataType.TEXT.getOID(), 5, "text", null)));
+    }
+
+    /**
+     * Returns the columns of a wide table, made of copies of the columns of
+     * the benchmark table. The columns of the n-th copy have the suffix
+     * <code>_n</code>.
+     *
+     * @param copies the number of copies of the columns of the benchmark table
+     * @return the columns of the wide table
+     */
+    public static List<ColumnDescriptor> wideColumns(int copies) {
+        List<ColumnDescriptor> columns = columns();
+        List<ColumnDescriptor> wideColumns = new ArrayList<>(copies * columns.size());
+        for (int copy = 0; copy < copies; copy++) {
+            for (ColumnDescriptor column : columns) {
+                wideColumns.add(new ColumnDescriptor(column.columnName() + "_" + copy, column.columnTypeCode(),
+                        wideColumns.size(), column.columnTypeName(), null));
+            }
+        }
+        return wideColumns;
+    }
+
+    /**
+     * Generates the given number of records for the columns of the wide
+     * table, every copy of the columns holds the values of the record of the
+     * benchmark table.
+     *
+     * @param count  the number of records
+     * @param copies the number of copies of the columns of the benchmark table
+     * @return the records
+     */
+    public static List<List<OneField>> wideRecords(int count, int copies) {
+        List<List<OneField>> records = records(count);
+        for (int i = 0; i < records.size(); i++) {
+            List<OneField> record = records.get(i);
+            List<OneField> wideRecord = new ArrayList<>(copies * record.size());
+            for (int copy = 0; copy < copies; copy++) {
+                wideRecord.addAll(record);
+            }
+            records.set(i, wideRecord);
+        }
+        return records;
+    }
+
+    /**
+     * Generates the given number of records for the columns of the benchmark
+     * table. Around 5% of the prices and descriptions are nulls, some of the
+     * descriptions contain characters that need quoting in CSV.
+     *
+     * @param count the number of records
+     * @return the records
+     */
+    public static List<List<OneField>> records(int count) {
+        Random random = new Random(SEED);
+        List<List<OneField>> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<OneField> record = new ArrayList<>(6);
+            record.add(new OneField(DataType.INTEGER.getOID(), i));
+            record.add(new OneField(DataType.BIGINT.getOID(), random.nextLong() >>> 20));
+            record.add(new OneField(DataType.FLOAT8.getOID(),
+                    random.nextInt(20) == 0 ? null : Math.round(random.nextDouble() * 1_000_000) / 100.0));
+            record.add(new OneField(DataType.BOOLEAN.getOID(), random.nextBoolean()));
+            record.add(new OneField(DataType.TEXT.getOID(), WORDS[random.nextInt(WORDS.length)] + "-" + i));
+            record.add(new OneField(DataType.TEXT.getOID(), random.nextInt(20) == 0 ? null : description(random)));
+            records.add(record);
+        }
+        return records;
+    }
+
+    /**
+     * Serializes the records in the output format of the context, i.e. the
+     * way they are streamed to Greenplum when reading or from Greenplum when
+     * writing. When writing TEXT, booleans are serialized as <code>t</code>
+     * and <code>f</code> like Greenplum does.
+     *
+     * @param context the request context with the output format and columns
+     * @param records the records
+     * @return the serialized records
+     * @throws Exception if the records cannot be serialized
+     */
+    public static byte[] serialize(RequestContext context, List<List<OneField>> records) throws Exception {
+        BridgeOutputBuilder outputBuilder = new BridgeOutputBuilder(context);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        boolean greenplumText = context.getRequestType() == RequestContext.RequestType.WRITE_BRIDGE
+                && context.getOutputFormat() == OutputFormat.TEXT;
+        for (List<OneField> record : records) {
+            for (Writable writable : outputBuilder.makeOutput(greenplumText ? toGreenplumText(record) : record)) {
+                writable.write(out);
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static List<OneField> toGreenplumText(List<OneField> record) {
+        List<OneField> result = new ArrayList<>(record.size());
+        for (OneField field : record) {
+            if (field.val instanceof Boolean) {
+                result.add(new OneField(DataType.TEXT.getOID(), (Boolean) field.val ? "t" : "f"));
+            } else {
+                result.add(field);
+            }
+        }
+        return result;
+    }
+
+    private static String description(Random random) {
+        int words = 2 + random.nextInt(14);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sb.append(random.nextInt(50) == 0 ? '\n' : ' ');
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,213 @@
+package org.greenplum.pxf.benchmarks;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.model.OutputFormat;
+import org.greenplum.pxf.api.model.Plugin;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.SpringContext;
+import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
+import org.greenplum.pxf.plugins.hdfs.HcfsType;
+import org.greenplum.pxf.plugins.hdfs.avro.AvroSchemaFileReaderFactory;
+import org.greenplum.pxf.plugins.hdfs.avro.AvroUtilities;
+import org.greenplum.pxf.plugins.hdfs.utilities.PgUtilities;
+import org.greenplum.pxf.plugins.json.JsonUtilities;
+import org.greenplum.pxf.service.bridge.Bridge;
+import org.greenplum.pxf.service.bridge.BridgeFactory;
+import org.greenplum.pxf.service.bridge.SimpleBridgeFactory;
+import org.greenplum.pxf.service.serde.RecordReaderFactory;
+import org.greenplum.pxf.service.utilities.BasePluginFactory;
+import org.greenplum.pxf.service.utilities.GSSFailureHandler;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sets up the PXF components used by the benchmarks outside of the PXF
+ * server: the Spring beans the plugins look up, the bridge factory, and the
+ * request contexts for reading and writing files on the local filesystem.
+ * <p>
+ * The files are generated under the directory given by the
+ * <code>pxf.benchmarks.dir</code> system property, by default a
+ * <code>pxf-benchmarks</code> directory in the temporary directory.
+ */
+public final class BenchmarkEnvironment {
+
+    public static final File BASE_DIR = new File(System.getProperty("pxf.benchmarks.dir",
+            new File(System.getProperty("java.io.tmpdir"), "pxf-benchmarks").getPath()));
+
+    private static final AnnotationConfigApplicationContext APPLICATION_CONTEXT = new AnnotationConfigApplicationContext(
+            SpringContext.class, PgUtilities.class, AvroSchemaFileReaderFactory.class, AvroUtilities.class, JsonUtilities.class);
+    private static final PgUtilities PG_UTILITIES = APPLICATION_CONTEXT.getBean(PgUtilities.class);
+    private static final BasePluginFactory PLUGIN_FACTORY = new BasePluginFactory();
+    private static final BridgeFactory BRIDGE_FACTORY = new SimpleBridgeFactory(
+            PLUGIN_FACTORY, new RecordReaderFactory(PG_UTILITIES), new GSSFailureHandler());
+    private static final AtomicLong TRANSACTION_IDS = new AtomicLong();
+
+    private BenchmarkEnvironment() {
+    }
+
+    public static PgUtilities getPgUtilities() {
+        return PG_UTILITIES;
+    }
+
+    /**
+     * Returns an initialized instance of the plugin for the request.
+     *
+     * @param context         the request context
+     * @param pluginClassName the class name of the plugin
+     * @param <T>             the type of the plugin
+     * @return the plugin
+     */
+    public static <T extends Plugin> T getPlugin(RequestContext context, String pluginClassName) {
+        return PLUGIN_FACTORY.getPlugin(context, pluginClassName);
+    }
+
+    /**
+     * Returns the bridge the PXF server would use for the request.
+     *
+     * @param context the request context
+     * @return the bridge for the request
+     */
+    public static Bridge getBridge(RequestContext context) {
+        return BRIDGE_FACTORY.getBridge(context);
+    }
+
+    /**
+     * Creates a request context for the benchmark table, with a unique
+     * transaction id so that the files written with the context do not
+     * collide.
+     *
+     * @param requestType  the type of the request
+     * @param outputFormat the format of the data exchanged with Greenplum
+     * @param format       the format of the file, or null when no plugins are used
+     * @param dataSource   the path of the file to read, or of the directory to write into
+     * @return the request context
+     */
+    public static RequestContext newContext(RequestContext.RequestType requestType, OutputFormat outputFormat,
+                                            BenchmarkFormat format, String dataSource) {
+        return newContext(requestType, outputFormat, format, dataSource, BenchmarkData.columns());
+    }
+
+    /**
+     * Creates a request context for a table with the given columns, with a
+     * unique transaction id so that the files written with the context do
+     * not collide.
+     *
+     * @param requestType  the type of the request
+     * @param outputFormat the format of the data exchanged with Greenplum
+     * @param format       the format of the file, or null when no plugins are used
+     * @param dataSource   the path of the file to read, or of the directory to write into
+     * @param columns      the columns of the table
+     * @return the request context
+     */
+    public static RequestContext newContext(RequestContext.RequestType requestType, OutputFormat outputFormat,
+                                            BenchmarkFormat format, String dataSource,
+                                            List<ColumnDescriptor> columns) {
+        Configuration configuration = new Configuration();
+        configuration.set(HcfsType.CONFIG_KEY_BASE_PATH, "/");
+
+        RequestContext context = new RequestContext();
+        context.setConfig("default");
+        context.setServerName("default");
+        context.setUser(System.getProperty("user.name"));
+        context.setProfileScheme("file");
+        context.setRequestType(requestType);
+        context.setTransactionId("bench-" + TRANSACTION_IDS.incrementAndGet());
+        context.setSegmentId(0);
+        context.setOutputFormat(outputFormat);
+        context.setFormat(outputFormat == OutputFormat.TEXT ? "csv" : "custom");
+        context.setDataEncoding(StandardCharsets.UTF_8);
+        context.setDatabaseEncoding(StandardCharsets.UTF_8);
+        context.setTupleDescription(columns);
+        context.setConfiguration(configuration);
+        if (format != null) {
+            context.setAccessor(format.getAccessor());
+            context.setResolver(format.getResolver());
+        }
+        if (dataSource != null) {
+            context.setDataSource(dataSource);
+            if (requestType == RequestContext.RequestType.READ_BRIDGE) {
+                context.setFragmentMetadata(new HcfsFragmentMetadata(0, new File(dataSource).length()));
+            }
+        }
+        return context;
+    }
+
+    /**
+     * Writes the records into a new file of the given format through the
+     * write bridge of the format, replacing the files of a previous run.
+     *
+     * @param format  the format of the file
+     * @param records the records to write
+     * @return the written file
+     * @throws Exception if the file cannot be written
+     */
+    public static File generateFile(BenchmarkFormat format, List<List<OneField>> records) throws Exception {
+        return generateFile(format, BenchmarkData.columns(), records);
+    }
+
+    /**
+     * Writes the records of a table with the given columns into a new file of
+     * the given format through the write bridge of the format, replacing the
+     * files of a previous run.
+     *
+     * @param format  the format of the file
+     * @param columns the columns of the table
+     * @param records the records to write
+     * @return the written file
+     * @throws Exception if the file cannot be written
+     */
+    public static File generateFile(BenchmarkFormat format, List<ColumnDescriptor> columns,
+                                    List<List<OneField>> records) throws Exception {
+        BenchmarkFormat writeFormat = format.getWriteFormat();
+        File directory = new File(BASE_DIR,
+                writeFormat.name().toLowerCase() + "-" + columns.size() + "x" + records.size());
+        FileUtils.deleteDirectory(directory);
+
+        RequestContext context = newContext(RequestContext.RequestType.WRITE_BRIDGE,
+                OutputFormat.GPDBWritable, writeFormat, directory.getAbsolutePath(), columns);
+        byte[] input = BenchmarkData.serialize(context, records);
+        write(context, input);
+        return findDataFile(directory);
+    }
+
+    /**
+     * Writes the serialized records with the bridge for the context.
+     *
+     * @param context the request context for the write
+     * @param input   the records serialized in the output format of the context
+     * @throws Exception if the records cannot be written
+     */
+    public static void write(RequestContext context, byte[] input) throws Exception {
+        Bridge bridge = getBridge(context);
+        DataInputStream inputStream = new DataInputStream(new ByteArrayInputStream(input));
+        if (!bridge.beginIteration()) {
+            throw new IllegalStateException("Unable to open " + context.getDataSource() + " for write");
+        }
+        try {
+            while (bridge.setNext(inputStream)) {
+                // write all the records
+            }
+        } finally {
+            bridge.endIteration();
+        }
+    }
+
+    private static File findDataFile(File directory) throws IOException {
+        // skip the checksum files of the local filesystem
+        File[] files = directory.listFiles(file -> file.isFile() && !file.getName().startsWith("."));
+        if (files == null || files.length != 1) {
+            throw new IOException("Expected a single data file in " + directory);
+        }
+        return files[0];
+    }
+}
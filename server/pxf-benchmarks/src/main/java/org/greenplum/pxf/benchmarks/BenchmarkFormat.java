@@ -0,0 +1,51 @@
+package org.greenplum.pxf.benchmarks;
+
+import org.greenplum.pxf.plugins.hdfs.AvroFileAccessor;
+import org.greenplum.pxf.plugins.hdfs.AvroResolver;
+import org.greenplum.pxf.plugins.hdfs.ParquetFileAccessor;
+import org.greenplum.pxf.plugins.hdfs.ParquetResolver;
+import org.greenplum.pxf.plugins.hdfs.ParquetVectorizedAccessor;
+import org.greenplum.pxf.plugins.hdfs.ParquetVectorizedResolver;
+import org.greenplum.pxf.plugins.hdfs.orc.ORCVectorizedAccessor;
+import org.greenplum.pxf.plugins.hdfs.orc.ORCVectorizedResolver;
+import org.greenplum.pxf.plugins.json.JsonAccessor;
+import org.greenplum.pxf.plugins.json.JsonResolver;
+
+/**
+ * The file formats exercised by the benchmarks, with the accessor and
+ * resolver that the corresponding PXF profile uses.
+ */
+public enum BenchmarkFormat {
+    PARQUET(ParquetFileAccessor.class, ParquetResolver.class),
+    PARQUET_VECTORIZED(ParquetVectorizedAccessor.class, ParquetVectorizedResolver.class),
+    ORC(ORCVectorizedAccessor.class, ORCVectorizedResolver.class),
+    AVRO(AvroFileAccessor.class, AvroResolver.class),
+    JSON(JsonAccessor.class, JsonResolver.class);
+
+    private final String accessor;
+    private final String resolver;
+
+    BenchmarkFormat(Class<?> accessor, Class<?> resolver) {
+        this.accessor = accessor.getName();
+        this.resolver = resolver.getName();
+    }
+
+    public String getAccessor() {
+        return accessor;
+    }
+
+    public String getResolver() {
+        return resolver;
+    }
+
+    /**
+     * Returns the format used to write the files read with this format, the
+     * vectorized Parquet reader has no write support and reads the files
+     * written by the Parquet profile.
+     *
+     * @return the format used to write the files of this format
+     */
+    public BenchmarkFormat getWriteFormat() {
+        return this == PARQUET_VECTORIZED ? PARQUET : this;
+    }
+}
@@ -0,0 +1,79 @@
+package org.greenplum.pxf.benchmarks;
+
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.io.Writable;
+import org.greenplum.pxf.api.model.OutputFormat;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.service.BridgeOutputBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.DataOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the serialization of resolved records into the TEXT (CSV) and
+ * GPDBWritable formats streamed to Greenplum, for single records and for
+ * vectorized batches. Scores are per record.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BridgeOutputBuilderBenchmark {
+
+    static final int RECORDS = 1024;
+
+    @Param({"TEXT", "GPDBWritable"})
+    public OutputFormat outputFormat;
+
+    private List<List<OneField>> records;
+    private BridgeOutputBuilder outputBuilder;
+    private CountingOutputStream counter;
+    private DataOutputStream out;
+
+    @Setup
+    public void setup() {
+        RequestContext context = BenchmarkEnvironment.newContext(
+                RequestContext.RequestType.READ_BRIDGE, outputFormat, null, null);
+        records = BenchmarkData.records(RECORDS);
+        outputBuilder = new BridgeOutputBuilder(context);
+        counter = new CountingOutputStream();
+        out = new DataOutputStream(counter);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long makeOutput() throws Exception {
+        counter.reset();
+        for (List<OneField> record : records) {
+            for (Writable writable : outputBuilder.makeOutput(record)) {
+                writable.write(out);
+            }
+        }
+        return counter.getCount();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long makeVectorizedOutput() throws Exception {
+        counter.reset();
+        for (Writable writable : outputBuilder.makeVectorizedOutput(records)) {
+            writable.write(out);
+        }
+        return counter.getCount();
+    }
+}
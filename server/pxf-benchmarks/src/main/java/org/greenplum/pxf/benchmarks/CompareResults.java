@@ -0,0 +1,88 @@
+package org.greenplum.pxf.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares the results of two JMH runs written in JSON format (with
+ * <code>-rf json</code>), and prints the change of the score of every
+ * benchmark present in both runs. A change is only reported as faster or
+ * slower when the scores differ by more than the sum of their error margins
+ * (99.9% confidence intervals), otherwise it is reported as within noise.
+ * <p>
+ * Usage: <code>CompareResults baseline.json results.json</code>
+ */
+public class CompareResults {
+
+    private static final String ROW_FORMAT = "%-80s %20s %20s %9s  %s%n";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CompareResults <baseline.json> <results.json>");
+            System.exit(1);
+        }
+
+        Map<String, JsonNode> baseline = readResults(new File(args[0]));
+        Map<String, JsonNode> results = readResults(new File(args[1]));
+
+        System.out.printf(ROW_FORMAT, "Benchmark", "Baseline", "Result", "Change", "");
+        for (Map.Entry<String, JsonNode> entry : results.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null) {
+                continue;
+            }
+            JsonNode after = entry.getValue();
+            double beforeScore = before.path("primaryMetric").path("score").asDouble();
+            double beforeError = errorOf(before);
+            double afterScore = after.path("primaryMetric").path("score").asDouble();
+            double afterError = errorOf(after);
+            String unit = after.path("primaryMetric").path("scoreUnit").asText();
+
+            double change = (afterScore - beforeScore) / beforeScore * 100;
+            String verdict;
+            if (Math.abs(afterScore - beforeScore) <= beforeError + afterError) {
+                verdict = "within noise";
+            } else {
+                // throughput modes measure operations per time unit, higher is better
+                boolean higherIsBetter = "thrpt".equals(after.path("mode").asText());
+                verdict = (afterScore > beforeScore) == higherIsBetter ? "faster" : "slower";
+            }
+            System.out.printf(ROW_FORMAT, entry.getKey(),
+                    String.format("%.3f ± %.3f", beforeScore, beforeError),
+                    String.format("%.3f ± %.3f", afterScore, afterError),
+                    String.format("%+.1f%%", change),
+                    verdict + " (" + unit + ")");
+        }
+    }
+
+    /**
+     * Reads the results of a JMH run, keyed by the name of the benchmark and
+     * the values of its parameters.
+     */
+    private static Map<String, JsonNode> readResults(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText()
+                    .replace(CompareResults.class.getPackage().getName() + ".", ""));
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+
+    private static double errorOf(JsonNode result) {
+        // the error is NaN when there are not enough measurements to compute it
+        JsonNode error = result.path("primaryMetric").path("scoreError");
+        return error.isNumber() ? error.asDouble() : 0;
+    }
+}
@@ -0,0 +1,31 @@
+package org.greenplum.pxf.benchmarks;
+
+import java.io.OutputStream;
+
+/**
+ * An output stream that discards the bytes written to it and only counts
+ * them, standing in for the response stream to Greenplum. The count is
+ * returned by the benchmarks so that the writes cannot be optimized away.
+ */
+public class CountingOutputStream extends OutputStream {
+
+    private long count;
+
+    @Override
+    public void write(int b) {
+        count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        count += len;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void reset() {
+        count = 0;
+    }
+}
@@ -0,0 +1,84 @@
+package org.greenplum.pxf.benchmarks;
+
+import org.greenplum.pxf.api.filter.FilterParser;
+import org.greenplum.pxf.api.filter.Node;
+import org.greenplum.pxf.api.filter.Operator;
+import org.greenplum.pxf.api.filter.SupportedOperatorPruner;
+import org.greenplum.pxf.api.filter.ToStringTreeVisitor;
+import org.greenplum.pxf.api.filter.TreeTraverser;
+import org.greenplum.pxf.api.filter.TreeVisitor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the parsing of the filter strings pushed down by Greenplum, and
+ * the pruning and serialization of the parsed trees done by the accessors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterParserBenchmark {
+
+    private static final TreeTraverser TRAVERSER = new TreeTraverser();
+    private static final TreeVisitor PRUNER = new SupportedOperatorPruner(EnumSet.of(
+            Operator.LESS_THAN, Operator.GREATER_THAN, Operator.LESS_THAN_OR_EQUAL,
+            Operator.GREATER_THAN_OR_EQUAL, Operator.EQUALS, Operator.NOT_EQUALS,
+            Operator.IS_NULL, Operator.IS_NOT_NULL, Operator.AND, Operator.OR, Operator.NOT));
+
+    /**
+     * The filters, from a single predicate to a conjunction of predicates on
+     * all the columns of the benchmark table with an IN list and a LIKE that
+     * is pruned.
+     */
+    @Param({
+            // id = 5
+            "a0c23s1d5o5",
+            // id > 100 AND quantity <= 2000000 AND name <> 'orc-7'
+            "a0c23s3d100o2a1c20s7d2000000o3l0a4c25s5dorc-7o6l0",
+            // (id >= 10 OR price IS NULL) AND NOT active = true AND description LIKE 'json%'
+            // AND id IN (1, 2, 3, 5, 8, 13, 21, 34)
+            "a0c23s2d10o4a2o8l1a3c16s4dtrueo5l2l0a5c25s5djson%o7l0a0m1007s1d1s1d2s1d3s1d5s1d8s2d13s2d21s2d34o10l0"
+    })
+    public String filter;
+
+    private Node root;
+
+    @Setup
+    public void setup() throws Exception {
+        root = new FilterParser().parse(filter);
+    }
+
+    @Benchmark
+    public Node parse() throws Exception {
+        return new FilterParser().parse(filter);
+    }
+
+    @Benchmark
+    public String pruneAndSerialize() throws Exception {
+        ToStringTreeVisitor toStringTreeVisitor = new ToStringTreeVisitor();
+        TRAVERSER.traverse(new FilterParser().parse(filter), PRUNER, toStringTreeVisitor);
+        return toStringTreeVisitor.toString();
+    }
+
+    @Benchmark
+    public String serialize() {
+        ToStringTreeVisitor toStringTreeVisitor = new ToStringTreeVisitor();
+        TRAVERSER.traverse(root, toStringTreeVisitor);
+        return toStringTreeVisitor.toString();
+    }
+}
@@ -0,0 +1,81 @@
+package org.greenplum.pxf.benchmarks;
+
+import org.greenplum.pxf.api.io.GPDBWritable;
+import org.greenplum.pxf.api.io.Writable;
+import org.greenplum.pxf.api.model.OutputFormat;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.service.BridgeOutputBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link GPDBWritable#write} and {@link GPDBWritable#readFields} of
+ * populated records, the binary format exchanged with Greenplum. Scores are
+ * per record.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GPDBWritableBenchmark {
+
+    static final int RECORDS = 1024;
+
+    private List<Writable> writables;
+    private byte[] serialized;
+    private CountingOutputStream counter;
+    private DataOutputStream out;
+
+    @Setup
+    public void setup() throws Exception {
+        RequestContext context = BenchmarkEnvironment.newContext(
+                RequestContext.RequestType.READ_BRIDGE, OutputFormat.GPDBWritable, null, null);
+        BridgeOutputBuilder outputBuilder = new BridgeOutputBuilder(context);
+        // the vectorized output holds a separate writable for every record
+        writables = new ArrayList<>(outputBuilder.makeVectorizedOutput(BenchmarkData.records(RECORDS)));
+        serialized = BenchmarkData.serialize(context, BenchmarkData.records(RECORDS));
+        counter = new CountingOutputStream();
+        out = new DataOutputStream(counter);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long write() throws Exception {
+        counter.reset();
+        for (Writable writable : writables) {
+            writable.write(out);
+        }
+        return counter.getCount();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void readFields(Blackhole blackhole) throws Exception {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(serialized));
+        for (int i = 0; i < RECORDS; i++) {
+            GPDBWritable writable = new GPDBWritable(StandardCharsets.UTF_8);
+            writable.readFields(in);
+            blackhole.consume(writable);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.greenplum.pxf.benchmarks;
+
+import org.greenplum.pxf.api.io.Writable;
+import org.greenplum.pxf.api.model.OutputFormat;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.service.bridge.Bridge;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the full read loop of the PXF server for a fragment of a
+ * generated local file: the bridge chosen for the profile reads the file and
+ * the records are serialized into the output format streamed to Greenplum.
+ * Scores are per file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReadBridgeBenchmark {
+
+    @Param({"PARQUET", "PARQUET_VECTORIZED", "ORC", "AVRO", "JSON"})
+    public BenchmarkFormat format;
+
+    @Param({"TEXT", "GPDBWritable"})
+    public OutputFormat outputFormat;
+
+    @Param({"100000"})
+    public int rows;
+
+    private File file;
+    private CountingOutputStream counter;
+    private DataOutputStream out;
+
+    @Setup
+    public void setup() throws Exception {
+        file = BenchmarkEnvironment.generateFile(format, BenchmarkData.records(rows));
+        counter = new CountingOutputStream();
+        out = new DataOutputStream(counter);
+    }
+
+    @Benchmark
+    public long read() throws Exception {
+        RequestContext context = BenchmarkEnvironment.newContext(RequestContext.RequestType.READ_BRIDGE,
+                outputFormat, format, file.getAbsolutePath());
+        Bridge bridge = BenchmarkEnvironment.getBridge(context);
+
+        counter.reset();
+        if (!bridge.beginIteration()) {
+            throw new IllegalStateException("Unable to open " + file + " for read");
+        }
+        try {
+            Writable record;
+            while ((record = bridge.getNext()) != null) {
+                record.write(out);
+            }
+        } finally {
+            bridge.endIteration();
+        }
+        return counter.getCount();
+    }
+}
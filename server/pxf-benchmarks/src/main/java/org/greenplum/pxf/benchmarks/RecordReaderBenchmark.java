@@ -0,0 +1,68 @@
+package org.greenplum.pxf.benchmarks;
+
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.model.OutputFormat;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.service.serde.GPDBWritableRecordReader;
+import org.greenplum.pxf.service.serde.RecordReader;
+import org.greenplum.pxf.service.serde.TextRecordReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the deserialization of the records sent by Greenplum when writing,
+ * with the {@link TextRecordReader} for TEXT (CSV) and the
+ * {@link GPDBWritableRecordReader} for GPDBWritable. Scores are per record.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecordReaderBenchmark {
+
+    static final int RECORDS = 1024;
+
+    @Param({"TEXT", "GPDBWritable"})
+    public OutputFormat outputFormat;
+
+    private RequestContext context;
+    private byte[] serialized;
+
+    @Setup
+    public void setup() throws Exception {
+        context = BenchmarkEnvironment.newContext(RequestContext.RequestType.WRITE_BRIDGE, outputFormat, null, null);
+        serialized = BenchmarkData.serialize(context, BenchmarkData.records(RECORDS));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void readRecord(Blackhole blackhole) throws Exception {
+        // the text record reader keeps a parser over the stream, a new reader is needed for every stream
+        RecordReader recordReader = outputFormat == OutputFormat.TEXT
+                ? new TextRecordReader(context, BenchmarkEnvironment.getPgUtilities())
+                : new GPDBWritableRecordReader(context);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(serialized));
+        List<OneField> record;
+        while ((record = recordReader.readRecord(in)) != null) {
+            blackhole.consume(record);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.greenplum.pxf.benchmarks;
+
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.model.Accessor;
+import org.greenplum.pxf.api.model.OutputFormat;
+import org.greenplum.pxf.api.model.ReadVectorizedResolver;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.model.Resolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading a generated local file with the accessor and resolver of
+ * a format, without serializing the resolved records for Greenplum. Scores
+ * are per file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ResolverBenchmark {
+
+    @Param({"PARQUET", "PARQUET_VECTORIZED", "ORC", "AVRO", "JSON"})
+    public BenchmarkFormat format;
+
+    @Param({"100000"})
+    public int rows;
+
+    private File file;
+
+    @Setup
+    public void setup() throws Exception {
+        file = BenchmarkEnvironment.generateFile(format, BenchmarkData.records(rows));
+    }
+
+    @Benchmark
+    public long resolve(Blackhole blackhole) throws Exception {
+        RequestContext context = BenchmarkEnvironment.newContext(RequestContext.RequestType.READ_BRIDGE,
+                OutputFormat.GPDBWritable, format, file.getAbsolutePath());
+        Accessor accessor = BenchmarkEnvironment.getPlugin(context, context.getAccessor());
+        Resolver resolver = BenchmarkEnvironment.getPlugin(context, context.getResolver());
+
+        long count = 0;
+        if (!accessor.openForRead()) {
+            throw new IllegalStateException("Unable to open " + file + " for read");
+        }
+        try {
+            OneRow row;
+            while ((row = accessor.readNextObject()) != null) {
+                if (resolver instanceof ReadVectorizedResolver) {
+                    List<List<OneField>> batch = ((ReadVectorizedResolver) resolver).getFieldsForBatch(row);
+                    blackhole.consume(batch);
+                    count += batch.size();
+                } else {
+                    blackhole.consume(resolver.getFields(row));
+                    count++;
+                }
+            }
+        } finally {
+            accessor.closeForRead();
+        }
+        return count;
+    }
+}
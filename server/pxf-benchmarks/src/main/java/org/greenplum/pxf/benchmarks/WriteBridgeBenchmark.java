@@ -0,0 +1,69 @@
+package org.greenplum.pxf.benchmarks;
+
+import org.apache.commons.io.FileUtils;
+import org.greenplum.pxf.api.model.OutputFormat;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the full write loop of the PXF server: the records streamed by
+ * Greenplum are deserialized and written into a new local file by the bridge
+ * chosen for the profile. Scores are per file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class WriteBridgeBenchmark {
+
+    @Param({"PARQUET", "ORC", "AVRO", "JSON"})
+    public BenchmarkFormat format;
+
+    @Param({"TEXT", "GPDBWritable"})
+    public OutputFormat outputFormat;
+
+    @Param({"100000"})
+    public int rows;
+
+    private File directory;
+    private byte[] input;
+
+    @Setup
+    public void setup() throws Exception {
+        directory = new File(BenchmarkEnvironment.BASE_DIR, "write-" + format.name().toLowerCase());
+        RequestContext context = BenchmarkEnvironment.newContext(RequestContext.RequestType.WRITE_BRIDGE,
+                outputFormat, format, directory.getAbsolutePath());
+        input = BenchmarkData.serialize(context, BenchmarkData.records(rows));
+    }
+
+    @Benchmark
+    public void write() throws Exception {
+        // every write uses a new transaction id, and hence a new file
+        RequestContext context = BenchmarkEnvironment.newContext(RequestContext.RequestType.WRITE_BRIDGE,
+                outputFormat, format, directory.getAbsolutePath());
+        BenchmarkEnvironment.write(context, input);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteFiles() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+}
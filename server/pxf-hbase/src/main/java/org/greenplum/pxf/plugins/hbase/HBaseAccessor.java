@@ -20,11 +20,15 @@ package org.greenplum.pxf.plugins.hbase;
  */
 
 
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.BufferedMutatorParams;
 import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
 import org.apache.hadoop.hbase.client.Scan;
@@ -41,12 +45,18 @@ import org.greenplum.pxf.api.filter.TreeVisitor;
 import org.greenplum.pxf.api.model.Accessor;
 import org.greenplum.pxf.api.model.BasePlugin;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.greenplum.pxf.plugins.hbase.utilities.HBaseColumnDescriptor;
+import org.greenplum.pxf.plugins.hbase.utilities.HBaseLookupTable;
 import org.greenplum.pxf.plugins.hbase.utilities.HBaseTupleDescription;
 import org.greenplum.pxf.plugins.hbase.utilities.HBaseUtilities;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Accessor for HBase.
@@ -58,6 +68,11 @@ import java.util.EnumSet;
  * <p>
  * The class supports filters using the {@link HBaseFilterBuilder}.
  * Regions can be filtered out according to input from {@link HBaseFilterBuilder}.
+ * <p>
+ * For writes, each row is sent as a {@link Put} through a {@link BufferedMutator},
+ * which batches the Puts until its write buffer ({@code hbase.client.write.buffer})
+ * is full. The buffer is also flushed when the flush interval
+ * ({@value #WRITE_FLUSH_INTERVAL_PROPERTY}) has elapsed since the last flush.
  */
 public class HBaseAccessor extends BasePlugin implements Accessor {
 
@@ -77,11 +92,18 @@ public class HBaseAccessor extends BasePlugin implements Accessor {
 
     private static final TreeVisitor PRUNER = new SupportedOperatorPruner(SUPPORTED_OPERATORS);
     private static final TreeTraverser TRAVERSER = new TreeTraverser();
-    private static final String UNSUPPORTED_ERR_MESSAGE = "HBase accessor does not support write operation.";
+    private static final Logger LOG = LoggerFactory.getLogger(HBaseAccessor.class);
+
+    static final String WRITE_FLUSH_INTERVAL_PROPERTY = "pxf.hbase.write.flush.interval";
 
     private HBaseTupleDescription tupleDescription;
     private Connection connection;
     private Table table;
+    private BufferedMutator mutator;
+    private long flushIntervalNanos;
+    private long lastFlushNanos;
+    private long rowsWritten;
+    private long rowsSkipped;
     private SplitBoundary split;
     private Scan scanDetails;
     private ResultScanner currentScanner;
@@ -116,7 +138,10 @@ public class HBaseAccessor extends BasePlugin implements Accessor {
      */
     @Override
     public void afterPropertiesSet() {
-        tupleDescription = new HBaseTupleDescription(context);
+        // writes have no fragment metadata, their mappings are loaded when the table is opened
+        if (context.getRequestType() != RequestContext.RequestType.WRITE_BRIDGE) {
+            tupleDescription = new HBaseTupleDescription(context);
+        }
         split = null;
         scanStartKey = HConstants.EMPTY_START_ROW;
         scanEndKey = HConstants.EMPTY_END_ROW;
@@ -147,32 +172,88 @@ public class HBaseAccessor extends BasePlugin implements Accessor {
     }
 
     /**
-     * Opens the resource for write.
+     * Opens the HBase table for write. The columns are mapped to HBase
+     * columns with the mappings of the lookup table, if any.
      *
      * @return true if the resource is successfully opened
      */
     @Override
-    public boolean openForWrite() {
-        throw new UnsupportedOperationException(UNSUPPORTED_ERR_MESSAGE);
+    public boolean openForWrite() throws Exception {
+        Configuration hbaseConfiguration = HBaseConfiguration.create(configuration);
+        tupleDescription = new HBaseTupleDescription(context, loadMappings(hbaseConfiguration));
+        if (!hasKeyColumn()) {
+            throw new IllegalArgumentException(String.format(
+                    "HBase table %s can not be written without a %s column",
+                    context.getDataSource(), ColumnDescriptor.RECORD_KEY_NAME));
+        }
+
+        flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(
+                hbaseConfiguration.getTimeDuration(WRITE_FLUSH_INTERVAL_PROPERTY, 0, TimeUnit.MILLISECONDS));
+
+        connection = createConnection(hbaseConfiguration);
+        mutator = connection.getBufferedMutator(
+                new BufferedMutatorParams(TableName.valueOf(context.getDataSource())));
+        lastFlushNanos = System.nanoTime();
+
+        LOG.debug("Opened HBase table {} for write with a write buffer of {} bytes and a flush interval of {} ms",
+                context.getDataSource(), mutator.getWriteBufferSize(), TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos));
+        return true;
     }
 
     /**
-     * Writes the next object.
+     * Writes the next object. The row is buffered in the {@link BufferedMutator},
+     * a row without any non-null column value is skipped as HBase does not
+     * store empty rows.
      *
-     * @param onerow the object to be written
+     * @param onerow the object to be written, as built by {@link HBaseResolver#setFields}
      * @return true if the write succeeded
      */
     @Override
-    public boolean writeNextObject(OneRow onerow) {
-        throw new UnsupportedOperationException(UNSUPPORTED_ERR_MESSAGE);
+    public boolean writeNextObject(OneRow onerow) throws IOException {
+        byte[] rowKey = (byte[]) onerow.getKey();
+        byte[][] values = (byte[][]) onerow.getData();
+
+        Put put = new Put(rowKey);
+        for (int i = 0; i < tupleDescription.columns(); ++i) {
+            HBaseColumnDescriptor column = tupleDescription.getColumn(i);
+            if (!column.isKeyColumn() && values[i] != null) {
+                put.addColumn(column.columnFamilyBytes(), column.qualifierBytes(), values[i]);
+            }
+        }
+
+        if (put.isEmpty()) {
+            rowsSkipped++;
+            return true;
+        }
+
+        mutator.mutate(put);
+        rowsWritten++;
+
+        if (flushIntervalNanos > 0 && System.nanoTime() - lastFlushNanos >= flushIntervalNanos) {
+            mutator.flush();
+            lastFlushNanos = System.nanoTime();
+        }
+        return true;
     }
 
     /**
-     * Closes the resource for write.
+     * Flushes the buffered rows and closes the HBase table.
      */
     @Override
-    public void closeForWrite() {
-        throw new UnsupportedOperationException(UNSUPPORTED_ERR_MESSAGE);
+    public void closeForWrite() throws IOException {
+        try {
+            if (mutator != null) {
+                // flushes the rows still buffered
+                mutator.close();
+            }
+        } finally {
+            HBaseUtilities.closeConnection(null, connection);
+        }
+
+        if (rowsSkipped > 0) {
+            LOG.warn("Skipped {} rows without any non-null column value while writing {} rows to HBase table {}",
+                    rowsSkipped, rowsWritten, context.getDataSource());
+        }
     }
 
     /**
@@ -195,10 +276,46 @@ public class HBaseAccessor extends BasePlugin implements Accessor {
      * Load hbase table object using ConnectionFactory
      */
     private void openTable() throws IOException {
-        connection = ConnectionFactory.createConnection(HBaseConfiguration.create(configuration));
+        connection = createConnection(HBaseConfiguration.create(configuration));
         table = connection.getTable(TableName.valueOf(context.getDataSource()));
     }
 
+    /**
+     * Creates the connection to HBase.
+     *
+     * @param hbaseConfiguration the HBase configuration
+     * @return the connection
+     * @throws IOException when the connection fails
+     */
+    Connection createConnection(Configuration hbaseConfiguration) throws IOException {
+        return ConnectionFactory.createConnection(hbaseConfiguration);
+    }
+
+    /**
+     * Loads the mappings of the columns of the table from the lookup table.
+     *
+     * @param hbaseConfiguration the HBase configuration
+     * @return the mappings, or null if the table has no mappings
+     * @throws Exception when the lookup table can not be read
+     */
+    Map<String, byte[]> loadMappings(Configuration hbaseConfiguration) throws Exception {
+        HBaseLookupTable lookupTable = new HBaseLookupTable(hbaseConfiguration);
+        try {
+            return lookupTable.getMappings(context.getDataSource());
+        } finally {
+            lookupTable.close();
+        }
+    }
+
+    private boolean hasKeyColumn() {
+        for (int i = 0; i < tupleDescription.columns(); ++i) {
+            if (tupleDescription.getColumn(i).isKeyColumn()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Creates a {@link SplitBoundary} of the table split
      * this accessor instance is assigned to scan.
@@ -30,7 +30,9 @@ import org.greenplum.pxf.api.error.BadRecordException;
 import org.greenplum.pxf.api.error.UnsupportedTypeException;
 import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.BasePlugin;
+import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.model.Resolver;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.greenplum.pxf.plugins.hbase.utilities.HBaseColumnDescriptor;
 import org.greenplum.pxf.plugins.hbase.utilities.HBaseTupleDescription;
 
@@ -45,6 +47,9 @@ import java.util.List;
  * into a List of {@link OneField} objects.
  * That also includes the conversion process of each HBase column's value into its GPDB assigned type.
  *
+ * For writes, the class converts a List of {@link OneField} objects into a {@link OneRow} holding
+ * the row key and the values of the columns as bytes, in the order of the table's columns.
+ *
  * Currently, the class assumes all HBase values are stored as String object Bytes encoded.
  */
 public class HBaseResolver extends BasePlugin implements Resolver {
@@ -52,7 +57,10 @@ public class HBaseResolver extends BasePlugin implements Resolver {
 
     @Override
     public void afterPropertiesSet() {
-        tupleDescription = new HBaseTupleDescription(context);
+        // writes have no fragment metadata, the accessor maps their columns
+        if (context.getRequestType() != RequestContext.RequestType.WRITE_BRIDGE) {
+            tupleDescription = new HBaseTupleDescription(context);
+        }
     }
 
     /**
@@ -89,14 +97,70 @@ public class HBaseResolver extends BasePlugin implements Resolver {
 
     /**
      * Constructs and sets the fields of a {@link OneRow}.
+     * The key of the row is the value of the record key column, and its data
+     * is an array of the values of the columns converted to bytes, with a null
+     * value for the record key column and for every NULL value.
      *
      * @param record list of {@link OneField}
      * @return the constructed {@link OneRow}
      * @throws Exception if constructing a row from the fields failed
      */
     @Override
-    public OneRow setFields(List<OneField> record) {
-        throw new UnsupportedOperationException("HBase resolver does not support write operation");
+    public OneRow setFields(List<OneField> record) throws Exception {
+        List<ColumnDescriptor> columns = context.getTupleDescription();
+        byte[] rowKey = null;
+        byte[][] values = new byte[record.size()][];
+
+        for (int i = 0; i < record.size(); ++i) {
+            ColumnDescriptor column = columns.get(i);
+            byte[] value = convertToBytes(column.columnTypeCode(), column.columnTypeName(), record.get(i).val);
+
+            if (column.isKeyColumn()) {
+                rowKey = value;
+            } else {
+                values[i] = value;
+            }
+        }
+
+        if (rowKey == null) {
+            throw new BadRecordException("HBase row key (column " + ColumnDescriptor.RECORD_KEY_NAME + ") cannot be null");
+        }
+        return new OneRow(rowKey, values);
+    }
+
+    /**
+     * Converts given value to bytes the way {@link #convertToJavaObject} reads them back.
+     *
+     * @param typeCode ColumnDescriptor type id
+     * @param typeName type name. Used for error messages
+     * @param val value to be converted
+     * @return value converted to bytes, or null if the value is null
+     * @throws UnsupportedTypeException when type code is not supported
+     */
+    byte[] convertToBytes(int typeCode, String typeName, Object val) {
+        if (val == null) {
+            return null;
+        }
+        switch (DataType.get(typeCode)) {
+            case TEXT:
+            case VARCHAR:
+            case BPCHAR:
+            case NUMERIC:
+            case INTEGER:
+            case BIGINT:
+            case SMALLINT:
+            case REAL:
+            case FLOAT8:
+            case BOOLEAN:
+            case TIMESTAMP:
+                return Bytes.toBytes(val.toString());
+
+            case BYTEA:
+                return (byte[]) val;
+
+            default:
+                throw new UnsupportedTypeException("Unsupported data type " + typeName);
+        }
     }
 
     /**
@@ -50,6 +50,21 @@ public class HBaseTupleDescription {
         parseHBaseTupleDescription();
     }
 
+    /**
+     * Constructs tuple description of the HBase table with the given mappings
+     * of the lookup table, for writes that have no fragment metadata.
+     *
+     * @param context      data containing table tuple description
+     * @param tableMapping mappings between GPDB column names in lower case and
+     *                     HBase column names, null if the table has no mappings
+     */
+    public HBaseTupleDescription(RequestContext context, Map<String, byte[]> tableMapping) {
+        this.context = context;
+        this.tableMapping = tableMapping;
+        tupleDescription = new ArrayList<>();
+        createTupleDescription();
+    }
+
     /**
      * Returns the number of fields.
      *
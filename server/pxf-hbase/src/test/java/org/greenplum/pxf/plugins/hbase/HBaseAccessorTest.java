@@ -21,24 +21,39 @@ package org.greenplum.pxf.plugins.hbase;
 
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.CellUtil;
 import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.BufferedMutatorParams;
 import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import java.util.HashMap;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -109,6 +124,113 @@ public class HBaseAccessorTest {
         verifyScannerDidNothing();
     }
 
+    /*
+     * Test write of rows through the BufferedMutator
+     *
+     * Columns are mapped directly and via the lookup table,
+     * null values are not written and rows without values are skipped
+     */
+    @Test
+    public void writeRows() throws Exception {
+        prepareWrite();
+        Map<String, byte[]> mappings = new HashMap<>();
+        mappings.put("name", Bytes.toBytes("cf2:name"));
+        HBaseAccessor accessor = createWriteAccessor(mappings);
+        BufferedMutator mutator = mock(BufferedMutator.class);
+        when(hbaseConnection.getBufferedMutator(any(BufferedMutatorParams.class))).thenReturn(mutator);
+
+        assertTrue(accessor.openForWrite());
+        assertTrue(accessor.writeNextObject(new OneRow(Bytes.toBytes("row1"),
+                new byte[][]{null, Bytes.toBytes("1"), Bytes.toBytes("one")})));
+        assertTrue(accessor.writeNextObject(new OneRow(Bytes.toBytes("row2"),
+                new byte[][]{null, null, null})));
+        assertTrue(accessor.writeNextObject(new OneRow(Bytes.toBytes("row3"),
+                new byte[][]{null, null, Bytes.toBytes("three")})));
+        accessor.closeForWrite();
+
+        ArgumentCaptor<Put> puts = ArgumentCaptor.forClass(Put.class);
+        verify(mutator, times(2)).mutate(puts.capture());
+        Put put = puts.getAllValues().get(0);
+        assertArrayEquals(Bytes.toBytes("row1"), put.getRow());
+        assertArrayEquals(Bytes.toBytes("1"),
+                CellUtil.cloneValue(put.get(Bytes.toBytes("cf1"), Bytes.toBytes("q1")).get(0)));
+        assertArrayEquals(Bytes.toBytes("one"),
+                CellUtil.cloneValue(put.get(Bytes.toBytes("cf2"), Bytes.toBytes("name")).get(0)));
+        put = puts.getAllValues().get(1);
+        assertArrayEquals(Bytes.toBytes("row3"), put.getRow());
+        assertEquals(1, put.size());
+
+        // no flush interval, the rows are flushed when the mutator is closed
+        verify(mutator, never()).flush();
+        verify(mutator).close();
+        verify(hbaseConnection).close();
+    }
+
+    /*
+     * Test the buffered rows are flushed once the flush interval has elapsed
+     */
+    @Test
+    public void writeRowsFlushInterval() throws Exception {
+        prepareWrite();
+        context.getConfiguration().set(HBaseAccessor.WRITE_FLUSH_INTERVAL_PROPERTY, "1ms");
+        HBaseAccessor accessor = createWriteAccessor(null);
+        BufferedMutator mutator = mock(BufferedMutator.class);
+        when(hbaseConnection.getBufferedMutator(any(BufferedMutatorParams.class))).thenReturn(mutator);
+
+        accessor.openForWrite();
+        Thread.sleep(5);
+        accessor.writeNextObject(new OneRow(Bytes.toBytes("row1"),
+                new byte[][]{null, Bytes.toBytes("1"), null}));
+
+        verify(mutator).mutate(any(Put.class));
+        verify(mutator).flush();
+        accessor.closeForWrite();
+    }
+
+    /*
+     * Test write fails without a recordkey column
+     */
+    @Test
+    public void writeWithoutRecordKey() throws Exception {
+        prepareWrite();
+        context.getTupleDescription().remove(0);
+        HBaseAccessor accessor = createWriteAccessor(null);
+
+        Exception e = assertThrows(IllegalArgumentException.class, accessor::openForWrite);
+        assertEquals("HBase table fishy_HBase_table can not be written without a recordkey column", e.getMessage());
+        verify(accessor, never()).createConnection(any());
+    }
+
+    /*
+     * Helper for test setup.
+     * Creates a RequestContext for a write
+     */
+    private void prepareWrite() {
+        context = new RequestContext();
+        context.setConfig("default");
+        context.setUser("test-user");
+        context.setDataSource(tableName);
+        context.setRequestType(RequestContext.RequestType.WRITE_BRIDGE);
+        context.setConfiguration(new Configuration());
+        context.getTupleDescription().add(new ColumnDescriptor("recordkey", DataType.TEXT.getOID(), 0, "text", null));
+        context.getTupleDescription().add(new ColumnDescriptor("cf1:q1", DataType.INTEGER.getOID(), 1, "int4", null));
+        context.getTupleDescription().add(new ColumnDescriptor("name", DataType.TEXT.getOID(), 2, "text", null));
+    }
+
+    /*
+     * Helper for test setup.
+     * Creates an accessor with the given lookup table mappings and a mock connection
+     */
+    private HBaseAccessor createWriteAccessor(Map<String, byte[]> mappings) throws Exception {
+        hbaseConnection = mock(Connection.class);
+        HBaseAccessor accessor = spy(new HBaseAccessor());
+        doReturn(mappings).when(accessor).loadMappings(any());
+        doReturn(hbaseConnection).when(accessor).createConnection(any());
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        return accessor;
+    }
+
     /*
      * Helper for test setup.
      * Creates a mock for HBaseTupleDescription and RequestContext
@@ -19,14 +19,22 @@ package org.greenplum.pxf.plugins.hbase;
  * under the License.
  */
 
+import org.apache.hadoop.hbase.util.Bytes;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.error.BadRecordException;
+import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.HashMap;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class HBaseResolverTest {
@@ -100,10 +108,54 @@ public class HBaseResolverTest {
     }
 
     @Test
-    public void testSetFieldsIsUnsupported() {
-        Exception e = assertThrows(UnsupportedOperationException.class,
-                () -> new HBaseResolver().setFields(null));
+    public void testSetFields() throws Exception {
+        HBaseResolver resolver = createWriteResolver();
+        byte[] bytes = new byte[]{0, 1, 2};
+
+        OneRow row = resolver.setFields(Arrays.asList(
+                new OneField(DataType.INTEGER.getOID(), 42),
+                new OneField(DataType.TEXT.getOID(), "row1"),
+                new OneField(DataType.BYTEA.getOID(), bytes),
+                new OneField(DataType.BOOLEAN.getOID(), null)));
+
+        assertArrayEquals(Bytes.toBytes("row1"), (byte[]) row.getKey());
+        byte[][] values = (byte[][]) row.getData();
+        assertEquals(4, values.length);
+        assertArrayEquals(Bytes.toBytes("42"), values[0]);
+        assertNull(values[1]);
+        assertSame(bytes, values[2]);
+        assertNull(values[3]);
+
+        // values are written the way they are read
+        assertEquals(42, resolver.convertToJavaObject(DataType.INTEGER.getOID(), "int4", values[0]));
+    }
+
+    @Test
+    public void testSetFieldsNullRowKey() {
+        HBaseResolver resolver = createWriteResolver();
 
-        assertEquals("HBase resolver does not support write operation", e.getMessage());
+        Exception e = assertThrows(BadRecordException.class,
+                () -> resolver.setFields(Arrays.asList(
+                        new OneField(DataType.INTEGER.getOID(), 42),
+                        new OneField(DataType.TEXT.getOID(), null),
+                        new OneField(DataType.BYTEA.getOID(), null),
+                        new OneField(DataType.BOOLEAN.getOID(), true))));
+        assertEquals("HBase row key (column recordkey) cannot be null", e.getMessage());
+    }
+
+    private HBaseResolver createWriteResolver() {
+        context = new RequestContext();
+        context.setConfig("default");
+        context.setUser("test-user");
+        context.setRequestType(RequestContext.RequestType.WRITE_BRIDGE);
+        context.getTupleDescription().add(new ColumnDescriptor("cf1:q1", DataType.INTEGER.getOID(), 0, "int4", null));
+        context.getTupleDescription().add(new ColumnDescriptor("recordkey", DataType.TEXT.getOID(), 1, "text", null));
+        context.getTupleDescription().add(new ColumnDescriptor("cf1:q2", DataType.BYTEA.getOID(), 2, "bytea", null));
+        context.getTupleDescription().add(new ColumnDescriptor("cf2:q3", DataType.BOOLEAN.getOID(), 3, "bool", null));
+
+        HBaseResolver resolver = new HBaseResolver();
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+        return resolver;
     }
 }
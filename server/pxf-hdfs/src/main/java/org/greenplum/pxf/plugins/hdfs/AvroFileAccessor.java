@@ -41,9 +41,16 @@ import org.greenplum.pxf.api.utilities.SpringContext;
 import org.greenplum.pxf.plugins.hdfs.avro.AvroUtilities;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * A PXF Accessor for Avro File records
+ * <p>
+ * When the query projects only some of the columns, the records are read with a reader schema that contains only
+ * the fields of the projected columns, so the Avro decoder skips the values of the other fields. When the
+ * {@value #REUSE_RECORDS_OPTION} option is true, the record read for the previous row is reused to decode the
+ * next one instead of allocating a new record for every row.
  */
 public class AvroFileAccessor extends HdfsSplittableDataAccessor {
 
@@ -55,10 +62,12 @@ public class AvroFileAccessor extends HdfsSplittableDataAccessor {
     private static final String SNAPPY_CODEC = "snappy";
     private static final String BZIP2_CODEC = "bzip2";
     private static final String XZ_CODEC = "xz";
+    static final String REUSE_RECORDS_OPTION = "REUSE_RECORDS";
     private AvroWrapper<GenericRecord> avroWrapper;
     private DataFileWriter<GenericRecord> writer;
     private long rowsWritten, rowsRead;
     private Schema schema;
+    private boolean reuseRecords;
     private final AvroUtilities avroUtilities;
 
     /**
@@ -97,8 +106,9 @@ public class AvroFileAccessor extends HdfsSplittableDataAccessor {
 
     @Override
     public boolean openForRead() throws Exception {
-        // Pass the schema to the AvroInputFormat
-        AvroJob.setInputSchema(jobConf, schema);
+        // Pass the schema to the AvroInputFormat, it is used as the reader schema of the files
+        AvroJob.setInputSchema(jobConf, buildReadSchema(schema));
+        reuseRecords = context.getOption(REUSE_RECORDS_OPTION, false);
 
         // The avroWrapper required for the iteration
         avroWrapper = new AvroWrapper<>();
@@ -121,8 +131,10 @@ public class AvroFileAccessor extends HdfsSplittableDataAccessor {
      */
     @Override
     public OneRow readNextObject() throws IOException {
-        /* Resetting datum to null, to avoid stale bytes to be padded from the previous row's datum */
-        avroWrapper.datum(null);
+        if (!reuseRecords) {
+            /* Resetting datum to null, the reader allocates a new record instead of decoding into the previous one */
+            avroWrapper.datum(null);
+        }
         if (reader.next(avroWrapper, NullWritable.get())) { // There is one more record in the current split.
             rowsRead++;
             return new OneRow(null, avroWrapper.datum());
@@ -134,6 +146,33 @@ public class AvroFileAccessor extends HdfsSplittableDataAccessor {
         return null;
     }
 
+    /**
+     * Generates a read schema when there is column projection. The read schema has the fields of the schema that
+     * correspond to the projected columns, the resolver returns nulls for the columns that are not projected.
+     *
+     * @param schema the schema of the table
+     * @return the read schema
+     */
+    Schema buildReadSchema(Schema schema) {
+        // the resolver reports a schema that does not match the columns of the table
+        if (!context.hasColumnProjection() || schema.getType() != Schema.Type.RECORD
+                || schema.getFields().size() != context.getColumns()) {
+            return schema;
+        }
+
+        List<Schema.Field> projectedFields = new ArrayList<>();
+        for (Schema.Field field : schema.getFields()) {
+            if (context.getColumn(field.pos()).isProjected()) {
+                // a field can only belong to one schema, copy it with its default value and aliases
+                projectedFields.add(new Schema.Field(field, field.schema()));
+            }
+        }
+        Schema readSchema = Schema.createRecord(schema.getName(), schema.getDoc(), schema.getNamespace(),
+                schema.isError(), projectedFields);
+        schema.getAliases().forEach(readSchema::addAlias);
+        return readSchema;
+    }
+
     /**
      * Opens the resource for write.
      *
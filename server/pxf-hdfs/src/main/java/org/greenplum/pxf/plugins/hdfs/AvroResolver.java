@@ -37,6 +37,7 @@ import org.greenplum.pxf.api.error.BadRecordException;
 import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.BasePlugin;
 import org.greenplum.pxf.api.model.Resolver;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.greenplum.pxf.api.utilities.SpringContext;
 import org.greenplum.pxf.plugins.hdfs.avro.AvroTypeConverter;
 import org.greenplum.pxf.plugins.hdfs.avro.AvroUtilities;
@@ -138,7 +139,14 @@ public class AvroResolver extends BasePlugin implements Resolver {
                         context, row);
             }
 
-            DataType gpdbColType = context.getColumn(field.pos()).getDataType();
+            ColumnDescriptor columnDescriptor = context.getColumn(field.pos());
+            DataType gpdbColType = columnDescriptor.getDataType();
+
+            if (!columnDescriptor.isProjected()) {
+                // the field is not in the read schema of the accessor when the column is not projected
+                currentIndex += addOneFieldToRecord(record, gpdbColType, null);
+                continue;
+            }
 
             currentIndex += populateRecord(record,
                     avroRecord.get(field.name()), field.schema(), gpdbColType);
@@ -439,7 +447,7 @@ public class AvroResolver extends BasePlugin implements Resolver {
                 if (val == null) {
                     oneField.val = null;
                 } else if (val instanceof ByteBuffer) {
-                    oneField.val = gpdbWritableType.isArrayType() ? pgUtilities.encodeAndEscapeByteaHex((ByteBuffer) val) : ((ByteBuffer) val).array();
+                    oneField.val = gpdbWritableType.isArrayType() ? pgUtilities.encodeAndEscapeByteaHex((ByteBuffer) val) : getBytes((ByteBuffer) val);
                 } else if (val instanceof String) {
                     oneField.val = val;
                 } else {
@@ -460,4 +468,21 @@ public class AvroResolver extends BasePlugin implements Resolver {
         return 1;
     }
 
+    /**
+     * Returns the bytes between the position and the limit of the buffer. The buffer of a reused record can be
+     * larger than the value it holds, so its backing array is only returned when it holds exactly the value.
+     *
+     * @param buffer the buffer
+     * @return the bytes of the value
+     */
+    private static byte[] getBytes(ByteBuffer buffer) {
+        if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0
+                && buffer.limit() == buffer.array().length) {
+            return buffer.array();
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
 }
\ No newline at end of file
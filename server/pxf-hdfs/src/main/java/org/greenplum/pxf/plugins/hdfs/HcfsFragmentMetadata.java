@@ -5,21 +5,45 @@ import lombok.NoArgsConstructor;
 import org.apache.hadoop.mapred.FileSplit;
 import org.greenplum.pxf.api.utilities.FragmentMetadata;
 
+import java.io.IOException;
+
 @NoArgsConstructor
 public class HcfsFragmentMetadata implements FragmentMetadata {
 
+    private static final String[] NO_HOSTS = new String[0];
+
     @Getter
     protected long start;
 
     @Getter
     protected long length;
 
+    /**
+     * The hosts that store the blocks of the split
+     */
+    @Getter
+    protected String[] hosts = NO_HOSTS;
+
     public HcfsFragmentMetadata(FileSplit fsp) {
-        this(fsp.getStart(), fsp.getLength());
+        this(fsp.getStart(), fsp.getLength(), getLocations(fsp));
     }
 
     public HcfsFragmentMetadata(long start, long length) {
+        this(start, length, NO_HOSTS);
+    }
+
+    public HcfsFragmentMetadata(long start, long length, String[] hosts) {
         this.start = start;
         this.length = length;
+        this.hosts = hosts != null ? hosts : NO_HOSTS;
+    }
+
+    private static String[] getLocations(FileSplit fsp) {
+        try {
+            return fsp.getLocations();
+        } catch (IOException e) {
+            // the locations are only a hint for assigning the fragment to a segment
+            return NO_HOSTS;
+        }
     }
 }
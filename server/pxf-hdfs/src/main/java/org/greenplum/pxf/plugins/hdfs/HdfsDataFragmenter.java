@@ -21,7 +21,10 @@ package org.greenplum.pxf.plugins.hdfs;
 
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapred.FileInputFormat;
 import org.apache.hadoop.mapred.FileSplit;
 import org.apache.hadoop.mapred.InputSplit;
 import org.apache.hadoop.mapred.InvalidInputException;
@@ -33,6 +36,7 @@ import org.greenplum.pxf.plugins.hdfs.utilities.PxfInputFormat;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -107,6 +111,54 @@ public class HdfsDataFragmenter extends BaseFragmenter {
         return new FragmentStats(splits.size(), firstSplit.getLength(), totalSize);
     }
 
+    /**
+     * Returns a version of the files matched by the data source, built from
+     * the paths, sizes and modification times of the files and directories.
+     * The directories are listed without the block locations of their files,
+     * which makes the version much cheaper to obtain than the splits, so the
+     * version does not change when the blocks of the files move to other hosts.
+     */
+    @Override
+    public String getFragmentsVersion() throws Exception {
+        Path path = new Path(hcfsType.getDataUri(context));
+        FileSystem fs = path.getFileSystem(configuration);
+        // a path that does not exist has no statuses
+        FileStatus[] statuses = fs.globStatus(path);
+
+        boolean recursive = getJobConf().getBoolean(FileInputFormat.INPUT_DIR_RECURSIVE, false);
+        List<FileStatus> files = new ArrayList<>();
+        if (statuses != null) {
+            for (FileStatus status : statuses) {
+                addFiles(fs, status, recursive, files);
+            }
+        }
+
+        // the order of the listings is not guaranteed by all the file systems
+        files.sort(Comparator.comparing((FileStatus file) -> file.getPath().toString()));
+        long totalLength = 0;
+        long lastModified = 0;
+        int hash = 1;
+        for (FileStatus file : files) {
+            totalLength += file.getLen();
+            lastModified = Math.max(lastModified, file.getModificationTime());
+            hash = 31 * hash + (file.getPath().toString() + ':' + file.getLen() + ':' + file.getModificationTime()).hashCode();
+        }
+        return String.format("%d:%d:%d:%08x", files.size(), totalLength, lastModified, hash);
+    }
+
+    private void addFiles(FileSystem fs, FileStatus status, boolean recursive, List<FileStatus> files) throws IOException {
+        files.add(status);
+        if (status.isDirectory()) {
+            for (FileStatus child : fs.listStatus(status.getPath())) {
+                if (child.isFile() || recursive) {
+                    addFiles(fs, child, recursive, files);
+                } else {
+                    files.add(child);
+                }
+            }
+        }
+    }
+
     protected List<InputSplit> getSplits(Path path) throws IOException {
         JobConf jobConf = getJobConf();
         PxfInputFormat pxfInputFormat = new PxfInputFormat();
@@ -0,0 +1,53 @@
+package org.greenplum.pxf.plugins.hdfs;
+
+import org.greenplum.pxf.api.model.ProtocolHandler;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implementation of ProtocolHandler for the "parquet" profiles.
+ */
+public class ParquetProtocolHandler implements ProtocolHandler {
+
+    public static final String PARQUET_VECTORIZED_ACCESSOR = ParquetVectorizedAccessor.class.getName();
+    public static final String PARQUET_VECTORIZED_RESOLVER = ParquetVectorizedResolver.class.getName();
+
+    private static final Logger LOG = LoggerFactory.getLogger(ParquetProtocolHandler.class);
+    static final String OPTION_VECTORIZE = "VECTORIZE";
+
+    @Override
+    public String getFragmenterClassName(RequestContext context) {
+        return context.getFragmenter(); // default to fragmenter defined by the profile
+    }
+
+    @Override
+    public String getAccessorClassName(RequestContext context) {
+        // default to accessor defined by the profile, switch to vectorized if requested by the user
+        String accessor = useVectorizedParquet(context) ? PARQUET_VECTORIZED_ACCESSOR : context.getAccessor();
+        LOG.debug("Determined to use {} accessor", accessor);
+        return accessor;
+    }
+
+    @Override
+    public String getResolverClassName(RequestContext context) {
+        // default to resolver defined by the profile, switch to vectorized if requested by the user
+        String resolver = useVectorizedParquet(context) ? PARQUET_VECTORIZED_RESOLVER : context.getResolver();
+        LOG.debug("Determined to use {} resolver", resolver);
+        return resolver;
+    }
+
+    /**
+     * Determines whether the user has requested to use vectorized Parquet accessor / resolver.
+     * The vectorized accessor only supports reading, and is not used when sampling for statistics.
+     * Also used by the protocol handlers of the object stores that read Parquet files.
+     *
+     * @param context request context
+     * @return true if vectorized Parquet accessor and resolver will need to be used
+     */
+    public static boolean useVectorizedParquet(RequestContext context) {
+        return context.getRequestType() == RequestContext.RequestType.READ_BRIDGE
+                && context.getStatsSampleRatio() <= 0
+                && context.getOption(OPTION_VECTORIZE, false);
+    }
+}
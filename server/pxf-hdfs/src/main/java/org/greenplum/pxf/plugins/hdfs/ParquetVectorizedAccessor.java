@@ -0,0 +1,176 @@
+package org.greenplum.pxf.plugins.hdfs;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.parquet.HadoopReadOptions;
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.filter2.compat.RowGroupFilter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.error.UnsupportedTypeException;
+import org.greenplum.pxf.plugins.hdfs.parquet.ParquetBatchReader;
+import org.greenplum.pxf.plugins.hdfs.parquet.ParquetColumnBatch;
+import org.greenplum.pxf.plugins.hdfs.utilities.HdfsUtilities;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.parquet.schema.Type.Repetition.REPEATED;
+
+/**
+ * Parquet file accessor that reads the projected columns of a file in batches
+ * of rows, decoding the column chunks into primitive column vectors instead
+ * of assembling a record for every row. The row groups that cannot contain
+ * rows matching the pushed down filter are skipped using the statistics and
+ * dictionaries of their column chunks. The rows of the row groups that are
+ * read are not filtered individually, Greenplum evaluates the filter on the
+ * returned rows.
+ * <p>
+ * Only primitive, non-repeated Parquet columns can be read by this accessor.
+ * Unit of operation is a batch of rows.
+ */
+public class ParquetVectorizedAccessor extends ParquetFileAccessor {
+
+    private ParquetBatchReader batchReader;
+    private ParquetColumnBatch batch;
+    private long batchIndex;
+    private long totalRowsRead;
+    private long totalReadTimeInNanos;
+
+    /**
+     * Opens the resource for read.
+     *
+     * @throws IOException if opening the resource failed
+     */
+    @Override
+    public boolean openForRead() throws IOException {
+        Path file = new Path(context.getDataSource());
+        FileSplit fileSplit = HdfsUtilities.parseFileSplit(context.getDataSource(), context.getFragmentMetadata());
+
+        final long then = System.nanoTime();
+        // Only the row groups that start in the split are read
+        ParquetReadOptions readOptions = HadoopReadOptions
+                .builder(configuration)
+                .withRange(fileSplit.getStart(), fileSplit.getStart() + fileSplit.getLength())
+                .build();
+        ParquetFileReader fileReader = ParquetFileReader.open(HadoopInputFile.fromPath(file, configuration), readOptions);
+        try {
+            // Read the original schema from the footer of the parquet file
+            MessageType originalSchema = fileReader.getFileMetaData().getSchema();
+            Map<String, Type> originalFieldsMap = getOriginalFieldsMap(originalSchema);
+            // Get the read schema. This is either the full set or a subset (in
+            // case of column projection) of the greenplum schema.
+            MessageType readSchema = buildReadSchema(originalFieldsMap, originalSchema);
+            validateReadSchema(readSchema);
+            // Get the record filter in case of predicate push-down
+            FilterCompat.Filter recordFilter = getRecordFilter(context.getFilterString(), originalFieldsMap);
+
+            // add column projection
+            fileReader.setRequestedSchema(readSchema);
+            List<BlockMetaData> selectedRowGroups = selectRowGroups(fileReader, readOptions, recordFilter);
+
+            batchReader = new ParquetBatchReader(fileReader, readSchema, selectedRowGroups);
+            batch = new ParquetColumnBatch(readSchema, ParquetColumnBatch.DEFAULT_SIZE);
+            context.setMetadata(readSchema);
+        } catch (Exception e) {
+            fileReader.close();
+            throw e;
+        }
+        totalReadTimeInNanos += System.nanoTime() - then;
+        return true;
+    }
+
+    /**
+     * Reads the next batch for the current fragment
+     *
+     * @return the next batch in OneRow format, the key is the batch number, and data is the batch
+     * @throws IOException if unable to read
+     */
+    @Override
+    public OneRow readNextObject() throws IOException {
+        final long then = System.nanoTime();
+        final boolean hasNextBatch = batchReader.nextBatch(batch);
+        totalReadTimeInNanos += System.nanoTime() - then;
+
+        if (hasNextBatch) {
+            totalRowsRead += batch.getSize();
+            return new OneRow(new LongWritable(batchIndex++), batch);
+        }
+        return null; // all batches are exhausted
+    }
+
+    /**
+     * Closes the resource for read.
+     *
+     * @throws IOException if closing the resource failed
+     */
+    @Override
+    public void closeForRead() throws IOException {
+        logReadStats(totalRowsRead, totalReadTimeInNanos);
+        if (batchReader != null) {
+            batchReader.close();
+        }
+    }
+
+    /**
+     * Returns the row groups of the file reader that can contain rows that
+     * match the record filter, based on the statistics and the dictionaries
+     * of the column chunks of the row groups.
+     *
+     * @param fileReader   the parquet file reader
+     * @param readOptions  the read options of the file reader
+     * @param recordFilter the record filter
+     * @return the row groups that need to be read
+     */
+    private List<BlockMetaData> selectRowGroups(ParquetFileReader fileReader,
+                                                ParquetReadOptions readOptions,
+                                                FilterCompat.Filter recordFilter) {
+        List<BlockMetaData> rowGroups = fileReader.getRowGroups();
+        List<RowGroupFilter.FilterLevel> filterLevels = new ArrayList<>();
+        if (readOptions.useStatsFilter()) {
+            filterLevels.add(RowGroupFilter.FilterLevel.STATISTICS);
+        }
+        if (readOptions.useDictionaryFilter()) {
+            filterLevels.add(RowGroupFilter.FilterLevel.DICTIONARY);
+        }
+        List<BlockMetaData> selectedRowGroups = RowGroupFilter.filterRowGroups(filterLevels, recordFilter, rowGroups, fileReader);
+
+        LOG.debug("{}-{}: Reading {} of {} RowGroups with {} records from file {}",
+                context.getTransactionId(), context.getSegmentId(), selectedRowGroups.size(),
+                rowGroups.size(), fileReader.getRecordCount(), context.getDataSource());
+        return selectedRowGroups;
+    }
+
+    /**
+     * Validates that all the columns of the read schema can be read into
+     * column vectors
+     *
+     * @param readSchema the read schema
+     */
+    private void validateReadSchema(MessageType readSchema) {
+        for (Type type : readSchema.getFields()) {
+            if (type.isPrimitive() && type.getRepetition() != REPEATED) {
+                continue;
+            }
+            String typeName;
+            if (type.isPrimitive()) {
+                typeName = "REPEATED " + type.asPrimitiveType().getPrimitiveTypeName().name();
+            } else {
+                typeName = type.asGroupType().getOriginalType() == null ?
+                        "customized struct" :
+                        type.asGroupType().getOriginalType().name();
+            }
+            throw new UnsupportedTypeException(String.format(
+                    "Column %s of Parquet type %s is not supported by the vectorized Parquet reader, set %s=false to read it.",
+                    type.getName(), typeName, ParquetProtocolHandler.OPTION_VECTORIZE));
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package org.greenplum.pxf.plugins.hdfs;
+
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.BatchWritable;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.model.BasePlugin;
+import org.greenplum.pxf.api.model.ReadVectorizedResolver;
+import org.greenplum.pxf.api.model.Resolver;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.plugins.hdfs.parquet.ParquetColumnBatch;
+import org.greenplum.pxf.plugins.hdfs.parquet.ParquetColumnVector;
+import org.greenplum.pxf.plugins.hdfs.parquet.ParquetTypeConverter;
+import org.greenplum.pxf.plugins.hdfs.parquet.ParquetVectorizedMappingFunctions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.greenplum.pxf.api.io.DataType.UNSUPPORTED_TYPE;
+
+/**
+ * Resolves the {@link ParquetColumnBatch} batches read by the
+ * {@link ParquetVectorizedAccessor} into lists of List<OneField>. The types
+ * and values of the fields are the same ones the {@link ParquetResolver}
+ * produces for the rows of the batch.
+ */
+public class ParquetVectorizedResolver extends BasePlugin implements ReadVectorizedResolver, Resolver {
+
+    private static final String UNSUPPORTED_ERR_MESSAGE = "Current operation is not supported";
+
+    private List<ColumnDescriptor> columnDescriptors;
+
+    /**
+     * The Greenplum data types of the columns of the read schema
+     */
+    private DataType[] dataTypes;
+    private ParquetVectorizedMappingFunctions.ValueReader[] valueReaders;
+
+    /**
+     * The functions that serialize the values of the columns of the tuple
+     * description, an empty array if the batches cannot be serialized directly
+     */
+    private ParquetVectorizedMappingFunctions.ValueWriter[] valueWriters;
+
+    /**
+     * The index of the column vector for each column of the tuple
+     * description, or -1 if the column is not projected
+     */
+    private int[] columnVectorIndexes;
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        columnDescriptors = context.getTupleDescription();
+    }
+
+    /**
+     * Returns the resolved list of tuples for the batch
+     *
+     * @param batch unresolved batch
+     * @return list of tuples
+     */
+    @Override
+    public List<List<OneField>> getFieldsForBatch(OneRow batch) {
+        ParquetColumnBatch columnBatch = (ParquetColumnBatch) batch.getData();
+        ensureValueReadersAreInitialized();
+
+        int size = columnBatch.getSize();
+        List<List<OneField>> resolvedBatch = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            List<OneField> fields = new ArrayList<>(columnDescriptors.size());
+            int columnIndex = 0;
+            for (ColumnDescriptor columnDescriptor : columnDescriptors) {
+                if (!columnDescriptor.isProjected()) {
+                    fields.add(new OneField(columnDescriptor.columnTypeCode(), null));
+                    continue;
+                }
+                ParquetColumnVector vector = columnBatch.getColumn(columnIndex);
+                Object value = vector.isNull[row] ? null : valueReaders[columnIndex].read(vector, row);
+                fields.add(new OneField(dataTypes[columnIndex].getOID(), value));
+                columnIndex++;
+            }
+            resolvedBatch.add(fields);
+        }
+        return resolvedBatch;
+    }
+
+    /**
+     * Serializes the rows of the batch directly into the output when the
+     * Parquet types of all the projected columns resolve to the types of the
+     * Greenplum columns.
+     *
+     * @param batch  unresolved batch
+     * @param output the output to serialize the records of the batch into
+     * @return true if the batch was serialized, false otherwise
+     */
+    @Override
+    public boolean writeBatch(OneRow batch, BatchWritable output) {
+        ensureValueWritersAreInitialized();
+        if (valueWriters.length == 0) {
+            return false;
+        }
+
+        ParquetColumnBatch columnBatch = (ParquetColumnBatch) batch.getData();
+        int size = columnBatch.getSize();
+        for (int row = 0; row < size; row++) {
+            output.beginRecord();
+            for (int i = 0; i < valueWriters.length; i++) {
+                int vectorIndex = columnVectorIndexes[i];
+                if (vectorIndex < 0) {
+                    output.writeNull();
+                    continue;
+                }
+                ParquetColumnVector vector = columnBatch.getColumn(vectorIndex);
+                if (!vector.noNulls && vector.isNull[row]) {
+                    output.writeNull();
+                } else {
+                    valueWriters[i].write(output, vector, row);
+                }
+            }
+            output.endRecord();
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<OneField> getFields(OneRow row) {
+        throw new UnsupportedOperationException(UNSUPPORTED_ERR_MESSAGE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public OneRow setFields(List<OneField> record) {
+        throw new UnsupportedOperationException(UNSUPPORTED_ERR_MESSAGE);
+    }
+
+    /**
+     * Initializes the data types and the value readers of the columns of the
+     * read schema that the accessor stored in the context metadata.
+     */
+    private void ensureValueReadersAreInitialized() {
+        if (valueReaders != null) return;
+
+        MessageType readSchema = (MessageType) context.getMetadata();
+        int numColumns = readSchema.getFieldCount();
+        DataType[] types = new DataType[numColumns];
+        ParquetVectorizedMappingFunctions.ValueReader[] readers = new ParquetVectorizedMappingFunctions.ValueReader[numColumns];
+        for (int i = 0; i < numColumns; i++) {
+            PrimitiveType type = readSchema.getType(i).asPrimitiveType();
+            types[i] = ParquetTypeConverter.from(type).getDataType(type);
+            readers[i] = ParquetVectorizedMappingFunctions.getValueReader(type);
+        }
+        dataTypes = types;
+        valueReaders = readers;
+    }
+
+    /**
+     * Initializes the value writers of the columns of the tuple description.
+     * If the type of any projected column does not match the type of the
+     * Greenplum column, the batches are not serialized directly and are
+     * resolved with {@link #getFieldsForBatch(OneRow)} instead.
+     */
+    private void ensureValueWritersAreInitialized() {
+        if (valueWriters != null) return;
+        ensureValueReadersAreInitialized();
+
+        MessageType readSchema = (MessageType) context.getMetadata();
+        int numColumns = columnDescriptors.size();
+        ParquetVectorizedMappingFunctions.ValueWriter[] writers = new ParquetVectorizedMappingFunctions.ValueWriter[numColumns];
+        int[] vectorIndexes = new int[numColumns];
+        valueWriters = new ParquetVectorizedMappingFunctions.ValueWriter[0];
+
+        int vectorIndex = 0;
+        for (int i = 0; i < numColumns; i++) {
+            ColumnDescriptor columnDescriptor = columnDescriptors.get(i);
+            if (!columnDescriptor.isProjected()) {
+                vectorIndexes[i] = -1;
+                continue;
+            }
+            if (!isTypeCompatible(dataTypes[vectorIndex].getOID(), columnDescriptor.columnTypeCode())) {
+                return;
+            }
+            writers[i] = ParquetVectorizedMappingFunctions.getValueWriter(readSchema.getType(vectorIndex).asPrimitiveType());
+            vectorIndexes[i] = vectorIndex++;
+        }
+        columnVectorIndexes = vectorIndexes;
+        valueWriters = writers;
+    }
+
+    /**
+     * Determines whether values of the Parquet type can be serialized as
+     * values of the Greenplum column type, which is the case when the types
+     * are the same or when both types are scalar types in text form.
+     */
+    private boolean isTypeCompatible(int parquetTypeOid, int columnTypeOid) {
+        return parquetTypeOid == columnTypeOid
+                || (DataType.isTextForm(parquetTypeOid) && DataType.isTextForm(columnTypeOid)
+                && !DataType.get(columnTypeOid).isArrayType() && DataType.get(columnTypeOid) != UNSUPPORTED_TYPE);
+    }
+}
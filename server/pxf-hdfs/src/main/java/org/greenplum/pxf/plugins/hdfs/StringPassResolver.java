@@ -24,6 +24,8 @@ import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.model.BasePlugin;
 import org.greenplum.pxf.api.model.InputStreamHandler;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.model.ResettablePlugin;
 import org.greenplum.pxf.api.model.Resolver;
 
 import java.io.InputStream;
@@ -36,10 +38,11 @@ import static org.greenplum.pxf.api.io.DataType.VARCHAR;
 /**
  * StringPassResolver handles "deserialization" and serialization of
  * String records. StringPassResolver implements {@link Resolver}
- * interface. Returns strings as-is.
+ * interface. Returns strings as-is. The resolver has no setup, so it is
+ * reused across requests.
  */
 @InputStreamHandler
-public class StringPassResolver extends BasePlugin implements Resolver {
+public class StringPassResolver extends BasePlugin implements Resolver, ResettablePlugin {
     // for write
     private final OneRow oneRow = new OneRow();
     private int resolveWriteCount = 0;
@@ -87,4 +90,15 @@ public class StringPassResolver extends BasePlugin implements Resolver {
         resolveWriteCount++;
         return oneRow;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean reset(RequestContext context) {
+        setRequestContext(context);
+        oneRow.setData(null);
+        resolveWriteCount = 0;
+        return true;
+    }
 }
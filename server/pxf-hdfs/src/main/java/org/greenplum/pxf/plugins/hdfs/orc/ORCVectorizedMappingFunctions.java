@@ -17,6 +17,7 @@ import org.greenplum.pxf.api.GreenplumDateTime;
 import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.error.PxfRuntimeException;
 import org.greenplum.pxf.api.function.PentaConsumer;
+import org.greenplum.pxf.api.io.BatchWritable;
 import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.plugins.hdfs.utilities.DecimalUtilities;
 import org.greenplum.pxf.plugins.hdfs.utilities.PgArrayBuilder;
@@ -472,6 +473,66 @@ class ORCVectorizedMappingFunctions {
         return result;
     }
 
+    /**
+     * Writes the value of a column vector at a given row directly into a batch
+     * of serialized records. The value at the row is known not to be null.
+     */
+    @FunctionalInterface
+    interface ValueWriter {
+        void write(BatchWritable output, ColumnVector columnVector, int rowId);
+    }
+
+    /**
+     * Returns the function that writes values of the given ORC type directly
+     * into a batch of serialized records, or null if values of the type are
+     * not supported by the direct serialization.
+     *
+     * @param typeDescription the ORC type of the column
+     * @return the function that writes the values of the column, or null if the type is not supported
+     */
+    static ValueWriter getValueWriter(TypeDescription typeDescription) {
+        switch (typeDescription.getCategory()) {
+            case BOOLEAN:
+                return (output, cv, rowId) -> output.writeBoolean(((LongColumnVector) cv).vector[rowId] == 1);
+            case BYTE:
+            case SHORT:
+                return (output, cv, rowId) -> output.writeShort((short) ((LongColumnVector) cv).vector[rowId]);
+            case INT:
+                return (output, cv, rowId) -> output.writeInt((int) ((LongColumnVector) cv).vector[rowId]);
+            case LONG:
+                return (output, cv, rowId) -> output.writeLong(((LongColumnVector) cv).vector[rowId]);
+            case FLOAT:
+                return (output, cv, rowId) -> output.writeFloat((float) ((DoubleColumnVector) cv).vector[rowId]);
+            case DOUBLE:
+                return (output, cv, rowId) -> output.writeDouble(((DoubleColumnVector) cv).vector[rowId]);
+            case STRING:
+            case VARCHAR:
+            case CHAR:
+                return (output, cv, rowId) -> {
+                    BytesColumnVector bcv = (BytesColumnVector) cv;
+                    output.writeString(bcv.vector[rowId], bcv.start[rowId], bcv.length[rowId]);
+                };
+            case BINARY:
+                return (output, cv, rowId) -> {
+                    BytesColumnVector bcv = (BytesColumnVector) cv;
+                    output.writeBytes(bcv.vector[rowId], bcv.start[rowId], bcv.length[rowId]);
+                };
+            case DECIMAL:
+                return (output, cv, rowId) -> output.writeUnquotedString(((DecimalColumnVector) cv).vector[rowId].toString());
+            case DATE:
+                return (output, cv, rowId) -> output.writeUnquotedString(
+                        Date.valueOf(LocalDate.ofEpochDay(((LongColumnVector) cv).vector[rowId])).toString());
+            case TIMESTAMP:
+                return (output, cv, rowId) -> output.writeUnquotedString(
+                        timestampToString(((TimestampColumnVector) cv).asScratchTimestamp(rowId), GreenplumDateTime.DATETIME_FORMATTER));
+            case TIMESTAMP_INSTANT:
+                return (output, cv, rowId) -> output.writeString(
+                        timestampToString(((TimestampColumnVector) cv).asScratchTimestamp(rowId), GreenplumDateTime.DATETIME_WITH_TIMEZONE_FORMATTER));
+            default:
+                return null;
+        }
+    }
+
     public static OneField[] getNullResultSet(int oid, int size) {
         OneField[] result = new OneField[size];
         Arrays.fill(result, new OneField(oid, null));
@@ -11,6 +11,7 @@ import org.greenplum.pxf.api.model.ReadVectorizedResolver;
 import org.greenplum.pxf.api.error.PxfRuntimeException;
 import org.greenplum.pxf.api.error.UnsupportedTypeException;
 import org.greenplum.pxf.api.function.TriFunction;
+import org.greenplum.pxf.api.io.BatchWritable;
 import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.BasePlugin;
 import org.greenplum.pxf.api.model.Resolver;
@@ -142,6 +143,19 @@ public class ORCVectorizedResolver extends BasePlugin implements ReadVectorizedR
      */
     private List<ColumnDescriptor> columnDescriptors;
 
+    /**
+     * Functions that write the values of the columns directly into the
+     * serialized output, one for each column in the Greenplum table. The
+     * array is empty when the columns cannot be serialized directly.
+     */
+    private ORCVectorizedMappingFunctions.ValueWriter[] valueWriters;
+
+    /**
+     * The index of the column vector in the batch for each column in the
+     * Greenplum table, or -1 when the column is always null.
+     */
+    private int[] columnVectorIndexes;
+
     private List<List<OneField>> cachedBatch;
     private VectorizedRowBatch vectorizedRowBatch;
     private DecimalOverflowOption decimalOverflowOption;
@@ -218,6 +232,42 @@ public class ORCVectorizedResolver extends BasePlugin implements ReadVectorizedR
         return resolvedBatch;
     }
 
+    /**
+     * Serializes the VectorizedRowBatch directly into the output, reading
+     * primitive values from the column vectors without creating OneField
+     * objects. Batches with lists, or with columns whose ORC type does not
+     * match the type of the Greenplum column, are not serialized directly.
+     *
+     * @param batch  unresolved batch
+     * @param output the output to serialize the records of the batch into
+     * @return true if the batch was serialized, false otherwise
+     */
+    @Override
+    public boolean writeBatch(OneRow batch, BatchWritable output) {
+        ensureReadFunctionsAreInitialized();
+        ensureValueWritersAreInitialized();
+        if (valueWriters.length == 0) {
+            return false;
+        }
+
+        VectorizedRowBatch vectorizedBatch = (VectorizedRowBatch) batch.getData();
+        int numColumns = valueWriters.length;
+        for (int row = 0; row < vectorizedBatch.size; row++) {
+            output.beginRecord();
+            for (int i = 0; i < numColumns; i++) {
+                ColumnVector columnVector = columnVectorIndexes[i] < 0 ? null : vectorizedBatch.cols[columnVectorIndexes[i]];
+                int rowId = (columnVector != null && columnVector.isRepeating) ? 0 : row;
+                if (columnVector == null || (!columnVector.noNulls && columnVector.isNull[rowId])) {
+                    output.writeNull();
+                } else {
+                    valueWriters[i].write(output, columnVector, rowId);
+                }
+            }
+            output.endRecord();
+        }
+        return true;
+    }
+
     @Override
     public int getBatchSize() {
         return VectorizedRowBatch.DEFAULT_SIZE;
@@ -381,6 +431,60 @@ public class ORCVectorizedResolver extends BasePlugin implements ReadVectorizedR
         }
     }
 
+    /**
+     * Ensures that the functions that serialize the columns directly are
+     * initialized. The column vectors are matched to the Greenplum columns
+     * the same way as in {@link #getFieldsForBatch(OneRow)}. If any of the
+     * columns cannot be serialized directly, the functions are left empty.
+     */
+    private void ensureValueWritersAreInitialized() {
+        if (valueWriters != null) return;
+
+        int numColumns = columnDescriptors.size();
+        ORCVectorizedMappingFunctions.ValueWriter[] writers = new ORCVectorizedMappingFunctions.ValueWriter[numColumns];
+        int[] vectorIndexes = new int[numColumns];
+        valueWriters = new ORCVectorizedMappingFunctions.ValueWriter[0];
+
+        int columnIndex = 0;
+        for (int i = 0; i < numColumns; i++) {
+            ColumnDescriptor columnDescriptor = columnDescriptors.get(i);
+            vectorIndexes[i] = -1;
+            if (!columnDescriptor.isProjected()) {
+                continue;
+            }
+            TypeDescription orcColumn = positionalAccess
+                    ? columnIndex < orcSchema.getChildren().size() ? orcSchema.getChildren().get(columnIndex) : null
+                    : readFields.get(columnDescriptor.columnName());
+            if (orcColumn == null) {
+                continue;
+            }
+            if (!orcColumn.getCategory().isPrimitive()
+                    || !isTypeCompatible(typeOidMappings[columnIndex], columnDescriptor.columnTypeCode())) {
+                return;
+            }
+            writers[i] = ORCVectorizedMappingFunctions.getValueWriter(orcColumn);
+            if (writers[i] == null) {
+                return;
+            }
+            vectorIndexes[i] = columnIndex++;
+        }
+
+        LOG.debug("Serializing ORC batches directly for {} columns", numColumns);
+        valueWriters = writers;
+        columnVectorIndexes = vectorIndexes;
+    }
+
+    /**
+     * Returns true if values of the ORC type can be written for a column of
+     * the Greenplum type, that is when the types are the same or when both
+     * are serialized in text form.
+     */
+    private boolean isTypeCompatible(int orcTypeOid, int columnTypeOid) {
+        return orcTypeOid == columnTypeOid
+                || (DataType.isTextForm(orcTypeOid) && DataType.isTextForm(columnTypeOid)
+                && !DataType.get(columnTypeOid).isArrayType() && DataType.get(columnTypeOid) != UNSUPPORTED_TYPE);
+    }
+
     /**
      * Ensures that functions used in write use case are initialized. If not initialized, this method will
      * initialize the functions by iterating over the ORC schema and getting a corresponding function for each column.
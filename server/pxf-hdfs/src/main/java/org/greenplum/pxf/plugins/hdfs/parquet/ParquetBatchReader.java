@@ -0,0 +1,310 @@
+package org.greenplum.pxf.plugins.hdfs.parquet;
+
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReader;
+import org.apache.parquet.column.Dictionary;
+import org.apache.parquet.column.impl.ColumnReadStoreImpl;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.Converter;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads the rows of a Parquet file into {@link ParquetColumnBatch} batches.
+ * The pages of each column chunk of the read schema are decoded directly into
+ * the primitive arrays of the column vectors, without assembling a record
+ * for each row. Row groups that are not selected are skipped without reading
+ * their column chunks.
+ * <p>
+ * Binary columns are dictionary-aware: the entries of the dictionary of a
+ * column chunk are decoded once, and the rows of dictionary encoded pages
+ * reference the decoded entries.
+ * <p>
+ * Only primitive, non-repeated columns are supported, so that each column
+ * contains exactly one value (or null) per row.
+ */
+public class ParquetBatchReader implements Closeable {
+
+    private static final PrimitiveConverter NOOP_CONVERTER = new PrimitiveConverter() {
+    };
+
+    private final ParquetFileReader fileReader;
+    private final MessageType readSchema;
+    private final List<ColumnDescriptor> columns;
+    private final int[] maxDefinitionLevels;
+    private final BinaryConverter[] binaryConverters;
+    private final GroupConverter recordConverter;
+    private final boolean[] rowGroupSelected;
+    private final ColumnReader[] columnReaders;
+    private int rowGroupIndex;
+    private long rowsRemainingInRowGroup;
+
+    /**
+     * Creates a new reader for the row groups of the given file reader. The
+     * requested schema of the file reader must have been set to the read schema.
+     *
+     * @param fileReader        the Parquet file reader
+     * @param readSchema        the read schema
+     * @param selectedRowGroups the row groups of the file reader that will be read
+     */
+    public ParquetBatchReader(ParquetFileReader fileReader, MessageType readSchema, List<BlockMetaData> selectedRowGroups) {
+        this.fileReader = fileReader;
+        this.readSchema = readSchema;
+        this.columns = readSchema.getColumns();
+        this.maxDefinitionLevels = new int[columns.size()];
+        this.binaryConverters = new BinaryConverter[columns.size()];
+        this.columnReaders = new ColumnReader[columns.size()];
+
+        PrimitiveConverter[] converters = new PrimitiveConverter[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            ColumnDescriptor column = columns.get(i);
+            maxDefinitionLevels[i] = column.getMaxDefinitionLevel();
+            switch (column.getPrimitiveType().getPrimitiveTypeName()) {
+                case BINARY:
+                case FIXED_LEN_BYTE_ARRAY:
+                case INT96:
+                    binaryConverters[i] = new BinaryConverter();
+                    converters[i] = binaryConverters[i];
+                    break;
+                default:
+                    // values of other types are read directly from the column reader
+                    converters[i] = NOOP_CONVERTER;
+            }
+        }
+        this.recordConverter = new ColumnConverters(converters);
+
+        // the row groups are read in the order they are stored in the file reader
+        List<BlockMetaData> rowGroups = fileReader.getRowGroups();
+        Set<BlockMetaData> selected = Collections.newSetFromMap(new IdentityHashMap<>());
+        selected.addAll(selectedRowGroups);
+        this.rowGroupSelected = new boolean[rowGroups.size()];
+        for (int i = 0; i < rowGroupSelected.length; i++) {
+            rowGroupSelected[i] = selected.contains(rowGroups.get(i));
+        }
+    }
+
+    /**
+     * Reads the next batch of rows. The rows of a batch always belong to the
+     * same row group, so a batch might have fewer rows than its capacity.
+     *
+     * @param batch the batch to read the rows into
+     * @return true if rows were read into the batch, false if there are no more rows
+     * @throws IOException when reading the file fails
+     */
+    public boolean nextBatch(ParquetColumnBatch batch) throws IOException {
+        while (rowsRemainingInRowGroup == 0) {
+            if (!advanceToNextRowGroup()) {
+                batch.setSize(0);
+                return false;
+            }
+        }
+
+        int count = (int) Math.min(batch.getCapacity(), rowsRemainingInRowGroup);
+        for (int i = 0; i < columnReaders.length; i++) {
+            readColumn(i, batch.getColumn(i), count);
+        }
+        rowsRemainingInRowGroup -= count;
+        batch.setSize(count);
+        return true;
+    }
+
+    /**
+     * Closes the underlying file reader
+     *
+     * @throws IOException when closing the file reader fails
+     */
+    @Override
+    public void close() throws IOException {
+        fileReader.close();
+    }
+
+    /**
+     * Skips the row groups that are not selected and reads the column chunks
+     * of the next selected row group.
+     *
+     * @return true if there was a row group to read, false otherwise
+     * @throws IOException when reading the file fails
+     */
+    private boolean advanceToNextRowGroup() throws IOException {
+        while (rowGroupIndex < rowGroupSelected.length && !rowGroupSelected[rowGroupIndex]) {
+            fileReader.skipNextRowGroup();
+            rowGroupIndex++;
+        }
+        if (rowGroupIndex == rowGroupSelected.length) {
+            return false;
+        }
+
+        PageReadStore pages = fileReader.readNextRowGroup();
+        rowGroupIndex++;
+        if (pages == null) {
+            return false;
+        }
+
+        ColumnReadStoreImpl columnReadStore = new ColumnReadStoreImpl(pages, recordConverter,
+                readSchema, fileReader.getFileMetaData().getCreatedBy());
+        for (int i = 0; i < columnReaders.length; i++) {
+            columnReaders[i] = columnReadStore.getColumnReader(columns.get(i));
+        }
+        rowsRemainingInRowGroup = pages.getRowCount();
+        return true;
+    }
+
+    /**
+     * Decodes the next values of the column at the given index into the vector
+     *
+     * @param index  the index of the column in the read schema
+     * @param vector the vector for the column
+     * @param count  the number of values to decode
+     */
+    private void readColumn(int index, ParquetColumnVector vector, int count) {
+        ColumnReader reader = columnReaders[index];
+        int maxDefinitionLevel = maxDefinitionLevels[index];
+        vector.noNulls = true;
+
+        PrimitiveType.PrimitiveTypeName typeName = vector.type.getPrimitiveTypeName();
+        switch (typeName) {
+            case BOOLEAN: {
+                boolean[] values = vector.booleanValues;
+                for (int row = 0; row < count; row++, reader.consume()) {
+                    if (!readNull(reader, maxDefinitionLevel, vector, row)) {
+                        values[row] = reader.getBoolean();
+                    }
+                }
+                break;
+            }
+            case INT32: {
+                int[] values = vector.intValues;
+                for (int row = 0; row < count; row++, reader.consume()) {
+                    if (!readNull(reader, maxDefinitionLevel, vector, row)) {
+                        values[row] = reader.getInteger();
+                    }
+                }
+                break;
+            }
+            case INT64: {
+                long[] values = vector.longValues;
+                for (int row = 0; row < count; row++, reader.consume()) {
+                    if (!readNull(reader, maxDefinitionLevel, vector, row)) {
+                        values[row] = reader.getLong();
+                    }
+                }
+                break;
+            }
+            case FLOAT: {
+                float[] values = vector.floatValues;
+                for (int row = 0; row < count; row++, reader.consume()) {
+                    if (!readNull(reader, maxDefinitionLevel, vector, row)) {
+                        values[row] = reader.getFloat();
+                    }
+                }
+                break;
+            }
+            case DOUBLE: {
+                double[] values = vector.doubleValues;
+                for (int row = 0; row < count; row++, reader.consume()) {
+                    if (!readNull(reader, maxDefinitionLevel, vector, row)) {
+                        values[row] = reader.getDouble();
+                    }
+                }
+                break;
+            }
+            default: {
+                Binary[] values = vector.binaryValues;
+                BinaryConverter converter = binaryConverters[index];
+                for (int row = 0; row < count; row++, reader.consume()) {
+                    if (readNull(reader, maxDefinitionLevel, vector, row)) {
+                        values[row] = null;
+                    } else {
+                        reader.writeCurrentValueToConverter();
+                        values[row] = converter.value;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Determines whether the current value of the column reader is null, and
+     * records the result in the vector.
+     *
+     * @return true if the current value is null, false otherwise
+     */
+    private static boolean readNull(ColumnReader reader, int maxDefinitionLevel, ParquetColumnVector vector, int row) {
+        boolean isNull = reader.getCurrentDefinitionLevel() < maxDefinitionLevel;
+        vector.isNull[row] = isNull;
+        vector.noNulls &= !isNull;
+        return isNull;
+    }
+
+    /**
+     * Provides the converters of the columns of the read schema to the column readers
+     */
+    private static class ColumnConverters extends GroupConverter {
+
+        private final PrimitiveConverter[] converters;
+
+        ColumnConverters(PrimitiveConverter[] converters) {
+            this.converters = converters;
+        }
+
+        @Override
+        public Converter getConverter(int fieldIndex) {
+            return converters[fieldIndex];
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void end() {
+        }
+    }
+
+    /**
+     * Captures the current binary value of a column reader. The dictionary of
+     * a column chunk is decoded once when the column reader is created, so
+     * that values of dictionary encoded pages are not decoded for every row.
+     */
+    private static class BinaryConverter extends PrimitiveConverter {
+
+        private Binary[] dictionary;
+        private Binary value;
+
+        @Override
+        public boolean hasDictionarySupport() {
+            return true;
+        }
+
+        @Override
+        public void setDictionary(Dictionary dictionary) {
+            Binary[] entries = new Binary[dictionary.getMaxId() + 1];
+            for (int id = 0; id < entries.length; id++) {
+                entries[id] = dictionary.decodeToBinary(id);
+            }
+            this.dictionary = entries;
+        }
+
+        @Override
+        public void addValueFromDictionary(int dictionaryId) {
+            value = dictionary[dictionaryId];
+        }
+
+        @Override
+        public void addBinary(Binary value) {
+            this.value = value;
+        }
+    }
+}
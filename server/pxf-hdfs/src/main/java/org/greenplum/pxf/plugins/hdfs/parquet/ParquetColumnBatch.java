@@ -0,0 +1,74 @@
+package org.greenplum.pxf.plugins.hdfs.parquet;
+
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
+
+import java.util.List;
+
+/**
+ * A batch of rows read from a Parquet file, stored column by column for
+ * the columns of the read schema. The rows of a batch always belong to the
+ * same row group.
+ */
+public class ParquetColumnBatch {
+
+    public static final int DEFAULT_SIZE = 1024;
+
+    private final ParquetColumnVector[] columns;
+    private final int capacity;
+    private int size;
+
+    /**
+     * Creates a batch for the given read schema, all the fields of the schema
+     * must be primitive types.
+     *
+     * @param readSchema the read schema
+     * @param capacity   the maximum number of rows of the batch
+     */
+    public ParquetColumnBatch(MessageType readSchema, int capacity) {
+        List<Type> fields = readSchema.getFields();
+        this.capacity = capacity;
+        this.columns = new ParquetColumnVector[fields.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = new ParquetColumnVector(fields.get(i).asPrimitiveType(), capacity);
+        }
+    }
+
+    /**
+     * @param index the index of the column in the read schema
+     * @return the vector for the column at the given index
+     */
+    public ParquetColumnVector getColumn(int index) {
+        return columns[index];
+    }
+
+    /**
+     * @return the number of columns of the batch
+     */
+    public int getNumColumns() {
+        return columns.length;
+    }
+
+    /**
+     * @return the maximum number of rows of the batch
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of rows in the batch
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Sets the number of rows in the batch
+     *
+     * @param size the number of rows
+     */
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
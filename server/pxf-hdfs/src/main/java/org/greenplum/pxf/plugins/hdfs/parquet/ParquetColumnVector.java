@@ -0,0 +1,82 @@
+package org.greenplum.pxf.plugins.hdfs.parquet;
+
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.PrimitiveType;
+
+/**
+ * The values of a single primitive Parquet column for the rows of a
+ * {@link ParquetColumnBatch}. Only the array that corresponds to the physical
+ * type of the column is allocated:
+ * <p>
+ * ----------------------------------------------------
+ * | Parquet Physical Type  | Values                  |
+ * ----------------------------------------------------
+ * |  BOOLEAN               |  booleanValues          |
+ * |  INT32                 |  intValues              |
+ * |  INT64                 |  longValues             |
+ * |  FLOAT                 |  floatValues            |
+ * |  DOUBLE                |  doubleValues           |
+ * |  BINARY                |  binaryValues           |
+ * |  FIXED_LEN_BYTE_ARRAY  |  binaryValues           |
+ * |  INT96                 |  binaryValues           |
+ * ----------------------------------------------------
+ * <p>
+ * Binary values of dictionary encoded column chunks reference the decoded
+ * dictionary entries, so the same instance is shared by all the rows that
+ * have the same value.
+ */
+public class ParquetColumnVector {
+
+    public final PrimitiveType type;
+
+    /**
+     * If noNulls is false, then this array contains true if the value is null,
+     * otherwise false. The array is always allocated, so batch-level methods
+     * can be simple and efficient.
+     */
+    public final boolean[] isNull;
+
+    /**
+     * True if the column has no null values in the current batch
+     */
+    public boolean noNulls;
+
+    public boolean[] booleanValues;
+    public int[] intValues;
+    public long[] longValues;
+    public float[] floatValues;
+    public double[] doubleValues;
+    public Binary[] binaryValues;
+
+    /**
+     * Creates a column vector for the given primitive type
+     *
+     * @param type     the Parquet type of the column
+     * @param capacity the maximum number of values of the vector
+     */
+    public ParquetColumnVector(PrimitiveType type, int capacity) {
+        this.type = type;
+        this.isNull = new boolean[capacity];
+        this.noNulls = true;
+
+        switch (type.getPrimitiveTypeName()) {
+            case BOOLEAN:
+                booleanValues = new boolean[capacity];
+                break;
+            case INT32:
+                intValues = new int[capacity];
+                break;
+            case INT64:
+                longValues = new long[capacity];
+                break;
+            case FLOAT:
+                floatValues = new float[capacity];
+                break;
+            case DOUBLE:
+                doubleValues = new double[capacity];
+                break;
+            default:
+                binaryValues = new Binary[capacity];
+        }
+    }
+}
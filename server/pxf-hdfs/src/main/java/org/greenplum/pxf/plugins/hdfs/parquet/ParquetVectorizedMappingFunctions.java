@@ -0,0 +1,163 @@
+package org.greenplum.pxf.plugins.hdfs.parquet;
+
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.PrimitiveType;
+import org.greenplum.pxf.api.io.BatchWritable;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.sql.Date;
+import java.time.LocalDate;
+
+import static org.apache.parquet.schema.LogicalTypeAnnotation.DateLogicalTypeAnnotation;
+import static org.apache.parquet.schema.LogicalTypeAnnotation.DecimalLogicalTypeAnnotation;
+import static org.apache.parquet.schema.LogicalTypeAnnotation.IntLogicalTypeAnnotation;
+import static org.apache.parquet.schema.LogicalTypeAnnotation.TimestampLogicalTypeAnnotation;
+
+/**
+ * Maps the values of a {@link ParquetColumnVector} to the values produced by
+ * the {@link ParquetTypeConverter} for the same Parquet type, so that
+ * vectorized reads resolve the same values as the row-at-a-time reads.
+ */
+public class ParquetVectorizedMappingFunctions {
+
+    /**
+     * Returns the value of a row of a column vector as a Java object
+     */
+    @FunctionalInterface
+    public interface ValueReader {
+        Object read(ParquetColumnVector vector, int row);
+    }
+
+    /**
+     * Serializes the non-null value of a row of a column vector
+     */
+    @FunctionalInterface
+    public interface ValueWriter {
+        void write(BatchWritable output, ParquetColumnVector vector, int row);
+    }
+
+    /**
+     * Returns the function that reads the values of a column of the given type
+     *
+     * @param type the Parquet type of the column
+     * @return the function that reads the values of the column
+     */
+    public static ValueReader getValueReader(PrimitiveType type) {
+        LogicalTypeAnnotation logicalType = type.getLogicalTypeAnnotation();
+        switch (type.getPrimitiveTypeName()) {
+            case BOOLEAN:
+                return (vector, row) -> vector.booleanValues[row];
+            case INT32:
+                if (logicalType instanceof DateLogicalTypeAnnotation) {
+                    return (vector, row) -> Date.valueOf(LocalDate.ofEpochDay(vector.intValues[row]));
+                } else if (logicalType instanceof DecimalLogicalTypeAnnotation) {
+                    int scale = ((DecimalLogicalTypeAnnotation) logicalType).getScale();
+                    return (vector, row) -> BigDecimal.valueOf(vector.intValues[row], scale);
+                } else if (isSmallInt(logicalType)) {
+                    return (vector, row) -> (short) vector.intValues[row];
+                }
+                return (vector, row) -> vector.intValues[row];
+            case INT64:
+                if (logicalType instanceof DecimalLogicalTypeAnnotation) {
+                    int scale = ((DecimalLogicalTypeAnnotation) logicalType).getScale();
+                    return (vector, row) -> BigDecimal.valueOf(vector.longValues[row], scale);
+                }
+                return (vector, row) -> vector.longValues[row];
+            case FLOAT:
+                return (vector, row) -> vector.floatValues[row];
+            case DOUBLE:
+                return (vector, row) -> vector.doubleValues[row];
+            case INT96:
+                return (vector, row) -> ParquetTypeConverter.bytesToTimestamp(vector.binaryValues[row].getBytes());
+            case FIXED_LEN_BYTE_ARRAY: {
+                int scale = ((DecimalLogicalTypeAnnotation) logicalType).getScale();
+                return (vector, row) -> new BigDecimal(new BigInteger(vector.binaryValues[row].getBytes()), scale);
+            }
+            default:
+                if (logicalType == null) {
+                    return (vector, row) -> vector.binaryValues[row].getBytes();
+                }
+                return (vector, row) -> vector.binaryValues[row].toStringUsingUTF8();
+        }
+    }
+
+    /**
+     * Returns the function that serializes the values of a column of the given type
+     *
+     * @param type the Parquet type of the column
+     * @return the function that serializes the values of the column
+     */
+    public static ValueWriter getValueWriter(PrimitiveType type) {
+        LogicalTypeAnnotation logicalType = type.getLogicalTypeAnnotation();
+        switch (type.getPrimitiveTypeName()) {
+            case BOOLEAN:
+                return (output, vector, row) -> output.writeBoolean(vector.booleanValues[row]);
+            case INT32:
+                if (logicalType instanceof DateLogicalTypeAnnotation) {
+                    return (output, vector, row) -> output.writeUnquotedString(
+                            Date.valueOf(LocalDate.ofEpochDay(vector.intValues[row])).toString());
+                } else if (logicalType instanceof DecimalLogicalTypeAnnotation) {
+                    int scale = ((DecimalLogicalTypeAnnotation) logicalType).getScale();
+                    return (output, vector, row) -> output.writeUnquotedString(
+                            BigDecimal.valueOf(vector.intValues[row], scale).toString());
+                } else if (isSmallInt(logicalType)) {
+                    return (output, vector, row) -> output.writeShort((short) vector.intValues[row]);
+                }
+                return (output, vector, row) -> output.writeInt(vector.intValues[row]);
+            case INT64:
+                if (logicalType instanceof DecimalLogicalTypeAnnotation) {
+                    int scale = ((DecimalLogicalTypeAnnotation) logicalType).getScale();
+                    return (output, vector, row) -> output.writeUnquotedString(
+                            BigDecimal.valueOf(vector.longValues[row], scale).toString());
+                }
+                return (output, vector, row) -> output.writeLong(vector.longValues[row]);
+            case FLOAT:
+                return (output, vector, row) -> output.writeFloat(vector.floatValues[row]);
+            case DOUBLE:
+                return (output, vector, row) -> output.writeDouble(vector.doubleValues[row]);
+            case INT96:
+                return (output, vector, row) -> output.writeUnquotedString(
+                        ParquetTypeConverter.bytesToTimestamp(vector.binaryValues[row].getBytes()));
+            case FIXED_LEN_BYTE_ARRAY: {
+                int scale = ((DecimalLogicalTypeAnnotation) logicalType).getScale();
+                return (output, vector, row) -> output.writeUnquotedString(
+                        new BigDecimal(new BigInteger(vector.binaryValues[row].getBytes()), scale).toString());
+            }
+            default:
+                if (logicalType == null) {
+                    return (output, vector, row) -> {
+                        ByteBuffer buffer = toHeapBuffer(vector.binaryValues[row]);
+                        output.writeBytes(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+                    };
+                } else if (logicalType instanceof DateLogicalTypeAnnotation
+                        || logicalType instanceof TimestampLogicalTypeAnnotation) {
+                    // dates and timestamps stored as strings are not quoted
+                    return (output, vector, row) -> output.writeUnquotedString(vector.binaryValues[row].toStringUsingUTF8());
+                }
+                return (output, vector, row) -> {
+                    ByteBuffer buffer = toHeapBuffer(vector.binaryValues[row]);
+                    output.writeString(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+                };
+        }
+    }
+
+    /**
+     * Returns a heap buffer with the bytes of the binary value, without
+     * copying the bytes if the value is backed by a heap buffer.
+     */
+    private static ByteBuffer toHeapBuffer(Binary binary) {
+        ByteBuffer buffer = binary.toByteBuffer();
+        return buffer.hasArray() ? buffer : ByteBuffer.wrap(binary.getBytes());
+    }
+
+    private static boolean isSmallInt(LogicalTypeAnnotation logicalType) {
+        if (logicalType instanceof IntLogicalTypeAnnotation) {
+            int bitWidth = ((IntLogicalTypeAnnotation) logicalType).getBitWidth();
+            return bitWidth == 8 || bitWidth == 16;
+        }
+        return false;
+    }
+}
@@ -1,17 +1,26 @@
 package org.greenplum.pxf.plugins.hdfs;
 
 import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
 import org.apache.hadoop.conf.Configuration;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.greenplum.pxf.plugins.hdfs.avro.AvroUtilities;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class AvroFileAccessorTest {
     AvroFileAccessor accessor;
@@ -43,6 +52,80 @@ public class AvroFileAccessorTest {
         verifySchema(schema, "example_schema");
     }
 
+    @Test
+    public void testBuildReadSchemaWithoutProjection() {
+        addColumns(true);
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        Schema schema = (Schema) context.getMetadata();
+
+        assertSame(schema, accessor.buildReadSchema(schema));
+    }
+
+    @Test
+    public void testBuildReadSchemaWithProjection() {
+        addColumns(false);
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        Schema schema = (Schema) context.getMetadata();
+
+        Schema readSchema = accessor.buildReadSchema(schema);
+        assertEquals(schema.getFullName(), readSchema.getFullName());
+        assertEquals(2, readSchema.getFields().size());
+        assertEquals("id", readSchema.getFields().get(0).name());
+        assertEquals("followers", readSchema.getFields().get(1).name());
+        // the schema of the table is not changed, the resolver maps its fields to the columns
+        assertEquals(3, schema.getFields().size());
+    }
+
+    @Test
+    public void testReadWithProjection() throws Exception {
+        addColumns(false);
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        accessor.openForRead();
+
+        GenericRecord first = (GenericRecord) accessor.readNextObject().getData();
+        assertEquals(2, first.getSchema().getFields().size());
+        assertEquals(41L, first.get("id"));
+        List<?> followers = (List<?>) first.get("followers");
+        assertEquals(2, followers.size());
+        assertEquals("kate", followers.get(0).toString());
+
+        GenericRecord second = (GenericRecord) accessor.readNextObject().getData();
+        assertNotSame(first, second);
+        assertEquals(1L, second.get("id"));
+        assertNull(accessor.readNextObject());
+        accessor.closeForRead();
+    }
+
+    @Test
+    public void testReadReusingRecords() throws Exception {
+        addColumns(true);
+        context.addOption(AvroFileAccessor.REUSE_RECORDS_OPTION, "true");
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        accessor.openForRead();
+
+        OneRow first = accessor.readNextObject();
+        assertEquals("john", ((GenericRecord) first.getData()).get("username").toString());
+        OneRow second = accessor.readNextObject();
+        // the record of the previous row is decoded into
+        assertSame(first.getData(), second.getData());
+        assertEquals(1L, ((GenericRecord) second.getData()).get("id"));
+        assertEquals("jane", ((GenericRecord) second.getData()).get("username").toString());
+        assertNull(accessor.readNextObject());
+        accessor.closeForRead();
+    }
+
+    private void addColumns(boolean usernameProjected) {
+        context.getTupleDescription().add(new ColumnDescriptor("id", DataType.BIGINT.getOID(), 0, "int8", null));
+        context.getTupleDescription().add(new ColumnDescriptor("username", DataType.TEXT.getOID(), 1, "text", null, usernameProjected));
+        context.getTupleDescription().add(new ColumnDescriptor("followers", DataType.TEXT.getOID(), 2, "text", null));
+        context.setNumAttrsProjected(usernameProjected ? 3 : 2);
+        context.setFragmentMetadata(new HcfsFragmentMetadata(0, new File(context.getDataSource()).length()));
+    }
+
     /**
      * Helper method for testing schema
      *
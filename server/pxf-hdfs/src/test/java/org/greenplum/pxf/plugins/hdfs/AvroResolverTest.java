@@ -311,6 +311,67 @@ public class AvroResolverTest {
         assertField(fields, 6, null, DataType.TEXT);
     }
 
+    @Test
+    public void testGetFields_PrimitiveWithColumnProjection() throws Exception {
+        List<ColumnDescriptor> columnDescriptors = createColumnDescriptors(primitiveDataTypes);
+        columnDescriptors.get(1).setProjected(false);
+        columnDescriptors.get(6).setProjected(false);
+        context.setTupleDescription(columnDescriptors);
+        context.setNumAttrsProjected(5);
+        schema = getAvroSchemaForPrimitiveTypes();
+        context.setMetadata(schema);
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+
+        // the accessor reads the records with a schema that only has the projected fields
+        List<Schema.Field> projectedFields = new ArrayList<>();
+        for (Schema.Field field : schema.getFields()) {
+            if (columnDescriptors.get(field.pos()).isProjected()) {
+                projectedFields.add(new Schema.Field(field, field.schema()));
+            }
+        }
+        Schema readSchema = Schema.createRecord("tableName", "", "public.avro", false, projectedFields);
+
+        GenericRecord genericRecord = new GenericData.Record(readSchema);
+        genericRecord.put("boolean", true);
+        genericRecord.put("long", 23456789L);
+        genericRecord.put("int", 1);
+        genericRecord.put("float", 7.7f);
+        genericRecord.put("double", 6.0d);
+        List<OneField> fields = resolver.getFields(new OneRow(null, genericRecord));
+
+        assertEquals(7, fields.size());
+        assertField(fields, 0, true, DataType.BOOLEAN);
+        assertField(fields, 1, null, DataType.BYTEA);
+        assertField(fields, 2, 23456789L, DataType.BIGINT);
+        assertField(fields, 3, 1, DataType.INTEGER);
+        assertField(fields, 4, (float) 7.7, DataType.REAL);
+        assertField(fields, 5, 6.0, DataType.FLOAT8);
+        assertField(fields, 6, null, DataType.TEXT);
+    }
+
+    @Test
+    public void testGetFields_BytesFromLargerBuffer() throws Exception {
+        List<ColumnDescriptor> columnDescriptors = createColumnDescriptors(primitiveDataTypes);
+        context.setTupleDescription(columnDescriptors);
+        schema = getAvroSchemaForPrimitiveTypes();
+        context.setMetadata(schema);
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+
+        // a reused record can keep a buffer that is larger than the value it holds
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.put(new byte[]{66, 89, 84, 69});
+        buffer.flip();
+
+        GenericRecord genericRecord = new GenericData.Record(schema);
+        genericRecord.put(1, buffer);
+        List<OneField> fields = resolver.getFields(new OneRow(null, genericRecord));
+
+        assertField(fields, 1, new byte[]{'B', 'Y', 'T', 'E'}, DataType.BYTEA);
+        assertEquals(0, buffer.position());
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void testGetFieldsEscapesTextArrayElements() throws Exception {
@@ -7,10 +7,16 @@ import org.greenplum.pxf.api.model.Fragmenter;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -83,6 +89,38 @@ public class HdfsDataFragmenterTest {
         assertEquals(0, fragmentList.size());
     }
 
+    @Test
+    public void testFragmentsVersionChangesWithFiles(@TempDir Path tempDir) throws Exception {
+        File file = tempDir.resolve("a.csv").toFile();
+        Files.write(file.toPath(), "1,a\n".getBytes(StandardCharsets.UTF_8));
+
+        context.setConfig("default");
+        context.setUser("test-user");
+        context.setDataSource(tempDir.toString());
+
+        String version = getFragmenter(context).getFragmentsVersion();
+        assertNotNull(version);
+        assertEquals(version, getFragmenter(context).getFragmentsVersion());
+
+        // a new file changes the version
+        Files.write(tempDir.resolve("b.csv"), "2,b\n".getBytes(StandardCharsets.UTF_8));
+        String versionWithNewFile = getFragmenter(context).getFragmentsVersion();
+        assertNotEquals(version, versionWithNewFile);
+
+        // a file that is modified in place changes the version
+        Files.write(file.toPath(), "1,a\n3,c\n".getBytes(StandardCharsets.UTF_8));
+        assertNotEquals(versionWithNewFile, getFragmenter(context).getFragmentsVersion());
+    }
+
+    @Test
+    public void testFragmentsVersionOfMissingPath() throws Exception {
+        context.setConfig("default");
+        context.setUser("test-user");
+        context.setDataSource("/tmp/non-existent-path-on-disk/*.csv");
+
+        assertEquals("0:0:0:00000001", getFragmenter(context).getFragmentsVersion());
+    }
+
     private Fragmenter getFragmenter(RequestContext context) {
         HdfsDataFragmenter fragmenter = new HdfsDataFragmenter();
         fragmenter.setRequestContext(context);
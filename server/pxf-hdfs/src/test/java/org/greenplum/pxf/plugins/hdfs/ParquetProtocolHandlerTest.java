@@ -0,0 +1,61 @@
+package org.greenplum.pxf.plugins.hdfs;
+
+import org.greenplum.pxf.api.model.RequestContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ParquetProtocolHandlerTest {
+
+    private ParquetProtocolHandler handler;
+    private RequestContext context;
+
+    @BeforeEach
+    public void setup() {
+        handler = new ParquetProtocolHandler();
+        context = new RequestContext();
+        context.setFragmenter("fragmenter-from-context");
+        context.setAccessor("accessor-from-context");
+        context.setResolver("resolver-from-context");
+        context.setRequestType(RequestContext.RequestType.READ_BRIDGE);
+    }
+
+    @Test
+    public void testVectorizedChosenForRead() {
+        context.addOption("VECTORIZE", "true");
+        assertEquals("fragmenter-from-context", handler.getFragmenterClassName(context));
+        assertEquals("org.greenplum.pxf.plugins.hdfs.ParquetVectorizedAccessor", handler.getAccessorClassName(context));
+        assertEquals("org.greenplum.pxf.plugins.hdfs.ParquetVectorizedResolver", handler.getResolverClassName(context));
+    }
+
+    @Test
+    public void testVectorizedNotChosen_VectorizedOptionMissing() {
+        assertEquals("fragmenter-from-context", handler.getFragmenterClassName(context));
+        assertEquals("accessor-from-context", handler.getAccessorClassName(context));
+        assertEquals("resolver-from-context", handler.getResolverClassName(context));
+    }
+
+    @Test
+    public void testVectorizedNotChosen_VectorizedOptionSetFalse() {
+        context.addOption("VECTORIZE", "false");
+        assertEquals("accessor-from-context", handler.getAccessorClassName(context));
+        assertEquals("resolver-from-context", handler.getResolverClassName(context));
+    }
+
+    @Test
+    public void testVectorizedNotChosenForWrite() {
+        context.addOption("VECTORIZE", "true");
+        context.setRequestType(RequestContext.RequestType.WRITE_BRIDGE);
+        assertEquals("accessor-from-context", handler.getAccessorClassName(context));
+        assertEquals("resolver-from-context", handler.getResolverClassName(context));
+    }
+
+    @Test
+    public void testVectorizedNotChosenForSampling() {
+        context.addOption("VECTORIZE", "true");
+        context.setStatsSampleRatio(0.5f);
+        assertEquals("accessor-from-context", handler.getAccessorClassName(context));
+        assertEquals("resolver-from-context", handler.getResolverClassName(context));
+    }
+}
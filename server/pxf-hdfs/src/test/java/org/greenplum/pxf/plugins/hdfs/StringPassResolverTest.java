@@ -25,13 +25,17 @@ import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class StringPassResolverTest {
     RequestContext context;
@@ -84,6 +88,23 @@ public class StringPassResolverTest {
         assertNull(oneRow);
     }
 
+    @Test
+    public void testResetForNewRequest() {
+        StringPassResolver resolver = buildResolver();
+        InputStream stream = new ByteArrayInputStream(new byte[]{(int) 'a'});
+        List<OneField> record = Collections.singletonList(new OneField(DataType.BYTEA.getOID(), stream));
+
+        assertNotNull(resolver.setFields(record));
+        // the input stream is only consumed once per request
+        assertNull(resolver.setFields(record));
+
+        RequestContext newContext = new RequestContext();
+        assertTrue(resolver.reset(newContext));
+        OneRow oneRow = resolver.setFields(record);
+        assertNotNull(oneRow);
+        assertEquals(stream, oneRow.getData());
+    }
+
     /*
      * Helper functions
      */
@@ -14,13 +14,21 @@ import org.greenplum.pxf.api.GreenplumDateTime;
 import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.error.UnsupportedTypeException;
+import org.greenplum.pxf.api.io.BatchWritable;
 import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.io.GPDBWritable;
+import org.greenplum.pxf.api.model.OutputFormat;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.sql.Date;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
@@ -30,7 +38,9 @@ import java.util.List;
 import java.util.Objects;
 import java.util.stream.IntStream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -328,6 +338,96 @@ class ORCVectorizedResolverReadTest extends ORCVectorizedBaseTest {
         assertDataReturned(ORC_TYPES_DATASET, fields);
     }
 
+    @Test
+    public void testWriteBatchPrimitiveGPDBWritable() throws IOException {
+        TypeDescription schema = TypeDescription.fromString(ORC_TYPES_SCHEMA);
+        context.setMetadata(schema);
+        context.setOutputFormat(OutputFormat.GPDBWritable);
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+
+        OneRow batchOfRows = new OneRow(readOrcFile("orc_types.orc", 25, schema));
+        BatchWritable output = newBatchWritable();
+        assertTrue(resolver.writeBatch(batchOfRows, output));
+        assertEquals(25, output.getRecordCount());
+
+        // the serialized records must match the resolved fields of the batch
+        List<List<OneField>> fieldsForBatch = resolver.getFieldsForBatch(batchOfRows);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(serialize(output)));
+        for (List<OneField> row : fieldsForBatch) {
+            GPDBWritable record = new GPDBWritable(StandardCharsets.UTF_8);
+            record.readFields(in);
+            for (int colNum = 0; colNum < row.size(); colNum++) {
+                Object expected = row.get(colNum).val;
+                Object actual = getValue(record, colNum);
+                if (expected instanceof byte[]) {
+                    assertArrayEquals((byte[]) expected, (byte[]) actual);
+                } else if (expected != null && actual instanceof String) {
+                    assertEquals(expected.toString(), actual);
+                } else {
+                    assertEquals(expected, actual);
+                }
+            }
+        }
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    public void testWriteBatchPrimitiveTextWithProjection() throws IOException {
+        // Only project indexes 1, 2, 15
+        IntStream.range(0, columnDescriptors.size()).forEach(idx ->
+                columnDescriptors
+                        .get(idx)
+                        .setProjected(idx == 1 || idx == 2 || idx == 15));
+
+        TypeDescription schema = TypeDescription.fromString("struct<t2:string,num1:int,bin:binary>");
+        context.setMetadata(schema);
+        context.setOutputFormat(OutputFormat.TEXT);
+        context.setFormat("csv");
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+
+        BatchWritable output = newBatchWritable();
+        assertTrue(resolver.writeBatch(new OneRow(readOrcFile("orc_types.orc", 25, schema)), output));
+        assertEquals(25, output.getRecordCount());
+
+        String[] lines = new String(serialize(output), StandardCharsets.UTF_8).split("\n");
+        assertEquals(25, lines.length);
+        assertEquals(",s_6,1,,,,,,,,,,,,,\\x31", lines[0]);
+        assertEquals(",,11,,,,,,,,,,,,,\\x31", lines[11]);
+        assertEquals(",s_16,11,,,,,,,,,,,,,", lines[24]);
+    }
+
+    @Test
+    public void testWriteBatchCompoundIsNotSupported() throws IOException {
+        TypeDescription schema = TypeDescription.fromString(ORC_TYPES_SCHEMA_COMPOUND);
+        context.setMetadata(schema);
+        context.setTupleDescription(columnDescriptorsCompound);
+        context.setOutputFormat(OutputFormat.TEXT);
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+
+        BatchWritable output = newBatchWritable();
+        assertFalse(resolver.writeBatch(new OneRow(readOrcFile("orc_types_compound.orc", 6, schema)), output));
+        assertEquals(0, output.getRecordCount());
+    }
+
+    @Test
+    public void testWriteBatchWithMismatchedTypeIsNotSupported() throws IOException {
+        // the ORC int column is mapped to a Greenplum bigint column
+        columnDescriptors.set(2, new ColumnDescriptor("num1", DataType.BIGINT.getOID(), 2, "int8", null));
+
+        TypeDescription schema = TypeDescription.fromString(ORC_TYPES_SCHEMA);
+        context.setMetadata(schema);
+        context.setOutputFormat(OutputFormat.GPDBWritable);
+        resolver.setRequestContext(context);
+        resolver.afterPropertiesSet();
+
+        BatchWritable output = newBatchWritable();
+        assertFalse(resolver.writeBatch(new OneRow(readOrcFile("orc_types.orc", 25, schema)), output));
+        assertEquals(0, output.getRecordCount());
+    }
+
     @Test
     public void testUnsupportedFunctionality() {
         Exception e = assertThrows(UnsupportedOperationException.class, () -> resolver.getFields(new OneRow()));
@@ -488,6 +588,41 @@ class ORCVectorizedResolverReadTest extends ORCVectorizedBaseTest {
         }
     }
 
+    private BatchWritable newBatchWritable() {
+        return new BatchWritable(context.getOutputFormat(),
+                context.getTupleDescription().stream().mapToInt(ColumnDescriptor::columnTypeCode).toArray(),
+                context.getGreenplumCSV(),
+                context.getFormat(),
+                StandardCharsets.UTF_8);
+    }
+
+    private byte[] serialize(BatchWritable output) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        output.write(new DataOutputStream(out));
+        return out.toByteArray();
+    }
+
+    private Object getValue(GPDBWritable record, int colNum) throws IOException {
+        switch (DataType.get(record.getColType()[colNum])) {
+            case BIGINT:
+                return record.getLong(colNum);
+            case BOOLEAN:
+                return record.getBoolean(colNum);
+            case FLOAT8:
+                return record.getDouble(colNum);
+            case INTEGER:
+                return record.getInt(colNum);
+            case REAL:
+                return record.getFloat(colNum);
+            case SMALLINT:
+                return record.getShort(colNum);
+            case BYTEA:
+                return record.getBytes(colNum);
+            default:
+                return record.getString(colNum);
+        }
+    }
+
     private VectorizedRowBatch readOrcFile(String filename, long expectedSize, TypeDescription readSchema)
             throws IOException {
         String orcFile = Objects.requireNonNull(getClass().getClassLoader().getResource("orc/" + filename)).getPath();
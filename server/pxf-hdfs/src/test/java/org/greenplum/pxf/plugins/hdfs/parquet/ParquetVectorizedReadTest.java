@@ -0,0 +1,280 @@
+package org.greenplum.pxf.plugins.hdfs.parquet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.error.UnsupportedTypeException;
+import org.greenplum.pxf.api.io.BatchWritable;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.io.GPDBWritable;
+import org.greenplum.pxf.api.model.GreenplumCSV;
+import org.greenplum.pxf.api.model.OutputFormat;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
+import org.greenplum.pxf.plugins.hdfs.ParquetFileAccessor;
+import org.greenplum.pxf.plugins.hdfs.ParquetResolver;
+import org.greenplum.pxf.plugins.hdfs.ParquetVectorizedAccessor;
+import org.greenplum.pxf.plugins.hdfs.ParquetVectorizedResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParquetVectorizedReadTest extends ParquetBaseTest {
+
+    private static final int NUM_ROWS = 25;
+
+    private ParquetVectorizedAccessor accessor;
+    private ParquetVectorizedResolver resolver;
+    private RequestContext context;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        super.setup();
+
+        context = newContext("parquet/parquet_types.parquet", columnDescriptors);
+        accessor = new ParquetVectorizedAccessor();
+        resolver = new ParquetVectorizedResolver();
+        accessor.setRequestContext(context);
+        resolver.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        resolver.afterPropertiesSet();
+    }
+
+    @Test
+    public void testGetFieldsForBatchMatchesParquetResolver() throws Exception {
+        assertRowsEqual(readRows(), readBatchRows());
+    }
+
+    @Test
+    public void testGetFieldsForBatchWithProjectionMatchesParquetResolver() throws Exception {
+        columnDescriptors.forEach(d -> d.setProjected(false));
+        columnDescriptors.get(1).setProjected(true);
+        columnDescriptors.get(8).setProjected(true);
+        columnDescriptors.get(14).setProjected(true);
+
+        assertRowsEqual(readRows(), readBatchRows());
+    }
+
+    @Test
+    public void testWriteBatchGPDBWritableMatchesParquetResolver() throws Exception {
+        List<List<OneField>> rows = readRows();
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(expected);
+        int[] columnTypes = columnDescriptors.stream().mapToInt(ColumnDescriptor::columnTypeCode).toArray();
+        for (List<OneField> row : rows) {
+            toGPDBWritable(columnTypes, row).write(dos);
+        }
+
+        BatchWritable output = new BatchWritable(OutputFormat.GPDBWritable, columnTypes, new GreenplumCSV(), "custom", StandardCharsets.UTF_8);
+        assertTrue(accessor.openForRead());
+        OneRow batch;
+        while ((batch = accessor.readNextObject()) != null) {
+            assertTrue(resolver.writeBatch(batch, output));
+        }
+        accessor.closeForRead();
+
+        assertEquals(NUM_ROWS, output.getRecordCount());
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        output.write(new DataOutputStream(actual));
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    }
+
+    @Test
+    public void testWriteBatchTextWithProjection() throws Exception {
+        columnDescriptors.forEach(d -> d.setProjected(false));
+        columnDescriptors.get(0).setProjected(true);
+        columnDescriptors.get(4).setProjected(true);
+        int[] columnTypes = columnDescriptors.stream().mapToInt(ColumnDescriptor::columnTypeCode).toArray();
+
+        BatchWritable output = new BatchWritable(OutputFormat.TEXT, columnTypes, new GreenplumCSV(), "csv", StandardCharsets.UTF_8);
+        assertTrue(accessor.openForRead());
+        assertTrue(resolver.writeBatch(accessor.readNextObject(), output));
+        assertNull(accessor.readNextObject());
+        accessor.closeForRead();
+
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        output.write(new DataOutputStream(actual));
+        String[] lines = new String(actual.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(NUM_ROWS, lines.length);
+        assertEquals("1,,,,good,,,,,,,,,,,,", lines[0]);
+        assertEquals("2,,,,excellent,,,,,,,,,,,,", lines[1]);
+        assertEquals("12,,,,,,,,,,,,,,,,", lines[11]);
+    }
+
+    @Test
+    public void testWriteBatchWithMismatchedTypeIsNotSupported() throws Exception {
+        // the parquet column is an INT32, but the Greenplum column is a BIGINT
+        columnDescriptors.set(0, new ColumnDescriptor("id", DataType.BIGINT.getOID(), 0, "int8", null));
+        int[] columnTypes = columnDescriptors.stream().mapToInt(ColumnDescriptor::columnTypeCode).toArray();
+
+        BatchWritable output = new BatchWritable(OutputFormat.GPDBWritable, columnTypes, new GreenplumCSV(), "custom", StandardCharsets.UTF_8);
+        assertTrue(accessor.openForRead());
+        assertFalse(resolver.writeBatch(accessor.readNextObject(), output));
+        accessor.closeForRead();
+
+        assertEquals(0, output.getRecordCount());
+    }
+
+    @Test
+    public void testRowGroupSkippedByStatistics() throws Exception {
+        // id = 100 is out of the range of the statistics of the row group
+        context.setFilterString("a0c20s3d100o5");
+
+        assertTrue(accessor.openForRead());
+        assertNull(accessor.readNextObject());
+        accessor.closeForRead();
+    }
+
+    @Test
+    public void testRowGroupReadWhenStatisticsMatch() throws Exception {
+        // id = 5, the rows of the row group are not filtered individually
+        context.setFilterString("a0c20s1d5o5");
+
+        assertTrue(accessor.openForRead());
+        OneRow batch = accessor.readNextObject();
+        assertNotNull(batch);
+        assertEquals(NUM_ROWS, ((ParquetColumnBatch) batch.getData()).getSize());
+        assertNull(accessor.readNextObject());
+        accessor.closeForRead();
+    }
+
+    @Test
+    public void testListColumnIsNotSupported() throws Exception {
+        List<ColumnDescriptor> listColumns = new ArrayList<>();
+        listColumns.add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null));
+        listColumns.add(new ColumnDescriptor("int_arr", DataType.INT4ARRAY.getOID(), 1, "int4[]", null));
+        context = newContext("parquet/parquet_list_types.parquet", listColumns);
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+
+        Exception e = assertThrows(UnsupportedTypeException.class, accessor::openForRead);
+        assertTrue(e.getMessage().startsWith("Column int_arr of Parquet type"));
+
+        // the list column can be skipped when it is not projected
+        listColumns.get(1).setProjected(false);
+        assertTrue(accessor.openForRead());
+        assertEquals(6, ((ParquetColumnBatch) accessor.readNextObject().getData()).getSize());
+        accessor.closeForRead();
+    }
+
+    private RequestContext newContext(String resource, List<ColumnDescriptor> columns) {
+        String path = Objects.requireNonNull(getClass().getClassLoader().getResource(resource)).getPath();
+
+        RequestContext requestContext = new RequestContext();
+        requestContext.setConfig("fakeConfig");
+        requestContext.setServerName("fakeServerName");
+        requestContext.setUser("test-user");
+        requestContext.setProfileScheme("localfile");
+        requestContext.setRequestType(RequestContext.RequestType.READ_BRIDGE);
+        requestContext.setDataSource(path);
+        requestContext.setFragmentMetadata(new HcfsFragmentMetadata(0, new File(path).length()));
+        requestContext.setTupleDescription(columns);
+        requestContext.setConfiguration(new Configuration());
+        return requestContext;
+    }
+
+    /**
+     * Reads the rows with the row-at-a-time {@link ParquetFileAccessor} and {@link ParquetResolver}
+     */
+    private List<List<OneField>> readRows() throws Exception {
+        RequestContext rowContext = newContext("parquet/parquet_types.parquet", columnDescriptors);
+        ParquetFileAccessor rowAccessor = new ParquetFileAccessor();
+        ParquetResolver rowResolver = new ParquetResolver();
+        rowAccessor.setRequestContext(rowContext);
+        rowResolver.setRequestContext(rowContext);
+        rowAccessor.afterPropertiesSet();
+        rowResolver.afterPropertiesSet();
+
+        List<List<OneField>> rows = new ArrayList<>();
+        assertTrue(rowAccessor.openForRead());
+        OneRow row;
+        while ((row = rowAccessor.readNextObject()) != null) {
+            rows.add(rowResolver.getFields(row));
+        }
+        rowAccessor.closeForRead();
+        return rows;
+    }
+
+    private List<List<OneField>> readBatchRows() throws Exception {
+        List<List<OneField>> rows = new ArrayList<>();
+        assertTrue(accessor.openForRead());
+        OneRow batch;
+        while ((batch = accessor.readNextObject()) != null) {
+            rows.addAll(resolver.getFieldsForBatch(batch));
+        }
+        accessor.closeForRead();
+        return rows;
+    }
+
+    private void assertRowsEqual(List<List<OneField>> expected, List<List<OneField>> actual) {
+        assertEquals(NUM_ROWS, expected.size());
+        assertEquals(NUM_ROWS, actual.size());
+        for (int row = 0; row < NUM_ROWS; row++) {
+            assertEquals(expected.get(row).size(), actual.get(row).size());
+            for (int column = 0; column < expected.get(row).size(); column++) {
+                OneField expectedField = expected.get(row).get(column);
+                OneField actualField = actual.get(row).get(column);
+                String message = "Row " + row + ", column " + column;
+                assertEquals(expectedField.type, actualField.type, message);
+                if (expectedField.val instanceof byte[]) {
+                    assertArrayEquals((byte[]) expectedField.val, (byte[]) actualField.val, message);
+                } else {
+                    assertEquals(expectedField.val, actualField.val, message);
+                }
+            }
+        }
+    }
+
+    private GPDBWritable toGPDBWritable(int[] columnTypes, List<OneField> row) {
+        GPDBWritable writable = new GPDBWritable(columnTypes, StandardCharsets.UTF_8);
+        for (int i = 0; i < columnTypes.length; i++) {
+            Object val = row.get(i).val;
+            if (val == null) {
+                continue;
+            }
+            switch (DataType.get(columnTypes[i])) {
+                case INTEGER:
+                    writable.setInt(i, (Integer) val);
+                    break;
+                case BIGINT:
+                    writable.setLong(i, (Long) val);
+                    break;
+                case SMALLINT:
+                    writable.setShort(i, (Short) val);
+                    break;
+                case REAL:
+                    writable.setFloat(i, (Float) val);
+                    break;
+                case FLOAT8:
+                    writable.setDouble(i, (Double) val);
+                    break;
+                case BOOLEAN:
+                    writable.setBoolean(i, (Boolean) val);
+                    break;
+                case BYTEA:
+                    writable.setBytes(i, (byte[]) val);
+                    break;
+                default:
+                    writable.setString(i, val.toString());
+            }
+        }
+        return writable;
+    }
+}
@@ -0,0 +1,355 @@
+package org.greenplum.pxf.plugins.hive;
+
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Data;
+import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.MetaStoreUtils;
+import org.apache.hadoop.hive.metastore.api.MetaException;
+import org.greenplum.pxf.plugins.hive.HiveClientWrapper.MetaStoreClientHolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool of Hive MetaStore clients reused across requests, so that a request
+ * does not open a new Thrift connection to the MetaStore, and go through the
+ * SASL handshake when Kerberos is enabled, every time it needs a client.
+ * <p>
+ * Clients are pooled per server, MetaStore URIs and user the client is
+ * authenticated as, and a client is only handed out to requests with the same
+ * key. At most {@code maxSize} clients of a key are in use at a time, and
+ * requests wait up to {@code maxWait} for one of them to be returned. Returned
+ * clients are kept idle, up to {@code maxIdle} per key, and are checked with
+ * a cheap MetaStore call before being reused when they have been idle for
+ * longer than {@code validationInterval}. Clients idle for longer than
+ * {@code idleTimeout} are closed.
+ */
+@Component
+public class HiveClientPool implements DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HiveClientPool.class);
+
+    static final String BORROW_TIMER = "pxf.hive.metastore.client.borrow";
+    static final String CREATED_COUNTER = "pxf.hive.metastore.client.created";
+    static final String ACTIVE_GAUGE = "pxf.hive.metastore.client.active";
+    static final String IDLE_GAUGE = "pxf.hive.metastore.client.idle";
+
+    private final int maxSize;
+    private final int maxIdle;
+    private final long maxWaitNanos;
+    private final long idleTimeoutNanos;
+    private final long validationIntervalNanos;
+    private final MeterRegistry registry;
+    private final Ticker ticker;
+    private final Counter createdCounter;
+    private final Map<PoolKey, KeyPool> pools = new ConcurrentHashMap<>();
+    private ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    /**
+     * Creates a new MetaStore client when the pool has no idle client for a key.
+     */
+    @FunctionalInterface
+    public interface ClientFactory {
+        IMetaStoreClient create() throws MetaException;
+    }
+
+    /**
+     * Creates a new pool that closes the expired idle clients in the background.
+     *
+     * @param maxSize            the maximum number of clients in use per key, 0 disables the pool
+     * @param maxIdle            the maximum number of idle clients per key
+     * @param maxWait            the maximum time to wait for a client when all the clients of a key are in use
+     * @param idleTimeout        the time after which an idle client is closed
+     * @param validationInterval the idle time after which a client is validated before being reused
+     * @param registry           the registry to report the metrics to
+     */
+    @Autowired
+    public HiveClientPool(@Value("${pxf.hive.metastore-client-pool.max-size:16}") int maxSize,
+                          @Value("${pxf.hive.metastore-client-pool.max-idle:4}") int maxIdle,
+                          @Value("${pxf.hive.metastore-client-pool.max-wait:30s}") Duration maxWait,
+                          @Value("${pxf.hive.metastore-client-pool.idle-timeout:5m}") Duration idleTimeout,
+                          @Value("${pxf.hive.metastore-client-pool.validation-interval:30s}") Duration validationInterval,
+                          MeterRegistry registry) {
+        this(maxSize, maxIdle, maxWait, idleTimeout, validationInterval, registry, Ticker.systemTicker());
+        if (isEnabled()) {
+            long period = Math.max(TimeUnit.SECONDS.toNanos(1), idleTimeoutNanos / 2);
+            evictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                    .setNameFormat("pxf-hive-client-evictor-%d")
+                    .setDaemon(true)
+                    .build());
+            evictor.scheduleAtFixedRate(this::evictIdleClients, period, period, TimeUnit.NANOSECONDS);
+        }
+        LOG.info("Pooling up to {} Hive MetaStore clients per server and user", Math.max(0, maxSize));
+    }
+
+    HiveClientPool(int maxSize, int maxIdle, Duration maxWait, Duration idleTimeout,
+                   Duration validationInterval, MeterRegistry registry, Ticker ticker) {
+        this.maxSize = maxSize;
+        this.maxIdle = maxIdle;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.validationIntervalNanos = validationInterval.toNanos();
+        this.registry = registry;
+        this.ticker = ticker;
+        this.createdCounter = Counter.builder(CREATED_COUNTER)
+                .description("Number of Hive MetaStore clients created by the pool")
+                .register(registry);
+        Gauge.builder(ACTIVE_GAUGE, this, HiveClientPool::getActiveCount)
+                .description("Number of pooled Hive MetaStore clients in use")
+                .register(registry);
+        Gauge.builder(IDLE_GAUGE, this, HiveClientPool::getIdleCount)
+                .description("Number of pooled Hive MetaStore clients waiting to be reused")
+                .register(registry);
+    }
+
+    /**
+     * @return true if clients are pooled, false if every request must create its own client
+     */
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /**
+     * Borrows a client for the given key, reusing an idle client when there
+     * is a valid one. Closing the returned holder returns the client to the
+     * pool.
+     *
+     * @param server        the name of the PXF server
+     * @param metastoreUris the URIs of the MetaStore the client connects to
+     * @param user          the name of the user the client is authenticated as
+     * @param factory       the factory creating a client when there is no idle one
+     * @return the holder of the borrowed client
+     * @throws MetaException        if no client is available in time or a new client can not be created
+     * @throws InterruptedException if interrupted while waiting for a client
+     */
+    public MetaStoreClientHolder borrowClient(String server, String metastoreUris, String user, ClientFactory factory)
+            throws MetaException, InterruptedException {
+        if (closed) {
+            return new MetaStoreClientHolder(factory.create());
+        }
+
+        PoolKey key = new PoolKey(server, metastoreUris, user);
+        // registered as a user of the key pool, so that it is not discarded by the eviction
+        KeyPool pool = pools.compute(key, (k, p) -> {
+            KeyPool result = p != null ? p : new KeyPool(maxSize);
+            result.users++;
+            return result;
+        });
+
+        boolean acquired = false;
+        boolean borrowed = false;
+        try {
+            long start = ticker.read();
+            acquired = pool.permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+            Timer.builder(BORROW_TIMER)
+                    .description("Time spent waiting for a pooled Hive MetaStore client")
+                    .tag("server", StringUtils.defaultIfBlank(server, "default"))
+                    .register(registry)
+                    .record(ticker.read() - start, TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                throw new MetaException(String.format("Timed out after %d ms waiting for one of the %d clients of server %s",
+                        TimeUnit.NANOSECONDS.toMillis(maxWaitNanos), maxSize, server));
+            }
+
+            IMetaStoreClient client = takeIdleClient(pool);
+            if (client == null) {
+                LOG.debug("Creating Hive MetaStore client for {}", key);
+                client = factory.create();
+                createdCounter.increment();
+            }
+            borrowed = true;
+            return new MetaStoreClientHolder(client, c -> returnClient(key, pool, c));
+        } finally {
+            if (!borrowed) {
+                if (acquired) {
+                    pool.permits.release();
+                }
+                releaseUser(key);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        closed = true;
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+        for (KeyPool pool : pools.values()) {
+            List<IMetaStoreClient> clients = new ArrayList<>();
+            synchronized (pool) {
+                pool.idle.forEach(idleClient -> clients.add(idleClient.client));
+                pool.idle.clear();
+            }
+            clients.forEach(this::closeClient);
+        }
+    }
+
+    /**
+     * Closes the clients that have been idle for longer than the idle timeout,
+     * and discards the keys without idle or borrowed clients.
+     */
+    void evictIdleClients() {
+        long now = ticker.read();
+        for (Map.Entry<PoolKey, KeyPool> entry : pools.entrySet()) {
+            KeyPool pool = entry.getValue();
+            List<IMetaStoreClient> expired = new ArrayList<>();
+            synchronized (pool) {
+                Iterator<IdleClient> iterator = pool.idle.iterator();
+                while (iterator.hasNext()) {
+                    IdleClient idleClient = iterator.next();
+                    if (now - idleClient.idleSince > idleTimeoutNanos) {
+                        iterator.remove();
+                        expired.add(idleClient.client);
+                    }
+                }
+            }
+            if (!expired.isEmpty()) {
+                LOG.debug("Closing {} idle Hive MetaStore client(s) for {}", expired.size(), entry.getKey());
+                expired.forEach(this::closeClient);
+            }
+            pools.computeIfPresent(entry.getKey(), (key, p) -> {
+                synchronized (p) {
+                    return p.users == 0 && p.idle.isEmpty() ? null : p;
+                }
+            });
+        }
+    }
+
+    int getActiveCount() {
+        return pools.values().stream().mapToInt(pool -> maxSize - pool.permits.availablePermits()).sum();
+    }
+
+    int getIdleCount() {
+        int count = 0;
+        for (KeyPool pool : pools.values()) {
+            synchronized (pool) {
+                count += pool.idle.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the most recently used idle client of the pool that is still
+     * valid, closing the expired and broken clients on the way, or null if
+     * there is none.
+     */
+    private IMetaStoreClient takeIdleClient(KeyPool pool) {
+        while (true) {
+            IdleClient idleClient;
+            synchronized (pool) {
+                idleClient = pool.idle.pollFirst();
+            }
+            if (idleClient == null) {
+                return null;
+            }
+            long idleNanos = ticker.read() - idleClient.idleSince;
+            if (idleNanos > idleTimeoutNanos ||
+                    (idleNanos > validationIntervalNanos && !isValid(idleClient.client))) {
+                closeClient(idleClient.client);
+                continue;
+            }
+            return idleClient.client;
+        }
+    }
+
+    private void returnClient(PoolKey key, KeyPool pool, IMetaStoreClient client) {
+        try {
+            synchronized (pool) {
+                if (!closed && pool.idle.size() < maxIdle) {
+                    pool.idle.offerFirst(new IdleClient(client, ticker.read()));
+                    return;
+                }
+            }
+            closeClient(client);
+        } finally {
+            pool.permits.release();
+            releaseUser(key);
+        }
+    }
+
+    private void releaseUser(PoolKey key) {
+        pools.computeIfPresent(key, (k, p) -> {
+            p.users--;
+            return p;
+        });
+    }
+
+    private boolean isValid(IMetaStoreClient client) {
+        try {
+            client.getDatabases(MetaStoreUtils.DEFAULT_DATABASE_NAME);
+            return true;
+        } catch (Exception e) {
+            LOG.debug("Discarding broken Hive MetaStore client: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void closeClient(IMetaStoreClient client) {
+        try {
+            client.close();
+        } catch (Exception e) {
+            LOG.debug("Failed closing Hive MetaStore client: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Identifies the clients that can be shared by requests.
+     */
+    @Data
+    static class PoolKey {
+        private final String server;
+        private final String metastoreUris;
+        private final String user;
+    }
+
+    /**
+     * The clients of a key. The idle clients are ordered from the most to the
+     * least recently returned, and are guarded by the instance lock. The
+     * number of users, borrowing or holding a client, is only updated while
+     * computing the entry of the key in the map of pools.
+     */
+    private static class KeyPool {
+        private final Semaphore permits;
+        private final Deque<IdleClient> idle = new ArrayDeque<>();
+        private int users;
+
+        KeyPool(int maxSize) {
+            this.permits = new Semaphore(maxSize, true);
+        }
+    }
+
+    private static class IdleClient {
+        private final IMetaStoreClient client;
+        private final long idleSince;
+
+        IdleClient(IMetaStoreClient client, long idleSince) {
+            this.client = client;
+            this.idleSince = idleSince;
+        }
+    }
+}
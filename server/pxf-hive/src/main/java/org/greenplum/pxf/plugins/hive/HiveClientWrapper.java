@@ -35,6 +35,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
+import java.util.function.Consumer;
 
 import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.FILE_OUTPUT_FORMAT;
 import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.META_TABLE_LOCATION;
@@ -54,6 +55,7 @@ public class HiveClientWrapper {
     private static final String STR_ORC_FILE_INPUT_FORMAT = "org.apache.hadoop.hive.ql.io.orc.OrcInputFormat";
 
     private HiveClientFactory hiveClientFactory;
+    private HiveClientPool hiveClientPool;
     private HiveUtilities hiveUtilities;
     private SecureLogin secureLogin;
 
@@ -67,6 +69,16 @@ public class HiveClientWrapper {
         this.hiveClientFactory = hiveClientFactory;
     }
 
+    /**
+     * Sets the {@link HiveClientPool} object
+     *
+     * @param hiveClientPool the pool of hive clients
+     */
+    @Autowired
+    public void setHiveClientPool(HiveClientPool hiveClientPool) {
+        this.hiveClientPool = hiveClientPool;
+    }
+
     /**
      * Sets the {@link HiveUtilities} object
      *
@@ -90,6 +102,8 @@ public class HiveClientWrapper {
     /**
      * Initializes the IMetaStoreClient
      * Uses classpath configuration files to locate the MetaStore
+     * When the pool of clients is enabled, the client is borrowed from the pool
+     * and returned to it when the holder is closed.
      *
      * @return initialized client
      */
@@ -101,15 +115,30 @@ public class HiveClientWrapper {
                 LOG.debug("initialize HiveMetaStoreClient as login user '{}'", loginUser.getUserName());
                 // wrap in doAs for Kerberos to propagate kerberos tokens from login Subject
                 return loginUser.
-                        doAs((PrivilegedExceptionAction<MetaStoreClientHolder>) () -> hiveClientFactory.initHiveClient(hiveConf));
+                        doAs((PrivilegedExceptionAction<MetaStoreClientHolder>) () -> getHiveClient(context, hiveConf, loginUser));
             } else {
-                return hiveClientFactory.initHiveClient(hiveConf);
+                return getHiveClient(context, hiveConf, UserGroupInformation.getCurrentUser());
             }
         } catch (MetaException | InterruptedException | IOException e) {
             throw new RuntimeException("Failed connecting to Hive MetaStore service: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Returns a client authenticated as the given user, borrowed from the pool
+     * of clients of the server and user when the pool is enabled.
+     */
+    private MetaStoreClientHolder getHiveClient(RequestContext context, HiveConf hiveConf, UserGroupInformation user)
+            throws MetaException, InterruptedException {
+        if (hiveClientPool == null || !hiveClientPool.isEnabled()) {
+            return hiveClientFactory.initHiveClient(hiveConf);
+        }
+        return hiveClientPool.borrowClient(context.getServerName(),
+                hiveConf.getVar(HiveConf.ConfVars.METASTOREURIS),
+                user.getUserName(),
+                () -> hiveClientFactory.initHiveClient(hiveConf).getClient());
+    }
+
     public Table getHiveTable(IMetaStoreClient client, Metadata.Item itemName) throws Exception {
         Table tbl = client.getTable(itemName.getPath(), itemName.getName());
         String tblType = tbl.getTableType();
@@ -400,17 +429,30 @@ public class HiveClientWrapper {
      * Holder of a MetaStoreClient that implements AutoCloseable interface that allows it to be used in
      * try-with-resources block and be automatically closed when no longer required.
      * The class just wraps the real client, it does not delegate any methods to the real client as there would be
-     * too many methods to override.
+     * too many methods to override. A client borrowed from the {@link HiveClientPool} is returned to the pool
+     * instead of being closed.
      */
     public static class MetaStoreClientHolder implements AutoCloseable {
         private final IMetaStoreClient client;
+        private final Consumer<IMetaStoreClient> release;
+        private boolean released;
 
         /**
          * Creates a new holder of the provided Metastore client.
          * @param client a client to hold
          */
         MetaStoreClientHolder(IMetaStoreClient client) {
+            this(client, IMetaStoreClient::close);
+        }
+
+        /**
+         * Creates a new holder of the provided Metastore client that is released with the given action.
+         * @param client  a client to hold
+         * @param release the action releasing the client when the holder is closed
+         */
+        MetaStoreClientHolder(IMetaStoreClient client, Consumer<IMetaStoreClient> release) {
             this.client = client;
+            this.release = release;
         }
 
         /**
@@ -423,7 +465,11 @@ public class HiveClientWrapper {
 
         @Override
         public void close() {
-            client.close();
+            // the client must not be released twice, it could be borrowed again in between
+            if (!released) {
+                released = true;
+                release.accept(client);
+            }
         }
     }
 }
@@ -19,11 +19,13 @@ package org.greenplum.pxf.plugins.hive;
  * under the License.
  */
 
+import com.google.common.collect.Lists;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.metastore.IMetaStoreClient;
 import org.apache.hadoop.hive.metastore.MetaStoreUtils;
+import org.apache.hadoop.hive.metastore.Warehouse;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
@@ -50,13 +52,18 @@ import org.greenplum.pxf.plugins.hive.utilities.ProfileFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -97,6 +104,7 @@ public class HiveDataFragmenter extends HdfsDataFragmenter {
     protected final HiveUtilities hiveUtilities;
 
     private final HiveClientWrapper hiveClientWrapper;
+    private final HiveSplitExecutor splitExecutor;
 
     // Data structure to hold hive partition names if exist, to be used by
     // partition filtering
@@ -104,12 +112,15 @@ public class HiveDataFragmenter extends HdfsDataFragmenter {
     private final Map<String, String> partitionKeyTypes = new HashMap<>();
 
     public HiveDataFragmenter() {
-        this(SpringContext.getBean(HiveUtilities.class), SpringContext.getBean(HiveClientWrapper.class));
+        this(SpringContext.getBean(HiveUtilities.class),
+                SpringContext.getBean(HiveClientWrapper.class),
+                SpringContext.getBean(HiveSplitExecutor.class));
     }
 
-    HiveDataFragmenter(HiveUtilities hiveUtilities, HiveClientWrapper hiveClientWrapper) {
+    HiveDataFragmenter(HiveUtilities hiveUtilities, HiveClientWrapper hiveClientWrapper, HiveSplitExecutor splitExecutor) {
         this.hiveClientWrapper = hiveClientWrapper;
         this.hiveUtilities = hiveUtilities;
+        this.splitExecutor = splitExecutor;
     }
 
     /**
@@ -133,12 +144,26 @@ public class HiveDataFragmenter extends HdfsDataFragmenter {
         return fragments;
     }
 
+    /**
+     * Returns no version, so that the fragments of Hive tables are not cached
+     * across queries. The metastore does not tell when files are added to an
+     * existing partition of a table, so the fragments listed by the PXF
+     * servers of a query could differ.
+     */
+    @Override
+    public String getFragmentsVersion() {
+        return null;
+    }
+
     /*
      * Goes over the table partitions metadata and extracts the splits and the
-     * InputFormat and Serde per split.
+     * InputFormat and Serde per split. Without a partition filter, the names
+     * of the partitions are retrieved first, and the partitions themselves are
+     * retrieved in pages of hive.metastore.batch.retrieve.max partitions.
      */
     private void fetchTableMetaData(Metadata.Item tblDesc, IMetaStoreClient client) throws Exception {
 
+        long metastoreStart = System.nanoTime();
         Table tbl = hiveClientWrapper.getHiveTable(client, tblDesc);
 
         Metadata metadata = new Metadata(tblDesc);
@@ -148,7 +173,6 @@ public class HiveDataFragmenter extends HdfsDataFragmenter {
         // make sure the schema is valid
         verifySchema(tbl);
 
-        List<Partition> partitions;
         String filterStringForHive = "";
 
         // If query has filter and hive table has partitions, prepare the filter
@@ -183,6 +207,12 @@ public class HiveDataFragmenter extends HdfsDataFragmenter {
             filterStringForHive = hivePartitionFilterBuilder.toString();
         }
 
+        StorageDescriptor descTable = tbl.getSd();
+        List<FieldSchema> partitionKeys = tbl.getPartitionKeys();
+        long metastoreNanos;
+        long listingStart;
+        int partitionCount;
+
         if (StringUtils.isNotBlank(filterStringForHive)) {
 
             LOG.debug("Filter String for Hive partition retrieval : {}",
@@ -191,11 +221,13 @@ public class HiveDataFragmenter extends HdfsDataFragmenter {
             // API call to Hive MetaStore, will return a List of all the
             // partitions for this table, that matches the partition filters
             // Defined in filterStringForHive.
-            partitions = client.listPartitionsByFilter(tblDesc.getPath(),
+            List<Partition> partitions = client.listPartitionsByFilter(tblDesc.getPath(),
                     tblDesc.getName(), filterStringForHive, ALL_PARTS);
+            metastoreNanos = System.nanoTime() - metastoreStart;
 
             // No matched partitions for the filter, no fragments to return.
             if (partitions == null || partitions.isEmpty()) {
+                splitExecutor.reportMetastoreTime(context, metastoreNanos);
 
                 LOG.debug("Table - {}.{} has no matched partitions for the filter : {}",
                         tblDesc.getPath(), tblDesc.getName(), filterStringForHive);
@@ -205,31 +237,99 @@ public class HiveDataFragmenter extends HdfsDataFragmenter {
             LOG.debug("Table - {}.{} matched partitions list size: {}",
                     tblDesc.getPath(), tblDesc.getName(), partitions.size());
 
+            listingStart = System.nanoTime();
+            partitionCount = partitions.size();
+            fetchMetaDataForPartitions(tblDesc, descTable, partitionKeys, partitions, hasComplexTypes);
         } else {
-            // API call to Hive MetaStore, will return a List of all the
+            // API call to Hive MetaStore, will return the names of all the
             // partitions for this table (no filtering)
-            partitions = client.listPartitions(tblDesc.getPath(),
-                    tblDesc.getName(), ALL_PARTS);
+            List<String> partitionNames = partitionKeys != null && !partitionKeys.isEmpty() ?
+                    client.listPartitionNames(tblDesc.getPath(), tblDesc.getName(), ALL_PARTS) :
+                    Collections.emptyList();
+            metastoreNanos = System.nanoTime() - metastoreStart;
+            listingStart = System.nanoTime();
+            partitionCount = partitionNames.size();
+
+            if (partitionNames.isEmpty()) {
+                Properties props = getSchema(tbl);
+                fragments.addAll(fetchMetaDataForSimpleTable(getJobConf(), descTable, props, hasComplexTypes));
+            } else {
+                // retrieve the partitions one page at a time, so that only the partitions
+                // of a single page are held in memory while their splits are computed
+                int pageSize = Math.max(1, configuration.getInt(
+                        HiveConf.ConfVars.METASTORE_BATCH_RETRIEVE_MAX.varname,
+                        HiveConf.ConfVars.METASTORE_BATCH_RETRIEVE_MAX.defaultIntVal));
+                long metastoreTime = 0;
+                for (List<String> page : Lists.partition(partitionNames, pageSize)) {
+                    long pageStart = System.nanoTime();
+                    List<Partition> partitions = getPartitionsByNames(client, tblDesc, partitionKeys, page);
+                    metastoreTime += System.nanoTime() - pageStart;
+                    fetchMetaDataForPartitions(tblDesc, descTable, partitionKeys, partitions, hasComplexTypes);
+                }
+                // the time spent retrieving the pages is not part of the listing time
+                metastoreNanos += metastoreTime;
+                listingStart += metastoreTime;
+                LOG.debug("Table - {}.{} retrieved {} partitions in pages of {}",
+                        tblDesc.getPath(), tblDesc.getName(), partitionCount, pageSize);
+            }
         }
 
-        StorageDescriptor descTable = tbl.getSd();
-        Properties props;
+        long listingNanos = System.nanoTime() - listingStart;
+        splitExecutor.reportMetastoreTime(context, metastoreNanos);
+        splitExecutor.reportListingTime(context, listingNanos);
+        LOG.debug("Table {}.{}: retrieved {} partitions from the metastore in {} ms, computed {} fragments in {} ms",
+                tblDesc.getPath(), tblDesc.getName(), partitionCount, TimeUnit.NANOSECONDS.toMillis(metastoreNanos),
+                fragments.size(), TimeUnit.NANOSECONDS.toMillis(listingNanos));
+    }
 
-        if (partitions.isEmpty()) {
-            props = getSchema(tbl);
-            fetchMetaDataForSimpleTable(descTable, props, hasComplexTypes);
-        } else {
-            List<FieldSchema> partitionKeys = tbl.getPartitionKeys();
+    /*
+     * Returns the partitions with the given names, in the order of the names,
+     * as the metastore does not guarantee the order of the partitions.
+     */
+    private List<Partition> getPartitionsByNames(IMetaStoreClient client,
+                                                 Metadata.Item tblDesc,
+                                                 List<FieldSchema> partitionKeys,
+                                                 List<String> names) throws Exception {
+        List<Partition> partitions = client.getPartitionsByNames(tblDesc.getPath(), tblDesc.getName(), names);
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            positions.put(names.get(i), i);
+        }
+        Map<Partition, Integer> partitionPositions = new IdentityHashMap<>();
+        for (Partition partition : partitions) {
+            Integer position = positions.get(Warehouse.makePartName(partitionKeys, partition.getValues()));
+            partitionPositions.put(partition, position != null ? position : Integer.MAX_VALUE);
+        }
+        List<Partition> orderedPartitions = new ArrayList<>(partitions);
+        orderedPartitions.sort(Comparator.comparing(partitionPositions::get));
+        return orderedPartitions;
+    }
 
-            for (Partition partition : partitions) {
+    /*
+     * Adds the fragments of the partitions in the order of the partitions.
+     * The splits of the partitions are computed concurrently by the split
+     * executor.
+     */
+    private void fetchMetaDataForPartitions(Metadata.Item tblDesc,
+                                            StorageDescriptor descTable,
+                                            List<FieldSchema> partitionKeys,
+                                            List<Partition> partitions,
+                                            boolean hasComplexTypes) throws Exception {
+        // every worker uses its own JobConf, as the input paths are set on it for every partition
+        List<List<Fragment>> partitionFragments = splitExecutor.execute(partitions, () -> {
+            JobConf jobConf = new JobConf(configuration, getClass());
+            return partition -> {
                 StorageDescriptor descPartition = partition.getSd();
-                props = MetaStoreUtils.getSchema(descPartition, descTable,
+                Properties props = MetaStoreUtils.getSchema(descPartition, descTable,
                         null,
                         tblDesc.getPath(), tblDesc.getName(),
                         partitionKeys);
-                fetchMetaDataForPartitionedTable(descPartition, props, partition,
+                return fetchMetaDataForPartitionedTable(jobConf, descPartition, props, partition,
                         partitionKeys, tblDesc.getName(), hasComplexTypes);
-            }
+            };
+        });
+        for (List<Fragment> partitionFragment : partitionFragments) {
+            fragments.addAll(partitionFragment);
         }
     }
 
@@ -264,36 +364,29 @@ public class HiveDataFragmenter extends HdfsDataFragmenter {
                 table.getPartitionKeys());
     }
 
-    private void fetchMetaDataForSimpleTable(StorageDescriptor stdsc,
-                                             Properties props,
-                                             boolean hasComplexTypes) throws Exception {
-        fetchMetaDataForSimpleTable(stdsc, props, null, hasComplexTypes);
-    }
-
-    private void fetchMetaDataForSimpleTable(StorageDescriptor stdsc,
-                                             Properties props,
-                                             String tableName,
-                                             boolean hasComplexTypes)
-            throws Exception {
-        fetchMetaData(new HiveTablePartition(stdsc, props, null, null,
-                tableName), hasComplexTypes);
+    private List<Fragment> fetchMetaDataForSimpleTable(JobConf jobConf,
+                                                       StorageDescriptor stdsc,
+                                                       Properties props,
+                                                       boolean hasComplexTypes) throws Exception {
+        return fetchMetaData(jobConf, new HiveTablePartition(stdsc, props, null, null,
+                null), hasComplexTypes);
     }
 
-    private void fetchMetaDataForPartitionedTable(StorageDescriptor stdsc,
-                                                  Properties props,
-                                                  Partition partition,
-                                                  List<FieldSchema> partitionKeys,
-                                                  String tableName,
-                                                  boolean hasComplexTypes)
+    private List<Fragment> fetchMetaDataForPartitionedTable(JobConf jobConf,
+                                                            StorageDescriptor stdsc,
+                                                            Properties props,
+                                                            Partition partition,
+                                                            List<FieldSchema> partitionKeys,
+                                                            String tableName,
+                                                            boolean hasComplexTypes)
             throws Exception {
-        fetchMetaData(new HiveTablePartition(stdsc, props, partition, partitionKeys, tableName),
+        return fetchMetaData(jobConf, new HiveTablePartition(stdsc, props, partition, partitionKeys, tableName),
                 hasComplexTypes);
     }
 
-    /* Fills a table partition */
-    private void fetchMetaData(HiveTablePartition tablePartition, boolean hasComplexTypes)
+    /* Returns the fragments of a table partition */
+    private List<Fragment> fetchMetaData(JobConf jobConf, HiveTablePartition tablePartition, boolean hasComplexTypes)
             throws Exception {
-        JobConf jobConf = getJobConf();
         InputFormat<?, ?> fformat = hiveUtilities.makeInputFormat(tablePartition.storageDesc.getInputFormat(), jobConf);
         String profile = null;
         String userProfile = context.getProfile();
@@ -317,7 +410,7 @@ public class HiveDataFragmenter extends HdfsDataFragmenter {
             splits = fformat.getSplits(jobConf, 1);
         } catch (org.apache.hadoop.mapred.InvalidInputException e) {
             LOG.debug("getSplits failed on " + e.getMessage());
-            return;
+            return Collections.emptyList();
         }
 
         // the same properties object will be reused by all fragments (splits) for a given partition
@@ -325,14 +418,16 @@ public class HiveDataFragmenter extends HdfsDataFragmenter {
         // when there are a lot of splits (files) backing up the Hive table (partition).
         // Care must be taken by fragment processors to not modify this object or make a clone of it, if needed.
         Properties properties = hiveClientWrapper.buildFragmentProperties(fragmenterForProfile, tablePartition);
+        List<Fragment> partitionFragments = new ArrayList<>(splits.length);
         for (InputSplit split : splits) {
             FileSplit fileSplit = (FileSplit) split;
             String filepath = fileSplit.getPath().toString();
 
             HiveFragmentMetadata metadata = new HiveFragmentMetadata(fileSplit, properties);
             Fragment fragment = new Fragment(filepath, metadata, profile);
-            fragments.add(fragment);
+            partitionFragments.add(fragment);
         }
+        return partitionFragments;
     }
 
     /**
@@ -0,0 +1,195 @@
+package org.greenplum.pxf.plugins.hive;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Computes the splits of the partitions of Hive tables concurrently. The
+ * partitions of a request are processed by at most {@code parallelism}
+ * workers, and the workers of all the requests share a pool of
+ * {@code poolSize} threads, so that a table with many partitions can neither
+ * use more than its share of the pool nor overload the file system.
+ * <p>
+ * The results are returned in the order of the partitions, regardless of the
+ * order in which the workers process them, so that all the segments of a
+ * query see the same list of fragments.
+ */
+@Component
+public class HiveSplitExecutor implements DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HiveSplitExecutor.class);
+
+    static final String METASTORE_TIMER = "pxf.hive.fragmenter.metastore";
+    static final String LISTING_TIMER = "pxf.hive.fragmenter.listing";
+
+    private final int parallelism;
+    private final MeterRegistry registry;
+    private final ExecutorService executor;
+
+    /**
+     * Task that computes the result for a single item. A worker uses its own
+     * task instance for all the items it processes.
+     *
+     * @param <T> the type of the items
+     * @param <R> the type of the results
+     */
+    @FunctionalInterface
+    public interface SplitTask<T, R> {
+        R apply(T item) throws Exception;
+    }
+
+    /**
+     * Creates a new executor.
+     *
+     * @param poolSize    the number of threads shared by all the requests
+     * @param parallelism the maximum number of workers per request, 1 computes the splits serially
+     * @param registry    the registry to report the timers to
+     */
+    @Autowired
+    public HiveSplitExecutor(@Value("${pxf.hive.split-computation.pool-size:16}") int poolSize,
+                             @Value("${pxf.hive.split-computation.parallelism:8}") int parallelism,
+                             MeterRegistry registry) {
+        this.parallelism = Math.max(1, Math.min(parallelism, poolSize));
+        this.registry = registry;
+        this.executor = this.parallelism > 1 ?
+                Executors.newFixedThreadPool(poolSize, new ThreadFactoryBuilder()
+                        .setNameFormat("pxf-hive-splits-%d")
+                        .setDaemon(true)
+                        .build()) :
+                null;
+        LOG.info("Computing the splits of Hive partitions with up to {} workers per request", this.parallelism);
+    }
+
+    /**
+     * Applies a task to every item and returns the results in the order of
+     * the items. The first failure of any worker stops the remaining workers
+     * and is thrown to the caller.
+     *
+     * @param items       the items to process
+     * @param taskFactory the factory of the task of every worker
+     * @param <T>         the type of the items
+     * @param <R>         the type of the results
+     * @return the results in the order of the items
+     * @throws Exception if any of the tasks fails
+     */
+    public <T, R> List<R> execute(List<T> items, Supplier<SplitTask<T, R>> taskFactory) throws Exception {
+        int numberOfWorkers = Math.min(parallelism, items.size());
+        if (numberOfWorkers <= 1) {
+            SplitTask<T, R> task = taskFactory.get();
+            List<R> results = new ArrayList<>(items.size());
+            for (T item : items) {
+                results.add(task.apply(item));
+            }
+            return results;
+        }
+
+        // items are accessed by index from several threads
+        List<T> itemList = new ArrayList<>(items);
+        Object[] results = new Object[itemList.size()];
+        AtomicInteger nextItem = new AtomicInteger();
+        UserGroupInformation ugi = UserGroupInformation.getCurrentUser();
+        List<Future<Void>> workers = new ArrayList<>(numberOfWorkers);
+        try {
+            for (int i = 0; i < numberOfWorkers; i++) {
+                // the worker runs with the identity of the request, as it is not inherited by the executor threads
+                workers.add(executor.submit(() -> ugi.doAs((PrivilegedExceptionAction<Void>) () -> {
+                    try {
+                        SplitTask<T, R> task = taskFactory.get();
+                        int index;
+                        while ((index = nextItem.getAndIncrement()) < results.length) {
+                            results[index] = task.apply(itemList.get(index));
+                        }
+                        return null;
+                    } catch (Exception e) {
+                        // no need for the other workers to process more items
+                        nextItem.set(results.length);
+                        throw e;
+                    }
+                })));
+            }
+            for (Future<Void> worker : workers) {
+                worker.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            // checked exceptions of the task are wrapped by doAs
+            if (cause instanceof UndeclaredThrowableException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            throw cause instanceof Exception ? (Exception) cause : new RuntimeException(cause);
+        } finally {
+            // stop the workers after a failure: the running workers stop after their current item,
+            // they are not interrupted as an interrupt in Hadoop IPC closes the connection shared
+            // with the other requests, and the workers that have not started yet are cancelled
+            nextItem.set(results.length);
+            for (Future<Void> worker : workers) {
+                worker.cancel(false);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        List<R> resultList = (List<R>) (List<?>) Arrays.asList(results);
+        return resultList;
+    }
+
+    /**
+     * Reports the time spent retrieving the table and its partitions from
+     * the Hive MetaStore.
+     *
+     * @param context the request context
+     * @param nanos   the time in nanoseconds
+     */
+    public void reportMetastoreTime(RequestContext context, long nanos) {
+        reportTimer(METASTORE_TIMER, context, nanos);
+    }
+
+    /**
+     * Reports the time spent listing the files of the table or its
+     * partitions to compute their splits.
+     *
+     * @param context the request context
+     * @param nanos   the time in nanoseconds
+     */
+    public void reportListingTime(RequestContext context, long nanos) {
+        reportTimer(LISTING_TIMER, context, nanos);
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void reportTimer(String name, RequestContext context, long nanos) {
+        Tags tags = Tags.of(
+                "user", StringUtils.defaultIfBlank(context.getUser(), "unknown"),
+                "profile", StringUtils.defaultIfBlank(context.getProfile(), "unknown"),
+                "server", StringUtils.defaultIfBlank(context.getServerName(), "default"));
+        Timer.builder(name).tags(tags).register(registry).record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
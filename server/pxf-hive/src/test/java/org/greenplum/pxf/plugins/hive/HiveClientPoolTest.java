@@ -0,0 +1,231 @@
+package org.greenplum.pxf.plugins.hive;
+
+import com.google.common.base.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.api.MetaException;
+import org.greenplum.pxf.plugins.hive.HiveClientWrapper.MetaStoreClientHolder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HiveClientPoolTest {
+
+    private static final String URIS = "thrift://metastore:9083";
+
+    private MeterRegistry registry;
+    private FakeTicker ticker;
+    private List<IMetaStoreClient> createdClients;
+    private HiveClientPool.ClientFactory factory;
+
+    @BeforeEach
+    public void setup() {
+        registry = new SimpleMeterRegistry();
+        ticker = new FakeTicker();
+        createdClients = new ArrayList<>();
+        factory = () -> {
+            IMetaStoreClient client = mock(IMetaStoreClient.class);
+            createdClients.add(client);
+            return client;
+        };
+    }
+
+    @Test
+    public void testReturnedClientIsReused() throws Exception {
+        HiveClientPool pool = newPool(2, 2);
+
+        IMetaStoreClient first;
+        try (MetaStoreClientHolder holder = pool.borrowClient("default", URIS, "alice", factory)) {
+            first = holder.getClient();
+            assertEquals(1, pool.getActiveCount());
+        }
+        assertEquals(0, pool.getActiveCount());
+        assertEquals(1, pool.getIdleCount());
+
+        try (MetaStoreClientHolder holder = pool.borrowClient("default", URIS, "alice", factory)) {
+            assertSame(first, holder.getClient());
+        }
+        verify(first, never()).close();
+        assertEquals(1, createdClients.size());
+        assertEquals(1, registry.find(HiveClientPool.CREATED_COUNTER).counter().count(), 0.001);
+    }
+
+    @Test
+    public void testClientsAreNotSharedAcrossKeys() throws Exception {
+        HiveClientPool pool = newPool(2, 2);
+
+        try (MetaStoreClientHolder holder = pool.borrowClient("default", URIS, "alice", factory)) {
+            assertNotNull(holder.getClient());
+        }
+        try (MetaStoreClientHolder bob = pool.borrowClient("default", URIS, "bob", factory);
+             MetaStoreClientHolder otherServer = pool.borrowClient("hdp", URIS, "alice", factory)) {
+            assertNotSame(createdClients.get(0), bob.getClient());
+            assertNotSame(createdClients.get(0), otherServer.getClient());
+        }
+        assertEquals(3, createdClients.size());
+    }
+
+    @Test
+    public void testHolderReturnsClientOnce() throws Exception {
+        HiveClientPool pool = newPool(2, 2);
+
+        MetaStoreClientHolder holder = pool.borrowClient("default", URIS, "alice", factory);
+        holder.close();
+        holder.close();
+
+        assertEquals(1, pool.getIdleCount());
+        assertEquals(0, pool.getActiveCount());
+    }
+
+    @Test
+    public void testIdleClientIsValidatedBeforeReuse() throws Exception {
+        HiveClientPool pool = newPool(2, 2);
+
+        pool.borrowClient("default", URIS, "alice", factory).close();
+        IMetaStoreClient broken = createdClients.get(0);
+        when(broken.getDatabases(anyString())).thenThrow(new MetaException("connection reset"));
+
+        // not validated while recently used
+        ticker.advance(10, TimeUnit.SECONDS);
+        try (MetaStoreClientHolder holder = pool.borrowClient("default", URIS, "alice", factory)) {
+            assertSame(broken, holder.getClient());
+        }
+        verify(broken, never()).getDatabases(anyString());
+
+        ticker.advance(1, TimeUnit.MINUTES);
+        try (MetaStoreClientHolder holder = pool.borrowClient("default", URIS, "alice", factory)) {
+            assertNotSame(broken, holder.getClient());
+        }
+        verify(broken).close();
+        assertEquals(2, createdClients.size());
+    }
+
+    @Test
+    public void testIdleClientsAreEvicted() throws Exception {
+        HiveClientPool pool = newPool(2, 2);
+
+        pool.borrowClient("default", URIS, "alice", factory).close();
+        ticker.advance(1, TimeUnit.MINUTES);
+        pool.evictIdleClients();
+        assertEquals(1, pool.getIdleCount());
+
+        ticker.advance(5, TimeUnit.MINUTES);
+        pool.evictIdleClients();
+        assertEquals(0, pool.getIdleCount());
+        verify(createdClients.get(0)).close();
+
+        try (MetaStoreClientHolder holder = pool.borrowClient("default", URIS, "alice", factory)) {
+            assertSame(createdClients.get(1), holder.getClient());
+        }
+    }
+
+    @Test
+    public void testBorrowWaitsForClientWhenPoolIsFull() throws Exception {
+        HiveClientPool pool = newPool(1, 1);
+
+        try (MetaStoreClientHolder holder = pool.borrowClient("default", URIS, "alice", factory)) {
+            assertNotNull(holder.getClient());
+            Exception e = assertThrows(MetaException.class,
+                    () -> pool.borrowClient("default", URIS, "alice", factory));
+            assertEquals("Timed out after 10 ms waiting for one of the 1 clients of server default", e.getMessage());
+
+            // other users are not affected
+            pool.borrowClient("default", URIS, "bob", factory).close();
+        }
+        assertEquals(0, pool.getActiveCount());
+
+        Timer timer = registry.find(HiveClientPool.BORROW_TIMER).tags("server", "default").timer();
+        assertNotNull(timer);
+        assertEquals(3, timer.count());
+    }
+
+    @Test
+    public void testClientsAboveMaxIdleAreClosed() throws Exception {
+        HiveClientPool pool = newPool(2, 1);
+
+        MetaStoreClientHolder first = pool.borrowClient("default", URIS, "alice", factory);
+        MetaStoreClientHolder second = pool.borrowClient("default", URIS, "alice", factory);
+        first.close();
+        second.close();
+
+        assertEquals(1, pool.getIdleCount());
+        verify(first.getClient(), never()).close();
+        verify(second.getClient()).close();
+    }
+
+    @Test
+    public void testFailedCreationReleasesPermit() throws Exception {
+        HiveClientPool pool = newPool(1, 1);
+
+        assertThrows(MetaException.class, () -> pool.borrowClient("default", URIS, "alice", () -> {
+            throw new MetaException("metastore is down");
+        }));
+
+        try (MetaStoreClientHolder holder = pool.borrowClient("default", URIS, "alice", factory)) {
+            assertNotNull(holder.getClient());
+        }
+    }
+
+    @Test
+    public void testDestroyClosesClients() throws Exception {
+        HiveClientPool pool = newPool(2, 2);
+
+        pool.borrowClient("default", URIS, "alice", factory).close();
+        MetaStoreClientHolder borrowed = pool.borrowClient("default", URIS, "alice", factory);
+        MetaStoreClientHolder other = pool.borrowClient("default", URIS, "alice", factory);
+        borrowed.close();
+
+        pool.destroy();
+        verify(createdClients.get(0)).close();
+        assertEquals(0, pool.getIdleCount());
+
+        // clients returned after the pool is destroyed are closed
+        other.close();
+        verify(other.getClient()).close();
+    }
+
+    @Test
+    public void testDisabledPool() {
+        assertFalse(new HiveClientPool(0, 4, Duration.ofSeconds(30), Duration.ofMinutes(5),
+                Duration.ofSeconds(30), registry, ticker).isEnabled());
+        assertTrue(newPool(1, 0).isEnabled());
+    }
+
+    private HiveClientPool newPool(int maxSize, int maxIdle) {
+        return new HiveClientPool(maxSize, maxIdle, Duration.ofMillis(10), Duration.ofMinutes(5),
+                Duration.ofSeconds(30), registry, ticker);
+    }
+
+    static class FakeTicker extends Ticker {
+        private final AtomicLong nanos = new AtomicLong();
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+
+        void advance(long value, TimeUnit unit) {
+            nanos.addAndGet(unit.toNanos(value));
+        }
+    }
+}
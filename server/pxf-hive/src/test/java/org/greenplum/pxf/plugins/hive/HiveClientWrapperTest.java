@@ -1,22 +1,35 @@
 package org.greenplum.pxf.plugins.hive;
 
+import com.google.common.base.Ticker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hive.metastore.IMetaStoreClient;
 import org.greenplum.pxf.api.model.Metadata;
+import org.greenplum.pxf.api.model.RequestContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class HiveClientWrapperTest {
 
     private Metadata.Item tblDesc;
     private HiveClientWrapper hiveClientWrapper;
+    private HiveClientWrapper.HiveClientFactory factory;
 
     @BeforeEach
     public void setup() {
-        HiveClientWrapper.HiveClientFactory factory = mock(HiveClientWrapper.HiveClientFactory.class);
+        factory = mock(HiveClientWrapper.HiveClientFactory.class);
         hiveClientWrapper = new HiveClientWrapper();
         hiveClientWrapper.setHiveClientFactory(factory);
     }
@@ -79,6 +92,26 @@ public class HiveClientWrapperTest {
         assertEquals("\"t.r.o.u.b.l.e.m.a.k.e.r\" is not a valid Hive table name. Should be either <table_name> or <db_name.table_name>", e.getMessage());
     }
 
+    @Test
+    public void initHiveClientReusesPooledClient() throws Exception {
+        IMetaStoreClient metaStoreClient = mock(IMetaStoreClient.class);
+        when(factory.initHiveClient(any())).thenReturn(new HiveClientWrapper.MetaStoreClientHolder(metaStoreClient));
+        hiveClientWrapper.setHiveClientPool(new HiveClientPool(2, 2, Duration.ofSeconds(1), Duration.ofMinutes(5),
+                Duration.ofSeconds(30), new SimpleMeterRegistry(), Ticker.systemTicker()));
+
+        RequestContext context = new RequestContext();
+        context.setServerName("default");
+        Configuration configuration = new Configuration();
+        for (int i = 0; i < 2; i++) {
+            try (HiveClientWrapper.MetaStoreClientHolder holder = hiveClientWrapper.initHiveClient(context, configuration)) {
+                assertSame(metaStoreClient, holder.getClient());
+            }
+        }
+
+        verify(factory, times(1)).initHiveClient(any());
+        verify(metaStoreClient, never()).close();
+    }
+
     private void parseTableQualifiedNameNegative(String name, String errorMsg, String reason) {
         Exception e = assertThrows(IllegalArgumentException.class,
                 () -> hiveClientWrapper.extractTableFromName(name),
@@ -19,8 +19,21 @@ package org.greenplum.pxf.plugins.hive;
  * under the License.
  */
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.SerDeInfo;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.hadoop.mapred.FileInputFormat;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.hadoop.mapred.InputFormat;
+import org.apache.hadoop.mapred.InputSplit;
+import org.apache.hadoop.mapred.JobConf;
+import org.greenplum.pxf.api.model.Fragment;
 import org.greenplum.pxf.api.model.Metadata;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.plugins.hive.utilities.HiveUtilities;
@@ -30,10 +43,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,6 +67,7 @@ public class HiveDataFragmenterTest {
     private RequestContext context;
     private Configuration configuration;
     private HiveClientWrapper.MetaStoreClientHolder holder;
+    private HiveSplitExecutor splitExecutor;
 
     @Mock
     private HiveClientWrapper hiveClientWrapper;
@@ -51,6 +77,8 @@ public class HiveDataFragmenterTest {
     private Metadata.Item mockItem;
     @Mock
     private IMetaStoreClient mockHiveClient;
+    @Mock
+    private InputFormat<Object, Object> mockInputFormat;
 
     @BeforeEach
     public void setup() {
@@ -65,13 +93,14 @@ public class HiveDataFragmenterTest {
         context.setConfiguration(configuration);
 
         holder = new HiveClientWrapper.MetaStoreClientHolder(mockHiveClient);
+        splitExecutor = new HiveSplitExecutor(1, 1, new SimpleMeterRegistry());
     }
 
     @Test
     public void failsToInitHiveClient() {
         when(hiveClientWrapper.initHiveClient(context, configuration)).thenThrow(new RuntimeException("test"));
 
-        HiveDataFragmenter fragmenter = new HiveDataFragmenter(hiveUtilities, hiveClientWrapper);
+        HiveDataFragmenter fragmenter = new HiveDataFragmenter(hiveUtilities, hiveClientWrapper, splitExecutor);
         fragmenter.setRequestContext(context);
         fragmenter.afterPropertiesSet();
         Exception e = assertThrows(RuntimeException.class, fragmenter::getFragments);
@@ -84,7 +113,7 @@ public class HiveDataFragmenterTest {
         when(hiveClientWrapper.initHiveClient(context, configuration)).thenReturn(holder);
         when(hiveClientWrapper.getHiveTable(mockHiveClient, mockItem)).thenThrow(new RuntimeException("test"));
 
-        HiveDataFragmenter fragmenter = new HiveDataFragmenter(hiveUtilities, hiveClientWrapper);
+        HiveDataFragmenter fragmenter = new HiveDataFragmenter(hiveUtilities, hiveClientWrapper, splitExecutor);
         fragmenter.setRequestContext(context);
         fragmenter.afterPropertiesSet();
         Exception e = assertThrows(RuntimeException.class, fragmenter::getFragments);
@@ -100,7 +129,7 @@ public class HiveDataFragmenterTest {
         when(hiveClientWrapper.getHiveTable(mockHiveClient, mockItem)).thenThrow(new RuntimeException("test"));
         doThrow(new RuntimeException("ignored")).when(mockHiveClient).close();
 
-        HiveDataFragmenter fragmenter = new HiveDataFragmenter(hiveUtilities, hiveClientWrapper);
+        HiveDataFragmenter fragmenter = new HiveDataFragmenter(hiveUtilities, hiveClientWrapper, splitExecutor);
         fragmenter.setRequestContext(context);
         fragmenter.afterPropertiesSet();
         Exception e = assertThrows(RuntimeException.class, fragmenter::getFragments);
@@ -109,4 +138,80 @@ public class HiveDataFragmenterTest {
         verify(mockHiveClient).close();
     }
 
+    @Test
+    public void testFragmentsOfTablesAreNotVersioned() throws Exception {
+        HiveDataFragmenter fragmenter = new HiveDataFragmenter(hiveUtilities, hiveClientWrapper, splitExecutor);
+        fragmenter.setRequestContext(context);
+        fragmenter.afterPropertiesSet();
+
+        assertNull(fragmenter.getFragmentsVersion());
+        verifyNoInteractions(hiveClientWrapper);
+    }
+
+    @Test
+    public void testPartitionsAreRetrievedInPages() throws Exception {
+        Table table = new Table();
+        table.setDbName("default");
+        table.setTableName("sometable");
+        table.setSd(storageDescriptor("/warehouse/sometable"));
+        table.setPartitionKeys(Collections.singletonList(new FieldSchema("dt", "string", null)));
+        List<String> names = Arrays.asList("dt=1", "dt=2", "dt=3", "dt=4", "dt=5");
+
+        when(mockItem.getPath()).thenReturn("default");
+        when(mockItem.getName()).thenReturn("sometable");
+        when(hiveClientWrapper.extractTableFromName(context.getDataSource())).thenReturn(mockItem);
+        when(hiveClientWrapper.initHiveClient(context, configuration)).thenReturn(holder);
+        when(hiveClientWrapper.getHiveTable(mockHiveClient, mockItem)).thenReturn(table);
+        when(mockHiveClient.listPartitionNames("default", "sometable", (short) -1)).thenReturn(names);
+        // the metastore does not return the partitions in the order of the names
+        when(mockHiveClient.getPartitionsByNames("default", "sometable", names.subList(0, 2)))
+                .thenReturn(Arrays.asList(partition("2"), partition("1")));
+        when(mockHiveClient.getPartitionsByNames("default", "sometable", names.subList(2, 4)))
+                .thenReturn(Arrays.asList(partition("4"), partition("3")));
+        when(mockHiveClient.getPartitionsByNames("default", "sometable", names.subList(4, 5)))
+                .thenReturn(Collections.singletonList(partition("5")));
+        when(hiveUtilities.makeInputFormat(any(), any())).thenReturn(mockInputFormat);
+        when(mockInputFormat.getSplits(any(), anyInt())).thenAnswer(invocation -> {
+            JobConf jobConf = invocation.getArgument(0);
+            Path path = FileInputFormat.getInputPaths(jobConf)[0];
+            return new InputSplit[]{new FileSplit(path, 0, 10, new String[0])};
+        });
+
+        HiveDataFragmenter fragmenter = new HiveDataFragmenter(hiveUtilities, hiveClientWrapper, splitExecutor);
+        fragmenter.setRequestContext(context);
+        fragmenter.afterPropertiesSet();
+        configuration.set("fs.defaultFS", "file:///");
+        configuration.setInt("hive.metastore.batch.retrieve.max", 2);
+        List<Fragment> fragments = fragmenter.getFragments();
+
+        assertEquals(5, fragments.size());
+        for (int i = 0; i < fragments.size(); i++) {
+            assertTrue(fragments.get(i).getSourceName().endsWith("/warehouse/sometable/dt=" + (i + 1)));
+        }
+        verify(mockHiveClient, times(3)).getPartitionsByNames(eq("default"), eq("sometable"), any());
+        verify(mockHiveClient).close();
+    }
+
+    private Partition partition(String value) {
+        Partition partition = new Partition();
+        partition.setDbName("default");
+        partition.setTableName("sometable");
+        partition.setValues(Collections.singletonList(value));
+        partition.setSd(storageDescriptor("/warehouse/sometable/dt=" + value));
+        return partition;
+    }
+
+    private StorageDescriptor storageDescriptor(String location) {
+        SerDeInfo serDeInfo = new SerDeInfo();
+        serDeInfo.setSerializationLib("org.apache.hadoop.hive.serde2.lazy.LazySimpleSerDe");
+        serDeInfo.setParameters(new HashMap<>());
+        StorageDescriptor sd = new StorageDescriptor();
+        sd.setCols(Collections.singletonList(new FieldSchema("id", "int", null)));
+        sd.setLocation(location);
+        sd.setInputFormat("org.apache.hadoop.mapred.TextInputFormat");
+        sd.setOutputFormat("org.apache.hadoop.hive.ql.io.HiveIgnoreKeyTextOutputFormat");
+        sd.setSerdeInfo(serDeInfo);
+        sd.setParameters(new HashMap<>());
+        return sd;
+    }
 }
@@ -0,0 +1,143 @@
+package org.greenplum.pxf.plugins.hive;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HiveSplitExecutorTest {
+
+    private MeterRegistry registry;
+    private HiveSplitExecutor executor;
+    private List<Integer> items;
+
+    @BeforeEach
+    public void setup() {
+        registry = new SimpleMeterRegistry();
+        items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            items.add(i);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (executor != null) {
+            executor.destroy();
+        }
+    }
+
+    @Test
+    public void testResultsAreInItemOrder() throws Exception {
+        executor = new HiveSplitExecutor(4, 4, registry);
+        Random random = new Random(42);
+
+        List<String> results = executor.execute(items, () -> item -> {
+            // items complete out of order
+            Thread.sleep(random.nextInt(3));
+            return "partition-" + item;
+        });
+
+        assertEquals(items.size(), results.size());
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals("partition-" + i, results.get(i));
+        }
+    }
+
+    @Test
+    public void testParallelismIsBoundedPerRequest() throws Exception {
+        executor = new HiveSplitExecutor(8, 3, registry);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger tasks = new AtomicInteger();
+
+        executor.execute(items, () -> {
+            tasks.incrementAndGet();
+            return item -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(1);
+                running.decrementAndGet();
+                return item;
+            };
+        });
+
+        assertTrue(maxRunning.get() <= 3);
+        // every worker creates its own task
+        assertEquals(3, tasks.get());
+    }
+
+    @Test
+    public void testParallelismIsBoundedByPoolSize() throws Exception {
+        executor = new HiveSplitExecutor(2, 8, registry);
+        ConcurrentHashMap<String, Boolean> threads = new ConcurrentHashMap<>();
+
+        executor.execute(items, () -> item -> threads.put(Thread.currentThread().getName(), true));
+
+        assertTrue(threads.size() <= 2);
+    }
+
+    @Test
+    public void testSerialExecutionUsesCallingThread() throws Exception {
+        executor = new HiveSplitExecutor(8, 1, registry);
+        String caller = Thread.currentThread().getName();
+
+        List<String> results = executor.execute(items, () -> item -> Thread.currentThread().getName());
+
+        assertEquals(Collections.nCopies(items.size(), caller), results);
+    }
+
+    @Test
+    public void testFailureIsPropagated() {
+        executor = new HiveSplitExecutor(4, 4, registry);
+        AtomicInteger processed = new AtomicInteger();
+
+        Exception e = assertThrows(IOException.class, () -> executor.execute(items, () -> item -> {
+            if (item == 10) {
+                throw new IOException("listing failed");
+            }
+            processed.incrementAndGet();
+            return item;
+        }));
+
+        assertEquals("listing failed", e.getMessage());
+        // the remaining items are not processed after the failure
+        assertTrue(processed.get() < items.size() - 1);
+    }
+
+    @Test
+    public void testReportTimers() {
+        executor = new HiveSplitExecutor(1, 1, registry);
+        RequestContext context = new RequestContext();
+        context.setUser("alice");
+        context.setProfile("hive");
+        context.setServerName("hdp");
+
+        executor.reportMetastoreTime(context, TimeUnit.MILLISECONDS.toNanos(20));
+        executor.reportListingTime(context, TimeUnit.MILLISECONDS.toNanos(300));
+
+        Timer metastore = registry.find(HiveSplitExecutor.METASTORE_TIMER)
+                .tags("user", "alice", "profile", "hive", "server", "hdp").timer();
+        Timer listing = registry.find(HiveSplitExecutor.LISTING_TIMER).timer();
+        assertNotNull(metastore);
+        assertNotNull(listing);
+        assertEquals(20, metastore.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(300, listing.totalTime(TimeUnit.MILLISECONDS), 0.001);
+    }
+}
@@ -0,0 +1,223 @@
+package org.greenplum.pxf.plugins.jdbc;
+
+import org.greenplum.pxf.api.GreenplumDateTime;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.postgresql.PGResultSetMetaData;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Readers of the columns of a {@link ResultSet}, created once per query from
+ * the tuple description so that the rows are read by column index without
+ * looking up the type of every column.
+ * <p>
+ * Dates and timestamps are formatted in the text format of Greenplum without
+ * a {@link java.time.format.DateTimeFormatter} for the years 1 to 9999. The
+ * PostgreSQL JDBC driver already returns date and timestamp values in that
+ * format, so they are read as strings from it.
+ */
+final class ColumnReaders {
+
+    /**
+     * Reads the value of a column of the current row.
+     */
+    @FunctionalInterface
+    interface ColumnReader {
+        /**
+         * @param result the result set
+         * @param index  the index of the column
+         * @return the value, or null if the value is NULL
+         * @throws SQLException if the value can not be read
+         */
+        Object read(ResultSet result, int index) throws SQLException;
+    }
+
+    private ColumnReaders() {
+    }
+
+    /**
+     * Creates the readers of the columns of a result set. The reader of a column
+     * that is not projected is null.
+     *
+     * @param result          the result set
+     * @param columns         the columns of the tuple description
+     * @param isDateWideRange whether dates and timestamps are read with the year of era
+     * @return the readers, in the order of the columns
+     * @throws SQLException                  if the metadata of the result set can not be read
+     * @throws UnsupportedOperationException if the type of a projected column is not supported
+     */
+    static ColumnReader[] create(ResultSet result, List<ColumnDescriptor> columns, boolean isDateWideRange) throws SQLException {
+        ResultSetMetaData metaData = result.getMetaData();
+        boolean postgresText = metaData != null && metaData.isWrapperFor(PGResultSetMetaData.class);
+
+        ColumnReader[] readers = new ColumnReader[columns.size()];
+        for (int i = 0; i < readers.length; i++) {
+            ColumnDescriptor column = columns.get(i);
+            if (column.isProjected()) {
+                String typeName = postgresText ? metaData.getColumnTypeName(result.findColumn(column.columnName())) : null;
+                readers[i] = create(column, typeName, isDateWideRange);
+            }
+        }
+        return readers;
+    }
+
+    private static ColumnReader create(ColumnDescriptor column, String postgresTypeName, boolean isDateWideRange) {
+        DataType type = DataType.get(column.columnTypeCode());
+        switch (type) {
+            case INTEGER:
+                return (result, index) -> {
+                    int value = result.getInt(index);
+                    return result.wasNull() ? null : value;
+                };
+            case FLOAT8:
+                return (result, index) -> {
+                    double value = result.getDouble(index);
+                    return result.wasNull() ? null : value;
+                };
+            case REAL:
+                return (result, index) -> {
+                    float value = result.getFloat(index);
+                    return result.wasNull() ? null : value;
+                };
+            case BIGINT:
+                return (result, index) -> {
+                    long value = result.getLong(index);
+                    return result.wasNull() ? null : value;
+                };
+            case SMALLINT:
+                return (result, index) -> {
+                    short value = result.getShort(index);
+                    return result.wasNull() ? null : value;
+                };
+            case BOOLEAN:
+                return (result, index) -> {
+                    boolean value = result.getBoolean(index);
+                    return result.wasNull() ? null : value;
+                };
+            case BYTEA:
+                return ResultSet::getBytes;
+            case VARCHAR:
+            case BPCHAR:
+            case TEXT:
+            case NUMERIC:
+                return ResultSet::getString;
+            case DATE:
+                if (isDateWideRange) {
+                    return (result, index) -> {
+                        LocalDate value = result.getObject(index, LocalDate.class);
+                        return value != null ? value.format(JdbcResolver.LOCAL_DATE_GET_FORMATTER) : null;
+                    };
+                }
+                if ("date".equals(postgresTypeName)) {
+                    return ResultSet::getString;
+                }
+                return (result, index) -> {
+                    Date value = result.getDate(index);
+                    return value != null ? formatDate(value.toLocalDate()) : null;
+                };
+            case TIMESTAMP:
+                if (isDateWideRange) {
+                    return (result, index) -> {
+                        LocalDateTime value = result.getObject(index, LocalDateTime.class);
+                        return value != null ? value.format(JdbcResolver.LOCAL_DATE_TIME_GET_FORMATTER) : null;
+                    };
+                }
+                if ("timestamp".equals(postgresTypeName)) {
+                    return ResultSet::getString;
+                }
+                return (result, index) -> {
+                    Timestamp value = result.getTimestamp(index);
+                    return value != null ? formatTimestamp(value.toLocalDateTime()) : null;
+                };
+            case TIMESTAMP_WITH_TIME_ZONE:
+                if (isDateWideRange) {
+                    return (result, index) -> {
+                        OffsetDateTime value = result.getObject(index, OffsetDateTime.class);
+                        return value != null ? value.format(JdbcResolver.OFFSET_DATE_TIME_GET_FORMATTER) : null;
+                    };
+                }
+                break;
+            case UUID:
+                return (result, index) -> result.getObject(index, UUID.class);
+            default:
+                break;
+        }
+        throw new UnsupportedOperationException(
+                String.format("Field type '%s' (column '%s') is not supported", type, column));
+    }
+
+    /**
+     * Formats a date the way {@link GreenplumDateTime#DATE_FORMATTER} does.
+     *
+     * @param date the date
+     * @return the text of the date
+     */
+    static String formatDate(LocalDate date) {
+        int year = date.getYear();
+        if (year < 1 || year > 9999) {
+            return date.format(GreenplumDateTime.DATE_FORMATTER);
+        }
+        char[] chars = new char[10];
+        appendDate(chars, year, date.getMonthValue(), date.getDayOfMonth());
+        return new String(chars);
+    }
+
+    /**
+     * Formats a timestamp the way {@link GreenplumDateTime#DATETIME_FORMATTER}
+     * does, with the microseconds when they are not zero.
+     *
+     * @param timestamp the timestamp
+     * @return the text of the timestamp
+     */
+    static String formatTimestamp(LocalDateTime timestamp) {
+        int year = timestamp.getYear();
+        if (year < 1 || year > 9999) {
+            return timestamp.format(GreenplumDateTime.DATETIME_FORMATTER);
+        }
+        char[] chars = new char[26];
+        appendDate(chars, year, timestamp.getMonthValue(), timestamp.getDayOfMonth());
+        chars[10] = ' ';
+        appendDigits(chars, 11, timestamp.getHour(), 2);
+        chars[13] = ':';
+        appendDigits(chars, 14, timestamp.getMinute(), 2);
+        chars[16] = ':';
+        appendDigits(chars, 17, timestamp.getSecond(), 2);
+
+        int length = 19;
+        int micros = timestamp.getNano() / 1000;
+        if (micros > 0) {
+            chars[19] = '.';
+            appendDigits(chars, 20, micros, 6);
+            length = 26;
+            while (chars[length - 1] == '0') {
+                length--;
+            }
+        }
+        return new String(chars, 0, length);
+    }
+
+    private static void appendDate(char[] chars, int year, int month, int day) {
+        appendDigits(chars, 0, year, 4);
+        chars[4] = '-';
+        appendDigits(chars, 5, month, 2);
+        chars[7] = '-';
+        appendDigits(chars, 8, day, 2);
+    }
+
+    private static void appendDigits(char[] chars, int offset, int value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
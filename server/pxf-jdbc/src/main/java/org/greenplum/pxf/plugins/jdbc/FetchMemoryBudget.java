@@ -0,0 +1,65 @@
+package org.greenplum.pxf.plugins.jdbc;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the bytes reserved for the fetches of the concurrent JDBC reads of
+ * every server, so that the adaptive fetch sizes of the reads of a server do
+ * not buffer more than the memory limit of the server.
+ */
+@Component
+public class FetchMemoryBudget {
+
+    private final ConcurrentMap<String, AtomicLong> reservedBytes = new ConcurrentHashMap<>();
+
+    /**
+     * Reserves the bytes of a fetch for a server. When the bytes reserved by
+     * the other reads of the server leave less than the requested bytes
+     * within the limit, only what remains is reserved, but never less than
+     * the minimum bytes, so that every read can fetch the rows of its
+     * configured fetch size, even beyond the limit.
+     *
+     * @param server         the name of the server
+     * @param requestedBytes the bytes of the fetch
+     * @param minimumBytes   the bytes of the configured fetch size of the read
+     * @param limit          the memory limit of the server, 0 for no limit
+     * @return the bytes reserved, to release when the read is closed
+     */
+    public long reserve(String server, long requestedBytes, long minimumBytes, long limit) {
+        AtomicLong reserved = reservedBytes.computeIfAbsent(server, s -> new AtomicLong());
+        while (true) {
+            long current = reserved.get();
+            long granted = limit <= 0 ? requestedBytes :
+                    Math.max(minimumBytes, Math.min(requestedBytes, limit - current));
+            if (reserved.compareAndSet(current, current + granted)) {
+                return granted;
+            }
+        }
+    }
+
+    /**
+     * Releases the bytes reserved by a read of a server.
+     *
+     * @param server the name of the server
+     * @param bytes  the bytes returned by {@link #reserve(String, long, long, long)}
+     */
+    public void release(String server, long bytes) {
+        AtomicLong reserved = reservedBytes.get(server);
+        if (reserved != null && bytes > 0) {
+            reserved.addAndGet(-bytes);
+        }
+    }
+
+    /**
+     * @param server the name of the server
+     * @return the bytes reserved by the reads of the server
+     */
+    long getReservedBytes(String server) {
+        AtomicLong reserved = reservedBytes.get(server);
+        return reserved != null ? reserved.get() : 0;
+    }
+}
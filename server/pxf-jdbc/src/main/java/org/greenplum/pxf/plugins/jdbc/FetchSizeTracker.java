@@ -0,0 +1,195 @@
+package org.greenplum.pxf.plugins.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Tracks the fetches of the rows of a JDBC read, a fetch being expected every
+ * time all the rows of the previous fetch have been read.
+ * <p>
+ * In adaptive mode, the size of the rows is estimated from the types and the
+ * declared widths of the columns of the result set, and the fetch size of the
+ * fetches following the first one is set to the number of rows that fit in
+ * the target bytes of a fetch. The values themselves are not read for the
+ * estimate, as some columns can only be read once, such as the LONG columns
+ * of Oracle or the streams of LOBs. The bytes of the fetches, the first one
+ * included, are reserved in the {@link FetchMemoryBudget} of the server, so
+ * that the concurrent reads of a server share its memory limit. A read is
+ * always granted the bytes of its configured fetch size, which the driver
+ * buffers regardless of the limit, so the adapted fetch size is never below
+ * the configured one.
+ */
+class FetchSizeTracker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FetchSizeTracker.class);
+
+    // the fetch size is not increased beyond, even for the narrowest rows
+    static final int MAX_FETCH_SIZE = 100000;
+
+    // estimated overhead of the buffer of a row and of every value in the JDBC driver
+    private static final int ROW_OVERHEAD_BYTES = 16;
+    private static final int VALUE_OVERHEAD_BYTES = 16;
+
+    // estimated size of the values without a declared width, or with a declared width beyond the maximum
+    static final int UNBOUNDED_VALUE_BYTES = 1024;
+    static final int MAX_DECLARED_VALUE_BYTES = 64 * 1024;
+
+    private final ResultSet resultSet;
+    private final String server;
+    private final FetchMemoryBudget budget;
+    private final long targetBytes;
+    private final long memoryLimit;
+    private final long rowBytes;
+    private boolean adaptive;
+    private int fetchSize;
+    private int rowsInFetch;
+    private int fetches;
+    private long reservedBytes;
+
+    /**
+     * Creates the tracker of a read whose first fetch has been executed.
+     *
+     * @param resultSet   the result set of the read
+     * @param fetchSize   the fetch size of the statement, the fetches are not tracked when it is not positive
+     * @param adaptive    whether the fetch size is adapted to the size of the rows
+     * @param targetBytes the target bytes of a fetch in adaptive mode
+     * @param memoryLimit the memory limit of the fetches of the server in adaptive mode, 0 for no limit
+     * @param server      the name of the server
+     * @param budget      the budget of the memory of the fetches of the servers
+     * @throws SQLException if the metadata of the result set can not be read
+     */
+    FetchSizeTracker(ResultSet resultSet, int fetchSize, boolean adaptive, long targetBytes, long memoryLimit,
+                     String server, FetchMemoryBudget budget) throws SQLException {
+        this.resultSet = resultSet;
+        this.fetchSize = fetchSize;
+        this.adaptive = adaptive && fetchSize > 0;
+        this.targetBytes = targetBytes;
+        this.memoryLimit = memoryLimit;
+        this.server = server;
+        this.budget = budget;
+        this.fetches = fetchSize > 0 ? 1 : 0;
+        this.rowBytes = this.adaptive ? estimateRowSize(resultSet.getMetaData()) : 0;
+        if (this.adaptive) {
+            // the rows of the first fetch are already buffered by the driver
+            long firstFetchBytes = fetchSize * rowBytes;
+            this.reservedBytes = budget.reserve(server, firstFetchBytes, firstFetchBytes, memoryLimit);
+        }
+        if (adaptive && !this.adaptive) {
+            LOG.debug("Fetch size {} is not adapted to the size of the rows, as it is not positive", fetchSize);
+        }
+    }
+
+    /**
+     * Moves the result set to the next row, adapting the fetch size before
+     * the second fetch in adaptive mode.
+     *
+     * @return true if the result set is positioned at a row
+     * @throws SQLException if the next row can not be read
+     */
+    boolean next() throws SQLException {
+        if (fetches > 0 && rowsInFetch == fetchSize) {
+            // the next row is fetched from the external database
+            if (adaptive) {
+                adapt();
+            }
+            fetches++;
+            rowsInFetch = 0;
+        }
+        if (!resultSet.next()) {
+            return false;
+        }
+        rowsInFetch++;
+        return true;
+    }
+
+    /**
+     * Releases the bytes reserved for the fetches.
+     *
+     * @return the number of fetches, 0 if they are not tracked
+     */
+    int close() {
+        budget.release(server, reservedBytes);
+        reservedBytes = 0;
+        return fetches;
+    }
+
+    /**
+     * @return the current fetch size
+     */
+    int getFetchSize() {
+        return fetchSize;
+    }
+
+    private void adapt() throws SQLException {
+        adaptive = false;
+
+        // the reservation of the first fetch is replaced by the one of the following fetches
+        long configuredBytes = fetchSize * rowBytes;
+        long requestedBytes = Math.max(configuredBytes, Math.min(targetBytes, rowBytes * MAX_FETCH_SIZE));
+        budget.release(server, reservedBytes);
+        reservedBytes = budget.reserve(server, requestedBytes, configuredBytes, memoryLimit);
+        int adaptedFetchSize = (int) (reservedBytes / rowBytes);
+        if (adaptedFetchSize == fetchSize) {
+            LOG.debug("Keeping fetch size {} for rows of {} bytes, {} bytes reserved for server {}",
+                    fetchSize, rowBytes, reservedBytes, server);
+            return;
+        }
+
+        LOG.debug("Changing fetch size from {} to {} for rows of {} bytes, {} bytes reserved for server {}",
+                fetchSize, adaptedFetchSize, rowBytes, reservedBytes, server);
+        resultSet.setFetchSize(adaptedFetchSize);
+        fetchSize = adaptedFetchSize;
+    }
+
+    /**
+     * Estimates the size of the rows of the result set from the types and
+     * the declared widths of its columns.
+     *
+     * @param metaData the metadata of the result set
+     * @return the estimated size of a row, in bytes
+     * @throws SQLException if the metadata can not be read
+     */
+    private static long estimateRowSize(ResultSetMetaData metaData) throws SQLException {
+        long size = ROW_OVERHEAD_BYTES;
+        int columnCount = metaData.getColumnCount();
+        for (int i = 1; i <= columnCount; i++) {
+            size += estimateValueSize(metaData, i) + VALUE_OVERHEAD_BYTES;
+        }
+        return size;
+    }
+
+    private static long estimateValueSize(ResultSetMetaData metaData, int column) throws SQLException {
+        switch (metaData.getColumnType(column)) {
+            case Types.BIT:
+            case Types.BOOLEAN:
+            case Types.TINYINT:
+                return 1;
+            case Types.SMALLINT:
+                return 2;
+            case Types.INTEGER:
+            case Types.REAL:
+                return 4;
+            case Types.BIGINT:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+            case Types.DATE:
+            case Types.TIME:
+            case Types.TIME_WITH_TIMEZONE:
+            case Types.TIMESTAMP:
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                return 8;
+            default:
+                // characters, bytes or digits of character, binary and numeric values
+                int width = metaData.getPrecision(column);
+                if (width <= 0) {
+                    width = metaData.getColumnDisplaySize(column);
+                }
+                return width > 0 && width <= MAX_DECLARED_VALUE_BYTES ? width : UNBOUNDED_VALUE_BYTES;
+        }
+    }
+}
@@ -19,34 +19,36 @@ package org.greenplum.pxf.plugins.jdbc;
  * under the License.
  */
 
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.StringUtils;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.error.PxfRuntimeException;
 import org.greenplum.pxf.api.model.Accessor;
 import org.greenplum.pxf.api.model.ConfigurationFactory;
 import org.greenplum.pxf.api.security.SecureLogin;
+import org.greenplum.pxf.api.utilities.SpringContext;
 import org.greenplum.pxf.api.utilities.Utilities;
 import org.greenplum.pxf.plugins.jdbc.utils.ConnectionManager;
+import org.greenplum.pxf.plugins.jdbc.utils.DbProduct;
+import org.greenplum.pxf.plugins.jdbc.writercallable.BulkLoad;
+import org.greenplum.pxf.plugins.jdbc.writercallable.ParallelWriter;
 import org.greenplum.pxf.plugins.jdbc.writercallable.WriterCallable;
 import org.greenplum.pxf.plugins.jdbc.writercallable.WriterCallableFactory;
+import org.postgresql.PGConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.Charset;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLTimeoutException;
 import java.sql.Statement;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 /**
  * JDBC tables accessor
@@ -54,28 +56,45 @@ import java.util.concurrent.Future;
  * The SELECT queries are processed by {@link java.sql.Statement}
  * <p>
  * The INSERT queries are processed by {@link java.sql.PreparedStatement} and
- * built-in JDBC batches of arbitrary size
+ * built-in JDBC batches of arbitrary size, or by the bulk load of the external
+ * database selected with the BULK_LOAD option
  */
 public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
 
     private static final Logger LOG = LoggerFactory.getLogger(JdbcAccessor.class);
 
     private static final String JDBC_READ_PREPARED_STATEMENT_PROPERTY_NAME = "jdbc.read.prepared-statement";
+    private static final String JDBC_STATEMENT_ADAPTIVE_FETCH_SIZE_PROPERTY_NAME = "jdbc.statement.adaptiveFetchSize";
+    private static final String JDBC_STATEMENT_FETCH_BYTES_PROPERTY_NAME = "jdbc.statement.fetchBytes";
+    private static final String JDBC_STATEMENT_FETCH_MEMORY_LIMIT_PROPERTY_NAME = "jdbc.statement.fetchMemoryLimit";
+    private static final long DEFAULT_FETCH_BYTES = 8L * 1024 * 1024;
+    private static final long DEFAULT_FETCH_MEMORY_LIMIT = 256L * 1024 * 1024;
+    static final String READ_FETCHES_SUMMARY = "pxf.jdbc.read.fetches";
+    static final String READ_FETCH_SIZE_SUMMARY = "pxf.jdbc.read.fetch.size";
+    private static final String JDBC_WRITE_MAX_QUEUED_BATCHES_PROPERTY_NAME = "jdbc.write.maxQueuedBatches";
+    private static final String BULK_LOAD_OPTION_NAME = "BULK_LOAD";
+
+    private final MeterRegistry meterRegistry;
+    private final JdbcQueryCache queryCache;
+    private final FetchMemoryBudget fetchMemoryBudget;
 
     private Statement statementRead = null;
     private ResultSet resultSetRead = null;
+    private FetchSizeTracker fetchSizeTracker = null;
 
     private PreparedStatement statementWrite = null;
     private WriterCallableFactory writerCallableFactory = null;
     private WriterCallable writerCallable = null;
-    private ExecutorService executorServiceWrite = null;
-    private List<Future<SQLException>> poolTasks = null;
+    private ParallelWriter parallelWriter = null;
 
     /**
      * Creates a new instance of the JdbcAccessor
      */
     public JdbcAccessor() {
         super();
+        this.meterRegistry = SpringContext.getBean(MeterRegistry.class);
+        this.queryCache = SpringContext.getBean(JdbcQueryCache.class);
+        this.fetchMemoryBudget = SpringContext.getBean(FetchMemoryBudget.class);
     }
 
     /**
@@ -85,7 +104,36 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
      * @param secureLogin       the instance of the secure login
      */
     JdbcAccessor(ConnectionManager connectionManager, SecureLogin secureLogin) {
+        this(connectionManager, secureLogin, Metrics.globalRegistry);
+    }
+
+    /**
+     * Creates a new instance of accessor with provided connection manager and meter registry.
+     *
+     * @param connectionManager connection manager
+     * @param secureLogin       the instance of the secure login
+     * @param meterRegistry     the registry of the metrics of parallel writes
+     */
+    JdbcAccessor(ConnectionManager connectionManager, SecureLogin secureLogin, MeterRegistry meterRegistry) {
+        this(connectionManager, secureLogin, meterRegistry, new JdbcQueryCache(new PxfJdbcProperties()), new FetchMemoryBudget());
+    }
+
+    /**
+     * Creates a new instance of accessor with provided connection manager, meter registry, query cache and
+     * fetch memory budget.
+     *
+     * @param connectionManager connection manager
+     * @param secureLogin       the instance of the secure login
+     * @param meterRegistry     the registry of the metrics of reads and parallel writes
+     * @param queryCache        the cache of the query files and of the SELECT queries
+     * @param fetchMemoryBudget the budget of the memory of the adaptive fetches of the servers
+     */
+    JdbcAccessor(ConnectionManager connectionManager, SecureLogin secureLogin, MeterRegistry meterRegistry,
+                 JdbcQueryCache queryCache, FetchMemoryBudget fetchMemoryBudget) {
         super(connectionManager, secureLogin);
+        this.meterRegistry = meterRegistry;
+        this.queryCache = queryCache;
+        this.fetchMemoryBudget = fetchMemoryBudget;
     }
 
     /**
@@ -114,16 +162,23 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
     }
 
     private boolean openForReadInner(Connection connection) throws SQLException {
-        SQLQueryBuilder sqlQueryBuilder = new SQLQueryBuilder(context, connection.getMetaData(), getQueryText());
-
-        // Build SELECT query
-        if (quoteColumns == null) {
-            sqlQueryBuilder.autoSetQuoteString();
-        } else if (quoteColumns) {
-            sqlQueryBuilder.forceSetQuoteString();
-        }
+        DatabaseMetaData metaData = connection.getMetaData();
+        String queryText = getQueryText();
+
+        // Build SELECT query, the metadata is only looked up when the query of the table is not cached
+        JdbcQueryCache.SelectQueryKey key = new JdbcQueryCache.SelectQueryKey(context.getServerName(), jdbcUrl,
+                tableName, queryText, columns, context.getFilterString(), quoteColumns);
+        SQLQueryBuilder.SelectQueryTemplate queryTemplate = queryCache.getSelectQueryTemplate(key, () -> {
+            SQLQueryBuilder sqlQueryBuilder = new SQLQueryBuilder(context, metaData, queryText);
+            if (quoteColumns == null) {
+                sqlQueryBuilder.autoSetQuoteString();
+            } else if (quoteColumns) {
+                sqlQueryBuilder.forceSetQuoteString();
+            }
+            return sqlQueryBuilder.buildSelectQueryTemplate();
+        });
         // Read variables
-        String queryRead = sqlQueryBuilder.buildSelectQuery();
+        String queryRead = queryTemplate.toQuery(context);
         LOG.trace("Select query: {}", queryRead);
 
         // Execute queries
@@ -150,6 +205,23 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
                 ((PreparedStatement) statementRead).executeQuery() :
                 statementRead.executeQuery(queryRead);
 
+        boolean adaptiveFetchSize = Utilities.parseBooleanProperty(configuration, JDBC_STATEMENT_ADAPTIVE_FETCH_SIZE_PROPERTY_NAME, false);
+        long fetchBytes = 0;
+        long fetchMemoryLimit = 0;
+        if (adaptiveFetchSize) {
+            fetchBytes = configuration.getLongBytes(JDBC_STATEMENT_FETCH_BYTES_PROPERTY_NAME, DEFAULT_FETCH_BYTES);
+            if (fetchBytes < 1) {
+                throw new IllegalArgumentException(String.format(
+                        "Property %s has incorrect value %s : must be a positive number of bytes",
+                        JDBC_STATEMENT_FETCH_BYTES_PROPERTY_NAME, fetchBytes));
+            }
+            fetchMemoryLimit = configuration.getLongBytes(JDBC_STATEMENT_FETCH_MEMORY_LIMIT_PROPERTY_NAME, DEFAULT_FETCH_MEMORY_LIMIT);
+            LOG.debug("Adapting fetch size to {} bytes per fetch within {} bytes for server {}",
+                    fetchBytes, fetchMemoryLimit, context.getServerName());
+        }
+        fetchSizeTracker = new FetchSizeTracker(resultSetRead, fetchSize, adaptiveFetchSize, fetchBytes,
+                fetchMemoryLimit, context.getServerName(), fetchMemoryBudget);
+
         return true;
     }
 
@@ -162,7 +234,7 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
      */
     @Override
     public OneRow readNextObject() throws SQLException {
-        if (resultSetRead.next()) {
+        if (fetchSizeTracker.next()) {
             return new OneRow(resultSetRead);
         }
         return null;
@@ -173,7 +245,26 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
      */
     @Override
     public void closeForRead() throws SQLException {
-        closeStatementAndConnection(statementRead);
+        try {
+            if (fetchSizeTracker != null) {
+                int fetches = fetchSizeTracker.close();
+                if (fetches > 0) {
+                    DistributionSummary.builder(READ_FETCHES_SUMMARY)
+                            .description("Estimated number of round trips to fetch the rows of a query")
+                            .tag("server", context.getServerName())
+                            .register(meterRegistry)
+                            .record(fetches);
+                    DistributionSummary.builder(READ_FETCH_SIZE_SUMMARY)
+                            .description("Fetch size of the last fetch of a query")
+                            .tag("server", context.getServerName())
+                            .register(meterRegistry)
+                            .record(fetchSizeTracker.getFetchSize());
+                }
+                fetchSizeTracker = null;
+            }
+        } finally {
+            closeStatementAndConnection(statementRead);
+        }
     }
 
     /**
@@ -203,14 +294,37 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
         } else if (quoteColumns) {
             sqlQueryBuilder.forceSetQuoteString();
         }
+        // Choose the way to write the rows
+        String bulkLoadOption = context.getOption(BULK_LOAD_OPTION_NAME);
+        DbProduct dbProduct = DbProduct.getDbProduct(connection.getMetaData().getDatabaseProductName());
+        BulkLoad bulkLoad = BulkLoad.fromOption(bulkLoadOption, dbProduct);
+        if (bulkLoad == BulkLoad.COPY && !connection.isWrapperFor(PGConnection.class)) {
+            if (!"auto".equalsIgnoreCase(bulkLoadOption)) {
+                throw new SQLException("BULK_LOAD=copy requires the PostgreSQL JDBC driver");
+            }
+            // the database is not recognized and is not PostgreSQL
+            bulkLoad = BulkLoad.BATCH;
+        }
+        LOG.debug("Using {} to write to {}", bulkLoad, context.getDataSource());
+
         // Write variables
-        String queryWrite = sqlQueryBuilder.buildInsertQuery();
+        String queryWrite;
+        switch (bulkLoad) {
+            case COPY:
+                queryWrite = sqlQueryBuilder.buildCopyQuery();
+                break;
+            case LOAD_DATA:
+                queryWrite = sqlQueryBuilder.buildLoadDataQuery();
+                break;
+            default:
+                queryWrite = sqlQueryBuilder.buildInsertQuery();
+        }
         LOG.trace("Insert query: {}", queryWrite);
 
         statementWrite = super.getPreparedStatement(connection, queryWrite);
 
-        // Process batchSize
-        if (!connection.getMetaData().supportsBatchUpdates()) {
+        // Process batchSize, the bulk loads do not use JDBC batches
+        if (bulkLoad == BulkLoad.BATCH && !connection.getMetaData().supportsBatchUpdates()) {
             if ((batchSizeIsSetByUser) && (batchSize > 1)) {
                 throw new SQLException("The external database does not support batch updates");
             } else {
@@ -223,15 +337,23 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
             poolSize = Runtime.getRuntime().availableProcessors();
             LOG.info("The POOL_SIZE is set to the number of CPUs available ({})", poolSize);
         }
-        if (poolSize > 1) {
-            executorServiceWrite = Executors.newFixedThreadPool(poolSize);
-            poolTasks = new LinkedList<>();
-        }
 
         // Setup WriterCallableFactory
-        writerCallableFactory = new WriterCallableFactory(this, queryWrite, statementWrite, batchSize, poolSize);
+        writerCallableFactory = new WriterCallableFactory(this, queryWrite, statementWrite, batchSize, poolSize, bulkLoad);
 
-        writerCallable = writerCallableFactory.get();
+        if (poolSize > 1) {
+            // By default, one batch is waiting for every worker of the pool
+            int maxQueuedBatches = configuration.getInt(JDBC_WRITE_MAX_QUEUED_BATCHES_PROPERTY_NAME, poolSize);
+            if (maxQueuedBatches < 1) {
+                throw new IllegalArgumentException(String.format(
+                        "Property %s has incorrect value %s : must be a positive integer",
+                        JDBC_WRITE_MAX_QUEUED_BATCHES_PROPERTY_NAME, maxQueuedBatches));
+            }
+            parallelWriter = new ParallelWriter(this, queryWrite, writerCallableFactory, batchSize,
+                    poolSize, maxQueuedBatches, meterRegistry, context.getServerName());
+        } else {
+            writerCallable = writerCallableFactory.get();
+        }
 
         return true;
     }
@@ -243,6 +365,9 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
      * Otherwise, execute an INSERT query immediately
      * <p>
      * In both cases, a {@link java.sql.PreparedStatement} is used
+     * <p>
+     * If POOL_SIZE is greater than 1, the batches are written by the workers of
+     * a {@link ParallelWriter}, waiting while too many batches are queued
      *
      * @param row one row
      * @return true if successful
@@ -250,26 +375,23 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
      * @throws IOException            if the data provided by {@link JdbcResolver} is corrupted
      * @throws ClassNotFoundException if pooling is used and the JDBC driver was not found
      * @throws IllegalStateException  if writerCallableFactory was not properly initialized
-     * @throws Exception              if it happens in writerCallable.call()
+     * @throws Exception              if it happens in writerCallable.call() or in a worker of the pool
      */
     @Override
     public boolean writeNextObject(OneRow row) throws Exception {
+        if (parallelWriter != null) {
+            parallelWriter.write(row);
+            return true;
+        }
         if (writerCallable == null) {
             throw new IllegalStateException("The JDBC connection was not properly initialized (writerCallable is null)");
         }
 
         writerCallable.supply(row);
         if (writerCallable.isCallRequired()) {
-            if (poolSize > 1) {
-                // Pooling is used. Create new writerCallable
-                poolTasks.add(executorServiceWrite.submit(writerCallable));
-                writerCallable = writerCallableFactory.get();
-            } else {
-                // Pooling is not used, call directly and process potential error
-                SQLException e = writerCallable.call();
-                if (e != null) {
-                    throw e;
-                }
+            SQLException e = writerCallable.call();
+            if (e != null) {
+                throw e;
             }
         }
 
@@ -279,56 +401,27 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
     /**
      * closeForWrite() implementation
      *
-     * @throws Exception if it happens in writerCallable.call() or due to runtime errors in thread pool
+     * @throws Exception if it happens in writerCallable.call() or in a worker of the pool
      */
     @Override
     public void closeForWrite() throws Exception {
-        if ((statementWrite == null) || (writerCallable == null)) {
+        if ((statementWrite == null) || (writerCallable == null && parallelWriter == null)) {
             return;
         }
 
         try {
-            if (poolSize > 1) {
-                // Process thread pool
-                Exception firstException = null;
-                for (Future<SQLException> task : poolTasks) {
-                    // We need this construction to ensure that we try to close all connections opened by pool threads
-                    try {
-                        SQLException currentSqlException = task.get();
-                        if (currentSqlException != null) {
-                            if (firstException == null) {
-                                firstException = currentSqlException;
-                            }
-                            LOG.error(
-                                    "A SQLException in a pool thread occurred: " + currentSqlException.getClass() + " " + currentSqlException.getMessage()
-                            );
-                        }
-                    } catch (Exception e) {
-                        // This exception must have been caused by some thread execution error. However, there may be other exception (maybe of class SQLException) that happened in one of threads that were not examined yet. That is why we do not modify firstException
-                        if (LOG.isDebugEnabled()) {
-                            LOG.debug(
-                                    "A runtime exception in a thread pool occurred: " + e.getClass() + " " + e.getMessage()
-                            );
-                        }
-                    }
-                }
+            if (parallelWriter != null) {
+                parallelWriter.close();
+            } else {
                 try {
-                    executorServiceWrite.shutdown();
-                    executorServiceWrite.shutdownNow();
-                } catch (Exception e) {
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("executorServiceWrite.shutdown() or .shutdownNow() threw an exception: " + e.getClass() + " " + e.getMessage());
+                    // Send data that is left
+                    SQLException e = writerCallable.call();
+                    if (e != null) {
+                        throw e;
                     }
+                } finally {
+                    writerCallable.close();
                 }
-                if (firstException != null) {
-                    throw firstException;
-                }
-            }
-
-            // Send data that is left
-            SQLException e = writerCallable.call();
-            if (e != null) {
-                throw e;
             }
         } finally {
             closeStatementAndConnection(statementWrite);
@@ -358,7 +451,7 @@ public class JdbcAccessor extends JdbcBasePlugin implements Accessor {
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Reading text of query={} from {}", queryName, queryFile.getCanonicalPath());
             }
-            queryText = FileUtils.readFileToString(queryFile, Charset.defaultCharset());
+            queryText = queryCache.getQueryText(queryFile);
         } catch (IOException e) {
             throw new RuntimeException(String.format("Failed to read text of query %s : %s", queryName, e.getMessage()), e);
         }
@@ -122,7 +122,7 @@ public class JdbcBasePlugin extends BasePlugin {
 
     // JDBC parameters from config file or specified in DDL
 
-    private String jdbcUrl;
+    protected String jdbcUrl;
 
     protected String tableName;
 
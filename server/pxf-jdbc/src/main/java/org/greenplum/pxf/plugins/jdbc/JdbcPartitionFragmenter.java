@@ -19,41 +19,89 @@ package org.greenplum.pxf.plugins.jdbc;
  * under the License.
  */
 
+import org.greenplum.pxf.api.error.PxfRuntimeException;
 import org.greenplum.pxf.api.model.BaseFragmenter;
 import org.greenplum.pxf.api.model.Fragment;
 import org.greenplum.pxf.api.model.FragmentStats;
 import org.greenplum.pxf.plugins.jdbc.partitioning.JdbcFragmentMetadata;
+import org.greenplum.pxf.plugins.jdbc.partitioning.PartitionPlanner;
 import org.greenplum.pxf.plugins.jdbc.partitioning.PartitionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * JDBC fragmenter
  * <p>
  * Splits the query to allow multiple simultaneous SELECTs
+ * <p>
+ * When the partitions are not fully specified, either with PARTITION_BY=auto
+ * or with a PARTITION_BY column without RANGE, they are planned from the
+ * statistics of the table in the external database, see {@link PartitionPlanner}.
  */
 public class JdbcPartitionFragmenter extends BaseFragmenter {
 
+    private static final Logger LOG = LoggerFactory.getLogger(JdbcPartitionFragmenter.class);
+
+    private static final String AUTO_PARTITION_BY = "auto";
+
+    // automatic partitioning properties
+    private static final String JDBC_PARTITION_AUTO_MAX_PARTITIONS_PROPERTY_NAME = "jdbc.partition.auto.maxPartitions";
+    private static final String JDBC_PARTITION_AUTO_MAX_ENUM_VALUES_PROPERTY_NAME = "jdbc.partition.auto.maxEnumValues";
+    private static final int DEFAULT_MAX_ENUM_VALUES = 100;
+
+    private final Supplier<JdbcBasePlugin> jdbcPluginFactory;
+
     private PartitionType partitionType;
     private String column;
     private String range;
     private String interval;
+    private boolean isAutoPartitioned;
+
+    /**
+     * Creates a new instance that connects to the external database with the
+     * default (singleton) instances of ConnectionManager and SecureLogin.
+     */
+    public JdbcPartitionFragmenter() {
+        this(JdbcBasePlugin::new);
+    }
+
+    /**
+     * Creates a new instance that connects to the external database with the
+     * plugins created by the given factory, only when the partitions are planned.
+     *
+     * @param jdbcPluginFactory the factory of the plugin connecting to the external database
+     */
+    JdbcPartitionFragmenter(Supplier<JdbcBasePlugin> jdbcPluginFactory) {
+        this.jdbcPluginFactory = jdbcPluginFactory;
+    }
 
     @Override
     public void afterPropertiesSet() {
         String partitionByOption = context.getOption("PARTITION_BY");
         if (partitionByOption == null) return;
 
+        if (AUTO_PARTITION_BY.equalsIgnoreCase(partitionByOption.trim())) {
+            isAutoPartitioned = true;
+            return;
+        }
+
         try {
             String[] partitionBy = partitionByOption.split(":");
             column = partitionBy[0];
             partitionType = PartitionType.of(partitionBy[1]);
         } catch (ArrayIndexOutOfBoundsException e) {
-            throw new IllegalArgumentException("The parameter 'PARTITION_BY' has incorrect format. The correct format is '<column_name>:{int|date|enum}'");
+            throw new IllegalArgumentException("The parameter 'PARTITION_BY' has incorrect format. The correct format is '<column_name>:{int|date|enum}' or 'auto'");
         }
 
         range = context.getOption("RANGE");
         interval = context.getOption("INTERVAL");
+        // the range, and the interval that comes with it, are planned when not provided
+        isAutoPartitioned = range == null && interval == null;
     }
 
     /**
@@ -64,10 +112,19 @@ public class JdbcPartitionFragmenter extends BaseFragmenter {
      */
     @Override
     public List<Fragment> getFragments() {
-        if (partitionType == null) {
+        List<JdbcFragmentMetadata> fragmentsMetadata = null;
+        if (isAutoPartitioned) {
+            PartitionPlanner.PartitionPlan plan = planPartitions();
+            if (plan != null) {
+                fragmentsMetadata = plan.getFragmentsMetadata();
+            }
+        } else if (partitionType != null) {
+            fragmentsMetadata = partitionType.getFragmentsMetadata(column, range, interval);
+        }
+
+        if (fragmentsMetadata == null) {
             fragments.add(new Fragment(context.getDataSource()));
         } else {
-            List<JdbcFragmentMetadata> fragmentsMetadata = partitionType.getFragmentsMetadata(column, range, interval);
             for (JdbcFragmentMetadata fragmentMetadata : fragmentsMetadata) {
                 fragments.add(new Fragment(context.getDataSource(), fragmentMetadata));
             }
@@ -83,4 +140,46 @@ public class JdbcPartitionFragmenter extends BaseFragmenter {
     public FragmentStats getFragmentStats() throws UnsupportedOperationException {
         throw new UnsupportedOperationException("ANALYZE for JDBC plugin is not supported");
     }
+
+    /**
+     * Plans the partitions from the statistics of the table in the external
+     * database. The table is read by a single fragment when it can not be
+     * partitioned. The query fails when the statistics can not be retrieved,
+     * as the other PXF servers planning the partitions of the query could
+     * retrieve them and list different fragments.
+     *
+     * @return the plan of the partitions, or null if the table is not partitioned
+     * @throws PxfRuntimeException if the statistics of the table can not be retrieved
+     */
+    private PartitionPlanner.PartitionPlan planPartitions() {
+        JdbcBasePlugin jdbcPlugin = jdbcPluginFactory.get();
+        jdbcPlugin.setRequestContext(context);
+        jdbcPlugin.afterPropertiesSet();
+        if (jdbcPlugin.tableName == null) {
+            LOG.info("Partitions of query {} can not be planned, it is read by a single fragment", jdbcPlugin.queryName);
+            return null;
+        }
+
+        int maxPartitions = configuration.getInt(JDBC_PARTITION_AUTO_MAX_PARTITIONS_PROPERTY_NAME, context.getTotalSegments());
+        int maxEnumValues = configuration.getInt(JDBC_PARTITION_AUTO_MAX_ENUM_VALUES_PROPERTY_NAME, DEFAULT_MAX_ENUM_VALUES);
+
+        Connection connection = null;
+        try {
+            connection = jdbcPlugin.getConnection();
+            return new PartitionPlanner(connection)
+                    .plan(jdbcPlugin.tableName, column, partitionType, maxPartitions, maxEnumValues);
+        } catch (SQLException e) {
+            throw new PxfRuntimeException(
+                    String.format("Failed to plan the partitions of table %s: %s", jdbcPlugin.tableName, e.getMessage()),
+                    "Specify the RANGE and INTERVAL of the partitions, or remove the PARTITION_BY option.", e);
+        } finally {
+            if (connection != null) {
+                try {
+                    JdbcBasePlugin.closeConnection(connection);
+                } catch (SQLException e) {
+                    LOG.warn("Failed to close the connection used to plan the partitions", e);
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,166 @@
+package org.greenplum.pxf.plugins.jdbc;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.commons.io.FileUtils;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the texts of the named queries read from the server configuration
+ * directories and the SELECT queries built for the tables, so that the
+ * fragments of a table do not read the query file and look up the metadata of
+ * the external database for every fragment.
+ * <p>
+ * A query file is read again when its modification time or its length has
+ * changed. A SELECT query is built again when it has not been accessed for
+ * the expiration timeout of the cache.
+ */
+@Component
+public class JdbcQueryCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JdbcQueryCache.class);
+
+    private final Cache<String, QueryFile> queryFiles;
+    private final Cache<SelectQueryKey, SQLQueryBuilder.SelectQueryTemplate> selectQueries;
+
+    public JdbcQueryCache(PxfJdbcProperties properties) {
+        PxfJdbcProperties.QueryCache queryCache = properties.getQueryCache();
+
+        this.queryFiles = CacheBuilder.newBuilder()
+                .maximumSize(queryCache.getMaxSize())
+                .build();
+        this.selectQueries = CacheBuilder.newBuilder()
+                .maximumSize(queryCache.getMaxSize())
+                .expireAfterAccess(queryCache.getExpiration().toNanos(), TimeUnit.NANOSECONDS)
+                .build();
+    }
+
+    /**
+     * Returns the text of a query file, reading the file only when it has
+     * changed since it was cached.
+     *
+     * @param queryFile the query file
+     * @return the text of the file
+     * @throws IOException if the file can not be read
+     */
+    public String getQueryText(File queryFile) throws IOException {
+        String path = queryFile.getPath();
+        // the file is checked before it is read, so that a change made while it is read is seen by the next request
+        long lastModified = queryFile.lastModified();
+        long length = queryFile.length();
+
+        QueryFile cached = queryFiles.getIfPresent(path);
+        if (cached != null && cached.lastModified == lastModified && cached.length == length) {
+            return cached.text;
+        }
+
+        String text = FileUtils.readFileToString(queryFile, Charset.defaultCharset());
+        if (lastModified != 0) {
+            LOG.debug("Caching text of query file {} modified at {}", path, lastModified);
+            queryFiles.put(path, new QueryFile(lastModified, length, text));
+        }
+        return text;
+    }
+
+    /**
+     * Returns the SELECT query template cached for the given key, or builds and
+     * caches it when it is not cached.
+     *
+     * @param key     the key of the query
+     * @param builder the builder of the query template
+     * @return the query template
+     * @throws SQLException if the query template can not be built
+     */
+    public SQLQueryBuilder.SelectQueryTemplate getSelectQueryTemplate(SelectQueryKey key, SelectQueryTemplateBuilder builder) throws SQLException {
+        SQLQueryBuilder.SelectQueryTemplate template = selectQueries.getIfPresent(key);
+        if (template == null) {
+            // concurrent requests may build the same template, the last one is cached
+            template = builder.build();
+            selectQueries.put(key, template);
+        }
+        return template;
+    }
+
+    /**
+     * Builds the SELECT query template of a table when it is not cached.
+     */
+    @FunctionalInterface
+    public interface SelectQueryTemplateBuilder {
+        SQLQueryBuilder.SelectQueryTemplate build() throws SQLException;
+    }
+
+    /**
+     * Identifies a SELECT query template by everything it is built from: the
+     * server and its JDBC URL, the table or the text of the named query, the columns
+     * and their projection, the filter and the quoting of the columns.
+     */
+    public static final class SelectQueryKey {
+
+        private final String server;
+        private final String jdbcUrl;
+        private final String tableName;
+        private final String queryText;
+        private final List<Object> columns;
+        private final String filter;
+        private final Boolean quoteColumns;
+
+        public SelectQueryKey(String server, String jdbcUrl, String tableName, String queryText,
+                              List<ColumnDescriptor> columns, String filter, Boolean quoteColumns) {
+            this.server = server;
+            this.jdbcUrl = jdbcUrl;
+            this.tableName = tableName;
+            this.queryText = queryText;
+            this.columns = new ArrayList<>(columns.size() * 3);
+            for (ColumnDescriptor column : columns) {
+                this.columns.add(column.columnName());
+                this.columns.add(column.columnTypeCode());
+                this.columns.add(column.isProjected());
+            }
+            this.filter = filter;
+            this.quoteColumns = quoteColumns;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            SelectQueryKey that = (SelectQueryKey) o;
+            return Objects.equals(server, that.server) &&
+                    Objects.equals(jdbcUrl, that.jdbcUrl) &&
+                    Objects.equals(tableName, that.tableName) &&
+                    Objects.equals(queryText, that.queryText) &&
+                    Objects.equals(columns, that.columns) &&
+                    Objects.equals(filter, that.filter) &&
+                    Objects.equals(quoteColumns, that.quoteColumns);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(server, jdbcUrl, tableName, queryText, columns, filter, quoteColumns);
+        }
+    }
+
+    private static final class QueryFile {
+        private final long lastModified;
+        private final long length;
+        private final String text;
+
+        private QueryFile(long lastModified, long length, String text) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.text = text;
+        }
+    }
+}
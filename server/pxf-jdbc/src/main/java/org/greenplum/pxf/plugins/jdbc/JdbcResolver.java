@@ -26,6 +26,7 @@ import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.Resolver;
 import org.greenplum.pxf.api.security.SecureLogin;
 import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.greenplum.pxf.api.utilities.Utilities;
 import org.greenplum.pxf.plugins.jdbc.utils.ConnectionManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,6 +47,7 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.time.format.SignStyle;
 import java.time.temporal.ChronoField;
+import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -65,7 +67,7 @@ public class JdbcResolver extends JdbcBasePlugin implements Resolver {
      * LOCAL_DATE_GET_FORMATTER is used to format LocalDate to String.
      * Examples: 2023-01-10 -> "2023-01-10 AD"; +12345-02-01 -> "12345-02-01 AD"; -0009-12-11 -> "0010-12-11 BC"
      */
-    private static final DateTimeFormatter LOCAL_DATE_GET_FORMATTER = (new DateTimeFormatterBuilder())
+    public static final DateTimeFormatter LOCAL_DATE_GET_FORMATTER = (new DateTimeFormatterBuilder())
             .appendValue(ChronoField.YEAR_OF_ERA, 4, 9, SignStyle.NORMAL).appendLiteral("-")
             .appendValue(ChronoField.MONTH_OF_YEAR, 2).appendLiteral('-')
             .appendValue(ChronoField.DAY_OF_MONTH, 2)
@@ -77,7 +79,7 @@ public class JdbcResolver extends JdbcBasePlugin implements Resolver {
      * Examples: 2018-10-19T10:11 -> "2018-10-19 10:11:00 AD"; +123456-10-19T11:12:13 -> "123456-10-19 11:12:13 AD";
      * -1233-10-19T10:11:15.456 -> "1234-10-19 10:11:15.456 BC"
      */
-    private static final DateTimeFormatter LOCAL_DATE_TIME_GET_FORMATTER = (new DateTimeFormatterBuilder())
+    public static final DateTimeFormatter LOCAL_DATE_TIME_GET_FORMATTER = (new DateTimeFormatterBuilder())
             .appendValue(ChronoField.YEAR_OF_ERA, 4, 9, SignStyle.NORMAL).appendLiteral("-")
             .appendValue(ChronoField.MONTH_OF_YEAR, 2).appendLiteral('-')
             .appendValue(ChronoField.DAY_OF_MONTH, 2).appendLiteral(" ")
@@ -91,7 +93,7 @@ public class JdbcResolver extends JdbcBasePlugin implements Resolver {
      * Examples: 1956-02-01T07:15:16Z -> "1956-02-01 07:15:16Z AD"; +12345-02-01T10:15:16Z -> "12345-02-01 10:15:16Z AD";
      * -1999-02-01T04:15:16Z -> "2000-02-01 04:15:16Z BC"
      */
-    private static final DateTimeFormatter OFFSET_DATE_TIME_GET_FORMATTER = (new DateTimeFormatterBuilder())
+    static final DateTimeFormatter OFFSET_DATE_TIME_GET_FORMATTER = (new DateTimeFormatterBuilder())
             .appendValue(ChronoField.YEAR_OF_ERA, 4, 9, SignStyle.NORMAL).appendLiteral("-")
             .appendValue(ChronoField.MONTH_OF_YEAR, 2).appendLiteral('-')
             .appendValue(ChronoField.DAY_OF_MONTH, 2).appendLiteral(" ")
@@ -141,6 +143,14 @@ public class JdbcResolver extends JdbcBasePlugin implements Resolver {
 
     private static final Logger LOG = LoggerFactory.getLogger(JdbcResolver.class);
 
+    private static final String JDBC_READ_COLUMN_READERS_PROPERTY_NAME = "jdbc.read.column-readers";
+
+    // Whether the rows are read by the readers of the columns, created for the first row
+    boolean useColumnReaders;
+    private ColumnReaders.ColumnReader[] columnReaders;
+    private int[] columnIndexes;
+    private List<OneField> readFields;
+
     /**
      * Creates a new instance of the JdbcResolver
      */
@@ -158,6 +168,12 @@ public class JdbcResolver extends JdbcBasePlugin implements Resolver {
         super(connectionManager, secureLogin);
     }
 
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        useColumnReaders = Utilities.parseBooleanProperty(configuration, JDBC_READ_COLUMN_READERS_PROPERTY_NAME, false);
+    }
+
     /**
      * getFields() implementation
      *
@@ -167,6 +183,9 @@ public class JdbcResolver extends JdbcBasePlugin implements Resolver {
     @Override
     public List<OneField> getFields(OneRow row) throws SQLException {
         ResultSet result = (ResultSet) row.getData();
+        if (useColumnReaders) {
+            return getFieldsWithColumnReaders(result);
+        }
         LinkedList<OneField> fields = new LinkedList<>();
 
         for (ColumnDescriptor column : columns) {
@@ -255,6 +274,38 @@ public class JdbcResolver extends JdbcBasePlugin implements Resolver {
         return fields;
     }
 
+    /**
+     * Reads the fields of a row with the readers of the columns. The list of
+     * fields and its fields are reused for all the rows, as every row is
+     * serialized before the next one is read.
+     *
+     * @param result the result set, positioned at the row
+     * @return the fields of the row
+     * @throws SQLException if a value can not be read
+     */
+    private List<OneField> getFieldsWithColumnReaders(ResultSet result) throws SQLException {
+        if (columnReaders == null) {
+            columnReaders = ColumnReaders.create(result, columns, isDateWideRange);
+            columnIndexes = new int[columns.size()];
+            readFields = new ArrayList<>(columns.size());
+            for (int i = 0; i < columns.size(); i++) {
+                ColumnDescriptor column = columns.get(i);
+                if (columnReaders[i] != null) {
+                    columnIndexes[i] = result.findColumn(column.columnName());
+                }
+                readFields.add(new OneField(column.columnTypeCode(), null));
+            }
+        }
+
+        for (int i = 0; i < columnReaders.length; i++) {
+            // Non-projected columns get null values
+            if (columnReaders[i] != null) {
+                readFields.get(i).val = columnReaders[i].read(result, columnIndexes[i]);
+            }
+        }
+        return readFields;
+    }
+
     /**
      * setFields() implementation
      *
@@ -367,12 +418,27 @@ public class JdbcResolver extends JdbcBasePlugin implements Resolver {
      * @throws IOException  if data in a OneRow is corrupted
      * @throws SQLException if the given statement is broken
      */
-    @SuppressWarnings("unchecked")
     public static void decodeOneRowToPreparedStatement(OneRow row, PreparedStatement statement) throws IOException, SQLException {
+        decodeOneRowToPreparedStatement(row, statement, 1);
+    }
+
+    /**
+     * Decode OneRow object and pass all its contents to a PreparedStatement,
+     * starting at the given parameter of the statement
+     *
+     * @param row            one row
+     * @param statement      PreparedStatement
+     * @param firstParameter the index of the parameter of the first field of the row
+     * @throws IOException  if data in a OneRow is corrupted
+     * @throws SQLException if the given statement is broken
+     */
+    @SuppressWarnings("unchecked")
+    public static void decodeOneRowToPreparedStatement(OneRow row, PreparedStatement statement, int firstParameter) throws IOException, SQLException {
         // This is safe: OneRow comes from JdbcResolver
         List<OneField> tuple = (List<OneField>) row.getData();
-        for (int i = 1; i <= tuple.size(); i++) {
-            OneField field = tuple.get(i - 1);
+        for (int f = 0; f < tuple.size(); f++) {
+            OneField field = tuple.get(f);
+            int i = firstParameter + f;
             switch (DataType.get(field.type)) {
                 case INTEGER:
                     if (field.val == null) {
@@ -26,6 +26,12 @@ public class PxfJdbcProperties {
      */
     private Connection connection = new Connection();
 
+    /**
+     * Customizable settings for the cache of the query files and of the
+     * SELECT queries built for the tables
+     */
+    private QueryCache queryCache = new QueryCache();
+
     @Getter
     @Setter
     @Validated
@@ -54,4 +60,23 @@ public class PxfJdbcProperties {
         @DurationUnit(ChronoUnit.HOURS)
         private Duration poolExpirationTimeout = Duration.ofHours(6);
     }
+
+    @Getter
+    @Setter
+    @Validated
+    public static class QueryCache {
+
+        /**
+         * Defines the maximum number of query files and of SELECT queries
+         * that are cached, 0 disables the cache
+         */
+        private long maxSize = 1000;
+
+        /**
+         * Defines the expiration timeout of a SELECT query after the last
+         * time it was accessed
+         */
+        @DurationUnit(ChronoUnit.MINUTES)
+        private Duration expiration = Duration.ofHours(1);
+    }
 }
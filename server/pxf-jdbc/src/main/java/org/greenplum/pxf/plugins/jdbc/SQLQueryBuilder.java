@@ -128,18 +128,35 @@ public class SQLQueryBuilder {
      * @return Complete SQL query
      */
     public String buildSelectQuery() {
-        StringBuilder sb = new StringBuilder("SELECT ")
+        StringBuilder sb = new StringBuilder();
+        buildSelectQueryWithoutFragment(sb);
+
+        // Insert partition constraints
+        buildFragmenterSql(context, dbProduct, quoteString, sb);
+
+        return sb.toString();
+    }
+
+    /**
+     * Build SELECT query (with "WHERE" constraints) without the partition constraints,
+     * that is the same for all the fragments of the table.
+     *
+     * @return the query template to complete with the partition constraints of a fragment
+     */
+    public SelectQueryTemplate buildSelectQueryTemplate() {
+        StringBuilder sb = new StringBuilder();
+        buildSelectQueryWithoutFragment(sb);
+        return new SelectQueryTemplate(sb.toString(), dbProduct, quoteString, subQueryUsed);
+    }
+
+    private void buildSelectQueryWithoutFragment(StringBuilder sb) {
+        sb.append("SELECT ")
                 .append(buildColumnsQuery())
                 .append(" FROM ")
                 .append(getSource());
 
         // Insert regular WHERE constraints
         buildWhereSQL(sb);
-
-        // Insert partition constraints
-        buildFragmenterSql(context, dbProduct, quoteString, sb);
-
-        return sb.toString();
     }
 
     /**
@@ -154,20 +171,13 @@ public class SQLQueryBuilder {
         sb.append(source);
 
         // Insert columns' names
-        sb.append("(");
-        String fieldDivisor = "";
-        for (ColumnDescriptor column : columns) {
-            sb.append(fieldDivisor);
-            fieldDivisor = ", ";
-            sb.append(quoteString).append(column.columnName()).append(quoteString);
-        }
-        sb.append(")");
+        buildInsertColumns(sb);
 
         sb.append(" VALUES ");
 
         // Insert values placeholders
         sb.append("(");
-        fieldDivisor = "";
+        String fieldDivisor = "";
         for (int i = 0; i < columns.size(); i++) {
             sb.append(fieldDivisor);
             fieldDivisor = ", ";
@@ -178,6 +188,43 @@ public class SQLQueryBuilder {
         return sb.toString();
     }
 
+    /**
+     * Build COPY query of PostgreSQL that reads the rows in text format from the client
+     *
+     * @return SQL query
+     */
+    public String buildCopyQuery() {
+        StringBuilder sb = new StringBuilder("COPY ").append(source);
+        buildInsertColumns(sb);
+        return sb.append(" FROM STDIN").toString();
+    }
+
+    /**
+     * Build LOAD DATA query of MySQL that reads the rows in the default tab-separated
+     * format and in UTF-8 from a stream of the client. The name of the file is not used,
+     * as the stream is provided to the statement.
+     *
+     * @return SQL query
+     */
+    public String buildLoadDataQuery() {
+        StringBuilder sb = new StringBuilder("LOAD DATA LOCAL INFILE 'pxf' INTO TABLE ")
+                .append(source)
+                .append(" CHARACTER SET utf8mb4 ");
+        buildInsertColumns(sb);
+        return sb.toString();
+    }
+
+    private void buildInsertColumns(StringBuilder sb) {
+        sb.append("(");
+        String fieldDivisor = "";
+        for (ColumnDescriptor column : columns) {
+            sb.append(fieldDivisor);
+            fieldDivisor = ", ";
+            sb.append(quoteString).append(column.columnName()).append(quoteString);
+        }
+        sb.append(")");
+    }
+
     /**
      * Check whether column names must be quoted and set quoteString if so.
      * <p>
@@ -314,6 +361,11 @@ public class SQLQueryBuilder {
      * @param query       SQL query to insert constraints to. The query may may contain other WHERE statements
      */
     public void buildFragmenterSql(RequestContext context, DbProduct dbProduct, String quoteString, StringBuilder query) {
+        appendFragmentConstraints(context, dbProduct, quoteString, subQueryUsed, query);
+    }
+
+    private static void appendFragmentConstraints(RequestContext context, DbProduct dbProduct, String quoteString,
+                                                  boolean subQueryUsed, StringBuilder query) {
         if (context.getOption("PARTITION_BY") == null || context.getFragmentMetadata() == null) {
             return;
         }
@@ -335,4 +387,35 @@ public class SQLQueryBuilder {
 
         query.append(fragmentSql);
     }
+
+    /**
+     * SELECT query without the partition constraints, built once for a table and
+     * completed with the partition constraints of every fragment.
+     */
+    public static final class SelectQueryTemplate {
+
+        private final String query;
+        private final DbProduct dbProduct;
+        private final String quoteString;
+        private final boolean subQueryUsed;
+
+        private SelectQueryTemplate(String query, DbProduct dbProduct, String quoteString, boolean subQueryUsed) {
+            this.query = query;
+            this.dbProduct = dbProduct;
+            this.quoteString = quoteString;
+            this.subQueryUsed = subQueryUsed;
+        }
+
+        /**
+         * Build SELECT query with the partition constraints of the fragment of the given context.
+         *
+         * @param context RequestContext of the fragment
+         * @return Complete SQL query
+         */
+        public String toQuery(RequestContext context) {
+            StringBuilder sb = new StringBuilder(query);
+            appendFragmentConstraints(context, dbProduct, quoteString, subQueryUsed, sb);
+            return sb.toString();
+        }
+    }
 }
@@ -0,0 +1,313 @@
+package org.greenplum.pxf.plugins.jdbc.partitioning;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Plans the partitions of a table of the external database from its
+ * statistics, for tables that are partitioned without a RANGE and INTERVAL
+ * provided by the user.
+ * <p>
+ * The partition column, when not provided, is the first column of the primary
+ * key or of an index of the table that has an integer or date type. The range
+ * of an INT or DATE partition is the MIN and MAX values of the column, split
+ * into intervals of the same size, and the range of an ENUM partition is the
+ * distinct values of the column, in their sorted order.
+ * <p>
+ * Every PXF server plans the partitions of a query on its own and the segments
+ * read the fragments by their index, so the plan only depends on the values of
+ * the partition column and on the configuration. The number of partitions is not
+ * reduced from estimates of the number of rows of the table, which change when
+ * the statistics of the external database are updated.
+ */
+public class PartitionPlanner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PartitionPlanner.class);
+
+    private final Connection connection;
+
+    /**
+     * The plan of the partitions of a table, in the format of the PARTITION_BY,
+     * RANGE and INTERVAL options.
+     */
+    public static class PartitionPlan {
+        private final String column;
+        private final PartitionType type;
+        private final String range;
+        private final String interval;
+
+        PartitionPlan(String column, PartitionType type, String range, String interval) {
+            this.column = column;
+            this.type = type;
+            this.range = range;
+            this.interval = interval;
+        }
+
+        /**
+         * @return the fragments metadata of the planned partitions
+         */
+        public List<JdbcFragmentMetadata> getFragmentsMetadata() {
+            return type.getFragmentsMetadata(column, range, interval);
+        }
+
+        public String getColumn() {
+            return column;
+        }
+
+        public PartitionType getType() {
+            return type;
+        }
+
+        public String getRange() {
+            return range;
+        }
+
+        public String getInterval() {
+            return interval;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s:%s RANGE %s INTERVAL %s", column, type, range, interval);
+        }
+    }
+
+    /**
+     * @param connection the connection to the external database
+     */
+    public PartitionPlanner(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Plans the partitions of a table.
+     *
+     * @param tableName           the name of the table, optionally qualified by its schema
+     * @param column              the partition column, null to choose it from the primary key or indexes of the table
+     * @param type                the partition type of the column, null when the column is chosen
+     * @param maxPartitions the number of INT or DATE partitions
+     * @param maxEnumValues the maximum number of distinct values of an ENUM partition column
+     * @return the plan, or null if the table should not be partitioned
+     * @throws SQLException if the statistics of the table can not be retrieved
+     */
+    public PartitionPlan plan(String tableName, String column, PartitionType type,
+                              int maxPartitions, int maxEnumValues) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String schema = null;
+        String table = tableName;
+        int dot = tableName.lastIndexOf('.');
+        if (dot > 0) {
+            schema = toStoredIdentifier(metaData, tableName.substring(0, dot));
+            table = tableName.substring(dot + 1);
+        }
+        table = toStoredIdentifier(metaData, table);
+
+        if (column == null) {
+            Map<String, PartitionType> candidates = getCandidateColumns(metaData, schema, table);
+            if (candidates.isEmpty()) {
+                LOG.info("Table {} has no integer or date column in its primary key or indexes to partition it by", tableName);
+                return null;
+            }
+            Map.Entry<String, PartitionType> candidate = candidates.entrySet().iterator().next();
+            column = candidate.getKey();
+            type = candidate.getValue();
+        }
+
+        PartitionPlan plan;
+        if (type == PartitionType.ENUM) {
+            plan = planEnum(tableName, column, maxEnumValues);
+        } else if (maxPartitions <= 1) {
+            LOG.info("Table {} is not partitioned into {} partitions", tableName, maxPartitions);
+            return null;
+        } else {
+            plan = type == PartitionType.INT ?
+                    planInt(tableName, column, maxPartitions) :
+                    planDate(tableName, column, maxPartitions);
+        }
+        LOG.debug("Planned partitions of table {}: {}", tableName, plan);
+        return plan;
+    }
+
+    /**
+     * Returns the columns of the primary key and of the indexes of the table
+     * whose type can be partitioned by range, with the columns of the primary
+     * key first.
+     */
+    private Map<String, PartitionType> getCandidateColumns(DatabaseMetaData metaData, String schema, String table)
+            throws SQLException {
+        Map<String, PartitionType> columnTypes = new HashMap<>();
+        try (ResultSet columns = metaData.getColumns(null, schema, table, null)) {
+            while (columns.next()) {
+                PartitionType type = getPartitionType(columns.getInt("DATA_TYPE"), columns.getInt("DECIMAL_DIGITS"));
+                if (type != null) {
+                    columnTypes.put(columns.getString("COLUMN_NAME"), type);
+                }
+            }
+        }
+
+        // leading columns of the primary key and indexes, which make MIN and MAX cheap
+        Set<String> keyColumns = new LinkedHashSet<>();
+        try (ResultSet primaryKey = metaData.getPrimaryKeys(null, schema, table)) {
+            while (primaryKey.next()) {
+                if (primaryKey.getInt("KEY_SEQ") == 1) {
+                    keyColumns.add(primaryKey.getString("COLUMN_NAME"));
+                }
+            }
+        }
+        try (ResultSet indexes = metaData.getIndexInfo(null, schema, table, false, true)) {
+            while (indexes.next()) {
+                if (indexes.getShort("ORDINAL_POSITION") == 1 && indexes.getString("COLUMN_NAME") != null) {
+                    keyColumns.add(indexes.getString("COLUMN_NAME"));
+                }
+            }
+        }
+
+        Map<String, PartitionType> candidates = new LinkedHashMap<>();
+        for (String keyColumn : keyColumns) {
+            PartitionType type = columnTypes.get(keyColumn);
+            if (type != null) {
+                candidates.put(keyColumn, type);
+            }
+        }
+        return candidates;
+    }
+
+    private PartitionPlan planInt(String tableName, String column, int partitions) throws SQLException {
+        long min, max;
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(getMinMaxQuery(tableName, column))) {
+            if (!result.next()) {
+                return null;
+            }
+            min = result.getLong(1);
+            if (result.wasNull()) {
+                // the table is empty or the column only has nulls
+                return null;
+            }
+            max = result.getLong(2);
+        }
+
+        long end, interval;
+        try {
+            end = Math.addExact(max, 1);
+            long span = Math.subtractExact(end, min);
+            interval = Math.max(1, span / partitions + (span % partitions == 0 ? 0 : 1));
+        } catch (ArithmeticException e) {
+            LOG.info("Range {}:{} of column {} is too large to be partitioned", min, max, column);
+            return null;
+        }
+        return new PartitionPlan(column, PartitionType.INT, min + ":" + end, String.valueOf(interval));
+    }
+
+    private PartitionPlan planDate(String tableName, String column, int partitions) throws SQLException {
+        LocalDate min, max;
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(getMinMaxQuery(tableName, column))) {
+            if (!result.next()) {
+                return null;
+            }
+            // timestamps are read for both date and timestamp columns, as not all the drivers support date for both
+            Timestamp minTimestamp = result.getTimestamp(1);
+            Timestamp maxTimestamp = result.getTimestamp(2);
+            if (minTimestamp == null || maxTimestamp == null) {
+                return null;
+            }
+            min = minTimestamp.toLocalDateTime().toLocalDate();
+            max = maxTimestamp.toLocalDateTime().toLocalDate();
+        }
+
+        LocalDate end = max.plusDays(1);
+        long days = ChronoUnit.DAYS.between(min, end);
+        long interval = Math.max(1, days / partitions + (days % partitions == 0 ? 0 : 1));
+        return new PartitionPlan(column, PartitionType.DATE, min + ":" + end, interval + ":day");
+    }
+
+    private PartitionPlan planEnum(String tableName, String column, int maxEnumValues) throws SQLException {
+        List<String> values = new ArrayList<>();
+        // sorted, for the fragments to be listed in the same order by every PXF server
+        String query = String.format("SELECT %1$s FROM %2$s WHERE %1$s IS NOT NULL GROUP BY %1$s ORDER BY %1$s", column, tableName);
+        try (Statement statement = connection.createStatement()) {
+            // one more than the maximum, to know whether there are too many values
+            statement.setMaxRows(maxEnumValues + 1);
+            try (ResultSet result = statement.executeQuery(query)) {
+                while (result.next()) {
+                    String value = result.getString(1);
+                    // the values are separated by colons in the range
+                    if (StringUtils.contains(value, ':')) {
+                        LOG.info("Value '{}' of column {} can not be used as an ENUM partition", value, column);
+                        return null;
+                    }
+                    values.add(value);
+                }
+            }
+        }
+        if (values.isEmpty() || values.size() > maxEnumValues) {
+            LOG.info("Column {} has {} distinct values, not partitioning table {}",
+                    column, values.isEmpty() ? "no" : "more than " + maxEnumValues, tableName);
+            return null;
+        }
+        return new PartitionPlan(column, PartitionType.ENUM, String.join(":", values), null);
+    }
+
+    private String getMinMaxQuery(String tableName, String column) {
+        return String.format("SELECT MIN(%1$s), MAX(%1$s) FROM %2$s", column, tableName);
+    }
+
+    /**
+     * Returns the partition type of a column of the given JDBC type, or null
+     * if the column can not be partitioned by range.
+     */
+    static PartitionType getPartitionType(int jdbcType, int decimalDigits) {
+        switch (jdbcType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return PartitionType.INT;
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return decimalDigits == 0 ? PartitionType.INT : null;
+            case Types.DATE:
+            case Types.TIMESTAMP:
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                return PartitionType.DATE;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Converts an identifier to the case the external database stores it in,
+     * unless it is quoted.
+     */
+    private String toStoredIdentifier(DatabaseMetaData metaData, String identifier) throws SQLException {
+        if (identifier.length() > 1 && "\"`[".indexOf(identifier.charAt(0)) >= 0) {
+            return identifier.substring(1, identifier.length() - 1);
+        }
+        if (metaData.storesUpperCaseIdentifiers()) {
+            return identifier.toUpperCase();
+        }
+        if (metaData.storesLowerCaseIdentifiers()) {
+            return identifier.toLowerCase();
+        }
+        return identifier;
+    }
+}
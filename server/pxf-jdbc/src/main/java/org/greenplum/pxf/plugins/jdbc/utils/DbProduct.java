@@ -20,6 +20,7 @@ package org.greenplum.pxf.plugins.jdbc.utils;
  */
 
 import org.greenplum.pxf.plugins.jdbc.utils.oracle.OracleJdbcUtils;
+import org.greenplum.pxf.plugins.jdbc.writercallable.BulkLoad;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,6 +38,11 @@ public enum DbProduct {
         public String buildSessionQuery(String key, String value) {
             return String.format("SET %s %s", key, value);
         }
+
+        @Override
+        public BulkLoad getBulkLoad() {
+            return BulkLoad.VALUES;
+        }
     },
 
     MYSQL {
@@ -44,6 +50,11 @@ public enum DbProduct {
         public String wrapDate(Object val) {
             return "DATE('" + val + "')";
         }
+
+        @Override
+        public BulkLoad getBulkLoad() {
+            return BulkLoad.VALUES;
+        }
     },
 
     ORACLE {
@@ -68,6 +79,11 @@ public enum DbProduct {
         public String wrapDate(Object val) {
             return "date'" + val + "'";
         }
+
+        @Override
+        public BulkLoad getBulkLoad() {
+            return BulkLoad.COPY;
+        }
     },
 
     S3_SELECT {
@@ -111,6 +127,17 @@ public enum DbProduct {
         return String.format("SET %s = %s", key, value);
     }
 
+    /**
+     * Returns the bulk load that BULK_LOAD=auto selects for the target database.
+     * PostgreSQL is also the product of the databases that are not recognized,
+     * so the COPY of PostgreSQL is only used with the PostgreSQL JDBC driver.
+     *
+     * @return the bulk load
+     */
+    public BulkLoad getBulkLoad() {
+        return BulkLoad.BATCH;
+    }
+
     /**
      * Get DbProduct for database by database name
      *
@@ -0,0 +1,54 @@
+package org.greenplum.pxf.plugins.jdbc.writercallable;
+
+import org.greenplum.pxf.plugins.jdbc.utils.DbProduct;
+
+/**
+ * The ways to write the rows of INSERT operations to the external database,
+ * selected with the BULK_LOAD option of the table.
+ */
+public enum BulkLoad {
+    /**
+     * Batches of a single-row INSERT statement, or one INSERT statement per
+     * row when batching is not used.
+     */
+    BATCH,
+
+    /**
+     * INSERT statements with the values of multiple rows.
+     */
+    VALUES,
+
+    /**
+     * COPY FROM STDIN of PostgreSQL, streaming the rows in text format.
+     */
+    COPY,
+
+    /**
+     * LOAD DATA LOCAL INFILE of MySQL, streaming the rows from memory.
+     */
+    LOAD_DATA;
+
+    /**
+     * Returns the bulk load of the given value of the BULK_LOAD option, where
+     * AUTO selects the default bulk load of the external database.
+     *
+     * @param value     the value of the option, null for the default BATCH
+     * @param dbProduct the product of the external database
+     * @return the bulk load
+     * @throws IllegalArgumentException if the value is not a bulk load
+     */
+    public static BulkLoad fromOption(String value, DbProduct dbProduct) {
+        if (value == null) {
+            return BATCH;
+        }
+        if (value.equalsIgnoreCase("auto")) {
+            return dbProduct.getBulkLoad();
+        }
+        try {
+            return valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format(
+                    "Option BULK_LOAD has incorrect value %s : must be one of auto, batch, values, copy or load_data", value));
+        }
+    }
+}
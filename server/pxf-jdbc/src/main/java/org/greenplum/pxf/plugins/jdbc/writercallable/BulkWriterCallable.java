@@ -0,0 +1,106 @@
+package org.greenplum.pxf.plugins.jdbc.writercallable;
+
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.plugins.jdbc.JdbcBasePlugin;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A writer that loads the rows of a batch with a bulk load of the external
+ * database instead of a JDBC batch.
+ * <p>
+ * A call() is required after a certain number of supply() calls
+ */
+abstract class BulkWriterCallable implements WriterCallable {
+
+    protected final JdbcBasePlugin plugin;
+    protected final String query;
+    private final int batchSize;
+    private final List<OneRow> rows;
+    private PreparedStatement statement;
+
+    BulkWriterCallable(JdbcBasePlugin plugin, String query, PreparedStatement statement, int batchSize) {
+        if (plugin == null || query == null) {
+            throw new IllegalArgumentException("The provided JdbcBasePlugin or SQL query is null");
+        }
+        this.plugin = plugin;
+        this.query = query;
+        this.statement = statement;
+        this.batchSize = Math.max(1, batchSize);
+        this.rows = new ArrayList<>(this.batchSize);
+    }
+
+    @Override
+    public void supply(OneRow row) throws IllegalStateException {
+        if (rows.size() >= batchSize) {
+            throw new IllegalStateException("Trying to supply() a OneRow object to a full WriterCallable");
+        }
+        if (row == null) {
+            throw new IllegalArgumentException("Trying to supply() a null OneRow object");
+        }
+        rows.add(row);
+    }
+
+    @Override
+    public boolean isCallRequired() {
+        return rows.size() >= batchSize;
+    }
+
+    @Override
+    public SQLException call() throws IOException, SQLException, ClassNotFoundException {
+        if (rows.isEmpty()) {
+            return null;
+        }
+
+        boolean statementMustBeDeleted = false;
+        if (statement == null) {
+            statement = plugin.getPreparedStatement(plugin.getConnection(), query);
+            statementMustBeDeleted = true;
+        }
+
+        try {
+            load(statement, rows);
+        } catch (SQLException e) {
+            return e;
+        } finally {
+            rows.clear();
+            if (statementMustBeDeleted) {
+                closeStatements();
+                JdbcBasePlugin.closeStatementAndConnection(statement);
+                statement = null;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        closeStatements();
+    }
+
+    /**
+     * Loads rows to the external database.
+     *
+     * @param statement the statement of the query, whose connection is used for the load
+     * @param rows      the rows to load
+     * @throws IOException  if the data in a row is corrupted
+     * @throws SQLException if the load fails
+     */
+    protected abstract void load(PreparedStatement statement, List<OneRow> rows) throws IOException, SQLException;
+
+    /**
+     * Closes the statements kept by the writer for the connection of the
+     * statement of the query, before the connection is closed: after every
+     * call when the writer opens a connection for every call, otherwise when
+     * the writer is closed.
+     *
+     * @throws SQLException if a statement can not be closed
+     */
+    protected void closeStatements() throws SQLException {
+    }
+}
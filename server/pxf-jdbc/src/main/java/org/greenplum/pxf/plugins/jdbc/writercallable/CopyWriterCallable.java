@@ -0,0 +1,40 @@
+package org.greenplum.pxf.plugins.jdbc.writercallable;
+
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.plugins.jdbc.JdbcBasePlugin;
+import org.postgresql.PGConnection;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * This writer streams the rows of a batch to PostgreSQL with COPY FROM STDIN
+ * in text format.
+ */
+class CopyWriterCallable extends BulkWriterCallable {
+
+    private final TextRowEncoder encoder = new TextRowEncoder(true);
+    private final StringBuilder buffer = new StringBuilder();
+
+    CopyWriterCallable(JdbcBasePlugin plugin, String query, PreparedStatement statement, int batchSize) {
+        super(plugin, query, statement, batchSize);
+    }
+
+    @Override
+    protected void load(PreparedStatement statement, List<OneRow> rows) throws IOException, SQLException {
+        Connection connection = statement.getConnection();
+        if (!connection.isWrapperFor(PGConnection.class)) {
+            throw new SQLException("BULK_LOAD=copy requires the PostgreSQL JDBC driver");
+        }
+
+        buffer.setLength(0);
+        for (OneRow row : rows) {
+            encoder.encode(row, buffer);
+        }
+        connection.unwrap(PGConnection.class).getCopyAPI().copyIn(query, new StringReader(buffer.toString()));
+    }
+}
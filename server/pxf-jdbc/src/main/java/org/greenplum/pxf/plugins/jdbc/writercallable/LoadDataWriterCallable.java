@@ -0,0 +1,65 @@
+package org.greenplum.pxf.plugins.jdbc.writercallable;
+
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.plugins.jdbc.JdbcBasePlugin;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * This writer loads the rows of a batch to MySQL with LOAD DATA LOCAL INFILE,
+ * reading them from memory instead of a file. The connection requires the
+ * allowLoadLocalInfile property of MySQL Connector/J.
+ */
+class LoadDataWriterCallable extends BulkWriterCallable {
+
+    // the statements of MySQL Connector/J 8 and 5, which is not a dependency of PXF
+    private static final String[] MYSQL_STATEMENT_CLASS_NAMES = {
+            "com.mysql.cj.jdbc.JdbcStatement",
+            "com.mysql.jdbc.Statement"
+    };
+
+    private final TextRowEncoder encoder = new TextRowEncoder(false);
+    private final StringBuilder buffer = new StringBuilder();
+
+    LoadDataWriterCallable(JdbcBasePlugin plugin, String query, PreparedStatement statement, int batchSize) {
+        super(plugin, query, statement, batchSize);
+    }
+
+    @Override
+    protected void load(PreparedStatement statement, List<OneRow> rows) throws IOException, SQLException {
+        buffer.setLength(0);
+        for (OneRow row : rows) {
+            encoder.encode(row, buffer);
+        }
+        setLocalInfileInputStream(statement, new ByteArrayInputStream(buffer.toString().getBytes(StandardCharsets.UTF_8)));
+        statement.executeUpdate();
+    }
+
+    private static void setLocalInfileInputStream(PreparedStatement statement, InputStream stream) throws SQLException {
+        for (String className : MYSQL_STATEMENT_CLASS_NAMES) {
+            Class<?> statementClass;
+            try {
+                statementClass = Class.forName(className);
+            } catch (ClassNotFoundException e) {
+                continue;
+            }
+            if (statement.isWrapperFor(statementClass)) {
+                try {
+                    Method method = statementClass.getMethod("setLocalInfileInputStream", InputStream.class);
+                    method.invoke(statement.unwrap(statementClass), stream);
+                } catch (ReflectiveOperationException e) {
+                    throw new SQLException("Failed to provide the rows to LOAD DATA", e);
+                }
+                return;
+            }
+        }
+        throw new SQLException("BULK_LOAD=load_data requires the MySQL Connector/J driver");
+    }
+}
@@ -0,0 +1,212 @@
+package org.greenplum.pxf.plugins.jdbc.writercallable;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.plugins.jdbc.JdbcBasePlugin;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes rows to the external database with a fixed number of workers.
+ * <p>
+ * The rows are grouped into batches that are queued for the workers. The
+ * queue is bounded, so that {@link #write(OneRow)} blocks while the workers
+ * are behind instead of buffering the rows of the whole write request. Every
+ * worker opens one connection when it takes its first batch and uses it for
+ * all its batches, committing each batch when the connection is not in
+ * auto-commit mode.
+ * <p>
+ * The first failure of a worker stops all the workers, and is thrown by the
+ * next call of {@link #write(OneRow)} or by {@link #close()}.
+ */
+public class ParallelWriter implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelWriter.class);
+
+    static final String BATCH_TIMER = "pxf.jdbc.write.batch";
+
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final JdbcBasePlugin plugin;
+    private final String query;
+    private final WriterCallableFactory factory;
+    private final int rowsPerBatch;
+    private final BlockingQueue<List<OneRow>> queue;
+    private final ExecutorService executor;
+    private final List<Future<Void>> workers;
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+    private volatile boolean closed;
+    private List<OneRow> batch;
+
+    /**
+     * Creates the writer and starts its workers.
+     *
+     * @param plugin           the plugin to get the connections of the workers from
+     * @param query            the INSERT query
+     * @param factory          the factory of the writers of the batches
+     * @param batchSize        the number of rows of a batch
+     * @param poolSize         the number of workers
+     * @param maxQueuedBatches the maximum number of batches waiting for a worker
+     * @param meterRegistry    the registry of the batch timers of the workers
+     * @param server           the name of the server of the external database
+     */
+    public ParallelWriter(JdbcBasePlugin plugin, String query, WriterCallableFactory factory, int batchSize,
+                          int poolSize, int maxQueuedBatches, MeterRegistry meterRegistry, String server) {
+        this.plugin = plugin;
+        this.query = query;
+        this.factory = factory;
+        this.rowsPerBatch = Math.max(1, batchSize);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, maxQueuedBatches));
+        this.executor = Executors.newFixedThreadPool(poolSize);
+        this.workers = new ArrayList<>(poolSize);
+
+        for (int i = 0; i < poolSize; i++) {
+            Timer timer = Timer.builder(BATCH_TIMER)
+                    .description("Time to write a batch of rows to the external database")
+                    .tag("server", server)
+                    .tag("worker", String.valueOf(i))
+                    .register(meterRegistry);
+            workers.add(executor.submit(() -> runWorker(timer)));
+        }
+    }
+
+    /**
+     * Adds a row to the current batch, and queues the batch when it is full,
+     * waiting while the queue is full.
+     *
+     * @param row the row to write
+     * @throws Exception the first failure of the workers
+     */
+    public void write(OneRow row) throws Exception {
+        throwIfFailed();
+        if (batch == null) {
+            batch = new ArrayList<>(rowsPerBatch);
+        }
+        batch.add(row);
+        if (batch.size() >= rowsPerBatch) {
+            enqueue(batch);
+            batch = null;
+        }
+    }
+
+    /**
+     * Queues the last batch, waits for the workers to write all the batches
+     * and closes their connections.
+     *
+     * @throws Exception the first failure of the workers, or an SQLException
+     *                   if batches were left in the queue by the workers
+     */
+    @Override
+    public void close() throws Exception {
+        try {
+            if (batch != null && failure.get() == null) {
+                enqueue(batch);
+                batch = null;
+            }
+        } finally {
+            // the workers stop once they see the queue empty after closing
+            closed = true;
+            executor.shutdown();
+            for (Future<Void> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        }
+        throwIfFailed();
+        if (!queue.isEmpty()) {
+            throw new SQLException(String.format("%d batches were not written to the external database", queue.size()));
+        }
+    }
+
+    private void enqueue(List<OneRow> rows) throws Exception {
+        while (!queue.offer(rows, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+            throwIfFailed();
+        }
+    }
+
+    private void throwIfFailed() throws Exception {
+        Exception e = failure.get();
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    private Void runWorker(Timer timer) {
+        PreparedStatement statement = null;
+        WriterCallable writer = null;
+        try {
+            while (failure.get() == null) {
+                List<OneRow> rows = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (rows == null) {
+                    // the last batch can be queued after the poll timed out
+                    if (closed && queue.isEmpty()) {
+                        break;
+                    }
+                    continue;
+                }
+                if (writer == null) {
+                    statement = plugin.getPreparedStatement(plugin.getConnection(), query);
+                    writer = factory.get(statement);
+                }
+
+                long start = System.nanoTime();
+                for (OneRow row : rows) {
+                    writer.supply(row);
+                }
+                SQLException e = writer.call();
+                if (e != null) {
+                    throw e;
+                }
+                Connection connection = statement.getConnection();
+                if (!connection.getAutoCommit()) {
+                    connection.commit();
+                }
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        } catch (Exception e) {
+            fail(e);
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (SQLException e) {
+                    fail(e);
+                }
+            }
+            if (statement != null) {
+                try {
+                    JdbcBasePlugin.closeStatementAndConnection(statement);
+                } catch (SQLException e) {
+                    fail(e);
+                }
+            }
+        }
+        return null;
+    }
+
+    private void fail(Exception e) {
+        if (failure.compareAndSet(null, e)) {
+            LOG.error("Failed to write a batch to the external database: {}", e.getMessage());
+        } else {
+            LOG.debug("Another failure occurred after the first one: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.greenplum.pxf.plugins.jdbc.writercallable;
+
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.plugins.jdbc.JdbcResolver;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Encodes rows in the tab-separated text format that both COPY of PostgreSQL
+ * and LOAD DATA of MySQL read by default: one line per row, \N for null values,
+ * and backslash escapes for the backslash, tab, newline and carriage return
+ * characters of the values.
+ * <p>
+ * The dates and timestamps of DATE_WIDE_RANGE with a year before 1 AD or after
+ * 9999 are written with their era, e.g. "0010-12-11 BC", as the ISO format of
+ * their toString(), e.g. "-0009-12-11", is not read by COPY.
+ */
+class TextRowEncoder {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final boolean byteaSupported;
+
+    /**
+     * @param byteaSupported whether BYTEA values are encoded in the hex format of PostgreSQL
+     */
+    TextRowEncoder(boolean byteaSupported) {
+        this.byteaSupported = byteaSupported;
+    }
+
+    /**
+     * Appends the line of a row.
+     *
+     * @param row the row from {@link org.greenplum.pxf.plugins.jdbc.JdbcResolver}
+     * @param sb  the builder to append the line to
+     * @throws IOException if the data in the row is corrupted
+     */
+    @SuppressWarnings("unchecked")
+    void encode(OneRow row, StringBuilder sb) throws IOException {
+        List<OneField> tuple = (List<OneField>) row.getData();
+        for (int i = 0; i < tuple.size(); i++) {
+            if (i > 0) {
+                sb.append('\t');
+            }
+            appendField(tuple.get(i), sb);
+        }
+        sb.append('\n');
+    }
+
+    private void appendField(OneField field, StringBuilder sb) throws IOException {
+        if (field.val == null) {
+            sb.append("\\N");
+            return;
+        }
+        DataType type = DataType.get(field.type);
+        switch (type) {
+            case INTEGER:
+            case BIGINT:
+            case SMALLINT:
+            case REAL:
+            case FLOAT8:
+            case UUID:
+                sb.append(field.val);
+                break;
+            case DATE:
+                if (field.val instanceof LocalDate) {
+                    LocalDate date = (LocalDate) field.val;
+                    sb.append(isWideRange(date.getYear()) ? date.format(JdbcResolver.LOCAL_DATE_GET_FORMATTER) : date.toString());
+                } else {
+                    sb.append(field.val);
+                }
+                break;
+            case BOOLEAN:
+                sb.append((boolean) field.val ? '1' : '0');
+                break;
+            case NUMERIC:
+                sb.append(((BigDecimal) field.val).toPlainString());
+                break;
+            case VARCHAR:
+            case BPCHAR:
+            case TEXT:
+                appendEscaped((String) field.val, sb);
+                break;
+            case TIMESTAMP:
+                if (field.val instanceof LocalDateTime) {
+                    LocalDateTime dateTime = (LocalDateTime) field.val;
+                    sb.append(isWideRange(dateTime.getYear()) ?
+                            dateTime.format(JdbcResolver.LOCAL_DATE_TIME_GET_FORMATTER) :
+                            dateTime.toString().replace('T', ' '));
+                } else {
+                    sb.append(field.val);
+                }
+                break;
+            case BYTEA:
+                if (!byteaSupported) {
+                    throw new UnsupportedOperationException(
+                            String.format("Field type '%s' is not supported by LOAD DATA", type));
+                }
+                // the backslash of the hex format is escaped
+                sb.append("\\\\x");
+                for (byte b : (byte[]) field.val) {
+                    sb.append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+                }
+                break;
+            default:
+                throw new IOException("The data tuple from JdbcResolver is corrupted");
+        }
+    }
+
+    private static boolean isWideRange(int year) {
+        return year < 1 || year > 9999;
+    }
+
+    private static void appendEscaped(String value, StringBuilder sb) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.greenplum.pxf.plugins.jdbc.writercallable;
+
+import org.apache.commons.lang.StringUtils;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.plugins.jdbc.JdbcBasePlugin;
+import org.greenplum.pxf.plugins.jdbc.JdbcResolver;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * This writer INSERTs the rows of a batch with statements of multiple rows of
+ * VALUES, built from the single-row INSERT query.
+ * <p>
+ * The number of rows of a statement is limited so that it has at most
+ * {@link #MAX_PARAMETERS} parameters. The statement of the maximum number of
+ * rows is prepared once per connection: it is reused for all the batches when
+ * the writer is given the statement of the query, and prepared for every batch
+ * when the writer opens a connection for every batch.
+ */
+class ValuesWriterCallable extends BulkWriterCallable {
+
+    // below the 2100 parameters of SQL Server, the lowest limit of the supported databases
+    static final int MAX_PARAMETERS = 2000;
+
+    private static final String VALUES_KEYWORD = " VALUES ";
+
+    private final String insertPrefix;
+    private final String valuesTuple;
+    private final int columnCount;
+    private final int rowsPerStatement;
+    private PreparedStatement fullStatement;
+
+    ValuesWriterCallable(JdbcBasePlugin plugin, String query, PreparedStatement statement, int batchSize) {
+        super(plugin, query, statement, batchSize);
+        // the placeholders are the last part of the query
+        int valuesIndex = query.lastIndexOf(VALUES_KEYWORD);
+        if (valuesIndex < 0) {
+            throw new IllegalArgumentException("The provided SQL query is not an INSERT query with VALUES");
+        }
+        insertPrefix = query.substring(0, valuesIndex + VALUES_KEYWORD.length());
+        valuesTuple = query.substring(valuesIndex + VALUES_KEYWORD.length());
+        columnCount = Math.max(1, StringUtils.countMatches(valuesTuple, "?"));
+        rowsPerStatement = Math.max(1, Math.min(batchSize, MAX_PARAMETERS / columnCount));
+    }
+
+    @Override
+    protected void load(PreparedStatement statement, List<OneRow> rows) throws IOException, SQLException {
+        Connection connection = statement.getConnection();
+        for (int start = 0; start < rows.size(); start += rowsPerStatement) {
+            int count = Math.min(rowsPerStatement, rows.size() - start);
+            PreparedStatement valuesStatement;
+            if (count == rowsPerStatement) {
+                if (fullStatement == null) {
+                    fullStatement = plugin.getPreparedStatement(connection, buildQuery(count));
+                }
+                valuesStatement = fullStatement;
+            } else {
+                valuesStatement = plugin.getPreparedStatement(connection, buildQuery(count));
+            }
+
+            try {
+                for (int i = 0; i < count; i++) {
+                    JdbcResolver.decodeOneRowToPreparedStatement(rows.get(start + i), valuesStatement, i * columnCount + 1);
+                }
+                valuesStatement.executeUpdate();
+            } finally {
+                if (valuesStatement != fullStatement) {
+                    valuesStatement.close();
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void closeStatements() throws SQLException {
+        if (fullStatement != null) {
+            fullStatement.close();
+            fullStatement = null;
+        }
+    }
+
+    /**
+     * @param rows the number of rows
+     * @return the INSERT query with the VALUES of the given number of rows
+     */
+    String buildQuery(int rows) {
+        StringBuilder sb = new StringBuilder(insertPrefix.length() + rows * (valuesTuple.length() + 2))
+                .append(insertPrefix);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(valuesTuple);
+        }
+        return sb.toString();
+    }
+}
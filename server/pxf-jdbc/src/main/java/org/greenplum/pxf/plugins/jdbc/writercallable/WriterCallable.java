@@ -52,4 +52,13 @@ public interface WriterCallable extends Callable<SQLException> {
      */
     @Override
     SQLException call() throws Exception;
+
+    /**
+     * Release the resources that this WriterCallable keeps across calls, such as the statements prepared on the
+     * connection of its statement. Must be called once, after the last call() and before the connection is closed.
+     *
+     * @throws SQLException if a resource can not be released
+     */
+    default void close() throws SQLException {
+    }
 }
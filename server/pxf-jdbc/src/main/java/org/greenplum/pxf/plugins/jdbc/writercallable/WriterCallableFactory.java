@@ -30,6 +30,7 @@ import java.sql.PreparedStatement;
 public class WriterCallableFactory {
 
     private int batchSize;
+    private BulkLoad bulkLoad;
     private JdbcBasePlugin plugin;
     private String query;
     private PreparedStatement statement;
@@ -39,9 +40,19 @@ public class WriterCallableFactory {
      *
      */
     public WriterCallableFactory(JdbcBasePlugin plugin, String query, PreparedStatement statement, int batchSize, int poolSize) {
+        this(plugin, query, statement, batchSize, poolSize, BulkLoad.BATCH);
+    }
+
+    /**
+     * Create a new instance of the factory of writers using the given bulk load.
+     *
+     * @param bulkLoad the bulk load, the query must be the query of the bulk load
+     */
+    public WriterCallableFactory(JdbcBasePlugin plugin, String query, PreparedStatement statement, int batchSize, int poolSize, BulkLoad bulkLoad) {
         this.plugin = plugin;
         this.query = query;
         this.batchSize = batchSize;
+        this.bulkLoad = bulkLoad;
 
         if (poolSize == 1) {
             this.statement = statement;
@@ -54,7 +65,27 @@ public class WriterCallableFactory {
      * @return an implementation of WriterCallable, chosen based on parameters that were set for this factory
      */
     public WriterCallable get() {
+        return get(statement);
+    }
 
+    /**
+     * Get an instance of WriterCallable that uses the given statement
+     *
+     * @param statement the statement to use, or null to use a new connection for every call
+     * @return an implementation of WriterCallable, chosen based on parameters that were set for this factory
+     */
+    public WriterCallable get(PreparedStatement statement) {
+
+        switch (bulkLoad) {
+            case VALUES:
+                return new ValuesWriterCallable(plugin, query, statement, batchSize);
+            case COPY:
+                return new CopyWriterCallable(plugin, query, statement, batchSize);
+            case LOAD_DATA:
+                return new LoadDataWriterCallable(plugin, query, statement, batchSize);
+            default:
+                break;
+        }
         if (batchSize > 1) {
             return new BatchWriterCallable(plugin, query, statement, batchSize);
         }
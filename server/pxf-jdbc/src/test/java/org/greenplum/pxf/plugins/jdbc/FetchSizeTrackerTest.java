@@ -0,0 +1,169 @@
+package org.greenplum.pxf.plugins.jdbc;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class FetchSizeTrackerTest {
+
+    private ResultSet resultSet;
+    private ResultSetMetaData metaData;
+    private FetchMemoryBudget budget;
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        resultSet = mock(ResultSet.class);
+        metaData = mock(ResultSetMetaData.class);
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        when(metaData.getColumnCount()).thenReturn(2);
+        budget = new FetchMemoryBudget();
+    }
+
+    @Test
+    public void testFetchesAreCounted() throws SQLException {
+        when(resultSet.next()).thenReturn(true, true, true, true, false);
+        FetchSizeTracker tracker = new FetchSizeTracker(resultSet, 2, false, 0, 0, "default", budget);
+
+        int rows = 0;
+        while (tracker.next()) {
+            rows++;
+        }
+
+        assertEquals(4, rows);
+        // 2 fetches of 2 rows, and a last fetch without rows
+        assertEquals(3, tracker.close());
+        verify(resultSet, never()).setFetchSize(anyInt());
+        verify(resultSet, never()).getObject(anyInt());
+    }
+
+    @Test
+    public void testFetchesAreNotCountedWhenStreaming() throws SQLException {
+        when(resultSet.next()).thenReturn(true, false);
+        FetchSizeTracker tracker = new FetchSizeTracker(resultSet, Integer.MIN_VALUE, true, 1000, 0, "default", budget);
+
+        assertTrue(tracker.next());
+        assertFalse(tracker.next());
+        assertEquals(0, tracker.close());
+        verify(resultSet, never()).getMetaData();
+        verify(resultSet, never()).setFetchSize(anyInt());
+    }
+
+    @Test
+    public void testFetchSizeIsAdaptedToRowSize() throws SQLException {
+        when(resultSet.next()).thenReturn(true, true, true, false);
+        // 16 bytes per row and 2 x 16 bytes per value, and a varchar(48) and a varbinary(24)
+        when(metaData.getColumnType(1)).thenReturn(Types.VARCHAR);
+        when(metaData.getPrecision(1)).thenReturn(48);
+        when(metaData.getColumnType(2)).thenReturn(Types.VARBINARY);
+        when(metaData.getPrecision(2)).thenReturn(24);
+        FetchSizeTracker tracker = new FetchSizeTracker(resultSet, 2, true, 10000, 0, "default", budget);
+        // the first fetch of 2 rows is reserved
+        assertEquals(2 * 120, budget.getReservedBytes("default"));
+
+        assertTrue(tracker.next());
+        assertTrue(tracker.next());
+        assertTrue(tracker.next());
+        assertFalse(tracker.next());
+
+        // rows of 16 + 32 + 48 + 24 = 120 bytes
+        verify(resultSet).setFetchSize(10000 / 120);
+        assertEquals(10000, budget.getReservedBytes("default"));
+        assertEquals(2, tracker.close());
+        assertEquals(0, budget.getReservedBytes("default"));
+        // the values are not read to estimate the size of the rows
+        verify(resultSet, never()).getObject(anyInt());
+    }
+
+    @Test
+    public void testRowSizeOfColumnsWithoutDeclaredWidth() throws SQLException {
+        when(resultSet.next()).thenReturn(true, true, false);
+        // a LONG column of Oracle, that can only be read once
+        when(metaData.getColumnType(1)).thenReturn(Types.LONGVARCHAR);
+        when(metaData.getPrecision(1)).thenReturn(0);
+        when(metaData.getColumnDisplaySize(1)).thenReturn(Integer.MAX_VALUE);
+        when(metaData.getColumnType(2)).thenReturn(Types.BIGINT);
+        FetchSizeTracker tracker = new FetchSizeTracker(resultSet, 1, true, 10000, 0, "default", budget);
+
+        assertTrue(tracker.next());
+        assertTrue(tracker.next());
+        assertFalse(tracker.next());
+
+        // rows of 16 + 32 + 1024 + 8 = 1080 bytes
+        verify(resultSet).setFetchSize(10000 / 1080);
+        verify(resultSet, never()).getObject(anyInt());
+        verify(resultSet, never()).getString(anyInt());
+        tracker.close();
+    }
+
+    @Test
+    public void testFetchSizeIsLimitedByMemoryOfServer() throws SQLException {
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(metaData.getColumnType(1)).thenReturn(Types.CHAR);
+        when(metaData.getPrecision(1)).thenReturn(48);
+        when(metaData.getColumnType(2)).thenReturn(Types.INTEGER);
+        // another read of the server reserved most of the memory
+        assertEquals(700, budget.reserve("default", 700, 100, 1000));
+        FetchSizeTracker tracker = new FetchSizeTracker(resultSet, 1, true, 10000, 1000, "default", budget);
+
+        assertTrue(tracker.next());
+        assertTrue(tracker.next());
+        assertFalse(tracker.next());
+
+        // rows of 100 bytes, the remaining 300 bytes are granted
+        verify(resultSet).setFetchSize(3);
+        assertEquals(1000, budget.getReservedBytes("default"));
+        tracker.close();
+        assertEquals(700, budget.getReservedBytes("default"));
+    }
+
+    @Test
+    public void testConfiguredFetchSizeIsKeptWhenMemoryOfServerIsExhausted() throws SQLException {
+        when(resultSet.next()).thenReturn(true, true, true, false);
+        when(metaData.getColumnType(1)).thenReturn(Types.CHAR);
+        when(metaData.getPrecision(1)).thenReturn(48);
+        when(metaData.getColumnType(2)).thenReturn(Types.INTEGER);
+        // another read of the server reserved all the memory
+        assertEquals(1000, budget.reserve("default", 1000, 100, 1000));
+        FetchSizeTracker tracker = new FetchSizeTracker(resultSet, 2, true, 10000, 1000, "default", budget);
+        // the rows of the first fetch are counted beyond the limit
+        assertEquals(1200, budget.getReservedBytes("default"));
+
+        assertTrue(tracker.next());
+        assertTrue(tracker.next());
+        assertTrue(tracker.next());
+        assertFalse(tracker.next());
+
+        // rows of 100 bytes, the fetch size does not fall below the configured one
+        verify(resultSet, never()).setFetchSize(anyInt());
+        assertEquals(2, tracker.getFetchSize());
+        assertEquals(1200, budget.getReservedBytes("default"));
+        assertEquals(2, tracker.close());
+        assertEquals(1000, budget.getReservedBytes("default"));
+    }
+
+    @Test
+    public void testBudgetReservesAtLeastOneRow() {
+        assertEquals(800, budget.reserve("default", 800, 100, 1000));
+        assertEquals(200, budget.reserve("default", 800, 100, 1000));
+        assertEquals(100, budget.reserve("default", 800, 100, 1000));
+        assertEquals(800, budget.reserve("other", 800, 100, 1000));
+        assertEquals(1100, budget.getReservedBytes("default"));
+
+        budget.release("default", 1100);
+        assertEquals(0, budget.getReservedBytes("default"));
+        assertEquals(5000, budget.reserve("default", 5000, 100, 0));
+    }
+}
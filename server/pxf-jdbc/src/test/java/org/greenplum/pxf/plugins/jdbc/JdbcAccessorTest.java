@@ -1,5 +1,8 @@
 package org.greenplum.pxf.plugins.jdbc;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.hadoop.conf.Configuration;
 import org.greenplum.pxf.api.error.PxfRuntimeException;
 import org.greenplum.pxf.api.model.RequestContext;
@@ -21,6 +24,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -300,6 +304,65 @@ public class JdbcAccessorTest {
         assertEquals(expected, queryPassed.getValue());
     }
 
+    @Test
+    public void testReadFragmentsFromQueryWithCachedQueryTemplate() throws Exception {
+        String serversDirectory = new File(this.getClass().getClassLoader().getResource("servers").toURI()).getCanonicalPath();
+        configuration.set("pxf.config.server.directory", serversDirectory + File.separator + "test-server");
+        context.setDataSource("query:testquery");
+        context.addOption("PARTITION_BY", "count:int");
+        context.addOption("RANGE", "1:10");
+        context.addOption("INTERVAL", "1");
+        ArgumentCaptor<String> queryPassed = ArgumentCaptor.forClass(String.class);
+        when(mockStatement.executeQuery(queryPassed.capture())).thenReturn(mockResultSet);
+        wireMocksForReadWithCreateStatement();
+
+        JdbcQueryCache queryCache = new JdbcQueryCache(new PxfJdbcProperties());
+        for (long i = 1; i <= 2; i++) {
+            context.setFragmentMetadata(new IntPartition("count", i, i + 1));
+            accessor = new JdbcAccessor(mockConnectionManager, mockSecureLogin, Metrics.globalRegistry, queryCache,
+                    new FetchMemoryBudget());
+            accessor.setRequestContext(context);
+            accessor.afterPropertiesSet();
+            accessor.openForRead();
+        }
+
+        String expected = "SELECT  FROM (SELECT dept.name, count(), max(emp.salary)\n" +
+                "FROM dept JOIN emp\n" +
+                "ON dept.id = emp.dept_id\n" +
+                "GROUP BY dept.name) pxfsubquery WHERE count >= ";
+        assertEquals(Arrays.asList(expected + "1 AND count < 2", expected + "2 AND count < 3"), queryPassed.getAllValues());
+        // the metadata is only looked up for the first fragment
+        verify(mockMetaData, times(1)).getDatabaseProductName();
+        verify(mockMetaData, times(1)).getExtraNameCharacters();
+    }
+
+    @Test
+    public void testReadRecordsFetchesOfQuery() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        context.setServerName("test-server");
+        configuration.set("jdbc.statement.fetchSize", "2");
+        when(mockStatement.executeQuery(any())).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true, true, true, false);
+        wireMocksForReadWithCreateStatement();
+
+        accessor = new JdbcAccessor(mockConnectionManager, mockSecureLogin, registry,
+                new JdbcQueryCache(new PxfJdbcProperties()), new FetchMemoryBudget());
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        accessor.openForRead();
+        int rows = 0;
+        while (accessor.readNextObject() != null) {
+            rows++;
+        }
+        accessor.closeForRead();
+
+        assertEquals(3, rows);
+        DistributionSummary fetches = registry.find(JdbcAccessor.READ_FETCHES_SUMMARY).tag("server", "test-server").summary();
+        assertEquals(1, fetches.count());
+        assertEquals(2, fetches.totalAmount());
+        verify(mockStatement).setFetchSize(2);
+    }
+
     private void wireMocksForReadWithCreateStatement() throws SQLException {
         wireMocksForRead();
         when(mockConnection.createStatement()).thenReturn(mockStatement);
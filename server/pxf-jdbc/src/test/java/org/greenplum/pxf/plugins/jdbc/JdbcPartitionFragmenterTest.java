@@ -20,21 +20,38 @@ package org.greenplum.pxf.plugins.jdbc;
  */
 
 import org.apache.hadoop.conf.Configuration;
+import org.greenplum.pxf.api.error.PxfRuntimeException;
 import org.greenplum.pxf.api.model.Fragment;
 import org.greenplum.pxf.api.model.Fragmenter;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.security.SecureLogin;
+import org.greenplum.pxf.plugins.jdbc.partitioning.IntPartition;
+import org.greenplum.pxf.plugins.jdbc.utils.ConnectionManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class JdbcPartitionFragmenterTest {
 
     private Configuration configuration;
     private RequestContext context;
+    private ConnectionManager mockConnectionManager;
 
     @BeforeEach
     public void setUp() {
@@ -43,6 +60,7 @@ public class JdbcPartitionFragmenterTest {
         context.setConfig("default");
         context.setDataSource("table");
         context.setUser("test-user");
+        mockConnectionManager = mock(ConnectionManager.class);
     }
 
     @Test
@@ -71,4 +89,62 @@ public class JdbcPartitionFragmenterTest {
         fragmenter.setRequestContext(context);
         assertThrows(IllegalArgumentException.class, fragmenter::afterPropertiesSet);
     }
+
+    @Test
+    public void testAutoPartitionOfQueryIsSingleFragment() throws SQLException {
+        context.setDataSource("query:report");
+        context.addOption("PARTITION_BY", "auto");
+        List<Fragment> fragments = getAutoPartitionedFragments();
+
+        assertEquals(1, fragments.size());
+        verify(mockConnectionManager, never()).getConnection(any(), any(), any(), anyBoolean(), any(), any());
+    }
+
+    @Test
+    public void testPartitionByWithoutRangeIsPlanned() throws SQLException {
+        context.addOption("PARTITION_BY", "id:int");
+        context.setTotalSegments(4);
+
+        Connection mockConnection = mock(Connection.class);
+        DatabaseMetaData mockMetaData = mock(DatabaseMetaData.class);
+        Statement mockStatement = mock(Statement.class);
+        ResultSet mockMinMax = mock(ResultSet.class);
+        when(mockConnectionManager.getConnection(any(), any(), any(), anyBoolean(), any(), any())).thenReturn(mockConnection);
+        when(mockConnection.getMetaData()).thenReturn(mockMetaData);
+        when(mockConnection.createStatement()).thenReturn(mockStatement);
+        when(mockStatement.executeQuery("SELECT MIN(id), MAX(id) FROM table")).thenReturn(mockMinMax);
+        when(mockMinMax.next()).thenReturn(true);
+        when(mockMinMax.getLong(1)).thenReturn(1L);
+        when(mockMinMax.getLong(2)).thenReturn(100L);
+
+        List<Fragment> fragments = getAutoPartitionedFragments();
+
+        // 4 partitions of the range, 2 outside of it and 1 for nulls
+        assertEquals(7, fragments.size());
+        IntPartition first = (IntPartition) fragments.get(2).getMetadata();
+        assertArrayEquals(new Long[]{1L, 26L}, first.getBoundaries());
+        verify(mockConnection).close();
+    }
+
+    @Test
+    public void testPlanningFailureFailsTheQuery() throws SQLException {
+        context.addOption("PARTITION_BY", "auto");
+        when(mockConnectionManager.getConnection(any(), any(), any(), anyBoolean(), any(), any()))
+                .thenThrow(new SQLException("connection refused"));
+
+        PxfRuntimeException e = assertThrows(PxfRuntimeException.class, this::getAutoPartitionedFragments);
+        assertEquals("Failed to plan the partitions of table table: connection refused", e.getMessage());
+    }
+
+    private List<Fragment> getAutoPartitionedFragments() {
+        configuration.set("jdbc.driver", "org.greenplum.pxf.plugins.jdbc.FakeJdbcDriver");
+        configuration.set("jdbc.url", "test-url");
+        context.setConfiguration(configuration);
+
+        JdbcPartitionFragmenter fragmenter = new JdbcPartitionFragmenter(
+                () -> new JdbcBasePlugin(mockConnectionManager, mock(SecureLogin.class)));
+        fragmenter.setRequestContext(context);
+        fragmenter.afterPropertiesSet();
+        return fragmenter.getFragments();
+    }
 }
@@ -0,0 +1,92 @@
+package org.greenplum.pxf.plugins.jdbc;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class JdbcQueryCacheTest {
+
+    private JdbcQueryCache cache;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    public void setup() {
+        cache = new JdbcQueryCache(new PxfJdbcProperties());
+    }
+
+    @Test
+    public void testQueryFileIsReadAgainWhenModified() throws Exception {
+        File queryFile = tempDir.resolve("query.sql").toFile();
+        FileUtils.writeStringToFile(queryFile, "SELECT 1", Charset.defaultCharset());
+
+        String text = cache.getQueryText(queryFile);
+        assertEquals("SELECT 1", text);
+        assertSame(text, cache.getQueryText(queryFile));
+
+        FileUtils.writeStringToFile(queryFile, "SELECT 2", Charset.defaultCharset());
+        assertTrue(queryFile.setLastModified(queryFile.lastModified() + 2000));
+        assertEquals("SELECT 2", cache.getQueryText(queryFile));
+    }
+
+    @Test
+    public void testMissingQueryFileIsNotCached() {
+        File queryFile = tempDir.resolve("missing.sql").toFile();
+
+        assertThrows(FileNotFoundException.class, () -> cache.getQueryText(queryFile));
+        assertThrows(FileNotFoundException.class, () -> cache.getQueryText(queryFile));
+    }
+
+    @Test
+    public void testSelectQueryTemplateIsBuiltOnce() throws Exception {
+        AtomicInteger built = new AtomicInteger();
+        SQLQueryBuilder.SelectQueryTemplate template = mock(SQLQueryBuilder.SelectQueryTemplate.class);
+        JdbcQueryCache.SelectQueryTemplateBuilder builder = () -> {
+            built.incrementAndGet();
+            return template;
+        };
+
+        assertSame(template, cache.getSelectQueryTemplate(key("a0c20s1d1o5"), builder));
+        assertSame(template, cache.getSelectQueryTemplate(key("a0c20s1d1o5"), builder));
+        assertEquals(1, built.get());
+
+        cache.getSelectQueryTemplate(key("a0c20s1d2o5"), builder);
+        assertEquals(2, built.get());
+    }
+
+    @Test
+    public void testCacheDisabled() throws Exception {
+        PxfJdbcProperties properties = new PxfJdbcProperties();
+        properties.getQueryCache().setMaxSize(0);
+        cache = new JdbcQueryCache(properties);
+        AtomicInteger built = new AtomicInteger();
+        JdbcQueryCache.SelectQueryTemplateBuilder builder = () -> {
+            built.incrementAndGet();
+            return mock(SQLQueryBuilder.SelectQueryTemplate.class);
+        };
+
+        cache.getSelectQueryTemplate(key(null), builder);
+        cache.getSelectQueryTemplate(key(null), builder);
+        assertEquals(2, built.get());
+    }
+
+    private JdbcQueryCache.SelectQueryKey key(String filter) {
+        return new JdbcQueryCache.SelectQueryKey("default", "jdbc:postgresql://localhost/test", "sales", null,
+                Collections.emptyList(), filter, null);
+    }
+}
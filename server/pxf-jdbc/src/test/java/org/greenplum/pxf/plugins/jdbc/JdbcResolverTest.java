@@ -1,5 +1,6 @@
 package org.greenplum.pxf.plugins.jdbc;
 
+import org.greenplum.pxf.api.GreenplumDateTime;
 import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.io.DataType;
@@ -12,11 +13,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.postgresql.PGResultSetMetaData;
 
 import java.io.IOException;
 import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.text.ParseException;
@@ -30,8 +33,10 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -227,6 +232,80 @@ class JdbcResolverTest {
         assertEquals(uuid, oneField.val);
     }
 
+    @Test
+    void getFieldsWithColumnReadersTest() throws SQLException {
+        when(row.getData()).thenReturn(result);
+        when(result.findColumn("id")).thenReturn(1);
+        when(result.findColumn("name")).thenReturn(2);
+        when(result.findColumn("created")).thenReturn(4);
+        when(result.getInt(1)).thenReturn(5, 0);
+        when(result.wasNull()).thenReturn(false, true);
+        when(result.getString(2)).thenReturn("first", "second");
+        when(result.getTimestamp(4)).thenReturn(Timestamp.valueOf("2020-01-02 03:04:05.12"), (Timestamp) null);
+        columnDescriptors.add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null));
+        columnDescriptors.add(new ColumnDescriptor("name", DataType.TEXT.getOID(), 1, "text", null));
+        columnDescriptors.add(new ColumnDescriptor("amount", DataType.NUMERIC.getOID(), 2, "numeric", null, false));
+        columnDescriptors.add(new ColumnDescriptor("created", DataType.TIMESTAMP.getOID(), 3, "timestamp", null));
+        context.setTupleDescription(columnDescriptors);
+        resolver.columns = context.getTupleDescription();
+        resolver.useColumnReaders = true;
+
+        List<OneField> first = resolver.getFields(row);
+        assertEquals(4, first.size());
+        assertEquals(5, first.get(0).val);
+        assertEquals("first", first.get(1).val);
+        assertNull(first.get(2).val);
+        assertEquals(DataType.NUMERIC.getOID(), first.get(2).type);
+        assertEquals("2020-01-02 03:04:05.12", first.get(3).val);
+
+        // the fields are reused for the next row
+        List<OneField> second = resolver.getFields(row);
+        assertSame(first, second);
+        assertNull(second.get(0).val);
+        assertEquals("second", second.get(1).val);
+        assertNull(second.get(3).val);
+        verify(result).findColumn("id");
+    }
+
+    @Test
+    void getFieldsWithColumnReadersFromPostgresTextTest() throws SQLException {
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(row.getData()).thenReturn(result);
+        when(result.getMetaData()).thenReturn(metaData);
+        when(metaData.isWrapperFor(PGResultSetMetaData.class)).thenReturn(true);
+        when(result.findColumn("birth_date")).thenReturn(1);
+        when(metaData.getColumnTypeName(1)).thenReturn("date");
+        when(result.getString(1)).thenReturn("1977-12-11");
+        columnDescriptors.add(new ColumnDescriptor("birth_date", DataType.DATE.getOID(), 0, "date", null));
+        context.setTupleDescription(columnDescriptors);
+        resolver.columns = context.getTupleDescription();
+        resolver.useColumnReaders = true;
+
+        assertEquals("1977-12-11", resolver.getFields(row).get(0).val);
+    }
+
+    @Test
+    void getFieldsWithColumnReadersUnsupportedTypeTest() throws SQLException {
+        when(row.getData()).thenReturn(result);
+        columnDescriptors.add(new ColumnDescriptor("tz", DataType.TIMESTAMP_WITH_TIME_ZONE.getOID(), 0, "timestamptz", null));
+        context.setTupleDescription(columnDescriptors);
+        resolver.columns = context.getTupleDescription();
+        resolver.useColumnReaders = true;
+
+        assertThrows(UnsupportedOperationException.class, () -> resolver.getFields(row));
+    }
+
+    @Test
+    void formatDateTimeLikeGreenplumFormattersTest() {
+        for (String value : new String[]{"2020-01-02T03:04:05", "1999-12-31T23:59:59.000001", "0001-01-01T00:00:00.1",
+                "9999-12-31T23:59:59.999999999", "2020-06-01T10:00:00.120", "+10000-01-01T00:00:00.5"}) {
+            LocalDateTime timestamp = LocalDateTime.parse(value);
+            assertEquals(timestamp.format(GreenplumDateTime.DATETIME_FORMATTER), ColumnReaders.formatTimestamp(timestamp));
+            assertEquals(timestamp.toLocalDate().format(GreenplumDateTime.DATE_FORMATTER),
+                    ColumnReaders.formatDate(timestamp.toLocalDate()));
+        }
+    }
+
     @Test
     void setFieldDateWithWideRangeTest() throws ParseException {
         isDateWideRange = true;
@@ -24,6 +24,9 @@ class PxfJdbcPropertiesTest {
         assertThat(this.properties.getConnection().getCleanupSleepInterval()).isEqualTo(Duration.ofMinutes(5));
         assertThat(this.properties.getConnection().getCleanupTimeout()).isEqualTo(Duration.ofHours(24));
         assertThat(this.properties.getConnection().getPoolExpirationTimeout()).isEqualTo(Duration.ofHours(6));
+        assertNotNull(properties.getQueryCache());
+        assertThat(this.properties.getQueryCache().getMaxSize()).isEqualTo(1000);
+        assertThat(this.properties.getQueryCache().getExpiration()).isEqualTo(Duration.ofHours(1));
     }
 
     @Test
@@ -53,6 +56,15 @@ class PxfJdbcPropertiesTest {
         assertThat(this.properties.getConnection().getPoolExpirationTimeout()).isEqualTo(Duration.ofMinutes(5));
     }
 
+    @Test
+    void testQueryCacheBinding() {
+        bind("pxf.jdbc.query-cache.max-size", "10");
+        assertThat(this.properties.getQueryCache().getMaxSize()).isEqualTo(10);
+
+        bind("pxf.jdbc.query-cache.expiration", "30");
+        assertThat(this.properties.getQueryCache().getExpiration()).isEqualTo(Duration.ofMinutes(30));
+    }
+
     private void bind(String name, String value) {
         bind(Collections.singletonMap(name, value));
     }
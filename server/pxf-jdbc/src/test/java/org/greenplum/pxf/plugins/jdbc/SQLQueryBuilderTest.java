@@ -228,6 +228,32 @@ public class SQLQueryBuilderTest {
         assertEquals(SQL + " WHERE id > 5 AND grade IS NULL", query);
     }
 
+    @Test
+    public void testSelectQueryTemplateWithFilterAndPartition() throws Exception {
+        // id > 5
+        context.setFilterString("a0c20s1d5o2");
+        context.addOption("PARTITION_BY", "grade:enum");
+        context.addOption("RANGE", "excellent:good:general:bad");
+
+        when(mockMetaData.getDatabaseProductName()).thenReturn("mysql");
+        when(mockMetaData.getExtraNameCharacters()).thenReturn("");
+
+        Fragmenter fragmenter = getFragmenter(context);
+        List<Fragment> fragments = fragmenter.getFragments();
+
+        SQLQueryBuilder builder = new SQLQueryBuilder(context, mockMetaData);
+        builder.autoSetQuoteString();
+        SQLQueryBuilder.SelectQueryTemplate template = builder.buildSelectQueryTemplate();
+
+        // the template is completed with the constraints of every fragment
+        context.setFragmentMetadata(fragments.get(0).getMetadata());
+        assertEquals(SQL + " WHERE id > 5 AND grade = 'excellent'", template.toQuery(context));
+        assertEquals(builder.buildSelectQuery(), template.toQuery(context));
+
+        context.setFragmentMetadata(fragments.get(5).getMetadata());
+        assertEquals(SQL + " WHERE id > 5 AND grade IS NULL", template.toQuery(context));
+    }
+
     @Test
     public void testFilterAndPartitionWithOrPredicate() throws Exception {
         // cdate > '2008-02-01' or amt > 1200
@@ -532,6 +558,18 @@ public class SQLQueryBuilderTest {
         assertEquals("SELECT id, cdate, amt, grade, b FROM sales WHERE NOT (b)", builder.buildSelectQuery());
     }
 
+    @Test
+    public void testBulkLoadQueries() throws Exception {
+        when(mockMetaData.getDatabaseProductName()).thenReturn("mysql");
+
+        SQLQueryBuilder builder = new SQLQueryBuilder(context, mockMetaData);
+
+        assertEquals("INSERT INTO sales(id, cdate, amt, grade, b) VALUES (?, ?, ?, ?, ?)", builder.buildInsertQuery());
+        assertEquals("COPY sales(id, cdate, amt, grade, b) FROM STDIN", builder.buildCopyQuery());
+        assertEquals("LOAD DATA LOCAL INFILE 'pxf' INTO TABLE sales CHARACTER SET utf8mb4 (id, cdate, amt, grade, b)",
+                builder.buildLoadDataQuery());
+    }
+
     private Fragmenter getFragmenter(RequestContext context) {
         JdbcPartitionFragmenter fragmenter = new JdbcPartitionFragmenter();
         fragmenter.setRequestContext(context);
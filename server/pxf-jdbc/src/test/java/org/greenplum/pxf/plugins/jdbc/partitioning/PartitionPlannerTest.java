@@ -0,0 +1,215 @@
+package org.greenplum.pxf.plugins.jdbc.partitioning;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PartitionPlannerTest {
+
+    private Connection connection;
+    private DatabaseMetaData metaData;
+    private Statement statement;
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        connection = mock(Connection.class);
+        metaData = mock(DatabaseMetaData.class);
+        statement = mock(Statement.class);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(connection.createStatement()).thenReturn(statement);
+        when(metaData.storesLowerCaseIdentifiers()).thenReturn(true);
+    }
+
+    @Test
+    public void testPlanIntPartitions() throws SQLException {
+        mockMinMax("SELECT MIN(id), MAX(id) FROM orders", 1L, 100L);
+
+        PartitionPlanner.PartitionPlan plan = newPlanner().plan("orders", "id", PartitionType.INT, 4, 100);
+
+        assertNotNull(plan);
+        assertEquals("1:101", plan.getRange());
+        assertEquals("25", plan.getInterval());
+        // 4 partitions of the range, 2 outside of it and 1 for nulls
+        assertEquals(7, plan.getFragmentsMetadata().size());
+    }
+
+    @Test
+    public void testRangeSmallerThanPartitions() throws SQLException {
+        mockMinMax("SELECT MIN(id), MAX(id) FROM orders", 1L, 2L);
+
+        PartitionPlanner.PartitionPlan plan = newPlanner().plan("orders", "id", PartitionType.INT, 4, 100);
+
+        assertNotNull(plan);
+        assertEquals("1:3", plan.getRange());
+        assertEquals("1", plan.getInterval());
+    }
+
+    @Test
+    public void testSinglePartitionIsNotPartitioned() throws SQLException {
+        assertNull(newPlanner().plan("orders", "id", PartitionType.INT, 1, 100));
+        verify(connection, never()).createStatement();
+    }
+
+    @Test
+    public void testEmptyTableIsNotPartitioned() throws SQLException {
+        ResultSet minMax = mock(ResultSet.class);
+        when(statement.executeQuery("SELECT MIN(id), MAX(id) FROM orders")).thenReturn(minMax);
+        when(minMax.next()).thenReturn(true);
+        when(minMax.wasNull()).thenReturn(true);
+
+        assertNull(newPlanner().plan("orders", "id", PartitionType.INT, 4, 100));
+    }
+
+    @Test
+    public void testIntRangeTooLargeIsNotPartitioned() throws SQLException {
+        mockMinMax("SELECT MIN(id), MAX(id) FROM orders", Long.MIN_VALUE, Long.MAX_VALUE);
+
+        assertNull(newPlanner().plan("orders", "id", PartitionType.INT, 4, 100));
+    }
+
+    @Test
+    public void testPlanDatePartitions() throws SQLException {
+        ResultSet minMax = mock(ResultSet.class);
+        when(statement.executeQuery("SELECT MIN(created), MAX(created) FROM orders")).thenReturn(minMax);
+        when(minMax.next()).thenReturn(true);
+        when(minMax.getTimestamp(1)).thenReturn(Timestamp.valueOf("2020-01-01 00:00:00"));
+        when(minMax.getTimestamp(2)).thenReturn(Timestamp.valueOf("2020-12-31 23:59:59"));
+
+        PartitionPlanner.PartitionPlan plan = newPlanner().plan("orders", "created", PartitionType.DATE, 4, 100);
+
+        assertNotNull(plan);
+        assertEquals("2020-01-01:2021-01-01", plan.getRange());
+        assertEquals("92:day", plan.getInterval());
+        assertEquals(7, plan.getFragmentsMetadata().size());
+    }
+
+    @Test
+    public void testPlanEnumPartitions() throws SQLException {
+        mockValues("SELECT color FROM orders WHERE color IS NOT NULL GROUP BY color ORDER BY color", "blue", "green", "red");
+
+        PartitionPlanner.PartitionPlan plan = newPlanner().plan("orders", "color", PartitionType.ENUM, 4, 3);
+
+        assertNotNull(plan);
+        assertEquals("blue:green:red", plan.getRange());
+        // 3 values, 1 for the other values and 1 for nulls
+        assertEquals(5, plan.getFragmentsMetadata().size());
+        verify(statement).setMaxRows(4);
+    }
+
+    @Test
+    public void testEnumWithTooManyValuesIsNotPartitioned() throws SQLException {
+        mockValues("SELECT color FROM orders WHERE color IS NOT NULL GROUP BY color ORDER BY color", "red", "green", "blue");
+
+        assertNull(newPlanner().plan("orders", "color", PartitionType.ENUM, 4, 2));
+    }
+
+    @Test
+    public void testChooseColumnFromIndexes() throws SQLException {
+        ResultSet columns = rows(new String[]{"COLUMN_NAME", "DATA_TYPE", "DECIMAL_DIGITS"},
+                new Object[]{"name", Types.VARCHAR, 0},
+                new Object[]{"amount", Types.NUMERIC, 2},
+                new Object[]{"created", Types.TIMESTAMP, 0},
+                new Object[]{"id", Types.NUMERIC, 0});
+        ResultSet primaryKey = rows(new String[]{"COLUMN_NAME", "KEY_SEQ"},
+                new Object[]{"name", 1});
+        ResultSet indexes = rows(new String[]{"COLUMN_NAME", "ORDINAL_POSITION"},
+                new Object[]{null, 0},
+                new Object[]{"amount", 1},
+                new Object[]{"name", 2},
+                new Object[]{"created", 1},
+                new Object[]{"id", 1});
+        when(metaData.getColumns(null, "sales", "orders", null)).thenReturn(columns);
+        when(metaData.getPrimaryKeys(null, "sales", "orders")).thenReturn(primaryKey);
+        when(metaData.getIndexInfo(null, "sales", "orders", false, true)).thenReturn(indexes);
+        ResultSet minMax = mock(ResultSet.class);
+        when(statement.executeQuery("SELECT MIN(created), MAX(created) FROM Sales.Orders")).thenReturn(minMax);
+        when(minMax.next()).thenReturn(true);
+        when(minMax.getTimestamp(1)).thenReturn(Timestamp.valueOf("2020-01-01 00:00:00"));
+        when(minMax.getTimestamp(2)).thenReturn(Timestamp.valueOf("2020-01-04 00:00:00"));
+
+        PartitionPlanner.PartitionPlan plan = newPlanner().plan("Sales.Orders", null, null, 2, 100);
+
+        assertNotNull(plan);
+        assertEquals("created", plan.getColumn());
+        assertEquals(PartitionType.DATE, plan.getType());
+        assertEquals("2020-01-01:2020-01-05", plan.getRange());
+        assertEquals("2:day", plan.getInterval());
+    }
+
+    @Test
+    public void testNoCandidateColumn() throws SQLException {
+        ResultSet columns = rows(new String[]{"COLUMN_NAME", "DATA_TYPE", "DECIMAL_DIGITS"},
+                new Object[]{"id", Types.INTEGER, 0});
+        when(metaData.getColumns(null, null, "orders", null)).thenReturn(columns);
+        when(metaData.getPrimaryKeys(null, null, "orders")).thenReturn(rows(new String[0]));
+        when(metaData.getIndexInfo(null, null, "orders", false, true)).thenReturn(rows(new String[0]));
+
+        assertNull(newPlanner().plan("orders", null, null, 2, 100));
+        verify(connection, never()).createStatement();
+    }
+
+    @Test
+    public void testGetPartitionType() {
+        assertEquals(PartitionType.INT, PartitionPlanner.getPartitionType(Types.BIGINT, 0));
+        assertEquals(PartitionType.INT, PartitionPlanner.getPartitionType(Types.DECIMAL, 0));
+        assertEquals(PartitionType.DATE, PartitionPlanner.getPartitionType(Types.DATE, 0));
+        assertNull(PartitionPlanner.getPartitionType(Types.DECIMAL, 2));
+        assertNull(PartitionPlanner.getPartitionType(Types.VARCHAR, 0));
+    }
+
+    private PartitionPlanner newPlanner() {
+        return new PartitionPlanner(connection);
+    }
+
+    private void mockMinMax(String query, long min, long max) throws SQLException {
+        ResultSet minMax = mock(ResultSet.class);
+        when(statement.executeQuery(query)).thenReturn(minMax);
+        when(minMax.next()).thenReturn(true);
+        when(minMax.getLong(1)).thenReturn(min);
+        when(minMax.getLong(2)).thenReturn(max);
+    }
+
+    private void mockValues(String query, String... values) throws SQLException {
+        ResultSet result = mock(ResultSet.class);
+        when(statement.executeQuery(query)).thenReturn(result);
+        AtomicInteger index = new AtomicInteger(-1);
+        when(result.next()).thenAnswer(invocation -> index.incrementAndGet() < values.length);
+        when(result.getString(1)).thenAnswer(invocation -> values[index.get()]);
+    }
+
+    /**
+     * Returns a result set with the given rows of values of the given columns.
+     */
+    private ResultSet rows(String[] columns, Object[]... rows) throws SQLException {
+        List<String> columnList = Arrays.asList(columns);
+        ResultSet result = mock(ResultSet.class);
+        AtomicInteger index = new AtomicInteger(-1);
+        when(result.next()).thenAnswer(invocation -> index.incrementAndGet() < rows.length);
+        when(result.getString(anyString())).thenAnswer(invocation ->
+                rows[index.get()][columnList.indexOf(invocation.<String>getArgument(0))]);
+        when(result.getInt(anyString())).thenAnswer(invocation ->
+                rows[index.get()][columnList.indexOf(invocation.<String>getArgument(0))]);
+        when(result.getShort(anyString())).thenAnswer(invocation ->
+                ((Integer) rows[index.get()][columnList.indexOf(invocation.<String>getArgument(0))]).shortValue());
+        return result;
+    }
+}
@@ -0,0 +1,257 @@
+package org.greenplum.pxf.plugins.jdbc.writercallable;
+
+import org.apache.commons.io.IOUtils;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.plugins.jdbc.JdbcBasePlugin;
+import org.greenplum.pxf.plugins.jdbc.utils.DbProduct;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BulkWriterCallableTest {
+
+    private static final String INSERT_QUERY = "INSERT INTO t(id, name) VALUES (?, ?)";
+
+    private JdbcBasePlugin plugin;
+    private Connection connection;
+    private PreparedStatement statement;
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        plugin = mock(JdbcBasePlugin.class);
+        connection = mock(Connection.class);
+        statement = mock(PreparedStatement.class);
+        when(statement.getConnection()).thenReturn(connection);
+    }
+
+    @Test
+    public void testEncodeRows() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        TextRowEncoder encoder = new TextRowEncoder(true);
+
+        encoder.encode(new OneRow(Arrays.asList(
+                new OneField(DataType.INTEGER.getOID(), 1),
+                new OneField(DataType.TEXT.getOID(), "a\tb\\c\nd\re"),
+                new OneField(DataType.BOOLEAN.getOID(), true),
+                new OneField(DataType.NUMERIC.getOID(), new BigDecimal("1E+3")),
+                new OneField(DataType.BYTEA.getOID(), new byte[]{0x0a, (byte) 0xff}),
+                new OneField(DataType.TIMESTAMP.getOID(), LocalDateTime.of(2020, 1, 2, 3, 4, 5)),
+                new OneField(DataType.TIMESTAMP.getOID(), Timestamp.valueOf("2020-01-02 03:04:05")),
+                new OneField(DataType.TEXT.getOID(), null))), sb);
+        encoder.encode(new OneRow(Arrays.asList(
+                new OneField(DataType.INTEGER.getOID(), 2),
+                new OneField(DataType.TEXT.getOID(), "\\N"))), sb);
+
+        assertEquals("1\ta\\tb\\\\c\\nd\\re\t1\t1000\t\\\\x0aff\t2020-01-02 03:04:05\t2020-01-02 03:04:05.0\t\\N\n" +
+                "2\t\\\\N\n", sb.toString());
+    }
+
+    @Test
+    public void testEncodeByteaNotSupported() {
+        TextRowEncoder encoder = new TextRowEncoder(false);
+        OneRow row = new OneRow(Arrays.asList(new OneField(DataType.BYTEA.getOID(), new byte[]{1})));
+
+        assertThrows(UnsupportedOperationException.class, () -> encoder.encode(row, new StringBuilder()));
+    }
+
+    @Test
+    public void testValuesWriterReusesStatementOfFullBatch() throws Exception {
+        PreparedStatement fullStatement = mock(PreparedStatement.class);
+        PreparedStatement partialStatement = mock(PreparedStatement.class);
+        when(plugin.getPreparedStatement(connection, "INSERT INTO t(id, name) VALUES (?, ?), (?, ?), (?, ?)"))
+                .thenReturn(fullStatement);
+        when(plugin.getPreparedStatement(connection, "INSERT INTO t(id, name) VALUES (?, ?), (?, ?)"))
+                .thenReturn(partialStatement);
+        WriterCallable writer = new ValuesWriterCallable(plugin, INSERT_QUERY, statement, 3);
+
+        for (int batch = 0; batch < 2; batch++) {
+            for (int i = 0; i < 3; i++) {
+                writer.supply(row(i));
+            }
+            assertTrue(writer.isCallRequired());
+            assertNull(writer.call());
+        }
+        writer.supply(row(7));
+        writer.supply(row(8));
+        assertFalse(writer.isCallRequired());
+        assertNull(writer.call());
+
+        verify(plugin, times(1)).getPreparedStatement(connection, "INSERT INTO t(id, name) VALUES (?, ?), (?, ?), (?, ?)");
+        verify(fullStatement, times(2)).executeUpdate();
+        verify(fullStatement, times(2)).setInt(5, 2);
+        verify(fullStatement, times(2)).setString(6, "row 2");
+        verify(fullStatement, never()).close();
+        verify(partialStatement).setInt(3, 8);
+        verify(partialStatement).executeUpdate();
+        verify(partialStatement).close();
+        verify(statement, never()).executeUpdate();
+
+        writer.close();
+        verify(fullStatement).close();
+        verify(statement, never()).close();
+    }
+
+    @Test
+    public void testValuesWriterWithConnectionPerCall() throws Exception {
+        PreparedStatement fullStatement = mock(PreparedStatement.class);
+        when(plugin.getConnection()).thenReturn(connection);
+        when(plugin.getPreparedStatement(connection, INSERT_QUERY)).thenReturn(statement);
+        when(plugin.getPreparedStatement(connection, "INSERT INTO t(id, name) VALUES (?, ?), (?, ?)"))
+                .thenReturn(fullStatement);
+        when(connection.getMetaData()).thenReturn(mock(DatabaseMetaData.class));
+        WriterCallable writer = new ValuesWriterCallable(plugin, INSERT_QUERY, null, 2);
+
+        for (int batch = 0; batch < 2; batch++) {
+            writer.supply(row(1));
+            writer.supply(row(2));
+            assertNull(writer.call());
+        }
+        writer.close();
+
+        // the statement of a full batch is closed with the connection of every call
+        verify(plugin, times(2)).getPreparedStatement(connection, "INSERT INTO t(id, name) VALUES (?, ?), (?, ?)");
+        verify(fullStatement, times(2)).executeUpdate();
+        verify(fullStatement, times(2)).close();
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    public void testValuesWriterLimitsParameters() throws Exception {
+        PreparedStatement valuesStatement = mock(PreparedStatement.class);
+        when(plugin.getPreparedStatement(eq(connection), anyString())).thenReturn(valuesStatement);
+        ValuesWriterCallable writer = new ValuesWriterCallable(plugin, INSERT_QUERY, statement, 1500);
+
+        for (int i = 0; i < 1500; i++) {
+            writer.supply(row(i));
+        }
+        assertNull(writer.call());
+
+        // 2 parameters per row
+        verify(plugin).getPreparedStatement(connection, writer.buildQuery(ValuesWriterCallable.MAX_PARAMETERS / 2));
+        verify(plugin).getPreparedStatement(connection, writer.buildQuery(1500 - ValuesWriterCallable.MAX_PARAMETERS / 2));
+        verify(valuesStatement, times(2)).executeUpdate();
+        assertEquals("INSERT INTO t(id, name) VALUES (?, ?)", writer.buildQuery(1));
+    }
+
+    @Test
+    public void testCopyWriter() throws Exception {
+        AtomicReference<String> data = mockCopy("COPY t(id, name) FROM STDIN");
+        WriterCallable writer = new CopyWriterCallable(plugin, "COPY t(id, name) FROM STDIN", statement, 10);
+
+        writer.supply(row(1));
+        writer.supply(row(2));
+        assertNull(writer.call());
+
+        assertEquals("1\trow 1\n2\trow 2\n", data.get());
+    }
+
+    @Test
+    public void testCopyWriterWritesDatesOfWideRange() throws Exception {
+        AtomicReference<String> data = mockCopy("COPY t(d, ts) FROM STDIN");
+        WriterCallable writer = new CopyWriterCallable(plugin, "COPY t(d, ts) FROM STDIN", statement, 10);
+
+        writer.supply(new OneRow(Arrays.asList(
+                new OneField(DataType.DATE.getOID(), LocalDate.of(-9, 12, 11)),
+                new OneField(DataType.TIMESTAMP.getOID(), LocalDateTime.of(-1233, 10, 19, 10, 11, 15, 456000000)))));
+        writer.supply(new OneRow(Arrays.asList(
+                new OneField(DataType.DATE.getOID(), LocalDate.of(456789, 12, 11)),
+                new OneField(DataType.TIMESTAMP.getOID(), LocalDateTime.of(123456, 10, 19, 11, 12, 13)))));
+        writer.supply(new OneRow(Arrays.asList(
+                new OneField(DataType.DATE.getOID(), LocalDate.of(1977, 12, 11)),
+                new OneField(DataType.TIMESTAMP.getOID(), LocalDateTime.of(1980, 8, 10, 17, 10, 20)))));
+        assertNull(writer.call());
+
+        assertEquals("0010-12-11 BC\t1234-10-19 10:11:15.456 BC\n" +
+                "456789-12-11 AD\t123456-10-19 11:12:13 AD\n" +
+                "1977-12-11\t1980-08-10 17:10:20\n", data.get());
+    }
+
+    @Test
+    public void testCopyWriterRequiresPostgresDriver() throws Exception {
+        WriterCallable writer = new CopyWriterCallable(plugin, "COPY t(id, name) FROM STDIN", statement, 10);
+
+        writer.supply(row(1));
+        SQLException e = writer.call();
+
+        assertNotNull(e);
+        assertEquals("BULK_LOAD=copy requires the PostgreSQL JDBC driver", e.getMessage());
+    }
+
+    @Test
+    public void testLoadDataWriterRequiresMysqlDriver() throws Exception {
+        WriterCallable writer = new LoadDataWriterCallable(plugin, "LOAD DATA LOCAL INFILE 'pxf' INTO TABLE t", statement, 10);
+
+        writer.supply(row(1));
+        SQLException e = writer.call();
+
+        assertNotNull(e);
+        assertEquals("BULK_LOAD=load_data requires the MySQL Connector/J driver", e.getMessage());
+        verify(statement, never()).executeUpdate();
+    }
+
+    @Test
+    public void testBulkLoadFromOption() {
+        assertEquals(BulkLoad.BATCH, BulkLoad.fromOption(null, DbProduct.POSTGRES));
+        assertEquals(BulkLoad.COPY, BulkLoad.fromOption("auto", DbProduct.POSTGRES));
+        assertEquals(BulkLoad.VALUES, BulkLoad.fromOption("AUTO", DbProduct.MYSQL));
+        assertEquals(BulkLoad.BATCH, BulkLoad.fromOption("auto", DbProduct.ORACLE));
+        assertEquals(BulkLoad.LOAD_DATA, BulkLoad.fromOption("load_data", DbProduct.MYSQL));
+        Exception e = assertThrows(IllegalArgumentException.class, () -> BulkLoad.fromOption("fast", DbProduct.MYSQL));
+        assertEquals("Option BULK_LOAD has incorrect value fast : must be one of auto, batch, values, copy or load_data",
+                e.getMessage());
+    }
+
+    /**
+     * Mocks the COPY API of the PostgreSQL driver, and returns the reference
+     * to the data read by the given COPY statement.
+     */
+    private AtomicReference<String> mockCopy(String copyQuery) throws Exception {
+        PGConnection pgConnection = mock(PGConnection.class);
+        CopyManager copyManager = mock(CopyManager.class);
+        when(connection.isWrapperFor(PGConnection.class)).thenReturn(true);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        AtomicReference<String> data = new AtomicReference<>();
+        when(copyManager.copyIn(eq(copyQuery), any(Reader.class))).thenAnswer(invocation -> {
+            data.set(IOUtils.toString(invocation.<Reader>getArgument(1)));
+            return 3L;
+        });
+        return data;
+    }
+
+    private OneRow row(int id) {
+        return new OneRow(Arrays.asList(
+                new OneField(DataType.INTEGER.getOID(), id),
+                new OneField(DataType.TEXT.getOID(), "row " + id)));
+    }
+}
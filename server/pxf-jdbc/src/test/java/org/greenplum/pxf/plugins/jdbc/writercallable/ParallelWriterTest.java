@@ -0,0 +1,155 @@
+package org.greenplum.pxf.plugins.jdbc.writercallable;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.plugins.jdbc.JdbcBasePlugin;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ParallelWriterTest {
+
+    private static final String QUERY = "INSERT INTO t VALUES (?)";
+
+    private MeterRegistry registry;
+    private JdbcBasePlugin plugin;
+    private Connection connection;
+    private PreparedStatement statement;
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        registry = new SimpleMeterRegistry();
+        plugin = mock(JdbcBasePlugin.class);
+        connection = mock(Connection.class);
+        statement = mock(PreparedStatement.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(plugin.getConnection()).thenReturn(connection);
+        when(plugin.getPreparedStatement(connection, QUERY)).thenReturn(statement);
+        when(statement.getConnection()).thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.supportsTransactions()).thenReturn(true);
+    }
+
+    @Test
+    public void testBatchesReuseConnectionOfWorker() throws Exception {
+        ParallelWriter writer = newWriter(10, 2, 2);
+        for (int i = 0; i < 95; i++) {
+            writer.write(row(i));
+        }
+        writer.close();
+
+        verify(statement, times(95)).addBatch();
+        verify(statement, times(10)).executeBatch();
+        // every worker opens at most one connection
+        verify(plugin, atMost(2)).getConnection();
+        verify(connection, atLeast(10)).commit();
+        verify(connection, atMost(2)).close();
+
+        long batches = 0;
+        for (Timer timer : registry.find(ParallelWriter.BATCH_TIMER).tags("server", "default").timers()) {
+            batches += timer.count();
+        }
+        assertEquals(10, batches);
+    }
+
+    @Test
+    public void testNoConnectionWithoutRows() throws Exception {
+        newWriter(10, 2, 2).close();
+
+        verify(plugin, times(0)).getConnection();
+    }
+
+    @Test
+    public void testLastBatchIsWrittenByIdleWorkers() throws Exception {
+        ParallelWriter writer = newWriter(10, 2, 2);
+        writer.write(row(1));
+        // the polls of the workers time out before the last batch is queued
+        Thread.sleep(250);
+        writer.close();
+
+        verify(statement).addBatch();
+        verify(statement).executeBatch();
+    }
+
+    @Test
+    public void testFirstFailureIsThrownByWrite() throws Exception {
+        SQLException failure = new SQLException("table is full");
+        when(statement.executeUpdate()).thenThrow(failure);
+        ParallelWriter writer = newWriter(1, 2, 1);
+
+        Exception e = assertThrows(SQLException.class, () -> {
+            // the failure of the first row is thrown before all the rows are written
+            for (int i = 0; i < 10000; i++) {
+                writer.write(row(i));
+                Thread.sleep(1);
+            }
+        });
+        assertSame(failure, e);
+        assertSame(failure, assertThrows(SQLException.class, writer::close));
+        verify(connection, atLeast(1)).close();
+    }
+
+    @Test
+    public void testWriteWaitsForQueuedBatches() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executed = new AtomicInteger();
+        when(statement.executeUpdate()).thenAnswer(invocation -> {
+            release.await();
+            return executed.incrementAndGet();
+        });
+        ParallelWriter writer = newWriter(1, 1, 1);
+
+        CountDownLatch written = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            try {
+                // one row is written by the worker, one is queued and one waits
+                for (int i = 0; i < 3; i++) {
+                    writer.write(row(i));
+                }
+                written.countDown();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        producer.start();
+
+        assertFalse(written.await(300, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(written.await(10, TimeUnit.SECONDS));
+        writer.close();
+        assertEquals(3, executed.get());
+    }
+
+    private ParallelWriter newWriter(int batchSize, int poolSize, int maxQueuedBatches) {
+        WriterCallableFactory factory = new WriterCallableFactory(plugin, QUERY, null, batchSize, poolSize);
+        return new ParallelWriter(plugin, QUERY, factory, batchSize, poolSize, maxQueuedBatches, registry, "default");
+    }
+
+    private OneRow row(int value) {
+        return new OneRow(Collections.singletonList(new OneField(DataType.INTEGER.getOID(), value)));
+    }
+}
@@ -0,0 +1,141 @@
+package org.greenplum.pxf.plugins.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extracts the JSON nodes of the projected columns of a record from the token
+ * stream of the record, without building the tree of the whole record.
+ * <p>
+ * The paths of the projected columns are compiled into a trie. The members of
+ * the record that are not on the path of a projected column are skipped, and
+ * only the values of the projected columns are read into {@link JsonNode}s, so
+ * that they are converted the same way as in the tree mode of the
+ * {@link JsonResolver}. As when the tree of the record is built, the last of
+ * duplicate members wins.
+ */
+class JsonProjectionParser {
+
+    private final ObjectMapper mapper;
+    private final ColumnDescriptorCache[] columns;
+    private final PathNode root;
+
+    /**
+     * Compiles the paths of the projected columns.
+     *
+     * @param mapper    the object mapper that reads the values of the columns
+     * @param columns   the metadata of the columns
+     * @param projected whether each column is projected
+     */
+    JsonProjectionParser(ObjectMapper mapper, ColumnDescriptorCache[] columns, boolean[] projected) {
+        this.mapper = mapper;
+        this.columns = columns;
+        this.root = new PathNode(0);
+        for (int i = 0; i < columns.length; i++) {
+            if (!projected[i]) {
+                continue;
+            }
+            PathNode node = root;
+            for (String name : columns[i].getNormalizedProjections()) {
+                int depth = node.depth + 1;
+                node = node.children.computeIfAbsent(name, n -> new PathNode(depth));
+                node.addSubtreeColumn(i);
+            }
+            node.valueColumns = true;
+        }
+    }
+
+    /**
+     * Reads the nodes of the projected columns of a record. The node of a
+     * column that is not projected or missing from the record is null.
+     *
+     * @param parser the parser of the record, positioned before its first token
+     * @param nodes  the nodes of the columns, by column index
+     * @return false if the record is not a JSON object, in which case it is not read
+     * @throws IOException if the record is not valid JSON
+     */
+    boolean parse(JsonParser parser, JsonNode[] nodes) throws IOException {
+        Arrays.fill(nodes, null);
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return false;
+        }
+        readObject(parser, root, nodes);
+        return true;
+    }
+
+    private void readObject(JsonParser parser, PathNode node, JsonNode[] nodes) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            PathNode child = node.children.get(parser.getCurrentName());
+            token = parser.nextToken();
+            if (child == null) {
+                parser.skipChildren();
+                continue;
+            }
+
+            // a duplicate member replaces the values read from the previous one
+            for (int column : child.subtreeColumns) {
+                nodes[column] = null;
+            }
+
+            if (child.valueColumns) {
+                // the value of a column is on this path, the subtree is read and the other columns are looked up in it
+                JsonNode value = mapper.readTree(parser);
+                if (value == null) {
+                    value = MissingNode.getInstance();
+                }
+                for (int column : child.subtreeColumns) {
+                    nodes[column] = getChildJsonNode(value, columns[column].getNormalizedProjections(), child.depth);
+                }
+            } else if (token == JsonToken.START_OBJECT) {
+                readObject(parser, child, nodes);
+            } else {
+                // the columns below a value that is not an object are missing
+                parser.skipChildren();
+            }
+        }
+        if (token != JsonToken.END_OBJECT) {
+            throw new IOException("Unexpected end-of-input while reading JSON object");
+        }
+    }
+
+    private static JsonNode getChildJsonNode(JsonNode node, String[] projections, int depth) {
+        for (int i = depth; i < projections.length; i++) {
+            node = node.path(projections[i]);
+        }
+        return node;
+    }
+
+    /**
+     * A member on the path of projected columns.
+     */
+    private static final class PathNode {
+        private final Map<String, PathNode> children = new HashMap<>();
+        private final List<Integer> subtreeColumnList = new ArrayList<>();
+        // the number of members from the root of the record
+        private final int depth;
+        // the columns whose path goes through this member
+        private int[] subtreeColumns = new int[0];
+        // whether this member is the value of a column
+        private boolean valueColumns;
+
+        private PathNode(int depth) {
+            this.depth = depth;
+        }
+
+        private void addSubtreeColumn(int column) {
+            subtreeColumnList.add(column);
+            subtreeColumns = subtreeColumnList.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+}
@@ -26,57 +26,80 @@ import org.apache.hadoop.mapred.FileSplit;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.LineRecordReader;
 import org.apache.hadoop.mapred.RecordReader;
-import org.greenplum.pxf.plugins.json.parser.PartitionedJsonParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 /**
  * Multi-line json object reader. JsonRecordReader uses a member name (set by the <b>IDENTIFIER</b> PXF parameter) to
  * determine the encapsulating object to extract and read.
  * <p>
+ * The reader scans the raw bytes of the lines returned by a {@link LineRecordReader} for the boundaries of the JSON
+ * objects, tracking strings, escapes and the nesting of the objects, and hands out the bytes of the matching objects
+ * without decoding them. An object that starts in the split but does not end in it is finished by reading into the
+ * next split.
+ * <p>
  * JsonRecordReader supports compressed input files as well.
  * <p>
- * As a safe guard set the optional <b>MAXLENGTH</b> parameter to limit the max size of a record.
+ * As a safe guard set the optional <b>MAXLENGTH</b> parameter to limit the max size of a record, in bytes.
  */
 public class JsonRecordReader implements RecordReader<LongWritable, Text> {
 
     public static final String RECORD_MEMBER_IDENTIFIER = "json.input.format.record.identifier";
     public static final String RECORD_MAX_LENGTH = "multilinejsonrecordreader.maxlength";
     private static final Logger LOG = LoggerFactory.getLogger(JsonRecordReader.class);
-    private final String jsonMemberName;
-    private long start;
+
+    private static final byte BACKSLASH = '\\';
+    private static final byte QUOTE = '\"';
+    private static final byte COLON = ':';
+    private static final byte START_BRACE = '{';
+    private static final byte END_BRACE = '}';
+    private static final byte[] NEW_LINE = "\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CARRIAGERETURN_NEWLINE = "\r\n".getBytes(StandardCharsets.UTF_8);
+    // initial capacity of the buffer holding the object being read, the buffer is reused for the following objects
+    private static final int INITIAL_OBJECT_CAPACITY = 4096;
+
+    private final byte[] jsonMemberName;
+    private final int maxObjectLength;
+    private final long start;
+    private final long end;
+    private final Path file;
+    private final JobConf conf;
+    private final LongWritable key;
     private long pos;
-    private long end;
-    private int maxObjectLength;
-    private PartitionedJsonParser parser;
     private LineRecordReader lineRecordReader;
     // position of the underlying lineRecordReader
     private long filePos;
     // line that was read in by the line record reader
-    private Text currentLine;
-    private JobConf conf;
-    private final Path file;
-    // this is the current line in buffer form
-    private StringBuffer currentLineBuffer;
-    // index where the JsonRecordReader has read to in the currentLineBuffer
-    private int currentLineIndex = Integer.MAX_VALUE;
+    private final Text currentLine;
+    // index where the JsonRecordReader has read to in the currentLine
+    private int currentLineIndex;
     private boolean inNextSplit = false;
-    // used to store characters that were read before we hit a json begin object marker
-    private StringBuilder readValues = new StringBuilder(MAX_CHARS);
-    // max number of characters to read before we update the position
-    private static final int MAX_CHARS = 1024;
-
-    private static final char BACKSLASH = '\\';
-    private static final char QUOTE = '\"';
-    private static final char START_BRACE = '{';
-    private static final int EOF = -1;
-    private static final int END_OF_SPLIT = -2;
-    private static final byte[] NEW_LINE = "\n".getBytes(StandardCharsets.UTF_8);
-    private static final byte[] CARRIAGERETURN_NEWLINE = "\r\n".getBytes(StandardCharsets.UTF_8);
-    private final LongWritable key;
+
+    // bytes of the object being read, starting with its begin object marker
+    private byte[] object = new byte[INITIAL_OBJECT_CAPACITY];
+    private int objectLength;
+    // indexes in the object of the begin object markers of the enclosing objects that are not complete
+    private int[] objectStarts = new int[16];
+    private int depth;
+    private MemberSearchState memberState;
+    private boolean inString;
+    private boolean inEscape;
+    // index in the object of the first byte of the current string
+    private int stringStart;
+    // index in the object of the begin object marker of the object containing the member
+    private int recordStart;
+
+    private enum MemberSearchState {
+        SEARCHING,
+
+        FOUND_STRING_NAME,
+
+        IN_MATCHING_OBJECT
+    }
 
     /**
      * Create new multi-line json object reader.
@@ -87,15 +110,14 @@ public class JsonRecordReader implements RecordReader<LongWritable, Text> {
      */
     public JsonRecordReader(JobConf conf, FileSplit split) throws IOException {
 
-        jsonMemberName = conf.get(RECORD_MEMBER_IDENTIFIER);
+        jsonMemberName = conf.get(RECORD_MEMBER_IDENTIFIER).getBytes(StandardCharsets.UTF_8);
         maxObjectLength = conf.getInt(RECORD_MAX_LENGTH, Integer.MAX_VALUE);
 
         start = split.getStart();
         end = start + split.getLength();
         file = split.getPath();
-        lineRecordReader =  new LineRecordReader(conf, split);
+        lineRecordReader = new LineRecordReader(conf, split);
         this.conf = conf;
-        parser = new PartitionedJsonParser(jsonMemberName);
         currentLine = new Text();
         // set pos and filePos to lineRecordReader's position. If the split started in the middle of a line,
         // we assume that the previous split has taken care of it, so we just need to be at the same starting
@@ -122,50 +144,42 @@ public class JsonRecordReader implements RecordReader<LongWritable, Text> {
             }
 
             // found a start brace so begin a new json object
-            parser.startNewJsonObject();
+            startNewJsonObject();
 
             // read through the file until the object is completed
-            int i;
             boolean isObjectComplete = false;
-            while (!isObjectComplete && (i = readNextChar()) != EOF) {
-                // if we are at the end of the split, then we need to get the next split before we can read the line
-                if (i == END_OF_SPLIT) {
+            while (!isObjectComplete) {
+                if (currentLineIndex >= currentLine.getLength() && !getNextLine()) {
+                    if (inNextSplit) {
+                        // we hit end of file
+                        break;
+                    }
+                    // if we are at the end of the split, then we need to get the next split before we can read the line
                     LOG.debug("JSON object incomplete, continuing into next split to finish");
                     getNextSplit();
-                    // continue the while loop to complete the object
                     continue;
                 }
-
-                char c = (char) i;
                 // object is complete if we found a matching } for either the starting {
                 // or for an internal object that has a field with the matching identifier
-                isObjectComplete = parser.parse(c);
+                isObjectComplete = scanObject();
             }
 
-            // if we have gotten here there are 2 scenarios:
-            // - the object is not complete, in which case we hit end of file
-            // - the object is complete, in which case, determine if we found the identifier
             if (!isObjectComplete) {
                 // if we have gotten here, filePos is at EOF
                 pos = filePos;
                 return false;
             }
 
-            String json = parser.getCompletedObject();
-
-            // the object is complete so update the position
-            pos += json.getBytes(StandardCharsets.UTF_8).length;
-
             // if we found the identifier
-            if (parser.foundObjectWithIdentifier()) {
-                // check the char length of the json against the MAXLENGTH parameter
-                long jsonLength = json.length();
+            if (memberState == MemberSearchState.IN_MATCHING_OBJECT) {
+                int jsonLength = objectLength - recordStart;
+                // check the byte length of the json against the MAXLENGTH parameter
                 if (jsonLength > maxObjectLength) {
-                    LOG.warn("Skipped JSON object of size " + json.length());
+                    LOG.warn("Skipped JSON object of size " + jsonLength);
                 } else {
                     // the key is set to the length of the json object
                     key.set(jsonLength);
-                    value.set(json);
+                    value.set(object, recordStart, jsonLength);
                     return true;
                 }
             }
@@ -218,28 +232,8 @@ public class JsonRecordReader implements RecordReader<LongWritable, Text> {
     }
 
     /**
-     * Reads the next character in the buffer. It will pull the next line as necessary
-     *
-     * @return the int value of a character
-     * @throws IOException
-     */
-    private int readNextChar() throws IOException {
-        // if the currentLineBuffer is null, nothing has been read yet, so we need to read the next line
-        // if the currentLineIndex is greater than the length,  we are at the end of the buffer, read the next line
-        boolean refreshLineBuffer = currentLineBuffer == null || currentLineIndex >= currentLineBuffer.length();
-        if (refreshLineBuffer && !getNextLine()) {
-            return END_OF_SPLIT;
-        }
-
-        int c = currentLineBuffer.charAt(currentLineIndex);
-        currentLineIndex++;
-
-        return c;
-
-    }
-
-    /**
-     * Read through the characters until we hit starting bracket that indicates the start of a JSON object
+     * Read through the bytes until we hit starting bracket that indicates the start of a JSON object. The bracket is
+     * consumed.
      *
      * @return true when an open bracket '{' is found, false otherwise
      * @throws IOException
@@ -248,45 +242,150 @@ public class JsonRecordReader implements RecordReader<LongWritable, Text> {
         // assumes each line is a valid json line
         // seek until we hit the first begin-object
         boolean inString = false;
-        int i;
-
-        // reset the stringbuilder and start counting chars
-        readValues.setLength(0);
-
-        // since we have not yet found a starting object, exit if either EOF (-1) or END_OF_SPLIT (-2)
-        while ((i = readNextChar()) > EOF) {
-            char c = (char) i;
-
-            // while scanning to start of object, we need to make sure we aren't losing our position
-            accountForCharacterRead(c);
-            // if the current value is a backslash, then ignore the next value as it's an escaped char
-            if (c == BACKSLASH) {
-                accountForCharacterRead((char) readNextChar());
-            } else if (c == QUOTE) {
-                inString = !inString;
-            } else if (c == START_BRACE && !inString) {
-                // the start brace will be accounted for later, so ignore it for now
-                pos += readValues.toString().getBytes(StandardCharsets.UTF_8).length - 1;
-                return true;
+        boolean inEscape = false;
+
+        // since we have not yet found a starting object, exit at the end of the split
+        while (currentLineIndex < currentLine.getLength() || getNextLine()) {
+            byte[] line = currentLine.getBytes();
+            int length = currentLine.getLength();
+            int i = currentLineIndex;
+            while (i < length) {
+                byte b = line[i++];
+                // if the previous value is a backslash, then ignore this value as it's an escaped char
+                if (inEscape) {
+                    inEscape = false;
+                } else if (b == BACKSLASH) {
+                    inEscape = true;
+                } else if (b == QUOTE) {
+                    inString = !inString;
+                } else if (b == START_BRACE && !inString) {
+                    pos += i - currentLineIndex;
+                    currentLineIndex = i;
+                    return true;
+                }
             }
+            pos += i - currentLineIndex;
+            currentLineIndex = i;
         }
-        pos += readValues.toString().getBytes(StandardCharsets.UTF_8).length;
         return false;
     }
 
     /**
-     * Append the given character to the string of characters read
+     * Resets the state of the scan for an object whose begin object marker was just read.
+     */
+    private void startNewJsonObject() {
+        object[0] = START_BRACE;
+        objectLength = 1;
+        objectStarts[0] = 0;
+        depth = 1;
+        memberState = MemberSearchState.SEARCHING;
+        inString = false;
+        inEscape = false;
+    }
+
+    /**
+     * Appends the rest of the current line to the object and scans it, searching for the member name and for the end
+     * of the object. The object is complete when an ending bracket '}' at the same level as the first '{' is found,
+     * or an ending bracket '}' at the same level of the matching member is found. The bytes of the line after the end
+     * of a complete object are left in the line.
      *
-     * If the number of characters read equals MAX_CHARS, then
-     * set the global pos and reset the string of characters read to empty
-     * @param c the character that was read
+     * @return true if the object is complete, false otherwise
      */
-    private void accountForCharacterRead(char c) {
-        readValues.append(c);
-        if (readValues.length() >= MAX_CHARS){
-            pos += readValues.toString().getBytes(StandardCharsets.UTF_8).length;
-            readValues.setLength(0);
+    private boolean scanObject() {
+        int available = currentLine.getLength() - currentLineIndex;
+        if (objectLength + available > object.length) {
+            object = Arrays.copyOf(object, Math.max(object.length * 2, objectLength + available));
         }
+        System.arraycopy(currentLine.getBytes(), currentLineIndex, object, objectLength, available);
+
+        int limit = objectLength + available;
+        int i = objectLength;
+        boolean isObjectComplete = false;
+        while (i < limit && !isObjectComplete) {
+            byte b = object[i];
+            if (inString) {
+                if (inEscape) {
+                    inEscape = false;
+                } else if (b == BACKSLASH) {
+                    inEscape = true;
+                } else if (b == QUOTE) {
+                    inString = false;
+                    if (memberState == MemberSearchState.SEARCHING && isMemberName(stringStart, i)) {
+                        // we hit the end of the string and it matched the member name
+                        memberState = MemberSearchState.FOUND_STRING_NAME;
+                    }
+                }
+                i++;
+                continue;
+            }
+
+            if (memberState == MemberSearchState.FOUND_STRING_NAME) {
+                // skip whitespaces until we hit a different token
+                if (isWhitespace(b)) {
+                    i++;
+                    continue;
+                }
+                if (b == COLON) {
+                    // found our member! the record is the innermost object containing it
+                    memberState = MemberSearchState.IN_MATCHING_OBJECT;
+                    recordStart = objectStarts[depth - 1];
+                    depth = 0;
+                    i++;
+                    continue;
+                }
+                // we didn't find a name-separator (:), so our string wasn't a member string. keep searching
+                memberState = MemberSearchState.SEARCHING;
+            }
+
+            if (b == QUOTE) {
+                inString = true;
+                stringStart = i + 1;
+            } else if (b == START_BRACE) {
+                if (memberState == MemberSearchState.SEARCHING) {
+                    if (depth == objectStarts.length) {
+                        objectStarts = Arrays.copyOf(objectStarts, depth * 2);
+                    }
+                    objectStarts[depth] = i;
+                }
+                depth++;
+            } else if (b == END_BRACE) {
+                if (memberState == MemberSearchState.SEARCHING) {
+                    // complete when we found a '}' at the same level as the first '{' and nothing was found
+                    isObjectComplete = --depth == 0;
+                } else {
+                    // complete when we reached a '}' which is at the same level as the member we found
+                    isObjectComplete = depth-- == 0;
+                }
+            }
+            i++;
+        }
+
+        pos += i - objectLength;
+        currentLineIndex += i - objectLength;
+        objectLength = i;
+        return isObjectComplete;
+    }
+
+    /**
+     * Returns whether the bytes of the object between the given indexes are the member name.
+     */
+    private boolean isMemberName(int from, int to) {
+        if (to - from != jsonMemberName.length) {
+            return false;
+        }
+        for (int i = 0; i < jsonMemberName.length; i++) {
+            if (object[from + i] != jsonMemberName[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the byte is an ASCII whitespace, as defined by {@link Character#isWhitespace(char)}.
+     */
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || (b >= '\t' && b <= '\r') || (b >= 0x1C && b <= 0x1F);
     }
 
     /**
@@ -307,13 +406,14 @@ public class JsonRecordReader implements RecordReader<LongWritable, Text> {
     }
 
     /**
-     * Reads the next line of the file in to begin parsing the characters
+     * Reads the next line of the file in to begin scanning the bytes
      *
      * @return true if a line was read, false otherwise. False means that we have reached the end of the split
      * @throws IOException if error occurs internally in underlying LineRecordReader
      */
     private boolean getNextLine() throws IOException {
         currentLine.clear();
+        currentLineIndex = 0;
         long currentPos = lineRecordReader.getPos();
         // use lineRecordReader which internally will handle splits for us: will return false when the split ends
         boolean didReturnLine = lineRecordReader.next(key, currentLine);
@@ -330,8 +430,6 @@ public class JsonRecordReader implements RecordReader<LongWritable, Text> {
             } else if (delta > 2) {
                 LOG.warn("LineRecordReader removed delta = {} characters while parsing a line in the JSON file at pos {}", delta, filePos);
             }
-            currentLineBuffer = new StringBuffer(currentLine.toString());
-            currentLineIndex = 0;
         }
         return didReturnLine;
     }
@@ -19,10 +19,12 @@ package org.greenplum.pxf.plugins.json;
  * under the License.
  */
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hadoop.io.Text;
 import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.error.BadRecordException;
@@ -45,6 +47,11 @@ import java.util.StringJoiner;
  * decode this data into a JsonNode and walk the tree for each column. It supports normal value mapping via projections
  * and JSON array indexing.
  * <p>
+ * When the query projects only some of the columns, the resolver reads the values of the projected columns from the
+ * token stream of the record with a {@link JsonProjectionParser}, skipping the other members of the record instead of
+ * decoding the whole record into a tree. This can be turned off with the {@value #STREAMING_PARSE_OPTION} option.
+ * Records that are not JSON objects are still decoded into a tree.
+ * <p>
  * For the writing use case the resolver will just pass the list of OneField objects to the {@link JsonAccessor} and will
  * not perform a serialization of the list into a Json string as it might have been expected. This is due to the nature
  * of accessor's implementation, where a streaming writing is performed to avoid creating intermediate Java objects.
@@ -52,6 +59,8 @@ import java.util.StringJoiner;
  */
 public class JsonResolver extends BasePlugin implements Resolver {
 
+    static final String STREAMING_PARSE_OPTION = "STREAMING_PARSE";
+
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
     static {
@@ -64,6 +73,8 @@ public class JsonResolver extends BasePlugin implements Resolver {
 
     private ArrayList<OneField> oneFieldList;
     private ColumnDescriptorCache[] columnDescriptorCache;
+    private JsonNode[] columnNodes;
+    private JsonProjectionParser projectionParser;
 
     public JsonResolver() {
         this(SpringContext.getBean(PgUtilities.class));
@@ -83,6 +94,16 @@ public class JsonResolver extends BasePlugin implements Resolver {
             ColumnDescriptor cd = context.getColumn(i);
             columnDescriptorCache[i] = new ColumnDescriptorCache(cd);
         }
+        columnNodes = new JsonNode[context.getColumns()];
+
+        projectionParser = null;
+        if (context.hasColumnProjection() && context.getOption(STREAMING_PARSE_OPTION, true)) {
+            boolean[] projected = new boolean[context.getColumns()];
+            for (int i = 0; i < context.getColumns(); ++i) {
+                projected[i] = context.getColumn(i).isProjected();
+            }
+            projectionParser = new JsonProjectionParser(MAPPER, columnDescriptorCache, projected);
+        }
     }
 
     @Override
@@ -92,20 +113,24 @@ public class JsonResolver extends BasePlugin implements Resolver {
         if (row == null || row.getData() == null) {
             throw new BadRecordException("json record is null");
         }
-        String jsonRecordAsText = row.getData().toString();
+        Object jsonRecord = row.getData();
 
-        JsonNode root;
         try {
-            root = MAPPER.readTree(jsonRecordAsText);
+            if (projectionParser == null || !parseProjectedColumns(jsonRecord)) {
+                JsonNode root = readTree(jsonRecord);
+                for (int i = 0; i < columnDescriptorCache.length; ++i) {
+                    columnNodes[i] = getChildJsonNode(root, columnDescriptorCache[i].getNormalizedProjections());
+                }
+            }
         } catch (IOException e) {
             throw new BadRecordException(
-                    String.format("error while parsing json record '%s'. invalid JSON record\n%s", e.getMessage(), jsonRecordAsText), e);
+                    String.format("error while parsing json record '%s'. invalid JSON record\n%s", e.getMessage(), jsonRecord), e);
         }
 
         // Iterate through the column definition and fetch our JSON data
-        for (ColumnDescriptorCache columnMetadata : columnDescriptorCache) {
-
-            JsonNode node = getChildJsonNode(root, columnMetadata.getNormalizedProjections());
+        for (int i = 0; i < columnDescriptorCache.length; ++i) {
+            ColumnDescriptorCache columnMetadata = columnDescriptorCache[i];
+            JsonNode node = columnNodes[i];
 
             // If this node is null or missing, add a null value here
             if (node == null || node.isMissingNode()) {
@@ -140,6 +165,50 @@ public class JsonResolver extends BasePlugin implements Resolver {
         return new OneRow(null, record);
     }
 
+    /**
+     * Reads the nodes of the projected columns from the token stream of the record.
+     *
+     * @param jsonRecord the record
+     * @return false if the record is not a JSON object and must be decoded into a tree
+     * @throws IOException if the record is not valid JSON
+     */
+    private boolean parseProjectedColumns(Object jsonRecord) throws IOException {
+        try (JsonParser parser = createParser(jsonRecord)) {
+            return projectionParser.parse(parser, columnNodes);
+        }
+    }
+
+    /**
+     * Creates a parser for the record. The records read by the accessor are parsed from their UTF-8 bytes, without
+     * decoding them into a String first.
+     *
+     * @param jsonRecord the record
+     * @return the parser
+     * @throws IOException if the parser could not be created
+     */
+    private JsonParser createParser(Object jsonRecord) throws IOException {
+        if (jsonRecord instanceof Text) {
+            Text text = (Text) jsonRecord;
+            return MAPPER.getFactory().createParser(text.getBytes(), 0, text.getLength());
+        }
+        return MAPPER.getFactory().createParser(jsonRecord.toString());
+    }
+
+    /**
+     * Decodes the record into a tree, from the UTF-8 bytes of the records read by the accessor.
+     *
+     * @param jsonRecord the record
+     * @return the root node of the record
+     * @throws IOException if the record is not valid JSON
+     */
+    private JsonNode readTree(Object jsonRecord) throws IOException {
+        if (jsonRecord instanceof Text) {
+            Text text = (Text) jsonRecord;
+            return MAPPER.readTree(text.getBytes(), 0, text.getLength());
+        }
+        return MAPPER.readTree(jsonRecord.toString());
+    }
+
     /**
      * Iterates down the root node to the child JSON node defined by the projs path.
      *
@@ -1,5 +1,6 @@
 package org.greenplum.pxf.plugins.json;
 
+import org.apache.hadoop.io.Text;
 import org.greenplum.pxf.api.error.BadRecordException;
 import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.OneRow;
@@ -384,6 +385,22 @@ public class JsonResolverTest {
         assertTrue(e.getMessage().contains("error while parsing json record 'Unexpected character ('}' (code 125))"));
     }
 
+    @Test
+    public void testGetFieldsFromTextRecord() throws Exception {
+        //language=JSON
+        String jsonStr = "{\"type_int\":1,\"type_string1\":\"anöther city\",\"type_array\":[\"你好\"]}";
+
+        List<OneField> fields = assertRow(new OneRow(123, new Text(jsonStr)), 38);
+        assertField(fields, 0, 1, DataType.INTEGER);
+        assertField(fields, 5, "anöther city", DataType.TEXT);
+        assertField(fields, 10, "你好", DataType.TEXT);
+        assertField(fields, 12, "[\"你好\"]", DataType.TEXT);
+
+        OneRow row = new OneRow(123, new Text("{\"type_int\":}"));
+        BadRecordException e = assertThrows(BadRecordException.class, () -> resolver.getFields(row));
+        assertTrue(e.getMessage().endsWith("invalid JSON record\n{\"type_int\":}"));
+    }
+
     @Test
     public void testGetFieldsShouldFailOnEmptyRow() {
         resolver.setRequestContext(context);
@@ -416,6 +433,76 @@ public class JsonResolverTest {
         assertSame(records, row.getData());
     }
 
+    @Test
+    public void testGetFieldsWithColumnProjection() throws Exception {
+        schema.clear();
+        schema.add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null, true));
+        schema.add(new ColumnDescriptor("user.name", DataType.TEXT.getOID(), 1, "text", null, true));
+        schema.add(new ColumnDescriptor("user.tags[1]", DataType.TEXT.getOID(), 2, "text", null, true));
+        schema.add(new ColumnDescriptor("user.tags", DataType.TEXTARRAY.getOID(), 3, "text", null, true));
+        schema.add(new ColumnDescriptor("payload", DataType.TEXT.getOID(), 4, "text", null, false));
+        context.setNumAttrsProjected(4);
+        resolver.afterPropertiesSet();
+
+        //language=JSON
+        String jsonStr = "{" +
+                "\"payload\":{\"large\":[1,2,3],\"skip\":\"me\"}," +
+                "\"id\":1," +
+                "\"user\":{\"name\":\"alice\",\"tags\":[\"a\",\"b\"],\"other\":{\"x\":1}}" +
+                "}";
+
+        List<OneField> fields = assertRow(new OneRow(123, jsonStr), 5);
+        assertField(fields, 0, 1, DataType.INTEGER);
+        assertField(fields, 1, "alice", DataType.TEXT);
+        assertField(fields, 2, "b", DataType.TEXT);
+        assertField(fields, 3, "{a,b}", DataType.TEXTARRAY);
+        assertField(fields, 4, null, DataType.TEXT);
+
+        // the last of duplicate members wins, nested columns below a scalar are missing
+        //language=JSON
+        jsonStr = "{\"id\":1,\"user\":{\"name\":\"alice\"},\"id\":2,\"user\":\"bob\"}";
+        fields = assertRow(new OneRow(123, jsonStr), 5);
+        assertField(fields, 0, 2, DataType.INTEGER);
+        assertField(fields, 1, null, DataType.TEXT);
+        assertField(fields, 2, null, DataType.TEXT);
+        assertField(fields, 3, null, DataType.TEXTARRAY);
+
+        // a record that is not an object is read as a tree
+        fields = assertRow(new OneRow(123, "[1,2]"), 5);
+        assertField(fields, 0, null, DataType.INTEGER);
+    }
+
+    @Test
+    public void testGetFieldsWithColumnProjectionShouldFailOnMalformedRecord() {
+        schema.clear();
+        schema.add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null, true));
+        schema.add(new ColumnDescriptor("payload", DataType.TEXT.getOID(), 1, "text", null, false));
+        context.setNumAttrsProjected(1);
+        resolver.afterPropertiesSet();
+
+        // the member that is skipped is not closed
+        OneRow row = new OneRow(123, "{\"payload\":{\"a\":[1,2}, \"id\":1}");
+        assertThrows(BadRecordException.class, () -> resolver.getFields(row));
+
+        OneRow truncated = new OneRow(123, "{\"id\":1");
+        assertThrows(BadRecordException.class, () -> resolver.getFields(truncated));
+    }
+
+    @Test
+    public void testGetFieldsWithStreamingParseDisabled() throws Exception {
+        schema.clear();
+        schema.add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null, true));
+        schema.add(new ColumnDescriptor("name", DataType.TEXT.getOID(), 1, "text", null, false));
+        context.setNumAttrsProjected(1);
+        context.addOption(JsonResolver.STREAMING_PARSE_OPTION, "false");
+        resolver.afterPropertiesSet();
+
+        List<OneField> fields = assertRow(new OneRow(123, "{\"id\":7,\"name\":\"x\"}"), 2);
+        assertField(fields, 0, 7, DataType.INTEGER);
+        // the tree is built for the whole record, the values of all columns are resolved
+        assertField(fields, 1, "x", DataType.TEXT);
+    }
+
     // helper functions for testing
     private List<OneField> assertRow(OneRow row, int numFields) throws Exception {
         List<OneField> fields = resolver.getFields(row);
@@ -12,15 +12,18 @@ import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.plugins.json.JsonRecordReader;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class JsonRecordReaderTest {
 
@@ -35,6 +38,9 @@ public class JsonRecordReaderTest {
     private String[] hosts = null;
     private JsonRecordReader jsonRecordReader;
 
+    @TempDir
+    static File temp; // must be non-private, one temp dir per class execution
+
     @BeforeEach
     public void setup() throws URISyntaxException {
         context = new RequestContext();
@@ -838,6 +844,61 @@ public class JsonRecordReaderTest {
         assertEquals(2, recordCount);
     }
 
+    @Test
+    public void testMemberNameAsValue() throws IOException {
+        jobConf.set(RECORD_MEMBER_IDENTIFIER, "name");
+        path = writeFile("member_name_as_value.json", "{\"a\": \"name\"}\n{\"b\": \"x\", \"name\": \"yī\"}\n");
+        fileSplit = new FileSplit(path, 0, 1000, hosts);
+        jsonRecordReader = new JsonRecordReader(jobConf, fileSplit);
+
+        key = createKey();
+        data = createValue();
+        // a string value that is the member name does not make its object a record
+        assertTrue(jsonRecordReader.next(key, data));
+        assertEquals("{\"b\": \"x\", \"name\": \"yī\"}", data.toString());
+        assertEquals(data.getLength(), key.get());
+        assertFalse(jsonRecordReader.next(key, data));
+        assertEquals(40, jsonRecordReader.getPos());
+    }
+
+    @Test
+    public void testMaxLengthInBytes() throws IOException {
+        jobConf.set(RECORD_MEMBER_IDENTIFIER, "name");
+        jobConf.setInt(JsonRecordReader.RECORD_MAX_LENGTH, 16);
+        // the first object is 15 characters but 18 bytes
+        path = writeFile("max_length.json", "{\"name\": \"äää\"}\n{\"name\": \"aaa\"}\n");
+        fileSplit = new FileSplit(path, 0, 1000, hosts);
+        jsonRecordReader = new JsonRecordReader(jobConf, fileSplit);
+
+        key = createKey();
+        data = createValue();
+        assertTrue(jsonRecordReader.next(key, data));
+        assertEquals("{\"name\": \"aaa\"}", data.toString());
+        assertFalse(jsonRecordReader.next(key, data));
+    }
+
+    @Test
+    public void testIncompleteObjectAtEndOfFile() throws IOException {
+        jobConf.set(RECORD_MEMBER_IDENTIFIER, "name");
+        path = writeFile("incomplete.json", "{\"name\": \"a\"}\n{\"name\": \"b\",\n");
+        fileSplit = new FileSplit(path, 0, 20, hosts);
+        jsonRecordReader = new JsonRecordReader(jobConf, fileSplit);
+
+        key = createKey();
+        data = createValue();
+        assertTrue(jsonRecordReader.next(key, data));
+        assertEquals("{\"name\": \"a\"}", data.toString());
+        // the second object goes past the end of the split and is not completed by the end of the file
+        assertFalse(jsonRecordReader.next(key, data));
+        assertEquals(28, jsonRecordReader.getPos());
+    }
+
+    private Path writeFile(String name, String contents) throws IOException {
+        File jsonFile = new File(temp, name);
+        Files.write(jsonFile.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+        return new Path(jsonFile.getPath());
+    }
+
     private LongWritable createKey() {
         return new LongWritable();
     }
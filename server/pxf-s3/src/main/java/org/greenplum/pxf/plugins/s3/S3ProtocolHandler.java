@@ -5,6 +5,7 @@ import org.apache.commons.lang.StringUtils;
 import org.greenplum.pxf.api.model.OutputFormat;
 import org.greenplum.pxf.api.model.ProtocolHandler;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.plugins.hdfs.ParquetProtocolHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,8 +56,11 @@ public class S3ProtocolHandler implements ProtocolHandler {
     @Override
     public String getFragmenterClassName(RequestContext context) {
         String fragmenter = context.getFragmenter(); // default to fragmenter defined by the profile
-        if (useS3Select(context) || useFileReadForJson(context)) {
+        if (useFileReadForJson(context)) {
             fragmenter = HCFS_FILE_FRAGMENTER;
+        } else if (useS3Select(context)) {
+            // S3 Select reads the objects by scan ranges when it can
+            fragmenter = S3SelectFragmenter.class.getName();
         }
 
         LOG.debug("Determined to use {} fragmenter", fragmenter);
@@ -68,6 +72,8 @@ public class S3ProtocolHandler implements ProtocolHandler {
         String accessor = context.getAccessor(); // default to accessor defined by the profile
         if (useS3Select(context)) {
             accessor = S3SelectAccessor.class.getName();
+        } else if (useVectorizedParquet(context)) {
+            accessor = ParquetProtocolHandler.PARQUET_VECTORIZED_ACCESSOR;
         }
         LOG.debug("Determined to use {} accessor", accessor);
         return accessor;
@@ -78,6 +84,8 @@ public class S3ProtocolHandler implements ProtocolHandler {
         String resolver = context.getResolver(); // default to resolver defined by the profile
         if (useS3Select(context)) {
             resolver = STRING_PASS_RESOLVER;
+        } else if (useVectorizedParquet(context)) {
+            resolver = ParquetProtocolHandler.PARQUET_VECTORIZED_RESOLVER;
         }
         LOG.debug("Determined to use {} resolver", resolver);
         return resolver;
@@ -129,6 +137,18 @@ public class S3ProtocolHandler implements ProtocolHandler {
         }
     }
 
+    /**
+     * Determines whether the user has requested to use vectorized Parquet accessor / resolver
+     * when reading Parquet files without S3 Select.
+     *
+     * @param context the request context
+     * @return true if vectorized Parquet accessor and resolver will need to be used
+     */
+    private boolean useVectorizedParquet(RequestContext context) {
+        return StringUtils.equalsIgnoreCase("PARQUET", context.getFormat())
+                && ParquetProtocolHandler.useVectorizedParquet(context);
+    }
+
     /**
      * Determine if the HdfsFileFragmenter should be used for JSON filetypes.
      * This determination is dictated by the SPLIT_BY_FILE parameter which is provided in the LOCATION uri.
@@ -9,6 +9,7 @@ import com.amazonaws.services.s3.model.InputSerialization;
 import com.amazonaws.services.s3.model.JSONInput;
 import com.amazonaws.services.s3.model.OutputSerialization;
 import com.amazonaws.services.s3.model.ParquetInput;
+import com.amazonaws.services.s3.model.ScanRange;
 import com.amazonaws.services.s3.model.SelectObjectContentEvent;
 import com.amazonaws.services.s3.model.SelectObjectContentEventVisitor;
 import com.amazonaws.services.s3.model.SelectObjectContentRequest;
@@ -20,6 +21,8 @@ import org.greenplum.pxf.api.model.Accessor;
 import org.greenplum.pxf.api.model.BasePlugin;
 import org.greenplum.pxf.api.model.GreenplumCSV;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.FragmentMetadata;
+import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -185,9 +188,68 @@ public class S3SelectAccessor extends BasePlugin implements Accessor {
         OutputSerialization outputSerialization = getOutputSerialization(context);
         request.setOutputSerialization(outputSerialization);
 
+        ScanRange scanRange = getScanRange(context);
+        if (scanRange != null) {
+            LOG.debug("With scan range {}-{}", scanRange.getStart(), scanRange.getEnd());
+            request.setScanRange(scanRange);
+        }
+
         return request;
     }
 
+    /**
+     * Returns the {@link ScanRange} of the fragment, or null when the whole
+     * object is read. S3 Select processes the records that start within the
+     * range, so the ranges of the fragments of an object return every record
+     * exactly once.
+     *
+     * @param context the request context
+     * @return the {@link ScanRange} of the fragment, or null
+     */
+    ScanRange getScanRange(RequestContext context) {
+        FragmentMetadata metadata = context.getFragmentMetadata();
+        if (!(metadata instanceof HcfsFragmentMetadata) || !supportsScanRanges(context)) {
+            return null;
+        }
+
+        HcfsFragmentMetadata fragmentMetadata = (HcfsFragmentMetadata) metadata;
+        if (fragmentMetadata.getLength() <= 0) {
+            return null;
+        }
+        // the end of the range is inclusive
+        return new ScanRange()
+                .withStart(fragmentMetadata.getStart())
+                .withEnd(fragmentMetadata.getStart() + fragmentMetadata.getLength() - 1);
+    }
+
+    /**
+     * Returns true when S3 Select can read the objects by byte ranges. Scan
+     * ranges are only supported for uncompressed CSV and JSON Lines objects.
+     * CSV objects with a header row are read as a whole, because only the
+     * first range starts with the header.
+     *
+     * @param context the request context
+     * @return true if the objects can be read by scan ranges
+     */
+    static boolean supportsScanRanges(RequestContext context) {
+        String compressionType = context.getOption(COMPRESSION_TYPE);
+        if (StringUtils.equalsIgnoreCase(compressionType, "gzip") ||
+                StringUtils.equalsIgnoreCase(compressionType, "bzip2")) {
+            return false;
+        }
+
+        String format = context.inferFormatName();
+        if (StringUtils.equalsIgnoreCase(format, "parquet")) {
+            return false;
+        } else if (StringUtils.equalsIgnoreCase(format, "json")) {
+            return StringUtils.equalsIgnoreCase(context.getOption(JSON_TYPE), "lines");
+        }
+
+        String fileHeaderInfo = context.getOption(FILE_HEADER_INFO);
+        return StringUtils.isBlank(fileHeaderInfo) ||
+                StringUtils.equalsIgnoreCase(FILE_HEADER_INFO_NONE, fileHeaderInfo);
+    }
+
     /**
      * Returns a {@link com.amazonaws.services.s3.model.OutputSerialization}
      * object with parsed values from the request context.
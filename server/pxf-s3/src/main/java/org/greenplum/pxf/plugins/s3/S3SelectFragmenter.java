@@ -0,0 +1,89 @@
+package org.greenplum.pxf.plugins.s3;
+
+import org.apache.hadoop.util.StringUtils.TraditionalBinaryPrefix;
+import org.greenplum.pxf.api.model.Fragment;
+import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
+import org.greenplum.pxf.plugins.hdfs.HdfsFileFragmenter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fragmenter for reading objects with S3 Select. Objects that S3 Select can
+ * read by scan ranges (uncompressed CSV and JSON Lines) are divided into byte
+ * ranges, so that the segments run S3 Select over their own part of a large
+ * object in parallel. The other objects are read by a single fragment each.
+ * <p>
+ * An object is divided into at most one range per segment, and the ranges
+ * are never smaller than the minimum size given by the
+ * <code>SCAN_RANGE_MIN_SIZE</code> option or the
+ * <code>pxf.s3.select.scanRange.minSize</code> property, 64 MB by default.
+ */
+public class S3SelectFragmenter extends HdfsFileFragmenter {
+
+    static final String SCAN_RANGE_MIN_SIZE_OPTION = "SCAN_RANGE_MIN_SIZE";
+    static final String SCAN_RANGE_MIN_SIZE_PROPERTY_NAME = "pxf.s3.select.scanRange.minSize";
+    static final long DEFAULT_SCAN_RANGE_MIN_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * Gets the fragments for the objects matched by the data source, with
+     * one fragment per scan range of the objects that can be read by ranges.
+     */
+    @Override
+    public List<Fragment> getFragments() throws Exception {
+        List<Fragment> objectFragments = super.getFragments();
+        if (!S3SelectAccessor.supportsScanRanges(context)) {
+            return objectFragments;
+        }
+
+        long minSize = getScanRangeMinSize();
+        int totalSegments = Math.max(1, context.getTotalSegments());
+        List<Fragment> rangeFragments = new ArrayList<>();
+        for (Fragment fragment : objectFragments) {
+            HcfsFragmentMetadata metadata = (HcfsFragmentMetadata) fragment.getMetadata();
+            long length = metadata.getLength();
+            // ranges smaller than the minimum size are not worth a separate S3 Select request
+            long ranges = Math.min(totalSegments, Math.max(1, length / minSize));
+            if (ranges == 1) {
+                rangeFragments.add(fragment);
+                continue;
+            }
+
+            long rangeSize = (length + ranges - 1) / ranges;
+            for (long start = 0; start < length; start += rangeSize) {
+                rangeFragments.add(new Fragment(fragment.getSourceName(),
+                        new HcfsFragmentMetadata(start, Math.min(rangeSize, length - start))));
+            }
+            LOG.debug("Object {} of {} bytes is read in scan ranges of {} bytes",
+                    fragment.getSourceName(), length, rangeSize);
+        }
+        fragments = rangeFragments;
+        LOG.debug("Total number of fragments = {}", fragments.size());
+
+        return fragments;
+    }
+
+    /**
+     * Returns the minimum size of the scan ranges. The option of the external
+     * table overrides the property of the server configuration.
+     *
+     * @return the minimum size of the scan ranges, in bytes
+     */
+    private long getScanRangeMinSize() {
+        String option = context.getOption(SCAN_RANGE_MIN_SIZE_OPTION);
+        long minSize;
+        try {
+            minSize = option != null ?
+                    TraditionalBinaryPrefix.string2long(option.trim()) :
+                    configuration.getLongBytes(SCAN_RANGE_MIN_SIZE_PROPERTY_NAME, DEFAULT_SCAN_RANGE_MIN_SIZE);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid scan range minimum size: %s", e.getMessage()), e);
+        }
+        if (minSize < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid scan range minimum size %d: must be a positive number of bytes", minSize));
+        }
+        return minSize;
+    }
+}
@@ -16,8 +16,11 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 public class S3ProtocolHandlerTest {
 
     private static final String FILE_FRAGMENTER = "org.greenplum.pxf.plugins.hdfs.HdfsFileFragmenter";
+    private static final String SELECT_FRAGMENTER = S3SelectFragmenter.class.getName();
     private static final String STRING_PASS_RESOLVER = "org.greenplum.pxf.plugins.hdfs.StringPassResolver";
     private static final String S3_ACCESSOR = S3SelectAccessor.class.getName();
+    private static final String PARQUET_VECTORIZED_ACCESSOR = "org.greenplum.pxf.plugins.hdfs.ParquetVectorizedAccessor";
+    private static final String PARQUET_VECTORIZED_RESOLVER = "org.greenplum.pxf.plugins.hdfs.ParquetVectorizedResolver";
     private static final String DEFAULT_ACCESSOR = "default-accessor";
     private static final String DEFAULT_RESOLVER = "default-resolver";
     private static final String DEFAULT_FRAGMENTER = "default-fragmenter";
@@ -34,9 +37,9 @@ public class S3ProtocolHandlerTest {
     private static final String[] EXPECTED_RESOLVER_GPDB_WRITABLE_AUTO = {DEFAULT_RESOLVER, NOT_SUPPORTED, NOT_SUPPORTED, DEFAULT_RESOLVER, DEFAULT_RESOLVER};
     private static final String[] EXPECTED_RESOLVER_GPDB_WRITABLE_OFF = {DEFAULT_RESOLVER, DEFAULT_RESOLVER, DEFAULT_RESOLVER, DEFAULT_RESOLVER, DEFAULT_RESOLVER};
 
-    private static final String[] EXPECTED_FRAGMENTER_TEXT_ON = {FILE_FRAGMENTER, FILE_FRAGMENTER, FILE_FRAGMENTER, FILE_FRAGMENTER, NOT_SUPPORTED};
-    private static final String[] EXPECTED_FRAGMENTER_TEXT_AUTO_BENEFIT = {FILE_FRAGMENTER, FILE_FRAGMENTER, FILE_FRAGMENTER, FILE_FRAGMENTER, DEFAULT_FRAGMENTER};
-    private static final String[] EXPECTED_FRAGMENTER_TEXT_AUTO_NO_BENEFIT = {DEFAULT_FRAGMENTER, DEFAULT_FRAGMENTER, DEFAULT_FRAGMENTER, FILE_FRAGMENTER, DEFAULT_FRAGMENTER};
+    private static final String[] EXPECTED_FRAGMENTER_TEXT_ON = {SELECT_FRAGMENTER, SELECT_FRAGMENTER, SELECT_FRAGMENTER, SELECT_FRAGMENTER, NOT_SUPPORTED};
+    private static final String[] EXPECTED_FRAGMENTER_TEXT_AUTO_BENEFIT = {SELECT_FRAGMENTER, SELECT_FRAGMENTER, SELECT_FRAGMENTER, SELECT_FRAGMENTER, DEFAULT_FRAGMENTER};
+    private static final String[] EXPECTED_FRAGMENTER_TEXT_AUTO_NO_BENEFIT = {DEFAULT_FRAGMENTER, DEFAULT_FRAGMENTER, DEFAULT_FRAGMENTER, SELECT_FRAGMENTER, DEFAULT_FRAGMENTER};
     private static final String[] EXPECTED_FRAGMENTER_TEXT_OFF = {DEFAULT_FRAGMENTER, DEFAULT_FRAGMENTER, DEFAULT_FRAGMENTER, DEFAULT_FRAGMENTER, DEFAULT_FRAGMENTER};
 
     private static final String[] EXPECTED_FRAGMENTER_GPDB_WRITABLE_ON = {NOT_SUPPORTED, NOT_SUPPORTED, NOT_SUPPORTED, NOT_SUPPORTED, NOT_SUPPORTED};
@@ -54,11 +57,11 @@ public class S3ProtocolHandlerTest {
 
     private static final String[] EXPECTED_ACCESSOR_TEXT_AUTO_NO_BENEFIT_HAS_FORMAT_OPTIONS = {DEFAULT_ACCESSOR, DEFAULT_ACCESSOR, DEFAULT_ACCESSOR, S3_ACCESSOR, DEFAULT_ACCESSOR};
     private static final String[] EXPECTED_RESOLVER_TEXT_AUTO_NO_BENEFIT_HAS_FORMAT_OPTIONS = {DEFAULT_RESOLVER, DEFAULT_RESOLVER, DEFAULT_RESOLVER, STRING_PASS_RESOLVER, DEFAULT_RESOLVER};
-    private static final String[] EXPECTED_FRAGMENTER_TEXT_AUTO_NO_BENEFIT_HAS_FORMAT_OPTIONS = {DEFAULT_FRAGMENTER, DEFAULT_FRAGMENTER, DEFAULT_FRAGMENTER, FILE_FRAGMENTER, DEFAULT_FRAGMENTER};
+    private static final String[] EXPECTED_FRAGMENTER_TEXT_AUTO_NO_BENEFIT_HAS_FORMAT_OPTIONS = {DEFAULT_FRAGMENTER, DEFAULT_FRAGMENTER, DEFAULT_FRAGMENTER, SELECT_FRAGMENTER, DEFAULT_FRAGMENTER};
 
     private static final String[] EXPECTED_ACCESSOR_TEXT_AUTO_NO_BENEFIT_HAS_HEADER = {DEFAULT_ACCESSOR, S3_ACCESSOR, S3_ACCESSOR, S3_ACCESSOR, DEFAULT_ACCESSOR};
     private static final String[] EXPECTED_RESOLVER_TEXT_AUTO_NO_BENEFIT_HAS_HEADER = {DEFAULT_RESOLVER, STRING_PASS_RESOLVER, STRING_PASS_RESOLVER, STRING_PASS_RESOLVER, DEFAULT_RESOLVER};
-    private static final String[] EXPECTED_FRAGMENTER_TEXT_AUTO_NO_BENEFIT_HAS_HEADER = {DEFAULT_FRAGMENTER, FILE_FRAGMENTER, FILE_FRAGMENTER, FILE_FRAGMENTER, DEFAULT_FRAGMENTER};
+    private static final String[] EXPECTED_FRAGMENTER_TEXT_AUTO_NO_BENEFIT_HAS_HEADER = {DEFAULT_FRAGMENTER, SELECT_FRAGMENTER, SELECT_FRAGMENTER, SELECT_FRAGMENTER, DEFAULT_FRAGMENTER};
 
     private S3ProtocolHandler handler;
     private RequestContext context;
@@ -483,6 +486,43 @@ public class S3ProtocolHandlerTest {
         verifyFragmenters(context, EXPECTED_FRAGMENTERS);
     }
 
+    @Test
+    public void testParquetWithVectorizeAndSelectOff() {
+        context.addOption("S3_SELECT", "off");
+        context.addOption("VECTORIZE", "true");
+        context.setRequestType(RequestContext.RequestType.READ_BRIDGE);
+        context.setOutputFormat(OutputFormat.GPDBWritable);
+        String[] EXPECTED_ACCESSORS = EXPECTED_ACCESSOR_GPDB_WRITABLE_OFF.clone();
+        EXPECTED_ACCESSORS[0] = PARQUET_VECTORIZED_ACCESSOR; // index 0 is parquet
+        String[] EXPECTED_RESOLVERS = EXPECTED_RESOLVER_GPDB_WRITABLE_OFF.clone();
+        EXPECTED_RESOLVERS[0] = PARQUET_VECTORIZED_RESOLVER; // index 0 is parquet
+        verifyAccessors(context, EXPECTED_ACCESSORS);
+        verifyResolvers(context, EXPECTED_RESOLVERS);
+        verifyFragmenters(context, EXPECTED_FRAGMENTER_GPDB_WRITABLE_OFF);
+    }
+
+    @Test
+    public void testParquetWithVectorizeAndSelectOn() {
+        // S3 Select takes precedence over the vectorized Parquet reader
+        context.addOption("S3_SELECT", "on");
+        context.addOption("VECTORIZE", "true");
+        context.setRequestType(RequestContext.RequestType.READ_BRIDGE);
+        context.setOutputFormat(OutputFormat.TEXT);
+        verifyAccessors(context, EXPECTED_ACCESSOR_TEXT_ON);
+        verifyResolvers(context, EXPECTED_RESOLVER_TEXT_ON);
+        verifyFragmenters(context, EXPECTED_FRAGMENTER_TEXT_ON);
+    }
+
+    @Test
+    public void testParquetWithVectorizeForWrite() {
+        context.addOption("S3_SELECT", "off");
+        context.addOption("VECTORIZE", "true");
+        context.setRequestType(RequestContext.RequestType.WRITE_BRIDGE);
+        context.setOutputFormat(OutputFormat.GPDBWritable);
+        verifyAccessors(context, EXPECTED_ACCESSOR_GPDB_WRITABLE_OFF);
+        verifyResolvers(context, EXPECTED_RESOLVER_GPDB_WRITABLE_OFF);
+    }
+
     private void verifyFragmenters(RequestContext context, String[] expected) {
         IntStream.range(0, FORMATS.length).forEach(i -> {
             context.setFormat(FORMATS[i]);
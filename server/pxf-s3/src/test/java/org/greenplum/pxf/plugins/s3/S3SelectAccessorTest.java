@@ -1,10 +1,12 @@
 package org.greenplum.pxf.plugins.s3;
 
 import com.amazonaws.services.s3.model.InputSerialization;
+import com.amazonaws.services.s3.model.ScanRange;
 import com.amazonaws.services.s3.model.SelectObjectContentRequest;
 import org.apache.hadoop.conf.Configuration;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -202,6 +204,80 @@ public class S3SelectAccessorTest {
         assertEquals("", request.getKey());
     }
 
+    @Test
+    public void testScanRangeOfFragment() {
+        RequestContext context = getDefaultRequestContext();
+        context.setConfig("default");
+        context.setUser("test-user");
+        context.setDataSource("s3a://my-bucket/my/s3/path/lineitem.csv");
+        context.setConfiguration(new Configuration());
+        context.setFragmentMetadata(new HcfsFragmentMetadata(1000, 500));
+
+        S3SelectAccessor accessor = new S3SelectAccessor();
+        accessor.setRequestContext(context);
+        accessor.afterPropertiesSet();
+        SelectObjectContentRequest request = accessor.generateBaseCSVRequest(context);
+        assertNotNull(request.getScanRange());
+        assertEquals(1000L, request.getScanRange().getStart().longValue());
+        assertEquals(1499L, request.getScanRange().getEnd().longValue());
+    }
+
+    @Test
+    public void testNoScanRangeWithoutFragmentMetadata() {
+        RequestContext context = getDefaultRequestContext();
+
+        assertNull(new S3SelectAccessor().getScanRange(context));
+    }
+
+    @Test
+    public void testNoScanRangeForEmptyObject() {
+        RequestContext context = getDefaultRequestContext();
+        context.setFragmentMetadata(new HcfsFragmentMetadata(0, 0));
+
+        assertNull(new S3SelectAccessor().getScanRange(context));
+    }
+
+    @Test
+    public void testNoScanRangeForCompressedObject() {
+        RequestContext context = getDefaultRequestContext();
+        context.addOption("COMPRESSION_CODEC", "BZIP2");
+        context.setFragmentMetadata(new HcfsFragmentMetadata(0, 500));
+
+        assertNull(new S3SelectAccessor().getScanRange(context));
+    }
+
+    @Test
+    public void testNoScanRangeForCsvWithHeader() {
+        RequestContext context = getDefaultRequestContext();
+        context.addOption("FILE_HEADER", "IGNORE");
+        context.setFragmentMetadata(new HcfsFragmentMetadata(0, 500));
+
+        assertNull(new S3SelectAccessor().getScanRange(context));
+    }
+
+    @Test
+    public void testNoScanRangeForParquet() {
+        RequestContext context = getRequestContext("s3:parquet");
+        context.setFragmentMetadata(new HcfsFragmentMetadata(0, 500));
+
+        assertNull(new S3SelectAccessor().getScanRange(context));
+    }
+
+    @Test
+    public void testScanRangeForJsonLines() {
+        RequestContext context = getRequestContext("s3:json");
+        context.addOption("JSON-TYPE", "lines");
+        context.setFragmentMetadata(new HcfsFragmentMetadata(0, 500));
+
+        ScanRange scanRange = new S3SelectAccessor().getScanRange(context);
+        assertNotNull(scanRange);
+        assertEquals(0L, scanRange.getStart().longValue());
+        assertEquals(499L, scanRange.getEnd().longValue());
+
+        context.addOption("JSON-TYPE", "document");
+        assertNull(new S3SelectAccessor().getScanRange(context));
+    }
+
     @Test
     public void testFailsToParseNullDataSource() {
         RequestContext context = new RequestContext();
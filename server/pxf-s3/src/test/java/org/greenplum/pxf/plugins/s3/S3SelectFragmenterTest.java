@@ -0,0 +1,170 @@
+package org.greenplum.pxf.plugins.s3;
+
+import org.apache.hadoop.conf.Configuration;
+import org.greenplum.pxf.api.model.Fragment;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test the S3SelectFragmenter, with the local filesystem standing in for S3
+ */
+public class S3SelectFragmenterTest {
+
+    @TempDir
+    File temp;
+
+    private RequestContext context;
+    private Configuration configuration;
+    private File object;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        object = new File(temp, "lineitem.csv");
+        Files.write(object.toPath(), new byte[1000]);
+
+        configuration = new Configuration();
+        configuration.set("pxf.fs.basePath", "/");
+
+        context = new RequestContext();
+        context.setConfig("default");
+        context.setUser("test-user");
+        context.setProfile("s3:csv");
+        context.setTotalSegments(4);
+        context.setDataSource(object.getAbsolutePath());
+        context.setConfiguration(configuration);
+    }
+
+    @Test
+    public void testObjectIsReadInOneScanRangePerSegment() throws Exception {
+        context.addOption("SCAN_RANGE_MIN_SIZE", "100");
+
+        List<Fragment> fragments = getFragments();
+
+        assertEquals(4, fragments.size());
+        assertScanRange(fragments.get(0), 0, 250);
+        assertScanRange(fragments.get(1), 250, 250);
+        assertScanRange(fragments.get(2), 500, 250);
+        assertScanRange(fragments.get(3), 750, 250);
+    }
+
+    @Test
+    public void testScanRangesAreNotSmallerThanMinSize() throws Exception {
+        context.addOption("SCAN_RANGE_MIN_SIZE", "300");
+
+        List<Fragment> fragments = getFragments();
+
+        assertEquals(3, fragments.size());
+        assertScanRange(fragments.get(0), 0, 334);
+        assertScanRange(fragments.get(1), 334, 334);
+        assertScanRange(fragments.get(2), 668, 332);
+    }
+
+    @Test
+    public void testMinSizeFromConfiguration() throws Exception {
+        configuration.set("pxf.s3.select.scanRange.minSize", "500");
+
+        List<Fragment> fragments = getFragments();
+
+        assertEquals(2, fragments.size());
+        assertScanRange(fragments.get(0), 0, 500);
+        assertScanRange(fragments.get(1), 500, 500);
+    }
+
+    @Test
+    public void testOptionOverridesConfiguration() throws Exception {
+        configuration.set("pxf.s3.select.scanRange.minSize", "500");
+        context.addOption("SCAN_RANGE_MIN_SIZE", "1k");
+
+        List<Fragment> fragments = getFragments();
+
+        assertEquals(1, fragments.size());
+        assertScanRange(fragments.get(0), 0, 1000);
+    }
+
+    @Test
+    public void testSmallObjectIsReadInOneScanRange() throws Exception {
+        List<Fragment> fragments = getFragments();
+
+        assertEquals(1, fragments.size());
+        assertScanRange(fragments.get(0), 0, 1000);
+    }
+
+    @Test
+    public void testCompressedObjectIsNotSplit() throws Exception {
+        context.addOption("SCAN_RANGE_MIN_SIZE", "100");
+        context.addOption("COMPRESSION_CODEC", "gzip");
+
+        List<Fragment> fragments = getFragments();
+
+        assertEquals(1, fragments.size());
+        assertScanRange(fragments.get(0), 0, 1000);
+    }
+
+    @Test
+    public void testCsvWithHeaderIsNotSplit() throws Exception {
+        context.addOption("SCAN_RANGE_MIN_SIZE", "100");
+        context.addOption("FILE_HEADER", "USE");
+
+        List<Fragment> fragments = getFragments();
+
+        assertEquals(1, fragments.size());
+        assertScanRange(fragments.get(0), 0, 1000);
+    }
+
+    @Test
+    public void testJsonLinesIsSplit() throws Exception {
+        context.setProfile("s3:json");
+        context.addOption("JSON-TYPE", "lines");
+        context.addOption("SCAN_RANGE_MIN_SIZE", "500");
+
+        List<Fragment> fragments = getFragments();
+
+        assertEquals(2, fragments.size());
+        assertScanRange(fragments.get(0), 0, 500);
+        assertScanRange(fragments.get(1), 500, 500);
+    }
+
+    @Test
+    public void testJsonDocumentIsNotSplit() throws Exception {
+        context.setProfile("s3:json");
+        context.addOption("JSON-TYPE", "document");
+        context.addOption("SCAN_RANGE_MIN_SIZE", "100");
+
+        List<Fragment> fragments = getFragments();
+
+        assertEquals(1, fragments.size());
+        assertScanRange(fragments.get(0), 0, 1000);
+    }
+
+    @Test
+    public void testInvalidMinSize() {
+        context.addOption("SCAN_RANGE_MIN_SIZE", "0");
+
+        Exception e = assertThrows(IllegalArgumentException.class, this::getFragments);
+        assertEquals("Invalid scan range minimum size 0: must be a positive number of bytes", e.getMessage());
+    }
+
+    private List<Fragment> getFragments() throws Exception {
+        S3SelectFragmenter fragmenter = new S3SelectFragmenter();
+        fragmenter.setRequestContext(context);
+        fragmenter.afterPropertiesSet();
+        return fragmenter.getFragments();
+    }
+
+    private void assertScanRange(Fragment fragment, long start, long length) {
+        assertEquals(object.toURI().toString(), fragment.getSourceName());
+        HcfsFragmentMetadata metadata = (HcfsFragmentMetadata) fragment.getMetadata();
+        assertEquals(start, metadata.getStart());
+        assertEquals(length, metadata.getLength());
+    }
+}
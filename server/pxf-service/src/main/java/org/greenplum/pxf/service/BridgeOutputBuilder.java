@@ -19,17 +19,16 @@ package org.greenplum.pxf.service;
  * under the License.
  */
 
-import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.ObjectUtils;
 import org.apache.commons.lang.StringUtils;
-import org.greenplum.pxf.api.GreenplumDateTime;
 import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.error.BadRecordException;
 import org.greenplum.pxf.api.io.BufferWritable;
 import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.io.GPDBWritable;
 import org.greenplum.pxf.api.io.Text;
+import org.greenplum.pxf.api.io.TextRecordWritable;
 import org.greenplum.pxf.api.io.Writable;
 import org.greenplum.pxf.api.model.GreenplumCSV;
 import org.greenplum.pxf.api.model.OutputFormat;
@@ -41,11 +40,10 @@ import org.slf4j.LoggerFactory;
 import java.lang.reflect.Array;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static org.greenplum.pxf.api.io.DataType.TEXT;
 
@@ -78,6 +76,13 @@ public class BridgeOutputBuilder {
     private final List<ColumnDescriptor> columnDescriptors;
     private final String gpdbTableformat;
 
+    /**
+     * The TEXT records are serialized into reusable buffers, one for each
+     * record of the output list, so that no objects are allocated per record
+     */
+    private final List<TextRecordWritable> textRecords;
+    private int textRecordsInUse;
+
     /**
      * Constructs a BridgeOutputBuilder.
      *
@@ -95,6 +100,7 @@ public class BridgeOutputBuilder {
         makeErrorRecord();
         samplingEnabled = (context.getStatsSampleRatio() > 0);
         gpdbTableformat = context.getFormat();
+        textRecords = new ArrayList<>();
     }
 
     /**
@@ -155,6 +161,7 @@ public class BridgeOutputBuilder {
         }
 
         outputList.clear();
+        textRecordsInUse = 0;
 
         fillOutputRecord(recFields);
 
@@ -163,6 +170,7 @@ public class BridgeOutputBuilder {
 
     public LinkedList<Writable> makeVectorizedOutput(List<List<OneField>> recordsBatch) throws BadRecordException {
         outputList.clear();
+        textRecordsInUse = 0;
         if (recordsBatch != null) {
             for (List<OneField> record : recordsBatch) {
                 if (outputFormat == OutputFormat.GPDBWritable) {
@@ -320,9 +328,13 @@ public class BridgeOutputBuilder {
                 // text.getBytes().length not necessarily equals to text.getLength()
                 output = new BufferWritable(text.getBytes(), text.getLength());
             } else if (recFields.size() == 1 && val instanceof String) {
-                output = new Text(val + newLine);
+                TextRecordWritable textRecord = nextTextRecord();
+                textRecord.setLine((String) val);
+                output = textRecord;
             } else {
-                output = new Text(fieldListToCSVString(recFields));
+                TextRecordWritable textRecord = nextTextRecord();
+                textRecord.set(recFields);
+                output = textRecord;
             }
         }
 
@@ -470,33 +482,15 @@ public class BridgeOutputBuilder {
     }
 
     /**
-     * Serialize a list of OneFields to a CSV line
+     * Returns the next unused TEXT record buffer for the current output list.
+     * The buffers are reused once the output list is cleared.
      *
-     * @param fields list of fields
-     * @return a serialized CSV line
+     * @return a TEXT record buffer
      */
-    private String fieldListToCSVString(List<OneField> fields) {
-        return fields.stream()
-                .map(field -> {
-                    // Check first if the field.val is null then using .toString() is safe in else branches.
-                    if (field.val == null) {
-                        return greenplumCSV.getValueOfNull();
-                    } else if (field.type == DataType.BYTEA.getOID()) {
-                        // check for Format Type here. if the Format Type is CSV, we should escape using single \
-                        // for Text or Custom Format types, it should \\
-                        String hexPrepend = gpdbTableformat.equalsIgnoreCase("csv") ? "\\x" : "\\\\x";
-                        return hexPrepend + Hex.encodeHexString((byte[]) field.val);
-                    } else if (field.type == DataType.NUMERIC.getOID() || !DataType.isTextForm(field.type)) {
-                        return field.val.toString();
-                    } else if (field.type == DataType.TIMESTAMP.getOID()) {
-                        return field.val instanceof String ?
-                                (String) field.val :
-                                ((Timestamp) field.val).toLocalDateTime().format(GreenplumDateTime.DATETIME_FORMATTER);
-                    } else if (field.type == DataType.DATE.getOID()) {
-                        return field.val.toString();
-                    } else
-                        return greenplumCSV.toCsvField(field.val.toString(), true, true, true);
-                })
-                .collect(Collectors.joining(String.valueOf(greenplumCSV.getDelimiter()), "", newLine));
+    private TextRecordWritable nextTextRecord() {
+        if (textRecordsInUse == textRecords.size()) {
+            textRecords.add(new TextRecordWritable(greenplumCSV, gpdbTableformat));
+        }
+        return textRecords.get(textRecordsInUse++);
     }
 }
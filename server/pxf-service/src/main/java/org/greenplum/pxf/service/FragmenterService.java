@@ -20,6 +20,8 @@ package org.greenplum.pxf.service;
  */
 
 import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.apache.commons.lang.StringUtils;
+import org.greenplum.pxf.api.configuration.PxfServerProperties;
 import org.greenplum.pxf.api.model.Fragment;
 import org.greenplum.pxf.api.model.Fragmenter;
 import org.greenplum.pxf.api.model.RequestContext;
@@ -27,6 +29,7 @@ import org.greenplum.pxf.api.utilities.FragmenterCacheFactory;
 import org.greenplum.pxf.service.utilities.AnalyzeUtils;
 import org.greenplum.pxf.service.utilities.BasePluginFactory;
 import org.greenplum.pxf.service.utilities.GSSFailureHandler;
+import org.greenplum.pxf.service.utilities.LocalityFragmentAssigner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -49,16 +52,42 @@ public class FragmenterService {
 
     private static final Logger LOG = LoggerFactory.getLogger(FragmenterService.class);
 
+    static final String FRAGMENT_ASSIGNMENT_OPTION = "FRAGMENT_ASSIGNMENT";
+    static final String FRAGMENT_ASSIGNMENT_PROPERTY = "pxf.fragment.assignment";
+    static final String LOCALITY_ASSIGNMENT = "locality";
+
     private final BasePluginFactory pluginFactory;
     private final FragmenterCacheFactory fragmenterCacheFactory;
     private final GSSFailureHandler failureHandler;
+    private final MetricsReporter metricsReporter;
+    private final SharedFragmentCache sharedFragmentCache;
+    private final String defaultFragmentAssignment;
+    private final LocalityFragmentAssigner localityAssigner;
 
+    /**
+     * Creates a new instance.
+     *
+     * @param fragmenterCacheFactory fragmenter cache factory
+     * @param pluginFactory          plugin factory
+     * @param failureHandler         failure handler
+     * @param metricsReporter        metrics reporter service
+     * @param sharedFragmentCache    cache of fragments shared across queries
+     * @param pxfServerProperties    PXF server properties
+     */
     public FragmenterService(FragmenterCacheFactory fragmenterCacheFactory,
                              BasePluginFactory pluginFactory,
-                             GSSFailureHandler failureHandler) {
+                             GSSFailureHandler failureHandler,
+                             MetricsReporter metricsReporter,
+                             SharedFragmentCache sharedFragmentCache,
+                             PxfServerProperties pxfServerProperties) {
         this.fragmenterCacheFactory = fragmenterCacheFactory;
         this.pluginFactory = pluginFactory;
         this.failureHandler = failureHandler;
+        this.metricsReporter = metricsReporter;
+        this.sharedFragmentCache = sharedFragmentCache;
+        this.defaultFragmentAssignment = pxfServerProperties.getRead().getFragmentAssignment();
+        List<String> segmentHosts = pxfServerProperties.getRead().getSegmentHosts();
+        this.localityAssigner = segmentHosts == null || segmentHosts.isEmpty() ? null : new LocalityFragmentAssigner(segmentHosts);
     }
 
     public List<Fragment> getFragmentsForSegment(RequestContext context) throws IOException {
@@ -75,13 +104,26 @@ public class FragmenterService {
 
         LOG.debug("FRAGMENTER started for path \"{}\"", path);
 
-        List<Fragment> fragments = getFragmentsFromCache(context, startTime);
+        LocalityFragmentAssigner assigner = getLocalityAssigner(context);
+        boolean localityAssignment = assigner != null && isLocalityAssignment(context);
+        List<Fragment> fragments = getFragmentsFromCache(context, startTime, localityAssignment);
+
+        List<Fragment> filteredFragments;
+        if (localityAssignment && LocalityFragmentAssigner.hasHosts(fragments)) {
+            filteredFragments = assigner.assign(fragments,
+                    context.getSegmentId(),
+                    getShiftedIndex(context.getTotalSegments(), context.getGpSessionId(), context.getGpCommandCount()));
+        } else {
+            filteredFragments = filterFragments(fragments,
+                    context.getSegmentId(),
+                    context.getTotalSegments(),
+                    context.getGpSessionId(),
+                    context.getGpCommandCount());
+        }
 
-        List<Fragment> filteredFragments = filterFragments(fragments,
-                context.getSegmentId(),
-                context.getTotalSegments(),
-                context.getGpSessionId(),
-                context.getGpCommandCount());
+        if (assigner != null) {
+            reportLocality(filteredFragments, assigner, context);
+        }
 
         if (LOG.isDebugEnabled()) {
             int numberOfFragments = filteredFragments.size();
@@ -101,13 +143,19 @@ public class FragmenterService {
      * concurrent requests are made to the cache with the same key, the first
      * request will populate the cache, while the other requests will wait
      * until the cache entry is populated.
+     * <p>
+     * The fragments are not taken from the cache shared across queries when
+     * they are assigned to the segments by locality, as the versions of the
+     * data sources do not cover the hosts of the fragments, and the PXF
+     * servers of a query would assign the fragments from different hosts.
      *
-     * @param context   the request context
-     * @param startTime the start time of the request
+     * @param context            the request context
+     * @param startTime          the start time of the request
+     * @param localityAssignment whether the fragments are assigned to the segments by locality
      * @return the list of fragments for the request
      * @throws IOException when an exception occurs
      */
-    private List<Fragment> getFragmentsFromCache(RequestContext context, Instant startTime) throws IOException {
+    private List<Fragment> getFragmentsFromCache(RequestContext context, Instant startTime, boolean localityAssignment) throws IOException {
         final String fragmenterCacheKey = getFragmenterCacheKey(context);
         try {
             return fragmenterCacheFactory.getCache()
@@ -116,7 +164,9 @@ public class FragmenterService {
                                 context.getSegmentId(), fragmenterCacheKey);
 
                         List<Fragment> fragmentList = failureHandler.execute(context.getConfiguration(),
-                                "get fragments", () -> getFragmenter(context).getFragments());
+                                "get fragments", () -> localityAssignment ?
+                                        getFragmenter(context).getFragments() :
+                                        sharedFragmentCache.getFragments(context, getFragmenter(context)));
 
                         /* Create a fragmenter instance with API level parameters */
                         fragmentList = AnalyzeUtils.getSampleFragments(fragmentList, context);
@@ -176,7 +226,7 @@ public class FragmenterService {
         the low-numbered segments. This helps to spread out the workload across the cluster to different PXF JVMs.
         Using gpCommandCount will ensure that consecutive queries for a single transaction are also shifted.
         */
-        int shiftedIndex = gpSessionId % totalSegments + gpCommandCount; // index of fragment #0 to use for mod function
+        int shiftedIndex = getShiftedIndex(totalSegments, gpSessionId, gpCommandCount); // index of fragment #0 to use for mod function
 
         List<Fragment> filteredFragments = new ArrayList<>((int) Math.ceil(fragments.size() / totalSegments));
         // do not use fragments.get(i) to iterate over fragments as the incoming fragment list is a LinkedList
@@ -189,6 +239,75 @@ public class FragmenterService {
         return filteredFragments;
     }
 
+    private int getShiftedIndex(int totalSegments, int gpSessionId, int gpCommandCount) {
+        return gpSessionId % totalSegments + gpCommandCount;
+    }
+
+    /**
+     * Returns whether the fragments of the request are assigned to the
+     * segments by locality. The FRAGMENT_ASSIGNMENT table option takes
+     * precedence over the pxf.fragment.assignment property of the server,
+     * which takes precedence over the pxf.read.fragment-assignment property.
+     *
+     * @param context the request context
+     * @return true for the locality assignment, false for the round-robin assignment
+     */
+    private boolean isLocalityAssignment(RequestContext context) {
+        String assignment = context.getOption(FRAGMENT_ASSIGNMENT_OPTION);
+        if (StringUtils.isBlank(assignment) && context.getConfiguration() != null) {
+            assignment = context.getConfiguration().get(FRAGMENT_ASSIGNMENT_PROPERTY);
+        }
+        if (StringUtils.isBlank(assignment)) {
+            assignment = defaultFragmentAssignment;
+        }
+        return StringUtils.equalsIgnoreCase(StringUtils.trim(assignment), LOCALITY_ASSIGNMENT);
+    }
+
+    /**
+     * Returns the locality assigner when the hosts of all the segments of the
+     * request are known, null otherwise.
+     *
+     * @param context the request context
+     * @return the locality assigner, or null
+     */
+    private LocalityFragmentAssigner getLocalityAssigner(RequestContext context) {
+        if (localityAssigner == null) {
+            return null;
+        }
+        if (localityAssigner.getTotalSegments() != context.getTotalSegments()) {
+            LOG.warn("Ignoring pxf.read.segment-hosts, it lists {} hosts but the cluster has {} segments",
+                    localityAssigner.getTotalSegments(), context.getTotalSegments());
+            return null;
+        }
+        return localityAssigner;
+    }
+
+    /**
+     * Reports the bytes of the fragments of the segment that are stored on
+     * the host of the segment and on other hosts.
+     *
+     * @param fragments the fragments assigned to the segment
+     * @param assigner  the locality assigner
+     * @param context   the request context
+     */
+    private void reportLocality(List<Fragment> fragments, LocalityFragmentAssigner assigner, RequestContext context) {
+        long localBytes = 0;
+        long remoteBytes = 0;
+        for (Fragment fragment : fragments) {
+            if (fragment.getMetadata() == null) {
+                continue;
+            }
+            long length = fragment.getMetadata().getLength();
+            if (assigner.isLocal(fragment, context.getSegmentId())) {
+                localBytes += length;
+            } else {
+                remoteBytes += length;
+            }
+        }
+        metricsReporter.reportCounter(MetricsReporter.PxfMetric.FRAGMENT_BYTES_LOCAL, localBytes, context);
+        metricsReporter.reportCounter(MetricsReporter.PxfMetric.FRAGMENT_BYTES_REMOTE, remoteBytes, context);
+    }
+
     /**
      * Returns the fragmenter initialized with the request context
      *
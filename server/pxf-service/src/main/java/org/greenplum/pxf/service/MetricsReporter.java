@@ -149,8 +149,11 @@ public class MetricsReporter {
      */
     public enum PxfMetric {
         FRAGMENTS_SENT("pxf.fragments.sent", "pxf.metrics.fragments.enabled"),
+        FRAGMENT_BYTES_LOCAL("pxf.fragments.bytes.local", "pxf.metrics.fragments.enabled"),
+        FRAGMENT_BYTES_REMOTE("pxf.fragments.bytes.remote", "pxf.metrics.fragments.enabled"),
         RECORDS_SENT("pxf.records.sent", "pxf.metrics.records.enabled"),
         RECORDS_RECEIVED("pxf.records.received", "pxf.metrics.records.enabled"),
+        RECORDS_FILTERED("pxf.records.filtered", "pxf.metrics.records.enabled"),
         BYTES_SENT("pxf.bytes.sent", "pxf.metrics.bytes.enabled"),
         BYTES_RECEIVED("pxf.bytes.received", "pxf.metrics.bytes.enabled");
 
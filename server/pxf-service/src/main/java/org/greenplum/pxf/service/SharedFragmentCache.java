@@ -0,0 +1,222 @@
+package org.greenplum.pxf.service;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.commons.lang.StringUtils;
+import org.greenplum.pxf.api.configuration.PxfServerProperties;
+import org.greenplum.pxf.api.model.Fragment;
+import org.greenplum.pxf.api.model.Fragmenter;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Caches the fragments of a data source across queries, unlike the cache of
+ * the {@link org.greenplum.pxf.api.utilities.FragmenterCacheFactory} that is
+ * only shared by the segments of a single query. The fragments are keyed by
+ * the server, user, profile, fragmenter, data source, filter, columns,
+ * options and number of segments of the query, and are only reused while
+ * the version of the data source returned by
+ * {@link Fragmenter#getFragmentsVersion()} does not change and the time to
+ * live of the profile has not elapsed.
+ * <p>
+ * The cache is bounded by the total number of cached fragments, and reports
+ * its hits, misses, invalidations and expirations as meters.
+ */
+@Component
+public class SharedFragmentCache implements MeterBinder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SharedFragmentCache.class);
+
+    private final boolean enabled;
+    private final Duration defaultTtl;
+    private final Map<String, Duration> profileTtl;
+    private final Ticker ticker;
+    private final Cache<String, Entry> cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    @Autowired
+    public SharedFragmentCache(PxfServerProperties pxfServerProperties) {
+        this(pxfServerProperties.getFragmentCache(), Ticker.systemTicker());
+    }
+
+    SharedFragmentCache(PxfServerProperties.FragmentCache properties, Ticker ticker) {
+        this.enabled = properties.isEnabled();
+        this.defaultTtl = properties.getTtl();
+        this.profileTtl = properties.getProfileTtl();
+        this.ticker = ticker;
+
+        // entries can not outlive the longest time to live
+        Duration maxTtl = profileTtl.values().stream().reduce(defaultTtl, (a, b) -> a.compareTo(b) >= 0 ? a : b);
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(properties.getMaxFragments())
+                .weigher((String key, Entry entry) -> Math.max(1, entry.fragments.size()))
+                .expireAfterWrite(Math.max(1, maxTtl.toMillis()), TimeUnit.MILLISECONDS)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        if (enabled) {
+            LOG.info("Creating Shared Fragment Cache with a maximum of {} fragments and entry expiration of {} ms",
+                    properties.getMaxFragments(), defaultTtl.toMillis());
+        }
+    }
+
+    /**
+     * Returns the fragments of the fragmenter, from the cache when the data
+     * source has not changed since they were cached, otherwise from the
+     * fragmenter. The returned fragments are copies of the cached fragments,
+     * so that the caller can modify them.
+     *
+     * @param context    the request context
+     * @param fragmenter the fragmenter initialized with the request context
+     * @return the list of fragments
+     * @throws Exception when the fragmenter fails to return the version or the fragments
+     */
+    public List<Fragment> getFragments(RequestContext context, Fragmenter fragmenter) throws Exception {
+        Duration ttl = getTtl(context.getProfile());
+        if (!enabled || ttl.isZero() || ttl.isNegative()) {
+            return fragmenter.getFragments();
+        }
+
+        String version = fragmenter.getFragmentsVersion();
+        if (version == null) {
+            return fragmenter.getFragments();
+        }
+
+        String key = getKey(context);
+        long now = ticker.read();
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null && entry.version.equals(version) && now - entry.createdNanos < ttl.toNanos()) {
+            hits.increment();
+            LOG.debug("Using {} cached fragments for key={}", entry.fragments.size(), key);
+            return copyOf(entry.fragments);
+        }
+
+        if (entry == null) {
+            misses.increment();
+        } else if (!entry.version.equals(version)) {
+            invalidations.increment();
+            LOG.debug("Data source has changed, invalidating cached fragments for key={}", key);
+        } else {
+            expirations.increment();
+        }
+
+        List<Fragment> fragments = copyOf(fragmenter.getFragments());
+        cache.put(key, new Entry(version, now, fragments));
+        return copyOf(fragments);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("pxf.fragment.cache.hits", hits, LongAdder::sum)
+                .description("The number of queries that used cached fragments")
+                .register(registry);
+        FunctionCounter.builder("pxf.fragment.cache.misses", misses, LongAdder::sum)
+                .description("The number of queries with fragments that were not cached")
+                .register(registry);
+        FunctionCounter.builder("pxf.fragment.cache.invalidations", invalidations, LongAdder::sum)
+                .description("The number of queries that discarded cached fragments because the data source changed")
+                .register(registry);
+        FunctionCounter.builder("pxf.fragment.cache.expirations", expirations, LongAdder::sum)
+                .description("The number of queries that discarded cached fragments because they expired")
+                .register(registry);
+        FunctionCounter.builder("pxf.fragment.cache.evictions", cache, c -> c.stats().evictionCount())
+                .description("The number of cached data sources evicted to bound the number of cached fragments")
+                .register(registry);
+        Gauge.builder("pxf.fragment.cache.size", cache, Cache::size)
+                .description("The number of cached data sources")
+                .register(registry);
+    }
+
+    long getHitCount() {
+        return hits.sum();
+    }
+
+    long getMissCount() {
+        return misses.sum();
+    }
+
+    long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    long getExpirationCount() {
+        return expirations.sum();
+    }
+
+    private Duration getTtl(String profile) {
+        if (profile != null) {
+            for (Map.Entry<String, Duration> entry : profileTtl.entrySet()) {
+                if (StringUtils.equalsIgnoreCase(entry.getKey(), profile)) {
+                    return entry.getValue();
+                }
+            }
+        }
+        return defaultTtl;
+    }
+
+    /**
+     * Returns the key of the fragments of the query. The columns are part of
+     * the key as some fragmenters validate them against the data source, the
+     * options of the table and the number of segments as some fragmenters
+     * size the fragments from them.
+     */
+    private String getKey(RequestContext context) {
+        List<ColumnDescriptor> columns = context.getTupleDescription() != null ? context.getTupleDescription() : Collections.emptyList();
+        // the names of the options are case-insensitive
+        Map<String, String> options = new TreeMap<>();
+        context.getOptions().forEach((name, value) -> options.put(StringUtils.upperCase(name), value));
+        return String.format("%s:%s:%s:%s:%s:%s:%s:%d:%s",
+                context.getServerName(),
+                context.getUser(),
+                context.getProfile(),
+                context.getFragmenter(),
+                context.getDataSource(),
+                context.getFilterString(),
+                columns.stream().map(ColumnDescriptor::columnName).collect(Collectors.joining(",")),
+                context.getTotalSegments(),
+                options);
+    }
+
+    private static List<Fragment> copyOf(List<Fragment> fragments) {
+        List<Fragment> copy = new ArrayList<>(fragments.size());
+        for (Fragment fragment : fragments) {
+            copy.add(new Fragment(fragment.getSourceName(), fragment.getMetadata(), fragment.getProfile()));
+        }
+        return copy;
+    }
+
+    private static class Entry {
+
+        private final String version;
+        private final long createdNanos;
+        private final List<Fragment> fragments;
+
+        Entry(String version, long createdNanos, List<Fragment> fragments) {
+            this.version = version;
+            this.createdNanos = createdNanos;
+            this.fragments = fragments;
+        }
+    }
+}
@@ -51,4 +51,15 @@ public abstract class BaseBridge implements Bridge {
         LOG.debug("Creating accessor '{}'", accessorClassName);
         this.accessor = pluginFactory.getPlugin(context, accessorClassName);
     }
+
+    /**
+     * Returns the accessor and resolver to the factory once the iteration has
+     * completed, so that resettable plugins can be reused by other requests.
+     */
+    protected void releasePlugins() {
+        pluginFactory.releasePlugin(accessor);
+        pluginFactory.releasePlugin(resolver);
+        accessor = null;
+        resolver = null;
+    }
 }
@@ -59,4 +59,13 @@ public interface Bridge {
      * @throws Exception when an error occurs during the operation
      */
     void endIteration() throws Exception;
+
+    /**
+     * Returns the number of records read from the external system that were not
+     * returned because they did not match the filter of the request.
+     * @return the number of filtered records
+     */
+    default long getFilteredRecordCount() {
+        return 0;
+    }
 }
@@ -19,6 +19,7 @@ package org.greenplum.pxf.service.bridge;
  * under the License.
  */
 
+import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.OneRow;
 import org.greenplum.pxf.api.error.BadRecordException;
 import org.greenplum.pxf.api.io.Writable;
@@ -35,6 +36,7 @@ import java.io.UTFDataFormatException;
 import java.nio.charset.CharacterCodingException;
 import java.util.Deque;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.zip.ZipException;
 
 /**
@@ -43,16 +45,21 @@ import java.util.zip.ZipException;
  * get records from accessor, let resolver deserialize them and serialize them
  * again using the output conversion class. <br>
  * The class handles BadRecordException and other exception type and marks the
- * record as invalid for GPDB.
+ * record as invalid for GPDB. <br>
+ * When the residual filter is enabled, the resolved records that do not match
+ * the filter pushed down by GPDB are dropped before they are serialized.
  */
 public class ReadBridge extends BaseBridge {
 
     protected BridgeOutputBuilder outputBuilder;
     protected Deque<Writable> outputQueue = new LinkedList<>();
+    protected final ResidualFilter residualFilter;
+    protected long filteredRecordCount;
 
     public ReadBridge(BasePluginFactory pluginFactory, RequestContext context, GSSFailureHandler failureHandler) {
         super(pluginFactory, context, failureHandler);
         this.outputBuilder = new BridgeOutputBuilder(context);
+        this.residualFilter = ResidualFilter.create(context);
     }
 
     /**
@@ -65,7 +72,13 @@ public class ReadBridge extends BaseBridge {
     }
 
     protected Deque<Writable> makeOutput(OneRow oneRow) throws Exception {
-        return outputBuilder.makeOutput(resolver.getFields(oneRow));
+        List<OneField> fields = resolver.getFields(oneRow);
+        if (residualFilter != null && !residualFilter.test(fields)) {
+            filteredRecordCount++;
+            // the output queue is empty when a new record is made, the next record is read
+            return outputQueue;
+        }
+        return outputBuilder.makeOutput(fields);
     }
 
     /**
@@ -115,6 +128,14 @@ public class ReadBridge extends BaseBridge {
         return output;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getFilteredRecordCount() {
+        return filteredRecordCount;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -126,6 +147,8 @@ public class ReadBridge extends BaseBridge {
             LOG.error("Failed to close bridge resources: {}", e.getMessage());
             throw e;
         }
+        // an accessor that failed to close is not released for reuse
+        releasePlugins();
     }
 
     /*
@@ -21,17 +21,31 @@ package org.greenplum.pxf.service.bridge;
 
 import org.greenplum.pxf.api.OneField;
 import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.BatchWritable;
 import org.greenplum.pxf.api.model.ReadVectorizedResolver;
 import org.greenplum.pxf.api.io.Writable;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.greenplum.pxf.service.utilities.BasePluginFactory;
 import org.greenplum.pxf.service.utilities.GSSFailureHandler;
 
 import java.util.Deque;
+import java.util.LinkedList;
 import java.util.List;
 
+/**
+ * Bridge for resolvers that resolve a batch of records at once. When the
+ * resolver is able to serialize the batch directly, the whole batch is
+ * returned as a single {@link BatchWritable} whose buffer is reused for
+ * the next batch, otherwise the resolved records are serialized one by one
+ * by the output builder.
+ */
 public class ReadVectorizedBridge extends ReadBridge {
 
+    private final Deque<Writable> batchOutputQueue = new LinkedList<>();
+    private BatchWritable batchOutput;
+    private boolean writeBatchSupported = true;
+
     public ReadVectorizedBridge(BasePluginFactory pluginFactory, RequestContext context, GSSFailureHandler failureHandler) {
         super(pluginFactory, context, failureHandler);
     }
@@ -41,8 +55,32 @@ public class ReadVectorizedBridge extends ReadBridge {
      */
     @Override
     protected Deque<Writable> makeOutput(OneRow oneRow) throws Exception {
-        List<List<OneField>> resolvedBatch = ((ReadVectorizedResolver) resolver).
-                getFieldsForBatch(oneRow);
+        ReadVectorizedResolver vectorizedResolver = (ReadVectorizedResolver) resolver;
+
+        // the types of the batches do not change within a fragment, once the
+        // resolver is not able to serialize a batch we stop trying
+        if (writeBatchSupported) {
+            if (batchOutput == null) {
+                batchOutput = new BatchWritable(
+                        context.getOutputFormat(),
+                        context.getTupleDescription().stream().mapToInt(ColumnDescriptor::columnTypeCode).toArray(),
+                        context.getGreenplumCSV(),
+                        context.getFormat(),
+                        context.getDatabaseEncoding());
+            }
+            batchOutput.reset();
+            if (vectorizedResolver.writeBatch(oneRow, batchOutput)) {
+                batchOutputQueue.clear();
+                if (batchOutput.getRecordCount() > 0) {
+                    batchOutputQueue.add(batchOutput);
+                }
+                return batchOutputQueue;
+            }
+            writeBatchSupported = false;
+            batchOutput = null;
+        }
+
+        List<List<OneField>> resolvedBatch = vectorizedResolver.getFieldsForBatch(oneRow);
         return outputBuilder.makeVectorizedOutput(resolvedBatch);
     }
 }
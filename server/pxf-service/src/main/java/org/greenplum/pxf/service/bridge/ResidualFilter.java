@@ -0,0 +1,470 @@
+package org.greenplum.pxf.service.bridge;
+
+import org.apache.commons.lang.StringUtils;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.filter.CollectionOperandNode;
+import org.greenplum.pxf.api.filter.ColumnIndexOperandNode;
+import org.greenplum.pxf.api.filter.FilterParser;
+import org.greenplum.pxf.api.filter.Node;
+import org.greenplum.pxf.api.filter.Operator;
+import org.greenplum.pxf.api.filter.OperatorNode;
+import org.greenplum.pxf.api.filter.ScalarOperandNode;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.model.OutputFormat;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Filters the records resolved by a read bridge with the filter that Greenplum
+ * pushed down, so that the records Greenplum would discard are not serialized
+ * and sent to it.
+ * <p>
+ * The filter is compiled once per request into a condition over the resolved
+ * fields, following the three-valued logic of SQL. A part of the filter that
+ * can not be evaluated the way Greenplum evaluates it (an unsupported operator
+ * or data type, a column that is not projected, or an ordering of text values
+ * that depends on the collation of the database) is pruned, so that the
+ * condition never drops a record that matches the filter. Greenplum still
+ * applies the complete filter to the records it receives.
+ */
+final class ResidualFilter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ResidualFilter.class);
+
+    static final String RESIDUAL_FILTER_OPTION = "RESIDUAL_FILTER";
+    static final String RESIDUAL_FILTER_PROPERTY = "pxf.filter.residual";
+
+    private final Condition condition;
+    private final int columnCount;
+    private boolean mismatchLogged;
+
+    private ResidualFilter(Condition condition, int columnCount) {
+        this.condition = condition;
+        this.columnCount = columnCount;
+    }
+
+    /**
+     * Creates the residual filter of a read request, when it is enabled with the
+     * {@value #RESIDUAL_FILTER_OPTION} option or the {@value #RESIDUAL_FILTER_PROPERTY}
+     * property of the server and the request has a filter that can be evaluated.
+     * Records in the text output format are lines passed through to Greenplum
+     * without resolving their columns, they are not filtered.
+     *
+     * @param context the request context
+     * @return the filter, or null if the records are not filtered
+     */
+    static ResidualFilter create(RequestContext context) {
+        if (!context.hasFilter() || context.getOutputFormat() != OutputFormat.GPDBWritable || !isEnabled(context)) {
+            return null;
+        }
+
+        Condition condition;
+        try {
+            Node root = new FilterParser().parse(context.getFilterString());
+            Compiled compiled = compile(root, context.getTupleDescription());
+            condition = compiled != null ? compiled.condition : null;
+        } catch (Exception e) {
+            LOG.warn("Records of resource {} are not filtered, as its filter '{}' can not be parsed: {}",
+                    context.getDataSource(), context.getFilterString(), e.getMessage());
+            return null;
+        }
+
+        if (condition == null) {
+            LOG.debug("Records of resource {} are not filtered, as no part of its filter '{}' can be evaluated",
+                    context.getDataSource(), context.getFilterString());
+            return null;
+        }
+        return new ResidualFilter(condition, context.getColumns());
+    }
+
+    /**
+     * Returns whether the record matches the filter. A record whose fields do not
+     * match the columns of the table, or whose values can not be compared, is
+     * considered to match.
+     *
+     * @param fields the resolved fields of the record
+     * @return false if the record does not match the filter and can be dropped
+     */
+    boolean test(List<OneField> fields) {
+        if (fields == null || fields.size() != columnCount) {
+            if (!mismatchLogged) {
+                LOG.debug("Records are not filtered, as the resolved record has {} fields for {} columns",
+                        fields != null ? fields.size() : 0, columnCount);
+                mismatchLogged = true;
+            }
+            return true;
+        }
+        try {
+            return condition.test(fields) == Boolean.TRUE;
+        } catch (IncomparableValueException e) {
+            return true;
+        }
+    }
+
+    private static boolean isEnabled(RequestContext context) {
+        String enabled = context.getOption(RESIDUAL_FILTER_OPTION);
+        if (StringUtils.isBlank(enabled) && context.getConfiguration() != null) {
+            enabled = context.getConfiguration().get(RESIDUAL_FILTER_PROPERTY);
+        }
+        return StringUtils.equalsIgnoreCase(StringUtils.trim(enabled), "true");
+    }
+
+    /**
+     * Compiles a node of the filter. A condition that is not exact only matches
+     * more records than the node, it can not be negated.
+     *
+     * @return the compiled condition, or null if the node can not be evaluated
+     */
+    private static Compiled compile(Node node, List<ColumnDescriptor> columns) {
+        if (!(node instanceof OperatorNode)) {
+            return null;
+        }
+        OperatorNode operatorNode = (OperatorNode) node;
+        Operator operator = operatorNode.getOperator();
+        switch (operator) {
+            case AND: {
+                Compiled left = compile(operatorNode.getLeft(), columns);
+                Compiled right = compile(operatorNode.getRight(), columns);
+                if (left == null || right == null) {
+                    // the remaining child matches more records than the conjunction
+                    Compiled remaining = left != null ? left : right;
+                    return remaining != null ? new Compiled(remaining.condition, false) : null;
+                }
+                return new Compiled(and(left.condition, right.condition), left.exact && right.exact);
+            }
+            case OR: {
+                Compiled left = compile(operatorNode.getLeft(), columns);
+                Compiled right = compile(operatorNode.getRight(), columns);
+                if (left == null || right == null) {
+                    return null;
+                }
+                return new Compiled(or(left.condition, right.condition), left.exact && right.exact);
+            }
+            case NOT: {
+                Compiled child = compile(operatorNode.getLeft(), columns);
+                if (child == null || !child.exact) {
+                    return null;
+                }
+                Condition condition = child.condition;
+                return new Compiled(fields -> {
+                    Boolean result = condition.test(fields);
+                    return result != null ? !result : null;
+                }, true);
+            }
+            default:
+                Condition condition = compileComparison(operatorNode, columns);
+                return condition != null ? new Compiled(condition, true) : null;
+        }
+    }
+
+    private static Condition compileComparison(OperatorNode operatorNode, List<ColumnDescriptor> columns) {
+        if (!(operatorNode.getLeft() instanceof ColumnIndexOperandNode)) {
+            return null;
+        }
+        int index = ((ColumnIndexOperandNode) operatorNode.getLeft()).index();
+        if (index < 0 || index >= columns.size() || !columns.get(index).isProjected()) {
+            // the resolvers may not resolve the values of columns that are not projected
+            return null;
+        }
+        DataType type = columns.get(index).getDataType();
+        Operator operator = operatorNode.getOperator();
+
+        switch (operator) {
+            case IS_NULL:
+                return fields -> fields.get(index).val == null;
+            case IS_NOT_NULL:
+                return fields -> fields.get(index).val != null;
+            case IN: {
+                if (!(operatorNode.getRight() instanceof CollectionOperandNode)) {
+                    return null;
+                }
+                CollectionOperandNode collection = (CollectionOperandNode) operatorNode.getRight();
+                DataType constantType = collection.getDataType() != null ? collection.getDataType().getTypeElem() : null;
+                List<Comparison> comparisons = new ArrayList<>();
+                for (String value : collection.getData()) {
+                    Comparison comparison = comparison(type, constantType, value);
+                    if (comparison == null) {
+                        return null;
+                    }
+                    comparisons.add(comparison);
+                }
+                return fields -> {
+                    Object value = fields.get(index).val;
+                    if (value == null) {
+                        return null;
+                    }
+                    for (Comparison comparison : comparisons) {
+                        if (comparison.compareTo(value) == 0) {
+                            return true;
+                        }
+                    }
+                    return false;
+                };
+            }
+            case EQUALS:
+            case NOT_EQUALS:
+            case LESS_THAN:
+            case LESS_THAN_OR_EQUAL:
+            case GREATER_THAN:
+            case GREATER_THAN_OR_EQUAL:
+                break;
+            default:
+                return null;
+        }
+
+        if (!(operatorNode.getRight() instanceof ScalarOperandNode)) {
+            return null;
+        }
+        boolean ordering = operator != Operator.EQUALS && operator != Operator.NOT_EQUALS;
+        if (ordering && (type == DataType.TEXT || type == DataType.VARCHAR || type == DataType.BOOLEAN)) {
+            // the ordering of text values depends on the collation of the database
+            return null;
+        }
+        ScalarOperandNode scalar = (ScalarOperandNode) operatorNode.getRight();
+        Comparison comparison = comparison(type, scalar.getDataType(), scalar.getValue());
+        if (comparison == null) {
+            return null;
+        }
+        IntPredicate matches = matches(operator);
+        return fields -> {
+            Object value = fields.get(index).val;
+            return value != null ? matches.test(comparison.compareTo(value)) : null;
+        };
+    }
+
+    private static IntPredicate matches(Operator operator) {
+        switch (operator) {
+            case EQUALS:
+                return result -> result == 0;
+            case NOT_EQUALS:
+                return result -> result != 0;
+            case LESS_THAN:
+                return result -> result < 0;
+            case LESS_THAN_OR_EQUAL:
+                return result -> result <= 0;
+            case GREATER_THAN:
+                return result -> result > 0;
+            default:
+                return result -> result >= 0;
+        }
+    }
+
+    /**
+     * Creates the comparison of the values of a column of the given type with
+     * a constant of the filter of the given type.
+     *
+     * @return the comparison, or null if the type is not supported or the constant can not be parsed
+     */
+    private static Comparison comparison(DataType type, DataType constantType, String constant) {
+        try {
+            switch (type) {
+                case SMALLINT:
+                case INTEGER:
+                case BIGINT: {
+                    BigDecimal decimal = new BigDecimal(constant);
+                    try {
+                        long value = decimal.longValueExact();
+                        return v -> Long.compare(toLong(v), value);
+                    } catch (ArithmeticException e) {
+                        return v -> BigDecimal.valueOf(toLong(v)).compareTo(decimal);
+                    }
+                }
+                case NUMERIC: {
+                    BigDecimal value = new BigDecimal(constant);
+                    return v -> toBigDecimal(v).compareTo(value);
+                }
+                case REAL: {
+                    if (constantType == DataType.REAL) {
+                        // compared in float4, like Greenplum does
+                        float value = Float.parseFloat(constant);
+                        return v -> compareDouble((float) toDouble(v), value);
+                    } else if (constantType == DataType.FLOAT8) {
+                        double value = Double.parseDouble(constant);
+                        return v -> compareDouble(toDouble(v), value);
+                    }
+                    // the type in which Greenplum compares other constants is not known
+                    return null;
+                }
+                case FLOAT8: {
+                    // a float4 constant is widened to float8, like Greenplum does
+                    double value = constantType == DataType.REAL ? Float.parseFloat(constant) : Double.parseDouble(constant);
+                    return v -> compareDouble(toDouble(v), value);
+                }
+                case BOOLEAN: {
+                    Boolean value = parseBoolean(constant);
+                    if (value == null) {
+                        return null;
+                    }
+                    return v -> Boolean.compare(toBoolean(v), value);
+                }
+                case DATE: {
+                    LocalDate value = LocalDate.parse(constant);
+                    return v -> toLocalDate(v).compareTo(value);
+                }
+                case TEXT:
+                case VARCHAR:
+                    // only compared for equality
+                    return v -> (v instanceof String ? v : v.toString()).equals(constant) ? 0 : 1;
+                default:
+                    return null;
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static long toLong(Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+            return ((Number) value).longValue();
+        }
+        try {
+            return Long.parseLong(value.toString());
+        } catch (NumberFormatException e) {
+            throw IncomparableValueException.INSTANCE;
+        }
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        try {
+            return new BigDecimal(value.toString());
+        } catch (NumberFormatException e) {
+            throw IncomparableValueException.INSTANCE;
+        }
+    }
+
+    private static int compareDouble(double d, double value) {
+        // as in Greenplum, NaN is greater than any other value and 0 equals -0
+        return d == value ? 0 : Double.compare(d, value);
+    }
+
+    private static double toDouble(Object value) {
+        if (value instanceof Double || value instanceof Float) {
+            return ((Number) value).doubleValue();
+        }
+        try {
+            return Double.parseDouble(value.toString());
+        } catch (NumberFormatException e) {
+            throw IncomparableValueException.INSTANCE;
+        }
+    }
+
+    private static boolean toBoolean(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        Boolean result = parseBoolean(value.toString());
+        if (result == null) {
+            throw IncomparableValueException.INSTANCE;
+        }
+        return result;
+    }
+
+    private static Boolean parseBoolean(String value) {
+        switch (StringUtils.lowerCase(StringUtils.trim(value))) {
+            case "t":
+            case "true":
+                return Boolean.TRUE;
+            case "f":
+            case "false":
+                return Boolean.FALSE;
+            default:
+                return null;
+        }
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate) {
+            return (LocalDate) value;
+        }
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate();
+        }
+        try {
+            // dates before the common era are formatted with a BC suffix, that is not parsed
+            return LocalDate.parse(value.toString());
+        } catch (DateTimeParseException e) {
+            throw IncomparableValueException.INSTANCE;
+        }
+    }
+
+    private static Condition and(Condition left, Condition right) {
+        return fields -> {
+            Boolean l = left.test(fields);
+            if (l == Boolean.FALSE) {
+                return false;
+            }
+            Boolean r = right.test(fields);
+            if (r == Boolean.FALSE) {
+                return false;
+            }
+            return l == null || r == null ? null : Boolean.TRUE;
+        };
+    }
+
+    private static Condition or(Condition left, Condition right) {
+        return fields -> {
+            Boolean l = left.test(fields);
+            if (l == Boolean.TRUE) {
+                return true;
+            }
+            Boolean r = right.test(fields);
+            if (r == Boolean.TRUE) {
+                return true;
+            }
+            return l == null || r == null ? null : Boolean.FALSE;
+        };
+    }
+
+    /**
+     * A condition over the fields of a record, null when its value is unknown.
+     */
+    @FunctionalInterface
+    private interface Condition {
+        Boolean test(List<OneField> fields);
+    }
+
+    /**
+     * Compares the non-null value of a field with a constant of the filter.
+     */
+    @FunctionalInterface
+    private interface Comparison {
+        int compareTo(Object value);
+    }
+
+    private static final class Compiled {
+        private final Condition condition;
+        private final boolean exact;
+
+        private Compiled(Condition condition, boolean exact) {
+            this.condition = condition;
+            this.exact = exact;
+        }
+    }
+
+    /**
+     * Thrown when the value of a field can not be compared with the filter,
+     * in which case the record is not dropped.
+     */
+    private static final class IncomparableValueException extends RuntimeException {
+        private static final IncomparableValueException INSTANCE = new IncomparableValueException();
+
+        private IncomparableValueException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -107,6 +107,8 @@ public class WriteBridge extends BaseBridge {
             LOG.error("Failed to close bridge resources: {}", e.getMessage());
             throw e;
         }
+        // an accessor that failed to close is not released for reuse
+        releasePlugins();
     }
 
     /**
@@ -68,6 +68,23 @@ public class OperationStats {
         }
     }
 
+    /**
+     * Add a number of completed records to the operation's stats. Report the stats when the
+     * total number of records crosses a multiple of the report frequency.
+     *
+     * @param records   the number of completed records
+     * @param byteCount the total number of bytes written to date for the entire operation
+     */
+    public void reportCompletedRecords(long records, long byteCount) {
+        long previousRecordCount = recordCount;
+        recordCount += records;
+        this.byteCount = byteCount;
+
+        if ((reportFrequency != 0) && (recordCount / reportFrequency != previousRecordCount / reportFrequency)) {
+            flushStats();
+        }
+    }
+
     /**
      * Send all the stats to the metric reporter. Set last reported values.
      */
@@ -0,0 +1,398 @@
+package org.greenplum.pxf.service.controller;
+
+import com.google.common.io.CountingOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.greenplum.pxf.api.io.BatchWritable;
+import org.greenplum.pxf.api.io.Writable;
+import org.greenplum.pxf.api.model.Fragment;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.service.MetricsReporter;
+import org.greenplum.pxf.service.bridge.Bridge;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.OutputStream;
+import java.security.PrivilegedExceptionAction;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Reads the fragments of a read request with several concurrent tasks and
+ * multiplexes their records into the single response stream. Every task
+ * reads one fragment at a time with its own bridge (and hence its own
+ * accessor, resolver and output builder) and serializes the records into
+ * chunks that hold whole records only, so that the chunks of different
+ * fragments can be interleaved in the response stream at record boundaries.
+ * <p>
+ * With the ordered merge, the records are written to the response stream in
+ * the fragment order, the same as when the fragments are read serially. With
+ * the unordered merge, the chunks are written as soon as they are produced.
+ * In both cases, at most {@code parallelism} fragments are in flight at any
+ * time and every fragment buffers a bounded number of chunks, so the memory
+ * used by a request is bounded regardless of the number of fragments.
+ * <p>
+ * The statistics and metrics are reported per fragment by the thread that
+ * writes to the response stream, the same as for the serial read.
+ */
+@Slf4j
+class ParallelFragmentReader {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int CHUNKS_PER_FRAGMENT = 4;
+    private static final long POLL_TIMEOUT_MS = 100;
+
+    private final RequestContext context;
+    private final List<Fragment> fragments;
+    private final Function<Fragment, RequestContext> contextProvider;
+    private final Function<RequestContext, Bridge> bridgeProvider;
+    private final MetricsReporter metricsReporter;
+    private final AsyncTaskExecutor executor;
+    private final int parallelism;
+    private final boolean ordered;
+
+    // limits the number of fragments that are read, but not yet fully written to the response stream
+    private final Semaphore window;
+    // fragments in the order they were started, used by the ordered merge
+    private final BlockingQueue<FragmentOutput> startedFragments = new LinkedBlockingQueue<>();
+    // chunks of all fragments in the order they were produced, used by the unordered merge
+    private final BlockingQueue<Chunk> chunks;
+    private final Object lock = new Object();
+    private final List<Future<?>> tasks = new ArrayList<>();
+
+    private int nextFragment = 0; // guarded by lock
+    private volatile boolean cancelled = false;
+    private String sourceName;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param context         request context
+     * @param fragments       fragments to read
+     * @param contextProvider function that returns the request context for reading a fragment
+     * @param bridgeProvider  function that returns a new bridge for the request context
+     * @param metricsReporter metrics reporter service
+     * @param executor        executor to run the read tasks
+     * @param parallelism     maximum number of fragments to read concurrently
+     * @param ordered         true if the records are written in the fragment order, false otherwise
+     */
+    ParallelFragmentReader(RequestContext context,
+                           List<Fragment> fragments,
+                           Function<Fragment, RequestContext> contextProvider,
+                           Function<RequestContext, Bridge> bridgeProvider,
+                           MetricsReporter metricsReporter,
+                           AsyncTaskExecutor executor,
+                           int parallelism,
+                           boolean ordered) {
+        this.context = context;
+        this.fragments = fragments;
+        this.contextProvider = contextProvider;
+        this.bridgeProvider = bridgeProvider;
+        this.metricsReporter = metricsReporter;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.ordered = ordered;
+        this.window = new Semaphore(parallelism);
+        this.chunks = ordered ? null : new ArrayBlockingQueue<>(parallelism * CHUNKS_PER_FRAGMENT);
+    }
+
+    /**
+     * @return the source name of the last fragment that was written to the output stream
+     */
+    String getSourceName() {
+        return sourceName;
+    }
+
+    /**
+     * Reads all fragments and writes their records to the output stream. Returns once all
+     * the records are written, or throws the first error encountered by any of the read tasks
+     * after making sure that all the read tasks have stopped.
+     *
+     * @param outputStream         output stream to write data to
+     * @param countingOutputStream stream that counts the bytes written to the response by the output stream
+     * @param queryStats           query statistics
+     * @throws Exception if the operation fails
+     */
+    void read(OutputStream outputStream, CountingOutputStream countingOutputStream, OperationStats queryStats) throws Exception {
+        UserGroupInformation ugi = UserGroupInformation.getCurrentUser();
+        int numberOfTasks = Math.min(parallelism, fragments.size());
+        try {
+            for (int i = 0; i < numberOfTasks; i++) {
+                try {
+                    // the task runs with the identity of the request, as it is not inherited by the executor threads
+                    tasks.add(executor.submit(() -> ugi.doAs((PrivilegedExceptionAction<Void>) () -> {
+                        readFragments();
+                        return null;
+                    })));
+                } catch (TaskRejectedException e) {
+                    // continue with the tasks that were accepted, if any
+                    if (tasks.isEmpty()) {
+                        throw e;
+                    }
+                    log.debug("Reading {} fragments with {} tasks instead of {}", fragments.size(), tasks.size(), numberOfTasks);
+                    break;
+                }
+            }
+            log.debug("Reading {} fragments with {} tasks using {} merge",
+                    fragments.size(), tasks.size(), ordered ? "ordered" : "unordered");
+
+            writeChunks(outputStream, countingOutputStream, queryStats);
+        } finally {
+            cancelled = true;
+            for (Future<?> task : tasks) {
+                try {
+                    task.get();
+                } catch (ExecutionException e) {
+                    log.debug("Ignoring error encountered by a read task", e.getCause());
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the chunks produced by the read tasks to the output stream and updates the statistics
+     * until all the fragments are written.
+     *
+     * @param outputStream         output stream to write data to
+     * @param countingOutputStream stream that counts the bytes written to the response by the output stream
+     * @param queryStats           query statistics
+     * @throws Exception if writing fails or a read task reported an error
+     */
+    private void writeChunks(OutputStream outputStream, CountingOutputStream countingOutputStream, OperationStats queryStats) throws Exception {
+        FragmentOutput current = null;
+        int remaining = fragments.size();
+        while (remaining > 0) {
+            Chunk chunk;
+            if (ordered) {
+                if (current == null) {
+                    current = take(startedFragments);
+                }
+                chunk = take(current.chunks);
+            } else {
+                chunk = take(chunks);
+            }
+
+            FragmentOutput output = chunk.output;
+            if (output.stats == null) {
+                output.stats = new OperationStats(OperationStats.Operation.READ, metricsReporter, output.context);
+            }
+            sourceName = output.context.getDataSource();
+            if (chunk.length > 0) {
+                long previousStreamByteCount = countingOutputStream.getCount();
+                outputStream.write(chunk.data, 0, chunk.length);
+                // the bytes that reached the response, which may differ from the chunk with an output buffer
+                output.byteCount += countingOutputStream.getCount() - previousStreamByteCount;
+                output.stats.reportCompletedRecords(chunk.records, output.byteCount);
+            }
+            if (chunk.last) {
+                current = null;
+                remaining--;
+                window.release();
+                completeFragment(output, queryStats, chunk.failure == null);
+                if (chunk.failure instanceof Exception) {
+                    throw (Exception) chunk.failure;
+                } else if (chunk.failure != null) {
+                    throw (Error) chunk.failure;
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes the head of the queue, waiting if necessary until an element becomes available.
+     *
+     * @param queue the queue
+     * @return the head of the queue
+     * @throws IllegalStateException if all the read tasks terminated before providing the element
+     */
+    private <T> T take(BlockingQueue<T> queue) throws InterruptedException {
+        T element;
+        while ((element = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) == null) {
+            if (tasks.stream().allMatch(Future::isDone) && queue.isEmpty()) {
+                throw new IllegalStateException("Read tasks terminated before reading all fragments");
+            }
+        }
+        return element;
+    }
+
+    /**
+     * Flushes the statistics of the fragment, adds them to the query statistics and reports the fragment metric.
+     */
+    private void completeFragment(FragmentOutput output, OperationStats queryStats, boolean success) {
+        Duration duration = Duration.between(output.startTime, Instant.now());
+        output.stats.setByteCount(output.byteCount);
+        output.stats.flushStats();
+        queryStats.update(output.stats);
+
+        log.debug("Finished processing fragment {} of resource {} in {} ms, wrote {} records and {} bytes.",
+                output.context.getFragmentIndex(), output.context.getDataSource(), duration.toMillis(),
+                output.stats.getRecordCount(), output.stats.getByteCount());
+        metricsReporter.reportTimer(MetricsReporter.PxfMetric.FRAGMENTS_SENT, duration, output.context, success);
+    }
+
+    /**
+     * The body of a read task: takes the next fragment that is not being read by any other task and
+     * reads it, until there are no fragments left, the read is cancelled or a fragment fails.
+     */
+    private void readFragments() throws InterruptedException {
+        FragmentOutput output;
+        while ((output = nextFragment()) != null) {
+            if (!readFragment(output)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Waits until the number of fragments in flight is below the parallelism and takes the next fragment.
+     * The request contexts for the fragments are created in the fragment order.
+     *
+     * @return the output for the next fragment, or null if there are no fragments left or the read is cancelled
+     */
+    private FragmentOutput nextFragment() throws InterruptedException {
+        while (!window.tryAcquire(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            if (cancelled) {
+                return null;
+            }
+        }
+        synchronized (lock) {
+            if (cancelled || nextFragment >= fragments.size()) {
+                window.release();
+                return null;
+            }
+            int index = nextFragment++;
+            FragmentOutput output = new FragmentOutput();
+            try {
+                output.context = contextProvider.apply(fragments.get(index));
+            } catch (RuntimeException e) {
+                // report the error once the fragment is read
+                output.contextFailure = e;
+            }
+            // release the fragment reference as soon as it is no longer needed
+            fragments.set(index, null);
+            // register the fragments in the order they are taken, so that the ordered merge can follow it
+            startedFragments.add(output);
+            return output;
+        }
+    }
+
+    /**
+     * Reads all records of the fragment and hands them over to the writing thread in chunks.
+     *
+     * @param output the output for the fragment
+     * @return true if the fragment was read successfully, false otherwise
+     */
+    private boolean readFragment(FragmentOutput output) throws InterruptedException {
+        Throwable failure = null;
+        Bridge bridge = null;
+        try {
+            if (output.contextFailure != null) {
+                throw output.contextFailure;
+            }
+            bridge = bridgeProvider.apply(output.context);
+            if (!bridge.beginIteration()) {
+                log.debug("Skipping streaming fragment {} of resource {}",
+                        output.context.getFragmentIndex(), output.context.getDataSource());
+            } else {
+                log.debug("Starting streaming fragment {} of resource {}",
+                        output.context.getFragmentIndex(), output.context.getDataSource());
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(CHUNK_SIZE);
+                DataOutputStream dos = new DataOutputStream(buffer);
+                int records = 0;
+                Writable record;
+                while (!cancelled && (record = bridge.getNext()) != null) {
+                    record.write(dos);
+                    records += (record instanceof BatchWritable) ? ((BatchWritable) record).getRecordCount() : 1;
+                    if (buffer.size() >= CHUNK_SIZE) {
+                        if (!emit(new Chunk(output, buffer.toByteArray(), records, false, null))) {
+                            return false;
+                        }
+                        buffer.reset();
+                        records = 0;
+                    }
+                }
+                if (records > 0 && !emit(new Chunk(output, buffer.toByteArray(), records, false, null))) {
+                    return false;
+                }
+            }
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Throwable t) {
+            failure = t;
+        } finally {
+            if (bridge != null) {
+                try {
+                    bridge.endIteration();
+                } catch (Exception e) {
+                    log.warn("Ignoring error encountered during bridge.endIteration()", e);
+                }
+                long filteredRecords = bridge.getFilteredRecordCount();
+                if (filteredRecords > 0) {
+                    metricsReporter.reportCounter(MetricsReporter.PxfMetric.RECORDS_FILTERED, filteredRecords, output.context);
+                }
+            }
+        }
+        return emit(new Chunk(output, null, 0, true, failure)) && failure == null;
+    }
+
+    /**
+     * Hands the chunk over to the writing thread, waiting while the queue is full.
+     *
+     * @param chunk the chunk
+     * @return true if the chunk was handed over, false if the read was cancelled
+     */
+    private boolean emit(Chunk chunk) throws InterruptedException {
+        BlockingQueue<Chunk> queue = ordered ? chunk.output.chunks : chunks;
+        while (!queue.offer(chunk, POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            if (cancelled) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The state of a fragment being read. The statistics are only accessed by the writing thread.
+     */
+    private class FragmentOutput {
+        private final Instant startTime = Instant.now();
+        private final BlockingQueue<Chunk> chunks = ordered ? new ArrayBlockingQueue<>(CHUNKS_PER_FRAGMENT) : null;
+        private RequestContext context = ParallelFragmentReader.this.context;
+        private RuntimeException contextFailure;
+        private OperationStats stats;
+        private long byteCount;
+    }
+
+    /**
+     * A number of whole serialized records of a fragment, or the marker of the end of the fragment.
+     */
+    private static class Chunk {
+        private final FragmentOutput output;
+        private final byte[] data;
+        private final int length;
+        private final int records;
+        private final boolean last;
+        private final Throwable failure;
+
+        private Chunk(FragmentOutput output, byte[] data, int records, boolean last, Throwable failure) {
+            this.output = output;
+            this.data = data;
+            this.length = (data == null) ? 0 : data.length;
+            this.records = records;
+            this.last = last;
+            this.failure = failure;
+        }
+    }
+}
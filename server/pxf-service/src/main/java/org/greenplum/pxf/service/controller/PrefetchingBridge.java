@@ -0,0 +1,159 @@
+package org.greenplum.pxf.service.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.greenplum.pxf.api.io.Writable;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.service.bridge.Bridge;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.io.DataInputStream;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.security.PrivilegedExceptionAction;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * A {@link Bridge} that creates the underlying bridge and begins its iteration
+ * on a separate thread ahead of the time the records of the fragment are
+ * requested. This allows opening the next fragment (i.e. opening a file and
+ * reading its footer from an object store) to overlap with streaming records
+ * of the current fragment. If the executor cannot accept the task, the
+ * underlying bridge is created on the calling thread when the iteration begins.
+ */
+@Slf4j
+class PrefetchingBridge implements Bridge {
+
+    private final RequestContext context;
+    private final Function<RequestContext, Bridge> bridgeProvider;
+    private final Future<Boolean> future;
+    private volatile Bridge delegate;
+    private boolean started;
+    private boolean closed;
+
+    /**
+     * Creates a new instance and submits the task that opens the fragment
+     * described by the given context to the executor.
+     *
+     * @param context        request context for the fragment
+     * @param bridgeProvider function that returns a new bridge for the request context
+     * @param executor       executor to submit the task to
+     * @param ugi            identity to execute the task with
+     */
+    PrefetchingBridge(RequestContext context,
+                      Function<RequestContext, Bridge> bridgeProvider,
+                      AsyncTaskExecutor executor,
+                      UserGroupInformation ugi) {
+        this.context = context;
+        this.bridgeProvider = bridgeProvider;
+
+        Future<Boolean> submitted = null;
+        try {
+            // the task runs with the identity of the request, as it is not inherited by the executor threads
+            submitted = executor.submit(() -> ugi.doAs((PrivilegedExceptionAction<Boolean>) this::open));
+        } catch (TaskRejectedException e) {
+            log.debug("Unable to prefetch fragment {} of resource {}, it will be opened when requested",
+                    context.getFragmentIndex(), context.getDataSource());
+        }
+        this.future = submitted;
+    }
+
+    /**
+     * @return the request context for the fragment
+     */
+    RequestContext getContext() {
+        return context;
+    }
+
+    /**
+     * Waits for the prefetch task to complete and returns its result.
+     */
+    @Override
+    public boolean beginIteration() throws Exception {
+        if (future == null) {
+            return open();
+        }
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            // checked exceptions other than IOException are wrapped by UserGroupInformation.doAs()
+            if (cause instanceof UndeclaredThrowableException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            throw (cause instanceof Exception) ? (Exception) cause : e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Writable getNext() throws Exception {
+        return delegate.getNext();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getFilteredRecordCount() {
+        return delegate != null ? delegate.getFilteredRecordCount() : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean setNext(DataInputStream inputStream) {
+        throw new UnsupportedOperationException("Write operation is not supported.");
+    }
+
+    /**
+     * Ends the iteration of the underlying bridge, if it was created. If the
+     * prefetch task has not started yet, it will not open the fragment,
+     * otherwise this method waits for the task to complete so that no
+     * resources are left open.
+     */
+    @Override
+    public void endIteration() throws Exception {
+        boolean openStarted;
+        synchronized (this) {
+            closed = true;
+            openStarted = started;
+        }
+        if (future != null && !openStarted) {
+            future.cancel(false);
+        } else if (future != null) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                log.debug("Ignoring error encountered while prefetching fragment {} of resource {}",
+                        context.getFragmentIndex(), context.getDataSource(), e.getCause());
+            }
+        }
+        if (delegate != null) {
+            delegate.endIteration();
+        }
+    }
+
+    /**
+     * Creates the underlying bridge and begins its iteration.
+     *
+     * @return the result of beginning the iteration of the underlying bridge
+     * @throws Exception if the operation fails
+     */
+    private boolean open() throws Exception {
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            started = true;
+        }
+        log.debug("Opening fragment {} of resource {}", context.getFragmentIndex(), context.getDataSource());
+        delegate = bridgeProvider.apply(context);
+        return delegate.beginIteration();
+    }
+}
@@ -3,6 +3,9 @@ package org.greenplum.pxf.service.controller;
 import com.google.common.io.CountingOutputStream;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.greenplum.pxf.api.configuration.PxfServerProperties;
+import org.greenplum.pxf.api.io.BatchWritable;
 import org.greenplum.pxf.api.io.Writable;
 import org.greenplum.pxf.api.model.ConfigurationFactory;
 import org.greenplum.pxf.api.model.Fragment;
@@ -14,14 +17,22 @@ import org.greenplum.pxf.service.MetricsReporter;
 import org.greenplum.pxf.service.bridge.Bridge;
 import org.greenplum.pxf.service.bridge.BridgeFactory;
 import org.greenplum.pxf.service.security.SecurityService;
+import org.greenplum.pxf.service.spring.PxfConfiguration;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedOutputStream;
 import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Implementation of the ReadService.
@@ -30,7 +41,17 @@ import java.util.Map;
 @Slf4j
 public class ReadServiceImpl extends BaseServiceImpl<OperationStats> implements ReadService {
 
+    static final String PREFETCH_DEPTH_OPTION = "PREFETCH_DEPTH";
+    static final String PARALLELISM_OPTION = "PARALLELISM";
+    static final String PARALLEL_MERGE_OPTION = "PARALLEL_MERGE";
+    private static final String UNORDERED_MERGE = "unordered";
+
     private final FragmenterService fragmenterService;
+    private final AsyncTaskExecutor readTaskExecutor;
+    private final int defaultPrefetchDepth;
+    private final int defaultParallelism;
+    private final int maxParallelism;
+    private final int outputBufferSize;
 
     /**
      * Creates a new instance.
@@ -40,14 +61,23 @@ public class ReadServiceImpl extends BaseServiceImpl<OperationStats> implements
      * @param securityService      security service
      * @param fragmenterService    fragmenter service
      * @param metricsReporter      metrics reporter service
+     * @param pxfServerProperties  PXF server properties
+     * @param readTaskExecutor     executor for the tasks that open fragments ahead of streaming
      */
     public ReadServiceImpl(ConfigurationFactory configurationFactory,
                            BridgeFactory bridgeFactory,
                            SecurityService securityService,
                            FragmenterService fragmenterService,
-                           MetricsReporter metricsReporter) {
+                           MetricsReporter metricsReporter,
+                           PxfServerProperties pxfServerProperties,
+                           @Qualifier(PxfConfiguration.PXF_READ_TASK_EXECUTOR) AsyncTaskExecutor readTaskExecutor) {
         super("Read", configurationFactory, bridgeFactory, securityService, metricsReporter);
         this.fragmenterService = fragmenterService;
+        this.readTaskExecutor = readTaskExecutor;
+        this.defaultPrefetchDepth = pxfServerProperties.getRead().getPrefetchDepth();
+        this.defaultParallelism = pxfServerProperties.getRead().getParallelism();
+        this.maxParallelism = pxfServerProperties.getRead().getMaxParallelism();
+        this.outputBufferSize = pxfServerProperties.getRead().getOutputBufferSize();
     }
 
     @Override
@@ -55,7 +85,43 @@ public class ReadServiceImpl extends BaseServiceImpl<OperationStats> implements
         // wrapping the invocation of processData(..) with the error reporting logic
         // since any exception thrown from it must be logged, as this method is called asynchronously
         // and is the last opportunity to log the exception while having MDC logging context defined
-        invokeWithErrorHandling(() -> processData(context, () -> writeStream(context, outputStream)));
+        invokeWithErrorHandling(() -> processData(context, () -> writeBufferedStream(context, outputStream)));
+    }
+
+    /**
+     * Reads the records for the request and writes them to the output stream, through a buffer if one is
+     * configured, so that the records are written to the response in large chunks rather than one by one.
+     * The bytes are counted as they are written to the output stream rather than to the buffer, so that the
+     * statistics only include the bytes that were sent.
+     *
+     * @param context      request context
+     * @param outputStream output stream
+     * @return operation statistics
+     */
+    private OperationResult writeBufferedStream(RequestContext context, OutputStream outputStream) {
+        CountingOutputStream countingOutputStream = new CountingOutputStream(outputStream);
+        if (outputBufferSize <= 0) {
+            return writeStream(context, countingOutputStream, countingOutputStream);
+        }
+
+        BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(countingOutputStream, outputBufferSize);
+        OperationResult queryResult = writeStream(context, bufferedOutputStream, countingOutputStream);
+        try {
+            bufferedOutputStream.flush();
+        } catch (IOException e) {
+            // report the failure to write the last records unless the operation already failed
+            if (queryResult.getException() == null) {
+                queryResult.setException(e);
+            }
+        }
+
+        // report the bytes of the records that were still in the buffer when the last fragment was processed
+        OperationStats queryStats = queryResult.getStats();
+        OperationStats flushStats = new OperationStats(OperationStats.Operation.READ, metricsReporter, context);
+        flushStats.setByteCount(countingOutputStream.getCount() - queryStats.getByteCount());
+        flushStats.flushStats();
+        queryStats.update(flushStats);
+        return queryResult;
     }
 
     /**
@@ -63,11 +129,23 @@ public class ReadServiceImpl extends BaseServiceImpl<OperationStats> implements
      * and writes them to the output stream. Maintains the satistics about the progress of the query and reports
      * it to the caller even if the operation failed or aborted.
      *
-     * @param context      request context
-     * @param outputStream output stream
+     * @param context              request context
+     * @param outputStream         output stream
+     * @param countingOutputStream stream that counts the bytes written to the response by the output stream
      * @return operation statistics
      */
-    private OperationResult writeStream(RequestContext context, OutputStream outputStream) {
+    private OperationResult writeStream(RequestContext context, OutputStream outputStream, CountingOutputStream countingOutputStream) {
+        int parallelism = Math.min(context.getOption(PARALLELISM_OPTION, defaultParallelism, true), maxParallelism);
+        if (parallelism > 1) {
+            boolean ordered = !StringUtils.equalsIgnoreCase(context.getOption(PARALLEL_MERGE_OPTION), UNORDERED_MERGE);
+            return writeStreamInParallel(context, outputStream, countingOutputStream, parallelism, ordered);
+        }
+
+        int prefetchDepth = context.getOption(PREFETCH_DEPTH_OPTION, defaultPrefetchDepth, true);
+        if (prefetchDepth > 0) {
+            return writeStreamWithPrefetch(context, outputStream, countingOutputStream, prefetchDepth);
+        }
+
         boolean restoreOriginalValues;
 
         String originalProfile = context.getProfile();
@@ -78,8 +156,6 @@ public class ReadServiceImpl extends BaseServiceImpl<OperationStats> implements
         OperationStats queryStats = new OperationStats(OperationStats.Operation.READ, metricsReporter, context);
         OperationResult queryResult = new OperationResult();
 
-        // dataStream (and outputStream as the result) will close automatically at the end of the try block
-        CountingOutputStream countingOutputStream = new CountingOutputStream(outputStream);
         String sourceName = null;
         try {
             List<Fragment> fragments = fragmenterService.getFragmentsForSegment(context);
@@ -98,7 +174,7 @@ public class ReadServiceImpl extends BaseServiceImpl<OperationStats> implements
                 context.setDataSource(fragment.getSourceName());
                 context.setFragmentIndex(fragment.getIndex());
                 context.setFragmentMetadata(fragment.getMetadata());
-                processFragment(countingOutputStream, context, queryStats);
+                processFragment(outputStream, countingOutputStream, context, queryStats);
 
                 // In cases where we have hundreds of thousands of fragments,
                 // we want to release the fragment reference as soon as we are
@@ -127,19 +203,159 @@ public class ReadServiceImpl extends BaseServiceImpl<OperationStats> implements
         return queryResult;
     }
 
+    /**
+     * Calls Fragmenter service to get a list of fragments for the resource, then reads records for each fragment
+     * and writes them to the output stream, same as
+     * {@link #writeStream(RequestContext, OutputStream, CountingOutputStream)}. While the records of a fragment
+     * are being streamed, up to prefetchDepth subsequent fragments are opened by the read task executor, so
+     * that the latency of opening a fragment is overlapped with streaming.
+     * The records are still written to the output stream in the fragment order.
+     *
+     * @param context              request context
+     * @param outputStream         output stream
+     * @param countingOutputStream stream that counts the bytes written to the response by the output stream
+     * @param prefetchDepth        maximum number of fragments to open ahead of the fragment being streamed
+     * @return operation statistics
+     */
+    private OperationResult writeStreamWithPrefetch(RequestContext context, OutputStream outputStream,
+                                                    CountingOutputStream countingOutputStream, int prefetchDepth) {
+        OperationStats queryStats = new OperationStats(OperationStats.Operation.READ, metricsReporter, context);
+        OperationResult queryResult = new OperationResult();
+
+        Deque<PrefetchingBridge> prefetchedBridges = new ArrayDeque<>(prefetchDepth + 1);
+        String sourceName = null;
+        try {
+            List<Fragment> fragments = fragmenterService.getFragmentsForSegment(context);
+            UserGroupInformation ugi = UserGroupInformation.getCurrentUser();
+            log.debug("Prefetching up to {} fragment{} of {}", prefetchDepth, prefetchDepth == 1 ? "" : "s", fragments.size());
+
+            int nextToPrefetch = 0;
+            for (int i = 0; i < fragments.size(); i++) {
+                // keep the fragment to stream and up to prefetchDepth fragments following it opening
+                for (; nextToPrefetch < fragments.size() && nextToPrefetch <= i + prefetchDepth; nextToPrefetch++) {
+                    RequestContext fragmentContext = getFragmentContext(context, fragments.get(nextToPrefetch));
+                    prefetchedBridges.addLast(new PrefetchingBridge(fragmentContext, this::getBridge, readTaskExecutor, ugi));
+                    // release the fragment reference as soon as it is no longer needed
+                    fragments.set(nextToPrefetch, null);
+                }
+
+                PrefetchingBridge bridge = prefetchedBridges.removeFirst();
+                sourceName = bridge.getContext().getDataSource();
+                processFragment(outputStream, countingOutputStream, bridge.getContext(), queryStats, c -> bridge);
+            }
+        } catch (Exception e) {
+            // the exception is not re-thrown but passed to the caller in the queryResult so that
+            // the caller has a chance to inspect / report query stats before re-throwing the exception
+            queryResult.setException(e);
+            queryResult.setSourceName(sourceName);
+        } finally {
+            // release the fragments that were opened ahead but will not be streamed due to a failure
+            for (PrefetchingBridge bridge : prefetchedBridges) {
+                try {
+                    bridge.endIteration();
+                } catch (Exception e) {
+                    log.warn("Ignoring error encountered during bridge.endIteration()", e);
+                }
+            }
+            queryResult.setStats(queryStats);
+        }
+
+        return queryResult;
+    }
+
+    /**
+     * Calls Fragmenter service to get a list of fragments for the resource, then reads up to parallelism
+     * fragments concurrently using the read task executor and writes their records to the output stream.
+     *
+     * @param context              request context
+     * @param outputStream         output stream
+     * @param countingOutputStream stream that counts the bytes written to the response by the output stream
+     * @param parallelism          maximum number of fragments to read concurrently
+     * @param ordered              true if the records must be written in the fragment order, false otherwise
+     * @return operation statistics
+     */
+    private OperationResult writeStreamInParallel(RequestContext context, OutputStream outputStream,
+                                                  CountingOutputStream countingOutputStream, int parallelism, boolean ordered) {
+        OperationStats queryStats = new OperationStats(OperationStats.Operation.READ, metricsReporter, context);
+        OperationResult queryResult = new OperationResult();
+
+        ParallelFragmentReader reader = null;
+        try {
+            List<Fragment> fragments = fragmenterService.getFragmentsForSegment(context);
+            reader = new ParallelFragmentReader(context, fragments, fragment -> getFragmentContext(context, fragment),
+                    this::getBridge, metricsReporter, readTaskExecutor, parallelism, ordered);
+            reader.read(outputStream, countingOutputStream, queryStats);
+        } catch (Exception e) {
+            // the exception is not re-thrown but passed to the caller in the queryResult so that
+            // the caller has a chance to inspect / report query stats before re-throwing the exception
+            queryResult.setException(e);
+            queryResult.setSourceName(reader != null ? reader.getSourceName() : null);
+        } finally {
+            queryResult.setStats(queryStats);
+        }
+
+        return queryResult;
+    }
+
+    /**
+     * Returns a copy of the request context for reading the given fragment, with the
+     * plugins updated if the fragment uses a profile different from the request.
+     *
+     * @param context  request context
+     * @param fragment fragment to read
+     * @return request context for the fragment
+     */
+    private RequestContext getFragmentContext(RequestContext context, Fragment fragment) {
+        RequestContext fragmentContext = context.copy();
+        String profile = fragment.getProfile();
+        if (StringUtils.isNotBlank(profile) &&
+                !StringUtils.equalsIgnoreCase(profile, context.getProfile())) {
+            log.debug("Fragment {} of resource {} will be using profile: {}",
+                    fragment.getIndex(), fragment.getSourceName(), profile);
+            updateProfile(fragmentContext, profile);
+        }
+        fragmentContext.setDataSource(fragment.getSourceName());
+        fragmentContext.setFragmentIndex(fragment.getIndex());
+        fragmentContext.setFragmentMetadata(fragment.getMetadata());
+        return fragmentContext;
+    }
+
     /**
      * Processes a single fragment identified in the RequestContext and updates query statistics.
      *
-     * @param countingOutputStream output stream to write data to
+     * @param outputStream         output stream to write data to
+     * @param countingOutputStream stream that counts the bytes written to the response by the output stream
      * @param context              request context
      * @param queryStats           query statistics
      * @throws Exception if operation fails
      */
-    private void processFragment(CountingOutputStream countingOutputStream,
+    private void processFragment(OutputStream outputStream,
+                                 CountingOutputStream countingOutputStream,
                                  RequestContext context,
                                  OperationStats queryStats) throws Exception {
+        processFragment(outputStream, countingOutputStream, context, queryStats, this::getBridge);
+    }
+
+    /**
+     * Processes a single fragment identified in the RequestContext using the bridge returned
+     * by the bridge provider and updates query statistics. The bytes of the fragment are the bytes written to
+     * the response while the fragment is processed, which include the records of previous fragments that
+     * were still in the output buffer and exclude its own records that are left in the buffer.
+     *
+     * @param outputStream         output stream to write data to
+     * @param countingOutputStream stream that counts the bytes written to the response by the output stream
+     * @param context              request context
+     * @param queryStats           query statistics
+     * @param bridgeProvider       function that returns the bridge for the request context
+     * @throws Exception if operation fails
+     */
+    private void processFragment(OutputStream outputStream,
+                                 CountingOutputStream countingOutputStream,
+                                 RequestContext context,
+                                 OperationStats queryStats,
+                                 Function<RequestContext, Bridge> bridgeProvider) throws Exception {
         Writable record;
-        DataOutputStream dos = new DataOutputStream(countingOutputStream);
+        DataOutputStream dos = new DataOutputStream(outputStream);
 
         OperationStats fragmentStats = new OperationStats(OperationStats.Operation.READ, metricsReporter, context);
         long previousStreamByteCount = countingOutputStream.getCount();
@@ -147,7 +363,7 @@ public class ReadServiceImpl extends BaseServiceImpl<OperationStats> implements
         Instant startTime = Instant.now();
         Bridge bridge = null;
         try {
-            bridge = getBridge(context);
+            bridge = bridgeProvider.apply(context);
             if (!bridge.beginIteration()) {
                 log.debug("Skipping streaming fragment {} of resource {}",
                         context.getFragmentIndex(), context.getDataSource());
@@ -157,7 +373,12 @@ public class ReadServiceImpl extends BaseServiceImpl<OperationStats> implements
                 while ((record = bridge.getNext()) != null) {
                     record.write(dos);
                     // fragment's current byte count is relative to the previous stream's byte count
-                    fragmentStats.reportCompletedRecord(countingOutputStream.getCount() - previousStreamByteCount);
+                    if (record instanceof BatchWritable) {
+                        fragmentStats.reportCompletedRecords(((BatchWritable) record).getRecordCount(),
+                                countingOutputStream.getCount() - previousStreamByteCount);
+                    } else {
+                        fragmentStats.reportCompletedRecord(countingOutputStream.getCount() - previousStreamByteCount);
+                    }
                 }
             }
             success = true;
@@ -168,6 +389,7 @@ public class ReadServiceImpl extends BaseServiceImpl<OperationStats> implements
                 } catch (Exception e) {
                     log.warn("Ignoring error encountered during bridge.endIteration()", e);
                 }
+                reportFilteredRecords(bridge, context);
             }
             Duration duration = Duration.between(startTime, Instant.now());
 
@@ -187,6 +409,21 @@ public class ReadServiceImpl extends BaseServiceImpl<OperationStats> implements
         }
     }
 
+    /**
+     * Reports the records of the fragment that were not sent as they did not match the residual filter.
+     *
+     * @param bridge  the bridge that read the fragment
+     * @param context request context
+     */
+    private void reportFilteredRecords(Bridge bridge, RequestContext context) {
+        long filteredRecords = bridge.getFilteredRecordCount();
+        if (filteredRecords > 0) {
+            log.debug("Filtered {} records of fragment {} of resource {}",
+                    filteredRecords, context.getFragmentIndex(), context.getDataSource());
+            metricsReporter.reportCounter(MetricsReporter.PxfMetric.RECORDS_FILTERED, filteredRecords, context);
+        }
+    }
+
     private void updateProfile(RequestContext context, String profile) {
         context.setProfile(profile);
         PluginConf pluginConf = context.getPluginConf();
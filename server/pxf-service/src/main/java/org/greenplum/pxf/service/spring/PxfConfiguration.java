@@ -31,6 +31,10 @@ public class PxfConfiguration implements WebMvcConfigurer {
      * Bean name of PXF's {@link TaskExecutor}.
      */
     public static final String PXF_RESPONSE_STREAM_TASK_EXECUTOR = "pxfResponseStreamTaskExecutor";
+    /**
+     * Bean name of PXF's {@link TaskExecutor} for fragment read tasks.
+     */
+    public static final String PXF_READ_TASK_EXECUTOR = "pxfReadTaskExecutor";
     private static final Logger LOG = LoggerFactory.getLogger(PxfConfiguration.class);
 
     private final ListableBeanFactory beanFactory;
@@ -67,7 +71,27 @@ public class PxfConfiguration implements WebMvcConfigurer {
                                                              ObjectProvider<TaskExecutorCustomizer> taskExecutorCustomizers,
                                                              ObjectProvider<TaskDecorator> taskDecorator) {
 
-        TaskExecutionProperties properties = pxfServerProperties.getTask();
+        return buildTaskExecutor(pxfServerProperties.getTask(), taskExecutorCustomizers, taskDecorator);
+    }
+
+    /**
+     * Configures and builds the {@link ThreadPoolTaskExecutor} used to open
+     * and read fragments on behalf of a read request, separate from the
+     * executor streaming the responses so that the read tasks can never
+     * exhaust the threads available for serving new requests.
+     *
+     * @return the {@link ThreadPoolTaskExecutor}
+     */
+    @Bean(name = PXF_READ_TASK_EXECUTOR)
+    public ThreadPoolTaskExecutor pxfReadTaskExecutor(PxfServerProperties pxfServerProperties,
+                                                      ObjectProvider<TaskExecutorCustomizer> taskExecutorCustomizers,
+                                                      ObjectProvider<TaskDecorator> taskDecorator) {
+        return buildTaskExecutor(pxfServerProperties.getRead().getTask(), taskExecutorCustomizers, taskDecorator);
+    }
+
+    private ThreadPoolTaskExecutor buildTaskExecutor(TaskExecutionProperties properties,
+                                                     ObjectProvider<TaskExecutorCustomizer> taskExecutorCustomizers,
+                                                     ObjectProvider<TaskDecorator> taskDecorator) {
         TaskExecutionProperties.Pool pool = properties.getPool();
         TaskExecutorBuilder builder = new TaskExecutorBuilder();
         builder = builder.queueCapacity(pool.getQueueCapacity());
@@ -0,0 +1,38 @@
+package org.greenplum.pxf.service.spring;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.greenplum.pxf.api.model.BaseConfigurationFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Custom {@link MeterBinder} that reports the hits, misses and reloads of the
+ * cache of server configurations of the {@link BaseConfigurationFactory}
+ */
+@Component
+public class PxfConfigurationCacheMetrics implements MeterBinder {
+
+    private final BaseConfigurationFactory configurationFactory;
+
+    public PxfConfigurationCacheMetrics(BaseConfigurationFactory configurationFactory) {
+        this.configurationFactory = configurationFactory;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("pxf.configuration.cache.hits", configurationFactory, BaseConfigurationFactory::getCacheHitCount)
+                .description("The number of requests that used a cached server configuration")
+                .register(registry);
+        FunctionCounter.builder("pxf.configuration.cache.misses", configurationFactory, BaseConfigurationFactory::getCacheMissCount)
+                .description("The number of requests that built a server configuration that was not cached")
+                .register(registry);
+        FunctionCounter.builder("pxf.configuration.cache.reloads", configurationFactory, BaseConfigurationFactory::getCacheReloadCount)
+                .description("The number of requests that rebuilt a server configuration after its files changed")
+                .register(registry);
+        Gauge.builder("pxf.configuration.cache.size", configurationFactory, BaseConfigurationFactory::getCacheSize)
+                .description("The number of cached server configurations")
+                .register(registry);
+    }
+}
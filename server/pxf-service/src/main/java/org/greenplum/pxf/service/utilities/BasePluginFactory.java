@@ -3,17 +3,60 @@ package org.greenplum.pxf.service.utilities;
 import org.apache.commons.lang.StringUtils;
 import org.greenplum.pxf.api.model.Plugin;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.model.ResettablePlugin;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The base implementation of the {@code PluginFactory}
+ * <p>
+ * The constructor of every plugin class is looked up once and cached, so that
+ * creating a plugin does not require loading the class and reflection on every
+ * request. Plugins implementing {@link ResettablePlugin} that are released with
+ * {@link #releasePlugin(Plugin)} are kept in a bounded pool per plugin class and
+ * reused by later requests.
  */
 @Component
 public class BasePluginFactory {
 
+    private static final Logger LOG = LoggerFactory.getLogger(BasePluginFactory.class);
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class);
+    private static final MethodType PLUGIN_TYPE = MethodType.methodType(Plugin.class);
+
+    private final int maxIdlePlugins;
+    private final Map<String, MethodHandle> constructors = new ConcurrentHashMap<>();
+    private final Map<String, BlockingQueue<ResettablePlugin>> pools = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a factory that keeps up to 8 idle instances per resettable plugin class
+     */
+    public BasePluginFactory() {
+        this(8);
+    }
+
+    /**
+     * Creates a factory that keeps up to the given number of idle instances per
+     * resettable plugin class, a value of 0 disables the reuse of plugins
+     *
+     * @param maxIdlePlugins the maximum number of idle instances per plugin class
+     */
+    @Autowired
+    public BasePluginFactory(@Value("${pxf.plugin-pool.max-idle:8}") int maxIdlePlugins) {
+        this.maxIdlePlugins = maxIdlePlugins;
+    }
+
     public <T extends Plugin> T getPlugin(RequestContext context, String pluginClassName) {
 
         // get the class name of the plugin
@@ -21,6 +64,69 @@ public class BasePluginFactory {
             throw new RuntimeException("Could not determine plugin class name");
         }
 
+        // reuse an idle instance when the plugin is resettable
+        Plugin instance = getIdlePlugin(context, pluginClassName);
+
+        if (instance == null) {
+            // create plugin instance
+            MethodHandle constructor = constructors.computeIfAbsent(pluginClassName, this::getConstructor);
+            try {
+                instance = (Plugin) constructor.invokeExact();
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+
+            // initialize the instance
+            instance.setRequestContext(context);
+            instance.afterPropertiesSet();
+        }
+
+        // cast into a target type
+        @SuppressWarnings("unchecked")
+        T castInstance = (T) instance;
+
+        return castInstance;
+    }
+
+    /**
+     * Returns a plugin to the factory once the request is done with it. The
+     * plugin is kept for reuse when it implements {@link ResettablePlugin}
+     * and the pool of its class is not full, otherwise it is discarded.
+     *
+     * @param plugin the plugin, can be null
+     */
+    public void releasePlugin(Plugin plugin) {
+        if (maxIdlePlugins <= 0 || !(plugin instanceof ResettablePlugin)) {
+            return;
+        }
+        pools.computeIfAbsent(plugin.getClass().getName(), name -> new ArrayBlockingQueue<>(maxIdlePlugins))
+                .offer((ResettablePlugin) plugin);
+    }
+
+    /**
+     * Returns an idle instance of the plugin class reset for the request, or
+     * null if there is none.
+     */
+    private Plugin getIdlePlugin(RequestContext context, String pluginClassName) {
+        BlockingQueue<ResettablePlugin> pool = pools.get(pluginClassName);
+        if (pool == null) {
+            return null;
+        }
+        ResettablePlugin plugin;
+        while ((plugin = pool.poll()) != null) {
+            if (plugin.reset(context)) {
+                LOG.trace("Reusing idle instance of plugin {}", pluginClassName);
+                return plugin;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Loads the plugin class and returns a handle to its empty constructor
+     * that returns a {@link Plugin}.
+     */
+    private MethodHandle getConstructor(String pluginClassName) {
         // load the class by name
         Class<?> cls;
         try {
@@ -34,33 +140,19 @@ public class BasePluginFactory {
             throw new RuntimeException(String.format("Class %s does not implement Plugin interface", pluginClassName));
         }
 
+        if (cls.isInterface() || Modifier.isAbstract(cls.getModifiers())) {
+            throw new RuntimeException(String.format("Class %s could not be instantiated", pluginClassName));
+        }
+
         // get the empty constructor
-        Constructor<?> con;
         try {
-            con = cls.getConstructor();
+            return MethodHandles.publicLookup()
+                    .findConstructor(cls, CONSTRUCTOR_TYPE)
+                    .asType(PLUGIN_TYPE);
         } catch (NoSuchMethodException e) {
             throw new RuntimeException(String.format("Class %s does not have an empty constructor", pluginClassName));
-        }
-
-        // create plugin instance
-        Plugin instance;
-        try {
-            instance = (Plugin) con.newInstance();
-        } catch (InvocationTargetException e) {
-            throw (e.getCause() != null) ? new RuntimeException(e.getCause()) :
-                    new RuntimeException(e);
-        } catch (Exception e) {
+        } catch (IllegalAccessException e) {
             throw new RuntimeException(String.format("Class %s could not be instantiated", pluginClassName), e);
         }
-
-        // initialize the instance
-        instance.setRequestContext(context);
-        instance.afterPropertiesSet();
-
-        // cast into a target type
-        @SuppressWarnings("unchecked")
-        T castInstance = (T) instance;
-
-        return castInstance;
     }
 }
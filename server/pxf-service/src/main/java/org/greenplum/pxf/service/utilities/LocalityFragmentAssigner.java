@@ -0,0 +1,194 @@
+package org.greenplum.pxf.service.utilities;
+
+import org.greenplum.pxf.api.model.Fragment;
+import org.greenplum.pxf.api.utilities.FragmentMetadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.regex.Pattern;
+
+/**
+ * Assigns the fragments of a query to the segments running on the hosts that
+ * store the data of the fragments, so that the fragments are read locally.
+ * No segment is assigned more than its fair share of ceil(F / N) fragments,
+ * so that a host storing most of the data does not become the bottleneck of
+ * the query; the fragments that can not be assigned to a local segment are
+ * given to the least loaded segments.
+ * <p>
+ * Every segment computes the assignment independently, so the assignment only
+ * depends on the list of fragments, the hosts of the segments and the shift
+ * of the query, which are the same for all the segments of a query.
+ */
+public class LocalityFragmentAssigner {
+
+    private static final Pattern IP_ADDRESS_PATTERN = Pattern.compile("^[0-9.]+$|:");
+
+    private final List<String> segmentHosts;
+    private final Map<String, List<Integer>> hostSegments;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param segmentHosts the hosts of the primary segments, ordered by segment content id
+     */
+    public LocalityFragmentAssigner(List<String> segmentHosts) {
+        this.segmentHosts = new ArrayList<>(segmentHosts.size());
+        this.hostSegments = new HashMap<>();
+        for (int segmentId = 0; segmentId < segmentHosts.size(); segmentId++) {
+            String host = normalize(segmentHosts.get(segmentId));
+            this.segmentHosts.add(host);
+            hostSegments.computeIfAbsent(host, h -> new ArrayList<>()).add(segmentId);
+        }
+    }
+
+    /**
+     * Returns the number of segments with a known host.
+     *
+     * @return the number of segments
+     */
+    public int getTotalSegments() {
+        return segmentHosts.size();
+    }
+
+    /**
+     * Returns whether any of the fragments knows the hosts storing its data.
+     *
+     * @param fragments the list of fragments
+     * @return true if at least one fragment has hosts, false otherwise
+     */
+    public static boolean hasHosts(List<Fragment> fragments) {
+        for (Fragment fragment : fragments) {
+            if (getHosts(fragment).length > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the data of the fragment is stored on the host of the
+     * given segment.
+     *
+     * @param fragment  the fragment
+     * @param segmentId the identifier of the segment
+     * @return true if the fragment is local to the segment, false otherwise
+     */
+    public boolean isLocal(Fragment fragment, int segmentId) {
+        String segmentHost = segmentHosts.get(segmentId);
+        for (String host : getHosts(fragment)) {
+            if (segmentHost.equals(normalize(host))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the fragments assigned to the given segment, in the order of
+     * the list of fragments.
+     * <p>
+     * The fragments are assigned in two passes. First, every fragment is
+     * assigned to the least loaded segment, among the segments on the hosts
+     * of the fragment, that has not reached its fair share. Then, the
+     * remaining fragments are assigned to the least loaded segments of the
+     * cluster. Ties between segments are broken with the same shifted order
+     * used by the round-robin assignment, so that queries with few fragments
+     * are not always executed by the low-numbered segments.
+     *
+     * @param fragments the list of fragments
+     * @param segmentId the identifier of the segment processing the request
+     * @param shift     the index of the segment that gets the first fragment with the round-robin assignment
+     * @return the fragments assigned to the segment
+     */
+    public List<Fragment> assign(List<Fragment> fragments, int segmentId, int shift) {
+        int totalSegments = segmentHosts.size();
+        int fairShare = (fragments.size() + totalSegments - 1) / totalSegments;
+        int[] loads = new int[totalSegments];
+        int[] ranks = new int[totalSegments];
+        for (int segment = 0; segment < totalSegments; segment++) {
+            ranks[segment] = Math.floorMod(segment - shift, totalSegments);
+        }
+
+        // do not use fragments.get(i) to iterate over fragments as the incoming fragment list is a LinkedList
+        int[] assignment = new int[fragments.size()];
+        List<Integer> unassigned = new ArrayList<>();
+        int index = 0;
+        for (Fragment fragment : fragments) {
+            int segment = getLocalSegment(fragment, loads, ranks, fairShare);
+            if (segment >= 0) {
+                loads[segment]++;
+            } else {
+                unassigned.add(index);
+            }
+            assignment[index++] = segment;
+        }
+
+        if (!unassigned.isEmpty()) {
+            PriorityQueue<Integer> segments = new PriorityQueue<>(totalSegments,
+                    (a, b) -> loads[a] != loads[b] ? Integer.compare(loads[a], loads[b]) : Integer.compare(ranks[a], ranks[b]));
+            for (int segment = 0; segment < totalSegments; segment++) {
+                segments.add(segment);
+            }
+            for (int fragmentIndex : unassigned) {
+                int segment = segments.poll();
+                assignment[fragmentIndex] = segment;
+                loads[segment]++;
+                segments.add(segment);
+            }
+        }
+
+        List<Fragment> assignedFragments = new ArrayList<>(loads[segmentId]);
+        index = 0;
+        for (Fragment fragment : fragments) {
+            if (assignment[index++] == segmentId) {
+                assignedFragments.add(fragment);
+            }
+        }
+        return assignedFragments;
+    }
+
+    /**
+     * Returns the least loaded segment below its fair share among the
+     * segments on the hosts of the fragment, or -1 if there is none.
+     */
+    private int getLocalSegment(Fragment fragment, int[] loads, int[] ranks, int fairShare) {
+        int candidate = -1;
+        for (String host : getHosts(fragment)) {
+            for (int segment : hostSegments.getOrDefault(normalize(host), Collections.emptyList())) {
+                if (loads[segment] >= fairShare) {
+                    continue;
+                }
+                if (candidate < 0 || loads[segment] < loads[candidate] ||
+                        (loads[segment] == loads[candidate] && ranks[segment] < ranks[candidate])) {
+                    candidate = segment;
+                }
+            }
+        }
+        return candidate;
+    }
+
+    private static String[] getHosts(Fragment fragment) {
+        FragmentMetadata metadata = fragment.getMetadata();
+        String[] hosts = metadata != null ? metadata.getHosts() : null;
+        return hosts != null ? hosts : new String[0];
+    }
+
+    /**
+     * Normalizes a host name to its lower case short name, as the block
+     * locations and the segment hosts can use either the short or the fully
+     * qualified name of a host.
+     */
+    private static String normalize(String host) {
+        String normalized = host.trim().toLowerCase(Locale.ROOT);
+        if (IP_ADDRESS_PATTERN.matcher(normalized).find()) {
+            return normalized;
+        }
+        int dot = normalized.indexOf('.');
+        return dot > 0 ? normalized.substring(0, dot) : normalized;
+    }
+}
@@ -28,6 +28,7 @@ import org.greenplum.pxf.api.io.BufferWritable;
 import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.io.GPDBWritable;
 import org.greenplum.pxf.api.io.Text;
+import org.greenplum.pxf.api.io.TextRecordWritable;
 import org.greenplum.pxf.api.io.Writable;
 import org.greenplum.pxf.api.model.OutputFormat;
 import org.greenplum.pxf.api.model.RequestContext;
@@ -52,6 +53,7 @@ import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -198,7 +200,7 @@ public class BridgeOutputBuilderTest {
     private void assertPrimitiveTypesInText(List<Writable> outputQueue) throws IOException {
         assertNotNull(outputQueue);
         assertEquals(1, outputQueue.size());
-        assertTrue(outputQueue.get(0) instanceof Text);
+        assertTrue(outputQueue.get(0) instanceof TextRecordWritable);
         outputQueue.get(0).write(dos);
         assertEquals(getExpectedSerializedString(), new String(dos.getOutput(), StandardCharsets.UTF_8));
     }
@@ -301,6 +303,69 @@ public class BridgeOutputBuilderTest {
                 new String(dos.getOutput(), StandardCharsets.UTF_8));
     }
 
+    @Test
+    public void testCSVSerializationQuotesSpecialCharacters() throws Exception {
+        RequestContext context = new RequestContext();
+        context.setFormat("TEXT");
+        context.getGreenplumCSV().withDelimiter('|').withNewline("CRLF").withQuoteChar('\'').withEscapeChar('\\');
+        addColumn(context, 0, DataType.TEXT, "col0");
+        addColumn(context, 1, DataType.TEXT, "col1");
+        addColumn(context, 2, DataType.TEXT, "col2");
+        addColumn(context, 3, DataType.TEXT, "col3");
+        addColumn(context, 4, DataType.TEXT, "col4");
+        addColumn(context, 5, DataType.BYTEA, "col5");
+        addColumn(context, 6, DataType.BIGINT, "col6");
+
+        BridgeOutputBuilder builder = makeBuilder(context);
+
+        List<OneField> recFields = Arrays.asList(
+                new OneField(DataType.TEXT.getOID(), "a|b"),
+                new OneField(DataType.TEXT.getOID(), "it's"),
+                new OneField(DataType.TEXT.getOID(), "line\r\nbreak"),
+                new OneField(DataType.TEXT.getOID(), "line\nonly"),
+                new OneField(DataType.TEXT.getOID(), "Qué será 中文 \uD83D\uDE00"),
+                new OneField(DataType.BYTEA.getOID(), new byte[]{(byte) 0xAB, 0x0F}),
+                new OneField(DataType.BIGINT.getOID(), Long.MIN_VALUE)
+        );
+
+        List<Writable> outputQueue = builder.makeOutput(recFields);
+        assertEquals(1, outputQueue.size());
+        outputQueue.get(0).write(dos);
+
+        String expected = "'a|b'|'it\\'s'|'line\r\nbreak'|line\nonly|Qué será 中文 \uD83D\uDE00|\\\\xab0f|-9223372036854775808\r\n";
+        assertEquals(expected, new String(dos.getOutput(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testTextSerializationOfVectorizedBatch() throws Exception {
+        RequestContext context = new RequestContext();
+        context.setFormat("CSV");
+        addColumn(context, 0, DataType.INTEGER, "col0");
+        addColumn(context, 1, DataType.TEXT, "col1");
+        BridgeOutputBuilder builder = makeBuilder(context);
+
+        List<List<OneField>> batch = Arrays.asList(
+                Arrays.asList(new OneField(DataType.INTEGER.getOID(), 1), new OneField(DataType.TEXT.getOID(), "one")),
+                Arrays.asList(new OneField(DataType.INTEGER.getOID(), -22), new OneField(DataType.TEXT.getOID(), "two")),
+                Arrays.asList(new OneField(DataType.INTEGER.getOID(), 333), new OneField(DataType.TEXT.getOID(), null)));
+
+        // every record of the batch is serialized in its own buffer
+        List<Writable> outputQueue = builder.makeVectorizedOutput(batch);
+        assertEquals(3, outputQueue.size());
+        List<Writable> firstBatchRecords = new ArrayList<>(outputQueue);
+        String[] expected = {"1,one\n", "-22,two\n", "333,\n"};
+        for (int i = 0; i < expected.length; i++) {
+            outputQueue.get(i).write(dos);
+            assertEquals(expected[i], new String(dos.getOutput(), StandardCharsets.UTF_8));
+        }
+
+        // the buffers are reused for the next batch
+        outputQueue = builder.makeVectorizedOutput(batch.subList(0, 2));
+        assertEquals(2, outputQueue.size());
+        assertSame(firstBatchRecords.get(0), outputQueue.get(0));
+        assertSame(firstBatchRecords.get(1), outputQueue.get(1));
+    }
+
     @Test
     public void testGetErrorOutputForText() throws Exception {
         Exception e = new Exception("test message");
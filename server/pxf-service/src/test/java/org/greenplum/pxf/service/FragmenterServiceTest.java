@@ -4,11 +4,13 @@ import com.google.common.base.Ticker;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import org.apache.hadoop.conf.Configuration;
+import org.greenplum.pxf.api.configuration.PxfServerProperties;
 import org.greenplum.pxf.api.examples.DemoFragmentMetadata;
 import org.greenplum.pxf.api.model.Fragment;
 import org.greenplum.pxf.api.model.Fragmenter;
 import org.greenplum.pxf.api.model.RequestContext;
 import org.greenplum.pxf.api.utilities.FragmenterCacheFactory;
+import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
 import org.greenplum.pxf.service.utilities.BasePluginFactory;
 import org.greenplum.pxf.service.utilities.GSSFailureHandler;
 import org.junit.jupiter.api.BeforeEach;
@@ -34,8 +36,10 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
@@ -46,6 +50,9 @@ class FragmenterServiceTest {
     @Mock private Fragmenter fragmenter1;
     @Mock private Fragmenter fragmenter2;
     @Mock private Fragmenter fragmenter3;
+    @Mock private MetricsReporter mockMetricsReporter;
+    private FragmenterCacheFactory fragmenterCacheFactory;
+    private PxfServerProperties pxfServerProperties;
     private Cache<String, List<Fragment>> fragmentCache;
     private FakeTicker fakeTicker;
     private FragmenterService fragmenterService;
@@ -77,7 +84,8 @@ class FragmenterServiceTest {
         context2.setDataSource("path.A");
         context2.setConfiguration(configuration);
 
-        FragmenterCacheFactory fragmenterCacheFactory = mock(FragmenterCacheFactory.class);
+        fragmenterCacheFactory = mock(FragmenterCacheFactory.class);
+        pxfServerProperties = new PxfServerProperties();
 
         fakeTicker = new FakeTicker();
         fragmentCache = CacheBuilder.newBuilder()
@@ -89,7 +97,7 @@ class FragmenterServiceTest {
 
         // use a real handler to ensure pass-through calls on default configuration
         fragmenterService = new FragmenterService(fragmenterCacheFactory,
-                mockPluginFactory, new GSSFailureHandler());
+                mockPluginFactory, new GSSFailureHandler(), mockMetricsReporter, new SharedFragmentCache(pxfServerProperties), pxfServerProperties);
     }
 
     @Test
@@ -202,6 +210,112 @@ class FragmenterServiceTest {
         assertEquals("barfoo", response2.get(1).getSourceName());
     }
 
+    // ----- TESTS for locality-aware fragment assignment -----
+
+    @Test
+    public void testLocalityAssignment() throws Throwable {
+        pxfServerProperties.getRead().setFragmentAssignment("locality");
+        List<Fragment> response = getFragmentsOfTwoSegments(Arrays.asList("host1", "host2"));
+
+        // fragments foo.bar and bar.foo fill up the share of segment 1 on host2,
+        // so barfoo is read remotely by segment 0, the least loaded segment
+        assertEquals(Arrays.asList("foobar", "barfoo", "foo.bar", "bar.foo"), getSourceNames(response));
+        verify(mockMetricsReporter).reportCounter(MetricsReporter.PxfMetric.FRAGMENT_BYTES_LOCAL, 30, context1);
+        verify(mockMetricsReporter).reportCounter(MetricsReporter.PxfMetric.FRAGMENT_BYTES_REMOTE, 40, context1);
+        verify(mockMetricsReporter).reportCounter(MetricsReporter.PxfMetric.FRAGMENT_BYTES_LOCAL, 30, context2);
+        verify(mockMetricsReporter).reportCounter(MetricsReporter.PxfMetric.FRAGMENT_BYTES_REMOTE, 0, context2);
+    }
+
+    @Test
+    public void testLocalityAssignmentFromServerConfiguration() throws Throwable {
+        configuration.set(FragmenterService.FRAGMENT_ASSIGNMENT_PROPERTY, "locality");
+        List<Fragment> response = getFragmentsOfTwoSegments(Arrays.asList("host1", "host2"));
+
+        assertEquals(Arrays.asList("foobar", "barfoo", "foo.bar", "bar.foo"), getSourceNames(response));
+    }
+
+    @Test
+    public void testLocalityAssignmentFromTableOption() throws Throwable {
+        configuration.set(FragmenterService.FRAGMENT_ASSIGNMENT_PROPERTY, "round-robin");
+        context1.addOption(FragmenterService.FRAGMENT_ASSIGNMENT_OPTION, "LOCALITY");
+        context2.addOption(FragmenterService.FRAGMENT_ASSIGNMENT_OPTION, "LOCALITY");
+        List<Fragment> response = getFragmentsOfTwoSegments(Arrays.asList("host1", "host2"));
+
+        assertEquals(Arrays.asList("foobar", "barfoo", "foo.bar", "bar.foo"), getSourceNames(response));
+    }
+
+    @Test
+    public void testRoundRobinAssignmentReportsLocality() throws Throwable {
+        List<Fragment> response = getFragmentsOfTwoSegments(Arrays.asList("host1", "host2"));
+
+        assertEquals(Arrays.asList("foo.bar", "foobar", "bar.foo", "barfoo"), getSourceNames(response));
+        verify(mockMetricsReporter).reportCounter(MetricsReporter.PxfMetric.FRAGMENT_BYTES_LOCAL, 30, context1);
+        verify(mockMetricsReporter).reportCounter(MetricsReporter.PxfMetric.FRAGMENT_BYTES_REMOTE, 10, context1);
+        verify(mockMetricsReporter).reportCounter(MetricsReporter.PxfMetric.FRAGMENT_BYTES_LOCAL, 60, context2);
+        verify(mockMetricsReporter).reportCounter(MetricsReporter.PxfMetric.FRAGMENT_BYTES_REMOTE, 0, context2);
+    }
+
+    @Test
+    public void testLocalityAssignmentFallsBackToRoundRobinWhenSegmentHostsDoNotMatch() throws Throwable {
+        pxfServerProperties.getRead().setFragmentAssignment("locality");
+        List<Fragment> response = getFragmentsOfTwoSegments(Arrays.asList("host1", "host2", "host3"));
+
+        assertEquals(Arrays.asList("foo.bar", "foobar", "bar.foo", "barfoo"), getSourceNames(response));
+        verifyNoInteractions(mockMetricsReporter);
+    }
+
+    @Test
+    public void testLocalityAssignmentFallsBackToRoundRobinWithoutHosts() throws Throwable {
+        pxfServerProperties.getRead().setFragmentAssignment("locality");
+        pxfServerProperties.getRead().setSegmentHosts(Arrays.asList("host1", "host2"));
+        fragmenterService = new FragmenterService(fragmenterCacheFactory,
+                mockPluginFactory, new GSSFailureHandler(), mockMetricsReporter, new SharedFragmentCache(pxfServerProperties), pxfServerProperties);
+
+        // the same fragments and order as testFragmenterCallForTwoSegments
+        testFragmenterCallForTwoSegments();
+    }
+
+    @Test
+    public void testLocalityAssignmentDoesNotShareFragmentsAcrossTransactions() throws Throwable {
+        pxfServerProperties.getFragmentCache().setEnabled(true);
+        pxfServerProperties.getRead().setFragmentAssignment("locality");
+        List<Fragment> response = getFragmentsOfTwoSegments(Arrays.asList("host1", "host2"));
+
+        // the hosts of cached fragments could be stale
+        assertEquals(Arrays.asList("foobar", "barfoo", "foo.bar", "bar.foo"), getSourceNames(response));
+        verify(fragmenter1, never()).getFragmentsVersion();
+    }
+
+    @Test
+    public void testFragmentsAreSharedAcrossTransactions() throws Throwable {
+        pxfServerProperties.getFragmentCache().setEnabled(true);
+        fragmenterService = new FragmenterService(fragmenterCacheFactory,
+                mockPluginFactory, new GSSFailureHandler(), mockMetricsReporter, new SharedFragmentCache(pxfServerProperties), pxfServerProperties);
+
+        List<Fragment> fragmentList = Arrays.asList(
+                new Fragment("foo.bar", new DemoFragmentMetadata()),
+                new Fragment("bar.foo", new DemoFragmentMetadata())
+        );
+        context2.setFragmenter(context1.getFragmenter());
+
+        when(mockPluginFactory.getPlugin(context1, context1.getFragmenter())).thenReturn(fragmenter1);
+        when(mockPluginFactory.getPlugin(context2, context2.getFragmenter())).thenReturn(fragmenter2);
+        when(fragmenter1.getFragmentsVersion()).thenReturn("v1");
+        when(fragmenter1.getFragments()).thenReturn(fragmentList);
+        when(fragmenter2.getFragmentsVersion()).thenReturn("v1");
+
+        List<Fragment> response1 = fragmenterService.getFragmentsForSegment(context1);
+        List<Fragment> response2 = fragmenterService.getFragmentsForSegment(context2);
+
+        // the second transaction only checks the version of the data source
+        verify(fragmenter1, times(1)).getFragments();
+        verify(fragmenter2, times(1)).getFragmentsVersion();
+        verifyNoMoreInteractions(fragmenter2);
+
+        assertEquals(Arrays.asList("foo.bar", "bar.foo"), getSourceNames(response1));
+        assertEquals(Arrays.asList("foo.bar", "bar.foo"), getSourceNames(response2));
+    }
+
     @Test
     public void getSameFragmenterCallTwiceUsesCache() throws Throwable {
         List<Fragment> fragmentList = new ArrayList<>();
@@ -471,4 +585,44 @@ class FragmenterServiceTest {
         assertTrue(end-start < 10000L); // should be less than 10 secs (8x margin), not minutes
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the fragments of segment 0 followed by the fragments of
+     * segment 1 of a cluster with the given segment hosts.
+     */
+    private List<Fragment> getFragmentsOfTwoSegments(List<String> segmentHosts) throws Throwable {
+        pxfServerProperties.getRead().setSegmentHosts(segmentHosts);
+        fragmenterService = new FragmenterService(fragmenterCacheFactory,
+                mockPluginFactory, new GSSFailureHandler(), mockMetricsReporter, new SharedFragmentCache(pxfServerProperties), pxfServerProperties);
+
+        List<Fragment> fragmentList = Arrays.asList(
+                new Fragment("foo.bar", new HcfsFragmentMetadata(0, 10, new String[]{"host2.example.com"})),
+                new Fragment("bar.foo", new HcfsFragmentMetadata(0, 20, new String[]{"host2.example.com"})),
+                new Fragment("foobar", new HcfsFragmentMetadata(0, 30, new String[]{"HOST1.example.com"})),
+                new Fragment("barfoo", new HcfsFragmentMetadata(0, 40, new String[]{"host2.example.com"}))
+        );
+
+        context1.setTransactionId("XID-XYZ-123456");
+        context1.setSegmentId(0);
+        context1.setTotalSegments(2);
+
+        context2.setTransactionId("XID-XYZ-123456");
+        context2.setSegmentId(1);
+        context2.setTotalSegments(2);
+
+        when(mockPluginFactory.getPlugin(context1, context1.getFragmenter())).thenReturn(fragmenter1);
+        when(fragmenter1.getFragments()).thenReturn(fragmentList);
+
+        List<Fragment> response = new ArrayList<>(fragmenterService.getFragmentsForSegment(context1));
+        response.addAll(fragmenterService.getFragmentsForSegment(context2));
+        return response;
+    }
+
+    private List<String> getSourceNames(List<Fragment> fragments) {
+        List<String> names = new ArrayList<>();
+        for (Fragment fragment : fragments) {
+            names.add(fragment.getSourceName());
+        }
+        return names;
+    }
+}
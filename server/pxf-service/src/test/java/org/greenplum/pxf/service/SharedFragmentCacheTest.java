@@ -0,0 +1,227 @@
+package org.greenplum.pxf.service;
+
+import com.google.common.base.Ticker;
+import org.greenplum.pxf.api.configuration.PxfServerProperties;
+import org.greenplum.pxf.api.examples.DemoFragmentMetadata;
+import org.greenplum.pxf.api.model.Fragment;
+import org.greenplum.pxf.api.model.Fragmenter;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SharedFragmentCacheTest {
+
+    @Mock private Fragmenter mockFragmenter;
+    private PxfServerProperties.FragmentCache properties;
+    private FakeTicker ticker;
+    private RequestContext context;
+    private List<Fragment> fragments;
+
+    @BeforeEach
+    public void setup() {
+        properties = new PxfServerProperties.FragmentCache();
+        properties.setEnabled(true);
+        ticker = new FakeTicker();
+
+        context = new RequestContext();
+        context.setServerName("default");
+        context.setUser("alice");
+        context.setProfile("hdfs:text");
+        context.setFragmenter("org.greenplum.pxf.plugins.hdfs.HdfsDataFragmenter");
+        context.setDataSource("/data/sales");
+
+        fragments = Arrays.asList(
+                new Fragment("/data/sales/a.csv", new DemoFragmentMetadata()),
+                new Fragment("/data/sales/b.csv", new DemoFragmentMetadata()));
+    }
+
+    @Test
+    public void testFragmentsAreCachedAcrossQueries() throws Exception {
+        when(mockFragmenter.getFragmentsVersion()).thenReturn("v1");
+        when(mockFragmenter.getFragments()).thenReturn(fragments);
+        SharedFragmentCache cache = new SharedFragmentCache(properties, ticker);
+
+        List<Fragment> first = cache.getFragments(context, mockFragmenter);
+        List<Fragment> second = cache.getFragments(context, mockFragmenter);
+
+        verify(mockFragmenter, times(1)).getFragments();
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, second.size());
+        assertEquals("/data/sales/a.csv", second.get(0).getSourceName());
+        assertEquals("/data/sales/b.csv", second.get(1).getSourceName());
+        // every query gets its own fragments, as their index is updated by the caller
+        assertNotSame(first.get(0), second.get(0));
+        assertNotSame(fragments.get(0), second.get(0));
+        assertEquals(fragments.get(0).getMetadata(), second.get(0).getMetadata());
+    }
+
+    @Test
+    public void testFragmentsAreInvalidatedWhenVersionChanges() throws Exception {
+        when(mockFragmenter.getFragmentsVersion()).thenReturn("v1", "v2", "v2");
+        when(mockFragmenter.getFragments()).thenReturn(fragments);
+        SharedFragmentCache cache = new SharedFragmentCache(properties, ticker);
+
+        cache.getFragments(context, mockFragmenter);
+        cache.getFragments(context, mockFragmenter);
+        cache.getFragments(context, mockFragmenter);
+
+        verify(mockFragmenter, times(2)).getFragments();
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getInvalidationCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testFragmentsExpireAfterProfileTtl() throws Exception {
+        properties.setTtl(Duration.ofMinutes(10));
+        properties.getProfileTtl().put("hdfs:text", Duration.ofMinutes(1));
+        when(mockFragmenter.getFragmentsVersion()).thenReturn("v1");
+        when(mockFragmenter.getFragments()).thenReturn(fragments);
+        SharedFragmentCache cache = new SharedFragmentCache(properties, ticker);
+
+        cache.getFragments(context, mockFragmenter);
+        ticker.advanceTime(TimeUnit.SECONDS.toNanos(59));
+        cache.getFragments(context, mockFragmenter);
+        ticker.advanceTime(TimeUnit.SECONDS.toNanos(2));
+        cache.getFragments(context, mockFragmenter);
+
+        verify(mockFragmenter, times(2)).getFragments();
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getExpirationCount());
+    }
+
+    @Test
+    public void testFragmentsAreNotCachedForProfileWithZeroTtl() throws Exception {
+        properties.getProfileTtl().put("HDFS:TEXT", Duration.ZERO);
+        when(mockFragmenter.getFragments()).thenReturn(fragments);
+        SharedFragmentCache cache = new SharedFragmentCache(properties, ticker);
+
+        cache.getFragments(context, mockFragmenter);
+        cache.getFragments(context, mockFragmenter);
+
+        verify(mockFragmenter, never()).getFragmentsVersion();
+        verify(mockFragmenter, times(2)).getFragments();
+        assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    public void testFragmentsAreNotCachedWithoutVersion() throws Exception {
+        when(mockFragmenter.getFragments()).thenReturn(fragments);
+        SharedFragmentCache cache = new SharedFragmentCache(properties, ticker);
+
+        cache.getFragments(context, mockFragmenter);
+        cache.getFragments(context, mockFragmenter);
+
+        verify(mockFragmenter, times(2)).getFragments();
+        assertEquals(0, cache.getMissCount());
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    public void testFragmentsAreNotCachedWhenDisabled() throws Exception {
+        properties.setEnabled(false);
+        when(mockFragmenter.getFragments()).thenReturn(fragments);
+        SharedFragmentCache cache = new SharedFragmentCache(properties, ticker);
+
+        cache.getFragments(context, mockFragmenter);
+        cache.getFragments(context, mockFragmenter);
+
+        verify(mockFragmenter, never()).getFragmentsVersion();
+        verify(mockFragmenter, times(2)).getFragments();
+    }
+
+    @Test
+    public void testFragmentsAreCachedPerFilterAndUser() throws Exception {
+        when(mockFragmenter.getFragmentsVersion()).thenReturn("v1");
+        when(mockFragmenter.getFragments()).thenReturn(fragments);
+        SharedFragmentCache cache = new SharedFragmentCache(properties, ticker);
+
+        cache.getFragments(context, mockFragmenter);
+        context.setFilterString("a1c23s1d5o5");
+        cache.getFragments(context, mockFragmenter);
+        context.setUser("bob");
+        cache.getFragments(context, mockFragmenter);
+
+        verify(mockFragmenter, times(3)).getFragments();
+        assertEquals(3, cache.getMissCount());
+    }
+
+    @Test
+    public void testFragmentsAreCachedPerOptionsAndSegments() throws Exception {
+        when(mockFragmenter.getFragmentsVersion()).thenReturn("v1");
+        when(mockFragmenter.getFragments()).thenReturn(fragments);
+        SharedFragmentCache cache = new SharedFragmentCache(properties, ticker);
+        context.setTotalSegments(3);
+        // the names of the options are case-insensitive
+        RequestContext sameContext = context.copy();
+        sameContext.addOption("scan_range_min_size", "64m");
+        context.addOption("SCAN_RANGE_MIN_SIZE", "64m");
+
+        RequestContext otherContext = context.copy();
+        otherContext.addOption("SCAN_RANGE_MIN_SIZE", "1g");
+
+        cache.getFragments(context, mockFragmenter);
+        cache.getFragments(otherContext, mockFragmenter);
+        assertEquals(2, cache.getMissCount());
+        assertEquals(0, cache.getHitCount());
+
+        cache.getFragments(sameContext, mockFragmenter);
+        assertEquals(1, cache.getHitCount());
+
+        context.setTotalSegments(8);
+        cache.getFragments(context, mockFragmenter);
+
+        verify(mockFragmenter, times(3)).getFragments();
+        assertEquals(3, cache.getMissCount());
+    }
+
+    @Test
+    public void testCacheIsBoundedByNumberOfFragments() throws Exception {
+        properties.setMaxFragments(3);
+        when(mockFragmenter.getFragmentsVersion()).thenReturn("v1");
+        when(mockFragmenter.getFragments()).thenReturn(fragments);
+        SharedFragmentCache cache = new SharedFragmentCache(properties, ticker);
+
+        cache.getFragments(context, mockFragmenter);
+        context.setDataSource("/data/returns");
+        cache.getFragments(context, mockFragmenter);
+        context.setDataSource("/data/sales");
+        cache.getFragments(context, mockFragmenter);
+
+        // the 2 fragments of /data/sales were evicted to make room for the ones of /data/returns
+        verify(mockFragmenter, times(3)).getFragments();
+        assertEquals(3, cache.getMissCount());
+    }
+
+    private static class FakeTicker extends Ticker {
+
+        private final AtomicLong nanos = new AtomicLong();
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+
+        public void advanceTime(long nanoseconds) {
+            nanos.addAndGet(nanoseconds);
+        }
+    }
+}
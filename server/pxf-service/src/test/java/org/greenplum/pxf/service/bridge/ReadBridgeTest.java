@@ -1,8 +1,14 @@
 package org.greenplum.pxf.service.bridge;
 
 import org.apache.hadoop.conf.Configuration;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.OneRow;
+import org.greenplum.pxf.api.io.DataType;
 import org.greenplum.pxf.api.model.Accessor;
+import org.greenplum.pxf.api.model.OutputFormat;
 import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.model.Resolver;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
 import org.greenplum.pxf.service.utilities.BasePluginFactory;
 import org.greenplum.pxf.service.utilities.GSSFailureHandler;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,11 +19,16 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
+import java.util.Collections;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -39,6 +50,8 @@ public class ReadBridgeTest {
     private Accessor mockAccessor2;
     @Mock
     private Accessor mockAccessor3;
+    @Mock
+    private Resolver mockResolver;
 
     @BeforeEach
     public void setup() {
@@ -140,6 +153,27 @@ public class ReadBridgeTest {
         verifyNoMoreInteractions(mockPluginFactory);
     }
 
+    @Test
+    public void testGetNextDropsRecordsNotMatchingResidualFilter() throws Exception {
+        context.setOutputFormat(OutputFormat.GPDBWritable);
+        context.getTupleDescription().add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null));
+        // id > 5
+        context.setFilterString("a0c23s1d5o2");
+        context.addOption("RESIDUAL_FILTER", "true");
+        OneRow row1 = new OneRow(null, "5");
+        OneRow row2 = new OneRow(null, "6");
+        when(mockPluginFactory.getPlugin(context, context.getAccessor())).thenReturn(mockAccessor1);
+        when(mockPluginFactory.getPlugin(context, context.getResolver())).thenReturn(mockResolver);
+        when(mockAccessor1.readNextObject()).thenReturn(row1, row2, null);
+        when(mockResolver.getFields(row1)).thenReturn(Collections.singletonList(new OneField(DataType.INTEGER.getOID(), 5)));
+        when(mockResolver.getFields(row2)).thenReturn(Collections.singletonList(new OneField(DataType.INTEGER.getOID(), 6)));
+
+        bridge = new ReadBridge(mockPluginFactory, context, handler);
+        assertNotNull(bridge.getNext());
+        assertNull(bridge.getNext());
+        assertEquals(1, bridge.getFilteredRecordCount());
+    }
+
     @Test
     public void testSetNextIsNotSupported() {
         bridge = new ReadBridge(mockPluginFactory, context, handler);
@@ -147,4 +181,27 @@ public class ReadBridgeTest {
         Exception e = assertThrows(UnsupportedOperationException.class, () -> bridge.setNext(null));
         assertEquals("Write operation is not supported.", e.getMessage());
     }
+
+    @Test
+    public void testEndIterationReleasesPlugins() throws Exception {
+        when(mockPluginFactory.getPlugin(context, context.getAccessor())).thenReturn(mockAccessor1);
+
+        bridge = new ReadBridge(mockPluginFactory, context, handler);
+        bridge.endIteration();
+
+        verify(mockAccessor1).closeForRead();
+        verify(mockPluginFactory).releasePlugin(mockAccessor1);
+    }
+
+    @Test
+    public void testEndIterationFailureDoesNotReleaseAccessor() throws Exception {
+        when(mockPluginFactory.getPlugin(context, context.getAccessor())).thenReturn(mockAccessor1);
+        doThrow(new IOException("close failed")).when(mockAccessor1).closeForRead();
+
+        bridge = new ReadBridge(mockPluginFactory, context, handler);
+        Exception e = assertThrows(IOException.class, () -> bridge.endIteration());
+        assertEquals("close failed", e.getMessage());
+
+        verify(mockPluginFactory, never()).releasePlugin(mockAccessor1);
+    }
 }
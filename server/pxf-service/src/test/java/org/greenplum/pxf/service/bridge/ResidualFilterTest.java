@@ -0,0 +1,200 @@
+package org.greenplum.pxf.service.bridge;
+
+import org.apache.hadoop.conf.Configuration;
+import org.greenplum.pxf.api.OneField;
+import org.greenplum.pxf.api.io.DataType;
+import org.greenplum.pxf.api.model.OutputFormat;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.utilities.ColumnDescriptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResidualFilterTest {
+
+    private RequestContext context;
+
+    @BeforeEach
+    public void setup() {
+        context = new RequestContext();
+        context.setConfiguration(new Configuration());
+        context.setOutputFormat(OutputFormat.GPDBWritable);
+        context.getTupleDescription().add(new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null));
+        context.getTupleDescription().add(new ColumnDescriptor("name", DataType.TEXT.getOID(), 1, "text", null));
+        context.getTupleDescription().add(new ColumnDescriptor("amt", DataType.FLOAT8.getOID(), 2, "float8", null));
+        context.getTupleDescription().add(new ColumnDescriptor("dt", DataType.DATE.getOID(), 3, "date", null));
+        context.getTupleDescription().add(new ColumnDescriptor("price", DataType.NUMERIC.getOID(), 4, "numeric", null));
+    }
+
+    @Test
+    public void testNotEnabled() {
+        context.setFilterString("a0c23s1d5o5");
+        assertNull(ResidualFilter.create(context));
+
+        context.getConfiguration().set(ResidualFilter.RESIDUAL_FILTER_PROPERTY, "true");
+        assertNotNull(ResidualFilter.create(context));
+
+        context.addOption(ResidualFilter.RESIDUAL_FILTER_OPTION, "false");
+        assertNull(ResidualFilter.create(context));
+    }
+
+    @Test
+    public void testNoFilter() {
+        enable();
+        assertNull(ResidualFilter.create(context));
+    }
+
+    @Test
+    public void testTextOutputIsNotFiltered() {
+        enable();
+        context.setOutputFormat(OutputFormat.TEXT);
+        context.setFilterString("a0c23s1d5o5");
+        assertNull(ResidualFilter.create(context));
+    }
+
+    @Test
+    public void testComparisons() {
+        // id > 5
+        ResidualFilter filter = createFilter("a0c23s1d5o2");
+        assertTrue(filter.test(row(6, "a", 1.0, "2020-01-01", "1")));
+        assertFalse(filter.test(row(5, "a", 1.0, "2020-01-01", "1")));
+        // values resolved as text are compared as numbers
+        assertTrue(filter.test(row("10", "a", 1.0, "2020-01-01", "1")));
+        // NULL is not greater than 5
+        assertFalse(filter.test(row(null, "a", 1.0, "2020-01-01", "1")));
+
+        // amt <= 2.5
+        filter = createFilter("a2c701s3d2.5o3");
+        assertTrue(filter.test(row(1, "a", 2.5, "2020-01-01", "1")));
+        assertFalse(filter.test(row(1, "a", Double.NaN, "2020-01-01", "1")));
+
+        // dt < '2020-06-01'
+        filter = createFilter("a3c1082s10d2020-06-01o1");
+        assertTrue(filter.test(row(1, "a", 1.0, "2020-01-01", "1")));
+        assertFalse(filter.test(row(1, "a", 1.0, java.sql.Date.valueOf("2021-01-01"), "1")));
+
+        // price = 1.50
+        filter = createFilter("a4c1700s4d1.50o5");
+        assertTrue(filter.test(row(1, "a", 1.0, "2020-01-01", new BigDecimal("1.5"))));
+        assertFalse(filter.test(row(1, "a", 1.0, "2020-01-01", "1.51")));
+
+        // name <> 'abc'
+        filter = createFilter("a1c25s3dabco6");
+        assertTrue(filter.test(row(1, "abd", 1.0, "2020-01-01", "1")));
+        assertFalse(filter.test(row(1, "abc", 1.0, "2020-01-01", "1")));
+    }
+
+    @Test
+    public void testFloatComparisons() {
+        // amt = '0.1'::float4, the constant is widened to float8
+        ResidualFilter filter = createFilter("a2c700s3d0.1o5");
+        assertTrue(filter.test(row(1, "a", (double) 0.1f, "2020-01-01", "1")));
+        assertFalse(filter.test(row(1, "a", 0.1, "2020-01-01", "1")));
+
+        context.getTupleDescription().set(2, new ColumnDescriptor("ratio", DataType.REAL.getOID(), 2, "float4", null));
+
+        // ratio = '0.1'::float4 is compared in float4
+        filter = createFilter("a2c700s3d0.1o5");
+        assertTrue(filter.test(row(1, "a", 0.1f, "2020-01-01", "1")));
+        assertTrue(filter.test(row(1, "a", "0.1", "2020-01-01", "1")));
+        assertFalse(filter.test(row(1, "a", 0.2f, "2020-01-01", "1")));
+
+        // ratio IN ('0.1'::float4, '0.3'::float4)
+        filter = createFilter("a2m1021s3d0.1s3d0.3o10");
+        assertTrue(filter.test(row(1, "a", 0.3f, "2020-01-01", "1")));
+        assertFalse(filter.test(row(1, "a", 0.2f, "2020-01-01", "1")));
+
+        // ratio = 0.1::float8 widens the column to float8
+        filter = createFilter("a2c701s3d0.1o5");
+        assertFalse(filter.test(row(1, "a", 0.1f, "2020-01-01", "1")));
+        filter = createFilter("a2c701s3d0.5o5");
+        assertTrue(filter.test(row(1, "a", 0.5f, "2020-01-01", "1")));
+
+        // ratio = 1, the type Greenplum compares in is not known
+        assertNull(createFilter("a2c23s1d1o5"));
+    }
+
+    @Test
+    public void testInAndNullTests() {
+        // id IN (1, 2, 3)
+        ResidualFilter filter = createFilter("a0m1007s1d1s1d2s1d3o10");
+        assertTrue(filter.test(row(2, "a", 1.0, "2020-01-01", "1")));
+        assertFalse(filter.test(row(4, "a", 1.0, "2020-01-01", "1")));
+        assertFalse(filter.test(row(null, "a", 1.0, "2020-01-01", "1")));
+
+        // name IS NULL
+        filter = createFilter("a1o8");
+        assertTrue(filter.test(row(1, null, 1.0, "2020-01-01", "1")));
+        assertFalse(filter.test(row(1, "a", 1.0, "2020-01-01", "1")));
+    }
+
+    @Test
+    public void testLogicalOperators() {
+        // id = 1 OR NOT (id = 2)
+        ResidualFilter filter = createFilter("a0c23s1d1o5a0c23s1d2o5l2l1");
+        assertTrue(filter.test(row(1, "a", 1.0, "2020-01-01", "1")));
+        assertFalse(filter.test(row(2, "a", 1.0, "2020-01-01", "1")));
+        assertTrue(filter.test(row(3, "a", 1.0, "2020-01-01", "1")));
+        // NOT (NULL = 2) is NULL, as is false OR NULL
+        assertFalse(filter.test(row(null, "a", 1.0, "2020-01-01", "1")));
+
+        // id = 1 AND name IS NOT NULL
+        filter = createFilter("a0c23s1d1o5a1o9l0");
+        assertTrue(filter.test(row(1, "a", 1.0, "2020-01-01", "1")));
+        assertFalse(filter.test(row(1, null, 1.0, "2020-01-01", "1")));
+    }
+
+    @Test
+    public void testUnsupportedPartsArePruned() {
+        // id = 1 AND name > 'abc', the ordering of text depends on the collation
+        ResidualFilter filter = createFilter("a0c23s1d1o5a1c25s3dabco2l0");
+        assertTrue(filter.test(row(1, "aaa", 1.0, "2020-01-01", "1")));
+        assertFalse(filter.test(row(2, "xyz", 1.0, "2020-01-01", "1")));
+
+        // NOT (id = 1 AND name LIKE 'a%') can not be evaluated without the LIKE
+        assertNull(createFilter("a0c23s1d1o5a1c25s2da%o7l0l2"));
+
+        // id = 1 OR name LIKE 'a%' can not be evaluated without the LIKE
+        assertNull(createFilter("a0c23s1d1o5a1c25s2da%o7l1"));
+
+        // id = 1 on a column that is not projected
+        context.getTupleDescription().set(0, new ColumnDescriptor("id", DataType.INTEGER.getOID(), 0, "int4", null, false));
+        assertNull(createFilter("a0c23s1d1o5"));
+    }
+
+    @Test
+    public void testRecordsThatCanNotBeComparedAreKept() {
+        ResidualFilter filter = createFilter("a0c23s1d5o2");
+        // a value that is not a number
+        assertTrue(filter.test(row("abc", "a", 1.0, "2020-01-01", "1")));
+        // a record that does not match the columns
+        assertTrue(filter.test(Arrays.asList(new OneField(DataType.TEXT.getOID(), "1,a,1.0"))));
+    }
+
+    private void enable() {
+        context.addOption(ResidualFilter.RESIDUAL_FILTER_OPTION, "true");
+    }
+
+    private ResidualFilter createFilter(String filterString) {
+        enable();
+        context.setFilterString(filterString);
+        return ResidualFilter.create(context);
+    }
+
+    private List<OneField> row(Object id, Object name, Object amt, Object dt, Object price) {
+        return Arrays.asList(
+                new OneField(DataType.INTEGER.getOID(), id),
+                new OneField(DataType.TEXT.getOID(), name),
+                new OneField(DataType.FLOAT8.getOID(), amt),
+                new OneField(DataType.DATE.getOID(), dt),
+                new OneField(DataType.NUMERIC.getOID(), price));
+    }
+}
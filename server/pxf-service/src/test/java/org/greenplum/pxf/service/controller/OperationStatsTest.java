@@ -64,6 +64,21 @@ public class OperationStatsTest {
         verifyNoMoreInteractions(mockMetricReporter);
     }
 
+    @Test
+    public void testReportCompletedRecordsReportsWhenCrossingFrequency() {
+        when(mockMetricReporter.getReportFrequency()).thenReturn(5L);
+        OperationStats stats = new OperationStats(OperationStats.Operation.READ, mockMetricReporter, mockContext);
+        stats.reportCompletedRecords(3, 30L);
+        verifyNoMoreInteractions(mockMetricReporter);
+
+        stats.reportCompletedRecords(4, 70L);
+        assertEquals(7L, stats.getRecordCount());
+        assertEquals(70L, stats.getByteCount());
+        verify(mockMetricReporter).reportCounter(MetricsReporter.PxfMetric.RECORDS_SENT, 7, mockContext);
+        verify(mockMetricReporter).reportCounter(MetricsReporter.PxfMetric.BYTES_SENT, 70, mockContext);
+        verifyNoMoreInteractions(mockMetricReporter);
+    }
+
     @Test
     public void testReportCurrentStatsMultiRecordReport() {
         when(mockMetricReporter.getReportFrequency()).thenReturn(2L);
@@ -1,6 +1,7 @@
 package org.greenplum.pxf.service.controller;
 
 import org.apache.hadoop.conf.Configuration;
+import org.greenplum.pxf.api.configuration.PxfServerProperties;
 import org.greenplum.pxf.api.error.PxfRuntimeException;
 import org.greenplum.pxf.api.io.Writable;
 import org.greenplum.pxf.api.model.ConfigurationFactory;
@@ -18,8 +19,11 @@ import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.stubbing.Answer;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 
 import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.PrivilegedAction;
@@ -28,10 +32,15 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
@@ -61,9 +70,10 @@ public class ReadServiceImplTest {
     @Mock
     private Writable mockRecord1, mockRecord2, mockRecord3;
     @Mock
-    private RequestContext mockContext;
+    private RequestContext mockContext, mockFragmentContext1, mockFragmentContext2;
 
     private ReadServiceImpl readService;
+    private PxfServerProperties pxfServerProperties;
 
     @BeforeEach
     public void setup() throws Exception {
@@ -75,7 +85,57 @@ public class ReadServiceImplTest {
             return result;
         });
 
-        readService = new ReadServiceImpl(mockConfigurationFactory, mockBridgeFactory, mockSecurityService, mockFragmenterService, mockMetricReporter);
+        // write every record to the output stream as soon as it is serialized, so that the writes can be verified
+        pxfServerProperties = new PxfServerProperties();
+        pxfServerProperties.getRead().setOutputBufferSize(0);
+        readService = new ReadServiceImpl(mockConfigurationFactory, mockBridgeFactory, mockSecurityService,
+                mockFragmenterService, mockMetricReporter, pxfServerProperties, new TaskExecutorAdapter(Runnable::run));
+    }
+
+    @Test
+    public void testReadDataWithOutputBuffer() throws Exception {
+        pxfServerProperties.getRead().setOutputBufferSize(1024);
+        readService = new ReadServiceImpl(mockConfigurationFactory, mockBridgeFactory, mockSecurityService,
+                mockFragmenterService, mockMetricReporter, pxfServerProperties, new TaskExecutorAdapter(Runnable::run));
+        when(mockMetricReporter.getReportFrequency()).thenReturn(2L);
+        when(mockFragmentList.size()).thenReturn(1);
+        when(mockFragmentList.get(0)).thenReturn(mockFragment1);
+        when(mockBridgeFactory.getBridge(mockContext)).thenReturn(mockBridge1);
+        when(mockBridge1.beginIteration()).thenReturn(true);
+        when(mockBridge1.getNext()).thenReturn(mockRecord1, mockRecord2, null);
+        doAnswer(writeTestData("hello")).when(mockRecord1).write(any(DataOutputStream.class));
+        doAnswer(writeTestData("world!")).when(mockRecord2).write(any(DataOutputStream.class));
+
+        readService.readData(mockContext, mockOutputStream);
+
+        // the records are counted as they are serialized, and their bytes once they are written to the output stream at once
+        InOrder inOrder = inOrder(mockOutputStream, mockMetricReporter);
+        inOrder.verify(mockMetricReporter).reportCounter(MetricsReporter.PxfMetric.RECORDS_SENT, 2, mockContext);
+        inOrder.verify(mockMetricReporter).reportTimer(same(MetricsReporter.PxfMetric.FRAGMENTS_SENT), any(Duration.class), same(mockContext), eq(true));
+        inOrder.verify(mockOutputStream).write("helloworld!".getBytes(StandardCharsets.UTF_8), 0, 11);
+        inOrder.verify(mockOutputStream).flush();
+        inOrder.verify(mockMetricReporter).reportCounter(MetricsReporter.PxfMetric.BYTES_SENT, 11, mockContext);
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    public void testReadDataWithOutputBufferDoesNotCountBytesNotSent() throws Exception {
+        pxfServerProperties.getRead().setOutputBufferSize(1024);
+        readService = new ReadServiceImpl(mockConfigurationFactory, mockBridgeFactory, mockSecurityService,
+                mockFragmenterService, mockMetricReporter, pxfServerProperties, new TaskExecutorAdapter(Runnable::run));
+        when(mockMetricReporter.getReportFrequency()).thenReturn(1L);
+        when(mockFragmentList.size()).thenReturn(1);
+        when(mockFragmentList.get(0)).thenReturn(mockFragment1);
+        when(mockBridgeFactory.getBridge(mockContext)).thenReturn(mockBridge1);
+        when(mockBridge1.beginIteration()).thenReturn(true);
+        when(mockBridge1.getNext()).thenReturn(mockRecord1, null);
+        doAnswer(writeTestData("hello")).when(mockRecord1).write(any(DataOutputStream.class));
+        doThrow(new IOException("Broken pipe")).when(mockOutputStream).write(any(byte[].class), anyInt(), anyInt());
+
+        assertThrows(PxfRuntimeException.class, () -> readService.readData(mockContext, mockOutputStream));
+
+        verify(mockMetricReporter).reportCounter(MetricsReporter.PxfMetric.RECORDS_SENT, 1, mockContext);
+        verify(mockMetricReporter, never()).reportCounter(same(MetricsReporter.PxfMetric.BYTES_SENT), anyLong(), any());
     }
 
     @Test
@@ -255,6 +315,186 @@ public class ReadServiceImplTest {
         inOrder.verifyNoMoreInteractions();
     }
 
+    @Test
+    public void testReadDataMultiFragmentWithPrefetch() throws Exception {
+        when(mockMetricReporter.getReportFrequency()).thenReturn(2L);
+        when(mockContext.getOption(ReadServiceImpl.PREFETCH_DEPTH_OPTION, 0, true)).thenReturn(1);
+        when(mockContext.copy()).thenReturn(mockFragmentContext1, mockFragmentContext2);
+        when(mockFragmentList.size()).thenReturn(2);
+        when(mockBridgeFactory.getBridge(mockFragmentContext1)).thenReturn(mockBridge1);
+        when(mockBridgeFactory.getBridge(mockFragmentContext2)).thenReturn(mockBridge2);
+
+        // 1st frag
+        when(mockFragmentList.get(0)).thenReturn(mockFragment1);
+        when(mockBridge1.beginIteration()).thenReturn(true);
+        when(mockBridge1.getNext()).thenReturn(mockRecord1).thenReturn(null);
+        doAnswer(writeTestData("hello")).when(mockRecord1).write(any(DataOutputStream.class));
+
+        // 2nd frag
+        when(mockFragmentList.get(1)).thenReturn(mockFragment2);
+        when(mockBridge2.beginIteration()).thenReturn(true);
+        when(mockBridge2.getNext()).thenReturn(mockRecord2, mockRecord3, null);
+        doAnswer(writeTestData("world!")).when(mockRecord2).write(any(DataOutputStream.class));
+        doAnswer(writeTestData("Boo!")).when(mockRecord3).write(any(DataOutputStream.class));
+
+        readService.readData(mockContext, mockOutputStream);
+
+        InOrder inOrder = inOrder(mockOutputStream, mockMetricReporter);
+        inOrder.verify(mockOutputStream).write("hello".getBytes(StandardCharsets.UTF_8), 0, 5);
+        inOrder.verify(mockMetricReporter).reportCounter(MetricsReporter.PxfMetric.RECORDS_SENT, 1, mockFragmentContext1);
+        inOrder.verify(mockMetricReporter).reportCounter(MetricsReporter.PxfMetric.BYTES_SENT, 5, mockFragmentContext1);
+        inOrder.verify(mockMetricReporter).reportTimer(same(MetricsReporter.PxfMetric.FRAGMENTS_SENT), any(Duration.class), same(mockFragmentContext1), eq(true));
+        inOrder.verify(mockOutputStream).write("world!".getBytes(StandardCharsets.UTF_8), 0, 6);
+        inOrder.verify(mockOutputStream).write("Boo!".getBytes(StandardCharsets.UTF_8), 0, 4);
+        inOrder.verify(mockMetricReporter).reportCounter(MetricsReporter.PxfMetric.RECORDS_SENT, 2, mockFragmentContext2);
+        inOrder.verify(mockMetricReporter).reportCounter(MetricsReporter.PxfMetric.BYTES_SENT, 10, mockFragmentContext2);
+        inOrder.verify(mockMetricReporter).reportTimer(same(MetricsReporter.PxfMetric.FRAGMENTS_SENT), any(Duration.class), same(mockFragmentContext2), eq(true));
+        inOrder.verifyNoMoreInteractions();
+
+        verify(mockBridge1).endIteration();
+        verify(mockBridge2).endIteration();
+    }
+
+    @Test
+    public void testReadDataWithPrefetchReportsFilteredRecords() throws Exception {
+        when(mockMetricReporter.getReportFrequency()).thenReturn(2L);
+        when(mockContext.getOption(ReadServiceImpl.PREFETCH_DEPTH_OPTION, 0, true)).thenReturn(1);
+        when(mockContext.copy()).thenReturn(mockFragmentContext1, mockFragmentContext2);
+        when(mockFragmentList.size()).thenReturn(2);
+        when(mockFragmentList.get(0)).thenReturn(mockFragment1);
+        when(mockFragmentList.get(1)).thenReturn(mockFragment2);
+        when(mockBridgeFactory.getBridge(mockFragmentContext1)).thenReturn(mockBridge1);
+        when(mockBridgeFactory.getBridge(mockFragmentContext2)).thenReturn(mockBridge2);
+
+        // all the records of the 1st frag are filtered
+        when(mockBridge1.beginIteration()).thenReturn(true);
+        when(mockBridge1.getNext()).thenReturn(null);
+        when(mockBridge1.getFilteredRecordCount()).thenReturn(3L);
+
+        when(mockBridge2.beginIteration()).thenReturn(true);
+        when(mockBridge2.getNext()).thenReturn(mockRecord1, null);
+        when(mockBridge2.getFilteredRecordCount()).thenReturn(1L);
+        doAnswer(writeTestData("hello")).when(mockRecord1).write(any(DataOutputStream.class));
+
+        readService.readData(mockContext, mockOutputStream);
+
+        verify(mockMetricReporter).reportCounter(MetricsReporter.PxfMetric.RECORDS_FILTERED, 3, mockFragmentContext1);
+        verify(mockMetricReporter).reportCounter(MetricsReporter.PxfMetric.RECORDS_FILTERED, 1, mockFragmentContext2);
+        verify(mockMetricReporter).reportCounter(MetricsReporter.PxfMetric.RECORDS_SENT, 1, mockFragmentContext2);
+    }
+
+    @Test
+    public void testReadDataWithPrefetchClosesPrefetchedFragmentsOnError() throws Exception {
+        when(mockMetricReporter.getReportFrequency()).thenReturn(1L);
+        when(mockContext.getOption(ReadServiceImpl.PREFETCH_DEPTH_OPTION, 0, true)).thenReturn(1);
+        when(mockContext.copy()).thenReturn(mockFragmentContext1, mockFragmentContext2);
+        when(mockFragmentList.size()).thenReturn(2);
+        when(mockFragmentList.get(0)).thenReturn(mockFragment1);
+        when(mockFragmentList.get(1)).thenReturn(mockFragment2);
+        when(mockBridgeFactory.getBridge(mockFragmentContext1)).thenReturn(mockBridge1);
+        when(mockBridgeFactory.getBridge(mockFragmentContext2)).thenReturn(mockBridge2);
+        when(mockBridge1.beginIteration()).thenThrow(new Exception("open failed"));
+        when(mockBridge2.beginIteration()).thenReturn(true);
+
+        assertThrows(PxfRuntimeException.class, () -> readService.readData(mockContext, mockOutputStream));
+
+        verify(mockBridge1).endIteration();
+        verify(mockBridge2).endIteration();
+        verify(mockBridge2, never()).getNext();
+        verify(mockMetricReporter).reportTimer(same(MetricsReporter.PxfMetric.FRAGMENTS_SENT), any(Duration.class), same(mockFragmentContext1), eq(false));
+    }
+
+    @Test
+    public void testReadDataMultiFragmentInParallelOrdered() throws Exception {
+        ReadServiceImpl parallelReadService = getParallelReadService();
+        when(mockMetricReporter.getReportFrequency()).thenReturn(2L);
+        when(mockContext.getOption(ReadServiceImpl.PARALLELISM_OPTION, 1, true)).thenReturn(2);
+        when(mockContext.copy()).thenReturn(mockFragmentContext1, mockFragmentContext2);
+        when(mockFragmentList.size()).thenReturn(2);
+        when(mockBridgeFactory.getBridge(mockFragmentContext1)).thenReturn(mockBridge1);
+        when(mockBridgeFactory.getBridge(mockFragmentContext2)).thenReturn(mockBridge2);
+
+        // 1st frag
+        when(mockFragmentList.get(0)).thenReturn(mockFragment1);
+        when(mockBridge1.beginIteration()).thenReturn(true);
+        when(mockBridge1.getNext()).thenReturn(mockRecord1).thenReturn(null);
+        doAnswer(writeTestData("hello")).when(mockRecord1).write(any(DataOutputStream.class));
+
+        // 2nd frag
+        when(mockFragmentList.get(1)).thenReturn(mockFragment2);
+        when(mockBridge2.beginIteration()).thenReturn(true);
+        when(mockBridge2.getNext()).thenReturn(mockRecord2, mockRecord3, null);
+        doAnswer(writeTestData("world!")).when(mockRecord2).write(any(DataOutputStream.class));
+        doAnswer(writeTestData("Boo!")).when(mockRecord3).write(any(DataOutputStream.class));
+
+        parallelReadService.readData(mockContext, mockOutputStream);
+
+        // records of a fragment are written in chunks, in the fragment order
+        InOrder inOrder = inOrder(mockOutputStream, mockMetricReporter);
+        inOrder.verify(mockOutputStream).write("hello".getBytes(StandardCharsets.UTF_8), 0, 5);
+        inOrder.verify(mockMetricReporter).reportCounter(MetricsReporter.PxfMetric.RECORDS_SENT, 1, mockFragmentContext1);
+        inOrder.verify(mockMetricReporter).reportCounter(MetricsReporter.PxfMetric.BYTES_SENT, 5, mockFragmentContext1);
+        inOrder.verify(mockMetricReporter).reportTimer(same(MetricsReporter.PxfMetric.FRAGMENTS_SENT), any(Duration.class), same(mockFragmentContext1), eq(true));
+        inOrder.verify(mockOutputStream).write("world!Boo!".getBytes(StandardCharsets.UTF_8), 0, 10);
+        inOrder.verify(mockMetricReporter).reportCounter(MetricsReporter.PxfMetric.RECORDS_SENT, 2, mockFragmentContext2);
+        inOrder.verify(mockMetricReporter).reportCounter(MetricsReporter.PxfMetric.BYTES_SENT, 10, mockFragmentContext2);
+        inOrder.verify(mockMetricReporter).reportTimer(same(MetricsReporter.PxfMetric.FRAGMENTS_SENT), any(Duration.class), same(mockFragmentContext2), eq(true));
+        inOrder.verifyNoMoreInteractions();
+
+        verify(mockBridge1).endIteration();
+        verify(mockBridge2).endIteration();
+    }
+
+    @Test
+    public void testReadDataMultiFragmentInParallelUnordered() throws Exception {
+        ReadServiceImpl parallelReadService = getParallelReadService();
+        when(mockMetricReporter.getReportFrequency()).thenReturn(0L);
+        when(mockContext.getOption(ReadServiceImpl.PARALLELISM_OPTION, 1, true)).thenReturn(2);
+        when(mockContext.getOption(ReadServiceImpl.PARALLEL_MERGE_OPTION)).thenReturn("unordered");
+        when(mockContext.copy()).thenReturn(mockFragmentContext1, mockFragmentContext2);
+        when(mockFragmentList.size()).thenReturn(2);
+        when(mockFragmentList.get(0)).thenReturn(mockFragment1);
+        when(mockFragmentList.get(1)).thenReturn(mockFragment2);
+        when(mockBridgeFactory.getBridge(mockFragmentContext1)).thenReturn(mockBridge1);
+        when(mockBridgeFactory.getBridge(mockFragmentContext2)).thenReturn(mockBridge2);
+        when(mockBridge1.beginIteration()).thenReturn(true);
+        when(mockBridge1.getNext()).thenReturn(mockRecord1).thenReturn(null);
+        doAnswer(writeTestData("hello")).when(mockRecord1).write(any(DataOutputStream.class));
+        when(mockBridge2.beginIteration()).thenReturn(true);
+        when(mockBridge2.getNext()).thenReturn(mockRecord2).thenReturn(null);
+        doAnswer(writeTestData("world!")).when(mockRecord2).write(any(DataOutputStream.class));
+
+        parallelReadService.readData(mockContext, mockOutputStream);
+
+        verify(mockOutputStream).write("hello".getBytes(StandardCharsets.UTF_8), 0, 5);
+        verify(mockOutputStream).write("world!".getBytes(StandardCharsets.UTF_8), 0, 6);
+        verify(mockMetricReporter).reportTimer(same(MetricsReporter.PxfMetric.FRAGMENTS_SENT), any(Duration.class), same(mockFragmentContext1), eq(true));
+        verify(mockMetricReporter).reportTimer(same(MetricsReporter.PxfMetric.FRAGMENTS_SENT), any(Duration.class), same(mockFragmentContext2), eq(true));
+    }
+
+    @Test
+    public void testReadDataInParallelFragmentException() throws Exception {
+        ReadServiceImpl parallelReadService = getParallelReadService();
+        when(mockMetricReporter.getReportFrequency()).thenReturn(0L);
+        when(mockContext.getOption(ReadServiceImpl.PARALLELISM_OPTION, 1, true)).thenReturn(2);
+        when(mockContext.copy()).thenReturn(mockFragmentContext1);
+        when(mockFragmentList.size()).thenReturn(1);
+        when(mockFragmentList.get(0)).thenReturn(mockFragment1);
+        when(mockBridgeFactory.getBridge(mockFragmentContext1)).thenReturn(mockBridge1);
+        when(mockBridge1.beginIteration()).thenReturn(true);
+        when(mockBridge1.getNext()).thenThrow(new Exception("read failed"));
+
+        assertThrows(PxfRuntimeException.class, () -> parallelReadService.readData(mockContext, mockOutputStream));
+
+        verify(mockBridge1).endIteration();
+        verify(mockMetricReporter).reportTimer(same(MetricsReporter.PxfMetric.FRAGMENTS_SENT), any(Duration.class), same(mockFragmentContext1), eq(false));
+    }
+
+    private ReadServiceImpl getParallelReadService() {
+        return new ReadServiceImpl(mockConfigurationFactory, mockBridgeFactory, mockSecurityService,
+                mockFragmenterService, mockMetricReporter, pxfServerProperties, new SimpleAsyncTaskExecutor());
+    }
+
     // helper for writing mock record to a mock output stream
     // mockOutputStream -> CountingOutputStream -> DataOutputStream
     // in order for the us to see the side-effect of CountingOutputStream,
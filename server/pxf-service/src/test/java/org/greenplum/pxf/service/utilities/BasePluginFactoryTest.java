@@ -0,0 +1,166 @@
+package org.greenplum.pxf.service.utilities;
+
+import org.greenplum.pxf.api.model.BasePlugin;
+import org.greenplum.pxf.api.model.Plugin;
+import org.greenplum.pxf.api.model.RequestContext;
+import org.greenplum.pxf.api.model.ResettablePlugin;
+import org.greenplum.pxf.service.bridge.TestResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BasePluginFactoryTest {
+
+    private RequestContext context;
+
+    @BeforeEach
+    public void setup() {
+        context = new RequestContext();
+        context.setUser("alice");
+    }
+
+    @Test
+    public void testGetPlugin() {
+        BasePluginFactory factory = new BasePluginFactory();
+        Plugin first = factory.getPlugin(context, TestResolver.class.getName());
+        Plugin second = factory.getPlugin(context, TestResolver.class.getName());
+
+        assertTrue(first instanceof TestResolver);
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void testGetPluginBlankClassName() {
+        BasePluginFactory factory = new BasePluginFactory();
+        Exception e = assertThrows(RuntimeException.class, () -> factory.getPlugin(context, " "));
+        assertEquals("Could not determine plugin class name", e.getMessage());
+    }
+
+    @Test
+    public void testGetPluginNotAPlugin() {
+        BasePluginFactory factory = new BasePluginFactory();
+        Exception e = assertThrows(RuntimeException.class, () -> factory.getPlugin(context, String.class.getName()));
+        assertEquals("Class java.lang.String does not implement Plugin interface", e.getMessage());
+    }
+
+    @Test
+    public void testGetPluginWithoutEmptyConstructor() {
+        BasePluginFactory factory = new BasePluginFactory();
+        String className = NoEmptyConstructorPlugin.class.getName();
+        Exception e = assertThrows(RuntimeException.class, () -> factory.getPlugin(context, className));
+        assertEquals(String.format("Class %s does not have an empty constructor", className), e.getMessage());
+    }
+
+    @Test
+    public void testGetPluginConstructorFails() {
+        BasePluginFactory factory = new BasePluginFactory();
+        Exception e = assertThrows(RuntimeException.class, () -> factory.getPlugin(context, FailingPlugin.class.getName()));
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        assertEquals("constructor failed", e.getCause().getMessage());
+    }
+
+    @Test
+    public void testReleasedResettablePluginIsReused() {
+        BasePluginFactory factory = new BasePluginFactory();
+        CountingPlugin first = factory.getPlugin(context, CountingPlugin.class.getName());
+        factory.releasePlugin(first);
+
+        RequestContext newContext = new RequestContext();
+        newContext.setUser("bob");
+        CountingPlugin second = factory.getPlugin(newContext, CountingPlugin.class.getName());
+
+        assertSame(first, second);
+        assertSame(newContext, second.getContext());
+        // the setup is done once for the instance
+        assertEquals(1, second.initCount);
+        assertEquals(1, second.resetCount);
+
+        // the pool is empty until the plugin is released again
+        assertNotSame(second, factory.getPlugin(newContext, CountingPlugin.class.getName()));
+    }
+
+    @Test
+    public void testPluginIsNotReusedWhenResetFails() {
+        BasePluginFactory factory = new BasePluginFactory();
+        CountingPlugin first = factory.getPlugin(context, CountingPlugin.class.getName());
+        first.reusable = false;
+        factory.releasePlugin(first);
+
+        CountingPlugin second = factory.getPlugin(context, CountingPlugin.class.getName());
+        assertNotSame(first, second);
+        assertEquals(1, first.resetCount);
+        assertEquals(1, second.initCount);
+    }
+
+    @Test
+    public void testPluginsAreNotReusedWhenPoolIsDisabled() {
+        BasePluginFactory factory = new BasePluginFactory(0);
+        CountingPlugin first = factory.getPlugin(context, CountingPlugin.class.getName());
+        factory.releasePlugin(first);
+
+        assertNotSame(first, factory.getPlugin(context, CountingPlugin.class.getName()));
+    }
+
+    @Test
+    public void testPoolIsBounded() {
+        BasePluginFactory factory = new BasePluginFactory(1);
+        CountingPlugin first = factory.getPlugin(context, CountingPlugin.class.getName());
+        CountingPlugin second = factory.getPlugin(context, CountingPlugin.class.getName());
+        factory.releasePlugin(first);
+        factory.releasePlugin(second);
+
+        assertSame(first, factory.getPlugin(context, CountingPlugin.class.getName()));
+        assertNotSame(second, factory.getPlugin(context, CountingPlugin.class.getName()));
+    }
+
+    @Test
+    public void testReleaseOfNonResettablePlugin() {
+        BasePluginFactory factory = new BasePluginFactory();
+        Plugin first = factory.getPlugin(context, TestResolver.class.getName());
+        factory.releasePlugin(first);
+        factory.releasePlugin(null);
+
+        assertNotSame(first, factory.getPlugin(context, TestResolver.class.getName()));
+    }
+
+    public static class CountingPlugin extends BasePlugin implements ResettablePlugin {
+
+        private int initCount;
+        private int resetCount;
+        private boolean reusable = true;
+
+        @Override
+        public void afterPropertiesSet() {
+            initCount++;
+        }
+
+        @Override
+        public boolean reset(RequestContext context) {
+            resetCount++;
+            setRequestContext(context);
+            return reusable;
+        }
+
+        RequestContext getContext() {
+            return context;
+        }
+    }
+
+    public static class NoEmptyConstructorPlugin extends BasePlugin {
+
+        public NoEmptyConstructorPlugin(String name) {
+        }
+    }
+
+    public static class FailingPlugin extends BasePlugin {
+
+        public FailingPlugin() {
+            throw new IllegalStateException("constructor failed");
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.greenplum.pxf.service.utilities;
+
+import org.greenplum.pxf.api.examples.DemoFragmentMetadata;
+import org.greenplum.pxf.api.model.Fragment;
+import org.greenplum.pxf.plugins.hdfs.HcfsFragmentMetadata;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalityFragmentAssignerTest {
+
+    @Test
+    public void testAssignLocalFragments() {
+        LocalityFragmentAssigner assigner = new LocalityFragmentAssigner(Arrays.asList("sdw1", "sdw2"));
+        List<Fragment> fragments = Arrays.asList(
+                fragment("f0", "sdw2"),
+                fragment("f1", "sdw1"),
+                fragment("f2", "sdw2"),
+                fragment("f3", "sdw1"));
+
+        assertEquals(Arrays.asList("f1", "f3"), getSourceNames(assigner.assign(fragments, 0, 0)));
+        assertEquals(Arrays.asList("f0", "f2"), getSourceNames(assigner.assign(fragments, 1, 0)));
+    }
+
+    @Test
+    public void testAssignDoesNotExceedFairShare() {
+        LocalityFragmentAssigner assigner = new LocalityFragmentAssigner(Arrays.asList("sdw1", "sdw1", "sdw2", "sdw2"));
+        List<Fragment> fragments = new LinkedList<>();
+        for (int i = 0; i < 8; i++) {
+            fragments.add(fragment("f" + i, "sdw1"));
+        }
+
+        // the segments on sdw1 get their share of 2 fragments, the rest is read remotely by the segments on sdw2
+        assertEquals(Arrays.asList("f0", "f2"), getSourceNames(assigner.assign(fragments, 0, 0)));
+        assertEquals(Arrays.asList("f1", "f3"), getSourceNames(assigner.assign(fragments, 1, 0)));
+        assertEquals(Arrays.asList("f4", "f6"), getSourceNames(assigner.assign(fragments, 2, 0)));
+        assertEquals(Arrays.asList("f5", "f7"), getSourceNames(assigner.assign(fragments, 3, 0)));
+    }
+
+    @Test
+    public void testAssignReplicatedFragmentToLeastLoadedSegment() {
+        LocalityFragmentAssigner assigner = new LocalityFragmentAssigner(Arrays.asList("sdw1", "sdw2", "sdw3"));
+        List<Fragment> fragments = Arrays.asList(
+                fragment("f0", "sdw1", "sdw2"),
+                fragment("f1", "sdw1", "sdw2"),
+                fragment("f2", "sdw2", "sdw3"));
+
+        assertEquals(Collections.singletonList("f0"), getSourceNames(assigner.assign(fragments, 0, 0)));
+        assertEquals(Collections.singletonList("f1"), getSourceNames(assigner.assign(fragments, 1, 0)));
+        assertEquals(Collections.singletonList("f2"), getSourceNames(assigner.assign(fragments, 2, 0)));
+    }
+
+    @Test
+    public void testAssignUsesShiftToBreakTies() {
+        LocalityFragmentAssigner assigner = new LocalityFragmentAssigner(Arrays.asList("sdw1", "sdw1", "sdw1"));
+        List<Fragment> fragments = Collections.singletonList(fragment("f0", "sdw1"));
+
+        assertEquals(Collections.emptyList(), getSourceNames(assigner.assign(fragments, 0, 2)));
+        assertEquals(Collections.emptyList(), getSourceNames(assigner.assign(fragments, 1, 2)));
+        assertEquals(Collections.singletonList("f0"), getSourceNames(assigner.assign(fragments, 2, 2)));
+        // the shift wraps around the number of segments
+        assertEquals(Collections.singletonList("f0"), getSourceNames(assigner.assign(fragments, 1, 4)));
+    }
+
+    @Test
+    public void testAssignFragmentsWithoutHosts() {
+        LocalityFragmentAssigner assigner = new LocalityFragmentAssigner(Arrays.asList("sdw1", "sdw2"));
+        List<Fragment> fragments = Arrays.asList(
+                new Fragment("f0", new DemoFragmentMetadata()),
+                new Fragment("f1"),
+                fragment("f2", "sdw1"),
+                fragment("f3", "unknown"));
+
+        assertEquals(Arrays.asList("f1", "f2"), getSourceNames(assigner.assign(fragments, 0, 0)));
+        assertEquals(Arrays.asList("f0", "f3"), getSourceNames(assigner.assign(fragments, 1, 0)));
+    }
+
+    @Test
+    public void testIsLocal() {
+        LocalityFragmentAssigner assigner = new LocalityFragmentAssigner(Arrays.asList("sdw1.example.com", "SDW2", "10.0.0.3"));
+
+        assertTrue(assigner.isLocal(fragment("f0", "sdw1"), 0));
+        assertTrue(assigner.isLocal(fragment("f0", "sdw3", "sdw2.example.com"), 1));
+        assertTrue(assigner.isLocal(fragment("f0", "10.0.0.3"), 2));
+        assertFalse(assigner.isLocal(fragment("f0", "10.0.0.4"), 2));
+        assertFalse(assigner.isLocal(fragment("f0", "sdw2"), 0));
+        assertFalse(assigner.isLocal(new Fragment("f0", new DemoFragmentMetadata()), 0));
+        assertEquals(3, assigner.getTotalSegments());
+    }
+
+    @Test
+    public void testHasHosts() {
+        assertFalse(LocalityFragmentAssigner.hasHosts(Collections.emptyList()));
+        assertFalse(LocalityFragmentAssigner.hasHosts(Arrays.asList(
+                new Fragment("f0"), new Fragment("f1", new DemoFragmentMetadata()))));
+        assertTrue(LocalityFragmentAssigner.hasHosts(Arrays.asList(
+                new Fragment("f0"), fragment("f1", "sdw1"))));
+    }
+
+    private Fragment fragment(String name, String... hosts) {
+        return new Fragment(name, new HcfsFragmentMetadata(0, 100, hosts));
+    }
+
+    private List<String> getSourceNames(List<Fragment> fragments) {
+        List<String> names = new ArrayList<>();
+        for (Fragment fragment : fragments) {
+            names.add(fragment.getSourceName());
+        }
+        return names;
+    }
+}